@@ -0,0 +1,169 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.ojalgo.AbstractBenchmark;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares the Raw* (JAMA derived) implementations with the corresponding *Decomposition implementations.
+ * The input matrix is symmetric positive definite so that every decomposition is applicable.
+ *
+ * @author apete
+ */
+public class DecompositionBenchmark extends AbstractBenchmark {
+
+    public static enum Implementation {
+
+        CHOLESKY {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return Cholesky.makePrimitive();
+            }
+
+        },
+
+        CHOLESKY_RAW {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return new RawCholesky();
+            }
+
+        },
+
+        EVD {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return Eigenvalue.makePrimitive(true);
+            }
+
+        },
+
+        EVD_RAW {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return new RawEigenvalue.Symmetric();
+            }
+
+        },
+
+        LU {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return org.ojalgo.matrix.decomposition.LU.makePrimitive();
+            }
+
+        },
+
+        LU_RAW {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return new RawLU();
+            }
+
+        },
+
+        QR {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return org.ojalgo.matrix.decomposition.QR.makePrimitive();
+            }
+
+        },
+
+        QR_RAW {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return new RawQR();
+            }
+
+        },
+
+        SVD {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return SingularValue.makePrimitive();
+            }
+
+        },
+
+        SVD_RAW {
+
+            @Override
+            MatrixDecomposition<Double> make() {
+                return new RawSingularValue();
+            }
+
+        };
+
+        abstract MatrixDecomposition<Double> make();
+
+    }
+
+    @Param({ "10", "100", "500", "1000" })
+    public int dim;
+
+    @Param
+    public Implementation implementation;
+
+    private MatrixDecomposition<Double> myDecomposition;
+    private MatrixStore<Double> myMatrix;
+
+    public DecompositionBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public boolean decompose() {
+        return myDecomposition.decompose(myMatrix);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Uniform());
+
+        final PrimitiveDenseStore tmpMatrix = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+        tmpMatrix.fillByMultiplying(tmpRandom.transpose(), tmpRandom);
+        tmpMatrix.modifyDiagonal(0L, 0L, PrimitiveFunction.ADD.second(dim));
+
+        myMatrix = tmpMatrix;
+        myDecomposition = implementation.make();
+    }
+
+}
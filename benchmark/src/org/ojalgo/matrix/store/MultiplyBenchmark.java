@@ -0,0 +1,78 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.AbstractBenchmark;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * [C] = [A][B] with {@linkplain PrimitiveDenseStore} and {@linkplain RawStore}.
+ *
+ * @author apete
+ */
+public class MultiplyBenchmark extends AbstractBenchmark {
+
+    @Param({ "10", "100", "500", "1000", "2000" })
+    public int dim;
+
+    private PrimitiveDenseStore myPrimitiveLeft;
+    private PrimitiveDenseStore myPrimitiveProduct;
+    private PrimitiveDenseStore myPrimitiveRight;
+    private RawStore myRawLeft;
+    private RawStore myRawRight;
+
+    public MultiplyBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public MatrixStore<Double> primitive() {
+        return myPrimitiveLeft.multiply(myPrimitiveRight);
+    }
+
+    @Benchmark
+    public MatrixStore<Double> primitiveFill() {
+        myPrimitiveProduct.fillByMultiplying(myPrimitiveLeft, myPrimitiveRight);
+        return myPrimitiveProduct;
+    }
+
+    @Benchmark
+    public MatrixStore<Double> raw() {
+        return myRawLeft.multiply(myRawRight);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        myPrimitiveLeft = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Uniform());
+        myPrimitiveRight = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Uniform());
+        myPrimitiveProduct = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+
+        myRawLeft = RawStore.FACTORY.copy(myPrimitiveLeft);
+        myRawRight = RawStore.FACTORY.copy(myPrimitiveRight);
+    }
+
+}
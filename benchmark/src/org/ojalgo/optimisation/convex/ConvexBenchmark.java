@@ -0,0 +1,79 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import org.ojalgo.AbstractBenchmark;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * A portfolio-like QP solved by {@linkplain ActiveSetSolver}: min 1/2 [x]<sup>T</sup>[Q][x] - [c]<sup>T</sup>[x]
+ * when 0 &lt;= [x] &lt;= 0.5 and sum([x]) &lt;= 1. [Q] is a random, positive definite, covariance-like matrix.
+ *
+ * @author apete
+ */
+public class ConvexBenchmark extends AbstractBenchmark {
+
+    @Param({ "10", "50", "100", "200" })
+    public int dim;
+
+    private PrimitiveDenseStore myAI;
+    private PrimitiveDenseStore myBI;
+    private PrimitiveDenseStore myC;
+    private PrimitiveDenseStore myQ;
+
+    public ConvexBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public Optimisation.Result activeSet() {
+        return ConvexSolver.getBuilder(myQ, myC).inequalities(myAI, myBI).build().solve();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Uniform(-0.5, 1.0));
+
+        myQ = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+        myQ.fillByMultiplying(tmpRandom.transpose(), tmpRandom);
+
+        myC = PrimitiveDenseStore.FACTORY.makeFilled(dim, 1, new Uniform(0.0, 1.0));
+
+        myAI = PrimitiveDenseStore.FACTORY.makeZero(dim + dim + 1, dim);
+        myBI = PrimitiveDenseStore.FACTORY.makeZero(dim + dim + 1, 1);
+        for (int j = 0; j < dim; j++) {
+            myAI.set(j, j, 1.0);
+            myBI.set(j, 0, 0.5);
+            myAI.set(dim + j, j, -1.0);
+            myAI.set(dim + dim, j, 1.0);
+        }
+        myBI.set(dim + dim, 0, 1.0);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import org.ojalgo.AbstractBenchmark;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * A random multi-dimensional 0-1 knapsack problem solved with the old and the new integer solvers.
+ *
+ * @author apete
+ */
+public class IntegerBenchmark extends AbstractBenchmark {
+
+    public static enum Implementation {
+
+        NEW {
+
+            @Override
+            IntegerSolver make(final ExpressionsBasedModel model) {
+                return new NewIntegerSolver(model, model.options);
+            }
+
+        },
+
+        OLD {
+
+            @Override
+            IntegerSolver make(final ExpressionsBasedModel model) {
+                return new OldIntegerSolver(model, model.options);
+            }
+
+        };
+
+        abstract IntegerSolver make(ExpressionsBasedModel model);
+
+    }
+
+    @Param({ "10", "20", "30" })
+    public int dim;
+
+    @Param
+    public Implementation implementation;
+
+    private ExpressionsBasedModel myModel;
+
+    public IntegerBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public Optimisation.Result solve() {
+        return implementation.make(myModel).solve();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        final Uniform tmpUniform = new Uniform(1.0, 9.0);
+
+        final Variable[] tmpVariables = new Variable[dim];
+        for (int j = 0; j < dim; j++) {
+            tmpVariables[j] = Variable.makeBinary("X" + j).weight(tmpUniform.doubleValue());
+        }
+
+        myModel = new ExpressionsBasedModel(tmpVariables);
+
+        for (int i = 0; i < 3; i++) {
+            final Expression tmpKnapsack = myModel.addExpression("Knapsack" + i);
+            double tmpTotal = 0.0;
+            for (int j = 0; j < dim; j++) {
+                final double tmpSize = tmpUniform.doubleValue();
+                tmpKnapsack.setLinearFactor(j, tmpSize);
+                tmpTotal += tmpSize;
+            }
+            tmpKnapsack.upper(tmpTotal / 2.0);
+        }
+
+        myModel.setMaximisation();
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import org.ojalgo.AbstractBenchmark;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.random.Uniform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * A dense, feasible and bounded standard form LP: max [c]<sup>T</sup>[x] when [A][x] + [s] == [b] with random
+ * positive [A], [b] and [c]. The problem has {@link #dim} constraints and {@link #dim} structural variables.
+ * It is solved with both the dense tableau and the revised simplex implementations, chosen by setting
+ * {@linkplain Optimisation.Options#sparse}.
+ *
+ * @author apete
+ */
+public class LinearBenchmark extends AbstractBenchmark {
+
+    public static enum Implementation {
+
+        REVISED(0L), TABLEAU(Long.MAX_VALUE);
+
+        private final long mySparse;
+
+        Implementation(final long sparse) {
+            mySparse = sparse;
+        }
+
+        Optimisation.Options options() {
+            final Optimisation.Options retVal = new Optimisation.Options();
+            retVal.sparse = mySparse;
+            return retVal;
+        }
+
+    }
+
+    @Param({ "10", "50", "100", "200" })
+    public int dim;
+
+    @Param
+    public Implementation implementation;
+
+    private PrimitiveDenseStore myAE;
+    private PrimitiveDenseStore myBE;
+    private PrimitiveDenseStore myC;
+    private Optimisation.Options myOptions;
+
+    public LinearBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public Optimisation.Result simplex() {
+        return LinearSolver.getBuilder(myC).equalities(myAE, myBE).build(myOptions).solve();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        myOptions = implementation.options();
+
+        final Uniform tmpUniform = new Uniform(1.0, 9.0);
+
+        myAE = PrimitiveDenseStore.FACTORY.makeZero(dim, dim + dim);
+        myBE = PrimitiveDenseStore.FACTORY.makeZero(dim, 1);
+        myC = PrimitiveDenseStore.FACTORY.makeZero(dim + dim, 1);
+
+        for (int i = 0; i < dim; i++) {
+            for (int j = 0; j < dim; j++) {
+                myAE.set(i, j, tmpUniform.doubleValue());
+            }
+            myAE.set(i, dim + i, 1.0);
+            myBE.set(i, 0, dim * tmpUniform.doubleValue());
+            myC.set(i, 0, -tmpUniform.doubleValue());
+        }
+    }
+
+}
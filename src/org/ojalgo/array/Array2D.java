@@ -239,6 +239,14 @@ public final class Array2D<N extends Number> implements Access2D<N>, Access2D.El
             return tmpDelegate.asArray2D(tmpRows);
         }
 
+        /**
+         * @param array The elements, in column-major order
+         * @param rows The number of rows
+         */
+        public final Array2D<N> wrap(final BasicArray<N> array, final long rows) {
+            return array.asArray2D(rows);
+        }
+
         abstract BasicArray.BasicFactory<N> delegate();
 
     }
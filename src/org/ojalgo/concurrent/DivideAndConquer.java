@@ -21,18 +21,100 @@
  */
 package org.ojalgo.concurrent;
 
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
 
 import org.ojalgo.OjAlgoUtils;
 import org.ojalgo.ProgrammingError;
 
 /**
+ * Recursively splits an index range in halves, and executes the parts in parallel, until the parts are small
+ * enough to {@linkplain #conquer(int, int)}. The parts are executed on a dedicated work-stealing
+ * {@linkplain ForkJoinPool}. The calling thread always does (at least) half the work itself, and a thread
+ * waiting for a part to complete helps out executing other parts rather than blocking. This makes it safe to
+ * nest divide-and-conquer operations, a multiplication within a decomposition within a branch-and-bound node
+ * worker, without starving the pool.
+ *
  * @author apete
  */
 public abstract class DivideAndConquer extends Object {
 
+    static final class Part extends RecursiveAction {
+
+        private static final long serialVersionUID = 2478371427664395743L;
+
+        private final DivideAndConquer myConquerer;
+        private final int myFirst;
+        private final int myLimit;
+        private final int myThreshold;
+        private final int myWorkers;
+
+        Part(final DivideAndConquer conquerer, final int first, final int limit, final int threshold, final int workers) {
+
+            super();
+
+            myConquerer = conquerer;
+            myFirst = first;
+            myLimit = limit;
+            myThreshold = threshold;
+            myWorkers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            myConquerer.divide(myFirst, myLimit, myThreshold, myWorkers);
+        }
+
+    }
+
+    private static final ForkJoinWorkerThreadFactory FACTORY = new ForkJoinWorkerThreadFactory() {
+
+        public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+
+            final ForkJoinWorkerThread retVal = new ForkJoinWorkerThread(pool) {
+            };
+
+            retVal.setName(PREFIX + retVal.getPoolIndex());
+            retVal.setDaemon(true);
+
+            return retVal;
+        }
+
+    };
+
+    private static final String PREFIX = "ojAlgo-divider-";
+
+    private static volatile ForkJoinPool POOL = new ForkJoinPool(OjAlgoUtils.ENVIRONMENT.threads, FACTORY, null, false);
+
+    /**
+     * @return The parallelism level (number of worker threads) of the pool used to execute the parts.
+     */
+    public static int getParallelism() {
+        return POOL.getParallelism();
+    }
+
+    /**
+     * Replaces the pool used to execute the parts with one having the specified parallelism level. Ongoing
+     * invocations complete using the old pool. The default is {@linkplain OjAlgoUtils#ENVIRONMENT} threads.
+     *
+     * @param parallelism The number of worker threads
+     */
+    public static void setParallelism(final int parallelism) {
+
+        if (parallelism < 1) {
+            throw new ProgrammingError("The parallelism level must be at least 1!");
+        }
+
+        if (parallelism != POOL.getParallelism()) {
+            final ForkJoinPool tmpOldPool = POOL;
+            POOL = new ForkJoinPool(parallelism, FACTORY, null, false);
+            tmpOldPool.shutdown();
+        }
+    }
+
     public DivideAndConquer() {
         super();
     }
@@ -46,7 +128,7 @@ public abstract class DivideAndConquer extends Object {
      */
     public final void invoke(final int first, final int limit, final int threshold) {
         final int tmpThreshold = Math.max(1, (threshold * threshold) / (limit - first));
-        final int tmpWorkers = OjAlgoUtils.ENVIRONMENT.threads;
+        final int tmpWorkers = POOL.getParallelism();
         this.divide(first, limit, tmpThreshold, tmpWorkers);
     }
 
@@ -59,32 +141,26 @@ public abstract class DivideAndConquer extends Object {
         if ((tmpCount > threshold) && (workers > 1)) {
 
             final int tmpSplit = first + (tmpCount / 2);
-            final int tmpWorkers = workers / 2;
+            final int tmpFirstWorkers = workers / 2;
 
-            final Future<Void> tmpFirstPart = DaemonPoolExecutor.INSTANCE.submit(new Callable<Void>() {
+            final Part tmpSecondPart = new Part(this, tmpSplit, limit, threshold, workers - tmpFirstWorkers);
 
-                public Void call() {
-                    DivideAndConquer.this.divide(first, tmpSplit, threshold, tmpWorkers);
-                    return null;
-                }
-            });
-
-            final Future<Void> tmpSecondPart = DaemonPoolExecutor.INSTANCE.submit(new Callable<Void>() {
-
-                public Void call() {
-                    DivideAndConquer.this.divide(tmpSplit, limit, threshold, tmpWorkers);
-                    return null;
-                }
-            });
+            final ForkJoinPool tmpPool = POOL;
+            if (ForkJoinTask.getPool() == tmpPool) {
+                tmpSecondPart.fork();
+            } else {
+                tmpPool.execute(tmpSecondPart);
+            }
 
             try {
-                tmpFirstPart.get();
-                tmpSecondPart.get();
-            } catch (final InterruptedException | ExecutionException exception) {
-                exception.printStackTrace();
-                throw new ProgrammingError(exception);
+                this.divide(first, tmpSplit, threshold, tmpFirstWorkers);
+            } finally {
+                // Also when the first half failed - don't leave the second half running unobserved
+                tmpSecondPart.quietlyJoin();
             }
 
+            tmpSecondPart.join();
+
         } else {
 
             this.conquer(first, limit);
@@ -0,0 +1,737 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.finance.portfolio;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+
+/**
+ * <p>
+ * The critical line method (a parametric active set method) for the Markowitz problem:
+ * </p>
+ * <p>
+ * min 1/2 [w]<sup>T</sup>[C][w] - t [w]<sup>T</sup>[r] <br>
+ * subject to |[w]| = 1, and lower/upper limits on individual weights as well as on the sums of groups of
+ * weights.
+ * </p>
+ * <p>
+ * With t = 1/RAF the optimal weights are a piecewise linear function of t. Within each (linear) segment the
+ * active set is constant and it only changes at the critical points where a weight or a group sum reaches
+ * one of its limits, or where a lagrange multiplier reaches zero. Starting from one solved point the entire
+ * path is traced, in both directions, solving one KKT system per critical point. Any point on the efficient
+ * frontier, whether specified by risk aversion, target return or target variance, can then be found without
+ * any further optimisation.
+ * </p>
+ *
+ * @author apete
+ */
+final class CriticalLine {
+
+    private static final class Group {
+
+        final int[] indices;
+        final double lower;
+        final double upper;
+        int state = FREE;
+
+        Group(final int[] someIndices, final double aLower, final double anUpper) {
+
+            super();
+
+            indices = someIndices;
+            lower = aLower;
+            upper = anUpper;
+        }
+
+        boolean isFixed() {
+            return lower == upper;
+        }
+
+    }
+
+    /**
+     * [w] = [alpha] + t [beta] for t in [from, to]
+     */
+    private static final class Segment {
+
+        final double[] alpha;
+        final double[] beta;
+        double from = ZERO;
+        /**
+         * The (reduced) gradient of the variables at one of their limits
+         */
+        final double[] gradientAlpha;
+        final double[] gradientBeta;
+        /**
+         * The lagrange multipliers of the active groups
+         */
+        final double[] multiplierAlpha;
+        final double[] multiplierBeta;
+        double returnAlpha;
+        double returnBeta;
+        double to = POSITIVE_INFINITY;
+        double varianceAlphaAlpha;
+        double varianceAlphaBeta;
+        double varianceBetaBeta;
+
+        Segment(final int numberOfVariables, final int numberOfGroups) {
+
+            super();
+
+            alpha = new double[numberOfVariables];
+            beta = new double[numberOfVariables];
+            gradientAlpha = new double[numberOfVariables];
+            gradientBeta = new double[numberOfVariables];
+            multiplierAlpha = new double[numberOfGroups];
+            multiplierBeta = new double[numberOfGroups];
+        }
+
+        double getReturn(final double parameter) {
+            return returnAlpha + (parameter * returnBeta);
+        }
+
+        double getVariance(final double parameter) {
+            return varianceAlphaAlpha + (parameter * (TWO * varianceAlphaBeta + (parameter * varianceBetaBeta)));
+        }
+
+        boolean isConstant() {
+            for (int i = 0; i < beta.length; i++) {
+                if (beta[i] != ZERO) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static final int AT_LOWER = -1;
+    private static final int AT_UPPER = 1;
+    private static final double EPSILON = 1.0E-12;
+    private static final int FREE = 0;
+    private static final double START = 1.0E-8;
+
+    private static int classify(final double value, final double lower, final double upper) {
+        if ((lower == upper) || (value <= (lower + (START * (ONE + Math.abs(lower)))))) {
+            return AT_LOWER;
+        } else if (value >= (upper - (START * (ONE + Math.abs(upper))))) {
+            return AT_UPPER;
+        } else {
+            return FREE;
+        }
+    }
+
+    /**
+     * How far a value, changing with the given slope, can move before it reaches one of the limits.
+     */
+    private static double distance(final double value, final double slope, final double lower, final double upper) {
+        if ((slope < ZERO) && (lower != NEGATIVE_INFINITY)) {
+            return Math.max(ZERO, (lower - value) / slope);
+        } else if ((slope > ZERO) && (upper != POSITIVE_INFINITY)) {
+            return Math.max(ZERO, (upper - value) / slope);
+        } else {
+            return POSITIVE_INFINITY;
+        }
+    }
+
+    private final double[][] myCovariances;
+    private double myCovarianceScale = ZERO;
+    private final List<Group> myGroups = new ArrayList<Group>();
+    private final double[] myLowerLimits;
+    private final double[] myReturns;
+    private double myReturnScale = ZERO;
+    private final List<Segment> mySegments = new ArrayList<Segment>();
+    private final int[] myStates;
+    private final double[] myUpperLimits;
+
+    CriticalLine(final Access2D<?> covariances, final Access1D<?> returns) {
+
+        super();
+
+        final int tmpDim = (int) returns.count();
+
+        myCovariances = new double[tmpDim][tmpDim];
+        myReturns = new double[tmpDim];
+        for (int i = 0; i < tmpDim; i++) {
+            for (int j = 0; j < tmpDim; j++) {
+                myCovariances[i][j] = covariances.doubleValue(i, j);
+                myCovarianceScale = Math.max(myCovarianceScale, Math.abs(myCovariances[i][j]));
+            }
+            myReturns[i] = returns.doubleValue(i);
+            myReturnScale = Math.max(myReturnScale, Math.abs(myReturns[i]));
+        }
+
+        myLowerLimits = new double[tmpDim];
+        myUpperLimits = new double[tmpDim];
+        for (int i = 0; i < tmpDim; i++) {
+            myLowerLimits[i] = NEGATIVE_INFINITY;
+            myUpperLimits[i] = POSITIVE_INFINITY;
+        }
+
+        myStates = new int[tmpDim];
+    }
+
+    /**
+     * The max parameter value with a (finite) solution on the path. If the weights continue to change for
+     * any large parameter value it is infinite, otherwise it's the critical point where the max return
+     * portfolio is reached.
+     */
+    double getMaxParameter() {
+        final Segment tmpLast = mySegments.get(mySegments.size() - 1);
+        return tmpLast.isConstant() ? tmpLast.from : tmpLast.to;
+    }
+
+    /**
+     * The parameter value where the path reaches the target return, or as close to it as possible.
+     */
+    double getParameterForReturn(final double target) {
+
+        for (final Segment tmpSegment : mySegments) {
+            if (target <= tmpSegment.getReturn(tmpSegment.from)) {
+                return tmpSegment.from;
+            } else if ((tmpSegment.to == POSITIVE_INFINITY) || (target <= tmpSegment.getReturn(tmpSegment.to))) {
+                if (tmpSegment.returnBeta > ZERO) {
+                    return Math.min(Math.max(tmpSegment.from, (target - tmpSegment.returnAlpha) / tmpSegment.returnBeta), tmpSegment.to);
+                } else {
+                    return tmpSegment.from;
+                }
+            }
+        }
+
+        return this.getMaxParameter();
+    }
+
+    /**
+     * The parameter value where the path reaches the target variance, or as close to it as possible.
+     */
+    double getParameterForVariance(final double target) {
+
+        for (final Segment tmpSegment : mySegments) {
+            if (target <= tmpSegment.getVariance(tmpSegment.from)) {
+                return tmpSegment.from;
+            } else if ((tmpSegment.to == POSITIVE_INFINITY) || (target <= tmpSegment.getVariance(tmpSegment.to))) {
+
+                final double tmpA = tmpSegment.varianceBetaBeta;
+                final double tmpB = TWO * tmpSegment.varianceAlphaBeta;
+                final double tmpC = tmpSegment.varianceAlphaAlpha - target;
+
+                double tmpParameter = tmpSegment.from;
+                if (tmpA > (EPSILON * Math.abs(tmpB))) {
+                    tmpParameter = (Math.sqrt(Math.max(ZERO, (tmpB * tmpB) - (FOUR * tmpA * tmpC))) - tmpB) / (TWO * tmpA);
+                } else if (tmpB > ZERO) {
+                    tmpParameter = -tmpC / tmpB;
+                }
+
+                return Math.min(Math.max(tmpSegment.from, tmpParameter), tmpSegment.to);
+            }
+        }
+
+        return this.getMaxParameter();
+    }
+
+    double getReturn(final double parameter) {
+        return this.getSegment(parameter).getReturn(parameter);
+    }
+
+    double getVariance(final double parameter) {
+        return this.getSegment(parameter).getVariance(parameter);
+    }
+
+    double[] getWeights(final double parameter) {
+
+        final Segment tmpSegment = this.getSegment(parameter);
+
+        final double[] retVal = new double[myReturns.length];
+        for (int i = 0; i < retVal.length; i++) {
+            retVal[i] = tmpSegment.alpha[i] + (parameter * tmpSegment.beta[i]);
+        }
+        return retVal;
+    }
+
+    void group(final int[] indices, final double lower, final double upper) {
+        myGroups.add(new Group(indices, lower, upper));
+    }
+
+    boolean isTraced() {
+        return mySegments.size() > 0;
+    }
+
+    void limits(final int index, final double lower, final double upper) {
+        myLowerLimits[index] = lower;
+        myUpperLimits[index] = upper;
+    }
+
+    /**
+     * @param parameter The (start) parameter value, t = 1/RAF, for which the solution is known
+     * @param solution The optimal weights for that parameter value
+     * @return true if the entire path was traced; false if not (typically because of degeneracy)
+     */
+    boolean trace(final double parameter, final Access1D<?> solution) {
+
+        mySegments.clear();
+
+        final int tmpDim = myReturns.length;
+
+        for (int i = 0; i < tmpDim; i++) {
+            myStates[i] = CriticalLine.classify(solution.doubleValue(i), myLowerLimits[i], myUpperLimits[i]);
+        }
+        for (final Group tmpGroup : myGroups) {
+            double tmpSum = ZERO;
+            for (final int i : tmpGroup.indices) {
+                tmpSum += solution.doubleValue(i);
+            }
+            tmpGroup.state = CriticalLine.classify(tmpSum, tmpGroup.lower, tmpGroup.upper);
+        }
+
+        final int tmpLimit = 4 * (tmpDim + myGroups.size()) + 16;
+
+        Segment tmpStart = null;
+        for (int i = 0; (tmpStart == null) && (i < tmpLimit); i++) {
+            final Segment tmpSegment = this.solve();
+            if (tmpSegment == null) {
+                // Degenerate start point, some active constraint is implied by the others
+                if (this.release()) {
+                    continue;
+                }
+                return false;
+            } else if (!this.correct(tmpSegment, parameter)) {
+                tmpStart = tmpSegment;
+            }
+        }
+        if (tmpStart == null) {
+            return false;
+        }
+
+        final int[] tmpStates = myStates.clone();
+        final int[] tmpGroupStates = new int[myGroups.size()];
+        for (int g = 0; g < tmpGroupStates.length; g++) {
+            tmpGroupStates[g] = myGroups.get(g).state;
+        }
+
+        final List<Segment> tmpUp = this.traverse(tmpStart, parameter, 1, tmpLimit);
+
+        System.arraycopy(tmpStates, 0, myStates, 0, tmpDim);
+        for (int g = 0; g < tmpGroupStates.length; g++) {
+            myGroups.get(g).state = tmpGroupStates[g];
+        }
+
+        final List<Segment> tmpDown = this.traverse(tmpStart, parameter, -1, tmpLimit);
+
+        if ((tmpUp == null) || (tmpDown == null)) {
+            return false;
+        }
+
+        for (int s = tmpDown.size() - 1; s > 0; s--) {
+            mySegments.add(tmpDown.get(s));
+        }
+        mySegments.addAll(tmpUp);
+
+        return true;
+    }
+
+    /**
+     * Checks the start segment for (primal or dual) infeasibility and, if found, modifies the active set.
+     *
+     * @return true if anything was changed
+     */
+    private boolean correct(final Segment segment, final double parameter) {
+
+        final double tmpTolerance = START * (myCovarianceScale + (parameter * myReturnScale));
+
+        for (int i = 0; i < myStates.length; i++) {
+            if (myStates[i] == FREE) {
+                final double tmpValue = segment.alpha[i] + (parameter * segment.beta[i]);
+                if (tmpValue < (myLowerLimits[i] - START)) {
+                    myStates[i] = AT_LOWER;
+                    return true;
+                } else if (tmpValue > (myUpperLimits[i] + START)) {
+                    myStates[i] = AT_UPPER;
+                    return true;
+                }
+            }
+        }
+
+        for (final Group tmpGroup : myGroups) {
+            if (tmpGroup.state == FREE) {
+                double tmpValue = ZERO;
+                for (final int i : tmpGroup.indices) {
+                    tmpValue += segment.alpha[i] + (parameter * segment.beta[i]);
+                }
+                if (tmpValue < (tmpGroup.lower - START)) {
+                    tmpGroup.state = AT_LOWER;
+                    return true;
+                } else if (tmpValue > (tmpGroup.upper + START)) {
+                    tmpGroup.state = AT_UPPER;
+                    return true;
+                }
+            }
+        }
+
+        for (int i = 0; i < myStates.length; i++) {
+            if ((myStates[i] != FREE) && (myLowerLimits[i] != myUpperLimits[i])) {
+                final double tmpGradient = segment.gradientAlpha[i] + (parameter * segment.gradientBeta[i]);
+                if ((myStates[i] * tmpGradient) > tmpTolerance) {
+                    myStates[i] = FREE;
+                    return true;
+                }
+            }
+        }
+
+        for (int g = 0; g < myGroups.size(); g++) {
+            final Group tmpGroup = myGroups.get(g);
+            if ((tmpGroup.state != FREE) && !tmpGroup.isFixed()) {
+                final double tmpMultiplier = segment.multiplierAlpha[g] + (parameter * segment.multiplierBeta[g]);
+                if ((tmpGroup.state * tmpMultiplier) < -tmpTolerance) {
+                    tmpGroup.state = FREE;
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Segment getSegment(final double parameter) {
+        for (final Segment tmpSegment : mySegments) {
+            if (parameter <= tmpSegment.to) {
+                return tmpSegment;
+            }
+        }
+        return mySegments.get(mySegments.size() - 1);
+    }
+
+    /**
+     * Deactivates one of the active constraints - the last group or, if there are no (non fixed) active
+     * groups, the last variable at one of its limits.
+     *
+     * @return false if there was nothing to release
+     */
+    private boolean release() {
+
+        for (int g = myGroups.size() - 1; g >= 0; g--) {
+            final Group tmpGroup = myGroups.get(g);
+            if ((tmpGroup.state != FREE) && !tmpGroup.isFixed()) {
+                tmpGroup.state = FREE;
+                return true;
+            }
+        }
+
+        for (int i = myStates.length - 1; i >= 0; i--) {
+            if ((myStates[i] != FREE) && (myLowerLimits[i] != myUpperLimits[i])) {
+                myStates[i] = FREE;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Solves the KKT system of the current active set, for the constant and the parameter dependent right
+     * hand sides simultaneously.
+     *
+     * @return null if the system is singular
+     */
+    private Segment solve() {
+
+        final int tmpDim = myReturns.length;
+        final int tmpGroupCount = myGroups.size();
+
+        final int[] tmpPositions = new int[tmpDim];
+        final double[] tmpFixed = new double[tmpDim];
+        int tmpFreeCount = 0;
+        for (int i = 0; i < tmpDim; i++) {
+            if (myStates[i] == FREE) {
+                tmpPositions[i] = tmpFreeCount++;
+            } else {
+                tmpPositions[i] = -1;
+                tmpFixed[i] = myStates[i] == AT_LOWER ? myLowerLimits[i] : myUpperLimits[i];
+            }
+        }
+
+        final int[] tmpRows = new int[tmpGroupCount];
+        int tmpActiveCount = 0;
+        for (int g = 0; g < tmpGroupCount; g++) {
+            if (myGroups.get(g).state != FREE) {
+                tmpRows[g] = tmpFreeCount + 1 + tmpActiveCount++;
+            } else {
+                tmpRows[g] = -1;
+            }
+        }
+
+        final int tmpSize = tmpFreeCount + 1 + tmpActiveCount;
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeZero(tmpSize, tmpSize);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeZero(tmpSize, 2);
+
+        for (int i = 0; i < tmpDim; i++) {
+            final int tmpRow = tmpPositions[i];
+            if (tmpRow >= 0) {
+                double tmpConstant = ZERO;
+                for (int j = 0; j < tmpDim; j++) {
+                    final int tmpCol = tmpPositions[j];
+                    if (tmpCol >= 0) {
+                        tmpBody.set(tmpRow, tmpCol, myCovariances[i][j]);
+                    } else {
+                        tmpConstant -= myCovariances[i][j] * tmpFixed[j];
+                    }
+                }
+                tmpRHS.set(tmpRow, 0, tmpConstant);
+                tmpRHS.set(tmpRow, 1, myReturns[i]);
+            }
+        }
+
+        double tmpBalance = ONE;
+        for (int i = 0; i < tmpDim; i++) {
+            final int tmpCol = tmpPositions[i];
+            if (tmpCol >= 0) {
+                tmpBody.set(tmpFreeCount, tmpCol, ONE);
+                tmpBody.set(tmpCol, tmpFreeCount, ONE);
+            } else {
+                tmpBalance -= tmpFixed[i];
+            }
+        }
+        tmpRHS.set(tmpFreeCount, 0, tmpBalance);
+
+        for (int g = 0; g < tmpGroupCount; g++) {
+            final int tmpRow = tmpRows[g];
+            if (tmpRow >= 0) {
+                final Group tmpGroup = myGroups.get(g);
+                double tmpLimit = tmpGroup.state == AT_LOWER ? tmpGroup.lower : tmpGroup.upper;
+                for (final int i : tmpGroup.indices) {
+                    final int tmpCol = tmpPositions[i];
+                    if (tmpCol >= 0) {
+                        tmpBody.set(tmpRow, tmpCol, ONE);
+                        tmpBody.set(tmpCol, tmpRow, ONE);
+                    } else {
+                        tmpLimit -= tmpFixed[i];
+                    }
+                }
+                tmpRHS.set(tmpRow, 0, tmpLimit);
+            }
+        }
+
+        final LU<Double> tmpLU = LU.makePrimitive();
+        if (!tmpLU.compute(tmpBody)) {
+            return null;
+        }
+        final MatrixStore<Double> tmpSolution = tmpLU.solve(tmpRHS);
+
+        final Segment retVal = new Segment(tmpDim, tmpGroupCount);
+
+        final boolean tmpConstant = tmpFreeCount <= (1 + tmpActiveCount);
+        for (int i = 0; i < tmpDim; i++) {
+            final int tmpRow = tmpPositions[i];
+            if (tmpRow >= 0) {
+                retVal.alpha[i] = tmpSolution.doubleValue(tmpRow, 0);
+                retVal.beta[i] = tmpConstant ? ZERO : tmpSolution.doubleValue(tmpRow, 1);
+            } else {
+                retVal.alpha[i] = tmpFixed[i];
+            }
+        }
+
+        final double tmpBalanceAlpha = tmpSolution.doubleValue(tmpFreeCount, 0);
+        final double tmpBalanceBeta = tmpSolution.doubleValue(tmpFreeCount, 1);
+        for (int i = 0; i < tmpDim; i++) {
+
+            double tmpAlpha = ZERO;
+            double tmpBeta = ZERO;
+            for (int j = 0; j < tmpDim; j++) {
+                tmpAlpha += myCovariances[i][j] * retVal.alpha[j];
+                tmpBeta += myCovariances[i][j] * retVal.beta[j];
+            }
+
+            retVal.returnAlpha += myReturns[i] * retVal.alpha[i];
+            retVal.returnBeta += myReturns[i] * retVal.beta[i];
+            retVal.varianceAlphaAlpha += retVal.alpha[i] * tmpAlpha;
+            retVal.varianceAlphaBeta += retVal.alpha[i] * tmpBeta;
+            retVal.varianceBetaBeta += retVal.beta[i] * tmpBeta;
+
+            if (tmpPositions[i] < 0) {
+                retVal.gradientAlpha[i] = tmpAlpha + tmpBalanceAlpha;
+                retVal.gradientBeta[i] = (tmpBeta - myReturns[i]) + tmpBalanceBeta;
+            }
+        }
+
+        for (int g = 0; g < tmpGroupCount; g++) {
+            final int tmpRow = tmpRows[g];
+            if (tmpRow >= 0) {
+                final double tmpAlpha = tmpSolution.doubleValue(tmpRow, 0);
+                final double tmpBeta = tmpSolution.doubleValue(tmpRow, 1);
+                retVal.multiplierAlpha[g] = tmpAlpha;
+                retVal.multiplierBeta[g] = tmpBeta;
+                for (final int i : myGroups.get(g).indices) {
+                    if (tmpPositions[i] < 0) {
+                        retVal.gradientAlpha[i] += tmpAlpha;
+                        retVal.gradientBeta[i] += tmpBeta;
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Follows the path from the start segment, in the given direction, until there are no more critical
+     * points (or the parameter reaches zero).
+     *
+     * @return The segments in the order they were found, or null if failed
+     */
+    private List<Segment> traverse(final Segment start, final double parameter, final int direction, final int limit) {
+
+        final List<Segment> retVal = new ArrayList<Segment>();
+
+        Segment tmpSegment = start;
+        double tmpParameter = parameter;
+        int tmpLastVariable = -1;
+        Group tmpLastGroup = null;
+
+        for (int iter = 0; iter < limit; iter++) {
+
+            retVal.add(tmpSegment);
+
+            final double tmpPrimalTolerance = EPSILON;
+            final double tmpDualTolerance = EPSILON * (myCovarianceScale + (tmpParameter * myReturnScale));
+
+            double tmpStep = direction > 0 ? POSITIVE_INFINITY : tmpParameter;
+            int tmpVariable = -1;
+            Group tmpGroup = null;
+            int tmpState = FREE;
+
+            for (int i = 0; i < myStates.length; i++) {
+
+                final double tmpValue;
+                final double tmpSlope;
+                final double tmpDistance;
+                final double tmpTolerance;
+                if (myStates[i] == FREE) {
+                    tmpValue = tmpSegment.alpha[i] + (tmpParameter * tmpSegment.beta[i]);
+                    tmpSlope = direction * tmpSegment.beta[i];
+                    tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, myLowerLimits[i], myUpperLimits[i]);
+                    tmpTolerance = tmpPrimalTolerance;
+                } else if (myLowerLimits[i] != myUpperLimits[i]) {
+                    tmpValue = tmpSegment.gradientAlpha[i] + (tmpParameter * tmpSegment.gradientBeta[i]);
+                    tmpSlope = direction * tmpSegment.gradientBeta[i];
+                    if (myStates[i] == AT_LOWER) {
+                        tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, ZERO, POSITIVE_INFINITY);
+                    } else {
+                        tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, NEGATIVE_INFINITY, ZERO);
+                    }
+                    tmpTolerance = tmpDualTolerance;
+                } else {
+                    continue;
+                }
+
+                if ((tmpDistance < tmpStep) && ((i != tmpLastVariable) || ((tmpDistance * Math.abs(tmpSlope)) > tmpTolerance))) {
+                    tmpStep = tmpDistance;
+                    tmpVariable = i;
+                    tmpGroup = null;
+                    tmpState = myStates[i] == FREE ? (tmpSlope < ZERO ? AT_LOWER : AT_UPPER) : FREE;
+                }
+            }
+
+            for (int g = 0; g < myGroups.size(); g++) {
+
+                final Group tmpCandidate = myGroups.get(g);
+
+                final double tmpDistance;
+                final double tmpSlope;
+                final double tmpTolerance;
+                if (tmpCandidate.state == FREE) {
+                    double tmpValue = ZERO;
+                    double tmpBeta = ZERO;
+                    for (final int i : tmpCandidate.indices) {
+                        tmpValue += tmpSegment.alpha[i] + (tmpParameter * tmpSegment.beta[i]);
+                        tmpBeta += tmpSegment.beta[i];
+                    }
+                    tmpSlope = direction * tmpBeta;
+                    tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, tmpCandidate.lower, tmpCandidate.upper);
+                    tmpTolerance = tmpPrimalTolerance;
+                } else if (!tmpCandidate.isFixed()) {
+                    final double tmpValue = tmpSegment.multiplierAlpha[g] + (tmpParameter * tmpSegment.multiplierBeta[g]);
+                    tmpSlope = direction * tmpSegment.multiplierBeta[g];
+                    if (tmpCandidate.state == AT_UPPER) {
+                        tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, ZERO, POSITIVE_INFINITY);
+                    } else {
+                        tmpDistance = CriticalLine.distance(tmpValue, tmpSlope, NEGATIVE_INFINITY, ZERO);
+                    }
+                    tmpTolerance = tmpDualTolerance;
+                } else {
+                    continue;
+                }
+
+                if ((tmpDistance < tmpStep) && ((tmpCandidate != tmpLastGroup) || ((tmpDistance * Math.abs(tmpSlope)) > tmpTolerance))) {
+                    tmpStep = tmpDistance;
+                    tmpVariable = -1;
+                    tmpGroup = tmpCandidate;
+                    tmpState = tmpCandidate.state == FREE ? (tmpSlope < ZERO ? AT_LOWER : AT_UPPER) : FREE;
+                }
+            }
+
+            if ((tmpVariable < 0) && (tmpGroup == null)) {
+                // No more critical points
+                if (direction > 0) {
+                    tmpSegment.to = POSITIVE_INFINITY;
+                } else {
+                    tmpSegment.from = ZERO;
+                }
+                return retVal;
+            }
+
+            tmpParameter += direction * tmpStep;
+            if (direction > 0) {
+                tmpSegment.to = tmpParameter;
+            } else {
+                tmpSegment.from = tmpParameter;
+            }
+
+            if (tmpGroup != null) {
+                tmpGroup.state = tmpState;
+            } else {
+                myStates[tmpVariable] = tmpState;
+            }
+            tmpLastVariable = tmpVariable;
+            tmpLastGroup = tmpGroup;
+
+            tmpSegment = this.solve();
+            if (tmpSegment == null) {
+                return null;
+            }
+            if (direction > 0) {
+                tmpSegment.from = tmpParameter;
+            } else {
+                tmpSegment.to = tmpParameter;
+            }
+        }
+
+        return null;
+    }
+
+}
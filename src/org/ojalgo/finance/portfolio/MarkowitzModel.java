@@ -24,12 +24,15 @@ package org.ojalgo.finance.portfolio;
 import static org.ojalgo.constant.BigMath.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.access.Access1D;
+import org.ojalgo.array.Array1D;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.matrix.BasicMatrix;
 import org.ojalgo.optimisation.Expression;
@@ -87,6 +90,11 @@ import org.ojalgo.type.context.NumberContext;
  * <p>
  * To get the optimal asset weighs you simply call {@link #getWeights()} or {@link #getAssetWeights()}.
  * </p>
+ * <p>
+ * Target returns/variances, as well as the {@linkplain #getEfficientFrontier(int) efficient frontier}, are
+ * found by tracing the solution path as a function of the risk aversion factor. That path is piecewise linear
+ * and is traced once (with one KKT system solved per critical point). It's reused until the model is changed.
+ * </p>
  *
  * @author apete
  */
@@ -101,6 +109,7 @@ public final class MarkowitzModel extends EquilibriumModel {
     private static final String VARIANCE = "Variance";
 
     private final HashMap<int[], LowerUpper> myConstraints = new HashMap<int[], LowerUpper>();
+    private transient CriticalLine myCriticalLine;
     private final BasicMatrix myExpectedExcessReturns;
     private transient ExpressionsBasedModel myOptimisationModel;
     private transient State myOptimisationState = State.UNEXPLORED;
@@ -170,6 +179,61 @@ public final class MarkowitzModel extends EquilibriumModel {
         this.reset();
     }
 
+    /**
+     * <p>
+     * The efficient frontier, from the minimum variance portfolio to the maximum return portfolio, as
+     * numberOfPoints portfolios with equidistant (expected) returns. If there is no maximum return portfolio
+     * (shorting is allowed and there are no upper limits) the frontier ends with the optimal portfolio for
+     * the currently set risk aversion factor instead.
+     * </p>
+     * <p>
+     * All the frontier portfolios are found from the same traced solution path - the optimisation problem is
+     * not re-solved for each of them. If the path can't be traced (degenerate problems) the frontier is
+     * instead sampled at risk aversion factors spread geometrically between 10000 and 0.01.
+     * </p>
+     * <p>
+     * Any target return or variance is disregarded, and the frontier does not change the state of this
+     * model.
+     * </p>
+     */
+    public final List<SimplePortfolio> getEfficientFrontier(final int numberOfPoints) {
+
+        if (numberOfPoints < 1) {
+            throw new IllegalArgumentException("Must have at least 1 point!");
+        }
+
+        final List<SimplePortfolio> retVal = new ArrayList<SimplePortfolio>(numberOfPoints);
+
+        final BasicMatrix tmpCorrelations = this.getCorrelations();
+        final CriticalLine tmpCriticalLine = this.getCriticalLine();
+
+        if (tmpCriticalLine.isTraced()) {
+
+            double tmpEnd = tmpCriticalLine.getMaxParameter();
+            if (Double.isInfinite(tmpEnd)) {
+                tmpEnd = PrimitiveMath.ONE / this.getStartRiskAversion();
+            }
+
+            final double tmpLowReturn = tmpCriticalLine.getReturn(_0_0);
+            final double tmpHighReturn = tmpCriticalLine.getReturn(tmpEnd);
+
+            for (int p = 0; p < numberOfPoints; p++) {
+                final double tmpReturn = numberOfPoints > 1 ? tmpLowReturn + (((tmpHighReturn - tmpLowReturn) * p) / (numberOfPoints - 1)) : tmpLowReturn;
+                final double[] tmpWeights = tmpCriticalLine.getWeights(tmpCriticalLine.getParameterForReturn(tmpReturn));
+                retVal.add(this.toSimplePortfolio(tmpCorrelations, Array1D.PRIMITIVE.copy(tmpWeights)));
+            }
+
+        } else {
+
+            for (int p = 0; p < numberOfPoints; p++) {
+                final double tmpRiskAversion = numberOfPoints > 1 ? MAX * Math.pow(MIN / MAX, (double) p / (numberOfPoints - 1)) : MAX;
+                retVal.add(this.toSimplePortfolio(tmpCorrelations, this.generateOptimisationModel(tmpRiskAversion).minimise()));
+            }
+        }
+
+        return retVal;
+    }
+
     public final State getOptimisationState() {
         if (myOptimisationState == null) {
             myOptimisationState = State.UNEXPLORED;
@@ -209,7 +273,7 @@ public final class MarkowitzModel extends EquilibriumModel {
     public final void setTargetReturn(final BigDecimal targetReturn) {
         myTargetReturn = targetReturn;
         myTargetVariance = null;
-        this.reset();
+        this.resetTarget();
     }
 
     /**
@@ -233,7 +297,7 @@ public final class MarkowitzModel extends EquilibriumModel {
     public final void setTargetVariance(final BigDecimal targetVariance) {
         myTargetVariance = targetVariance;
         myTargetReturn = null;
-        this.reset();
+        this.resetTarget();
     }
 
     public final void setUpperLimit(final int assetIndex, final BigDecimal upperLimit) {
@@ -266,12 +330,7 @@ public final class MarkowitzModel extends EquilibriumModel {
             myOptimisationModel = new ExpressionsBasedModel(tmpVariables);
 
             myOptimisationVariance = myOptimisationModel.addExpression(VARIANCE);
-            final BasicMatrix tmpCovariances = this.getCovariances();
-            for (int j = 0; j < tmpVariables.length; j++) {
-                for (int i = 0; i < tmpVariables.length; i++) {
-                    myOptimisationVariance.setQuadraticFactor(i, j, tmpCovariances.toBigDecimal(i, j));
-                }
-            }
+            myOptimisationVariance.setQuadraticFactors(this.getCovariances());
 
             final Expression tmpBalanceExpression = myOptimisationModel.addExpression(BALANCE);
             for (int i = 0; i < tmpVariables.length; i++) {
@@ -297,11 +356,67 @@ public final class MarkowitzModel extends EquilibriumModel {
         return myOptimisationModel;
     }
 
+    /**
+     * The solution path is traced starting from the (ordinary) solution for the currently set risk aversion
+     * factor.
+     */
+    private CriticalLine getCriticalLine() {
+
+        if (myCriticalLine == null) {
+
+            final double tmpRiskAversion = this.getStartRiskAversion();
+            final ExpressionsBasedModel tmpModel = this.generateOptimisationModel(tmpRiskAversion);
+
+            myCriticalLine = new CriticalLine(this.getCovariances(), myExpectedExcessReturns);
+
+            final List<Variable> tmpVariables = tmpModel.getVariables();
+            for (int i = 0; i < tmpVariables.size(); i++) {
+                final Variable tmpVariable = tmpVariables.get(i);
+                final BigDecimal tmpLower = tmpVariable.getLowerLimit();
+                final BigDecimal tmpUpper = tmpVariable.getUpperLimit();
+                myCriticalLine.limits(i, tmpLower != null ? tmpLower.doubleValue() : PrimitiveMath.NEGATIVE_INFINITY,
+                        tmpUpper != null ? tmpUpper.doubleValue() : PrimitiveMath.POSITIVE_INFINITY);
+            }
+
+            for (final Map.Entry<int[], LowerUpper> tmpConstraintSet : myConstraints.entrySet()) {
+                final LowerUpper tmpValue = tmpConstraintSet.getValue();
+                myCriticalLine.group(tmpConstraintSet.getKey(), tmpValue.lower != null ? tmpValue.lower.doubleValue() : PrimitiveMath.NEGATIVE_INFINITY,
+                        tmpValue.upper != null ? tmpValue.upper.doubleValue() : PrimitiveMath.POSITIVE_INFINITY);
+            }
+
+            final Optimisation.Result tmpStart = tmpModel.minimise();
+            if (tmpStart.getState().isFeasible()) {
+                myCriticalLine.trace(PrimitiveMath.ONE / tmpRiskAversion, tmpStart);
+            }
+        }
+
+        return myCriticalLine;
+    }
+
+    private double getStartRiskAversion() {
+        final double retVal = this.getRiskAversion().doubleValue();
+        return retVal > _0_0 ? retVal : PrimitiveMath.ONE;
+    }
+
     private Optimisation.Result optimise() {
 
         Optimisation.Result retVal;
 
-        if ((myTargetReturn != null) || (myTargetVariance != null)) {
+        final CriticalLine tmpCriticalLine = (myTargetReturn != null) || (myTargetVariance != null) ? this.getCriticalLine() : null;
+
+        if ((tmpCriticalLine != null) && tmpCriticalLine.isTraced()) {
+
+            final double tmpParameter;
+            if (myTargetVariance != null) {
+                tmpParameter = tmpCriticalLine.getParameterForVariance(myTargetVariance.doubleValue());
+            } else {
+                tmpParameter = tmpCriticalLine.getParameterForReturn(myTargetReturn.doubleValue());
+            }
+
+            retVal = new Optimisation.Result(State.OPTIMAL, Array1D.PRIMITIVE.copy(tmpCriticalLine.getWeights(tmpParameter)));
+
+        } else if ((myTargetReturn != null) || (myTargetVariance != null)) {
+            // Bisection, if the solution path could not be traced
 
             final double tmpTargetValue;
             if (myTargetVariance != null) {
@@ -391,6 +506,29 @@ public final class MarkowitzModel extends EquilibriumModel {
         return retVal;
     }
 
+    /**
+     * Neither the optimisation model nor the traced solution path depend on the target.
+     */
+    private void resetTarget() {
+        super.reset();
+        myOptimisationState = State.UNEXPLORED;
+    }
+
+    private SimplePortfolio toSimplePortfolio(final BasicMatrix correlations, final Access1D<?> weights) {
+
+        final BasicMatrix tmpCovariances = this.getCovariances();
+        final List<BigDecimal> tmpWeights = MATRIX_FACTORY.columns(weights).enforce(WEIGHT_CONTEXT).toBigStore().asList();
+
+        final List<SimpleAsset> tmpAssets = new ArrayList<SimpleAsset>(tmpWeights.size());
+        for (int i = 0; i < tmpWeights.size(); i++) {
+            final double tmpMeanReturn = myExpectedExcessReturns.doubleValue(i, 0);
+            final double tmpVolatility = Math.sqrt(tmpCovariances.doubleValue(i, i));
+            tmpAssets.add(new SimpleAsset(tmpMeanReturn, tmpVolatility, tmpWeights.get(i)));
+        }
+
+        return new SimplePortfolio(correlations, tmpAssets);
+    }
+
     @Override
     protected BasicMatrix calculateAssetReturns() {
         return myExpectedExcessReturns;
@@ -417,6 +555,7 @@ public final class MarkowitzModel extends EquilibriumModel {
         myOptimisationModel = null;
         myOptimisationVariance = null;
         myOptimisationState = State.UNEXPLORED;
+        myCriticalLine = null;
     }
 
     final Scalar<?> calculatePortfolioReturn(final Access1D<?> weightsVctr, final BasicMatrix returnsVctr) {
@@ -21,23 +21,61 @@
  */
 package org.ojalgo.finance.portfolio.simulator;
 
+import static org.ojalgo.constant.PrimitiveMath.*;
+
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.ojalgo.access.Access2D;
-import org.ojalgo.array.Array1D;
-import org.ojalgo.array.Array2D;
 import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.finance.portfolio.SimplePortfolio;
 import org.ojalgo.function.aggregator.Aggregator;
 import org.ojalgo.function.aggregator.AggregatorFunction;
+import org.ojalgo.random.HaltonSequence;
+import org.ojalgo.random.Random1D;
+import org.ojalgo.random.RandomUtils;
+import org.ojalgo.random.process.BrownianBridge;
 import org.ojalgo.random.process.GeometricBrownian1D;
 import org.ojalgo.random.process.GeometricBrownianMotion;
+import org.ojalgo.random.process.ProcessSimulator;
 import org.ojalgo.random.process.RandomProcess;
+import org.ojalgo.random.process.SimulationStatistics;
 
 public class PortfolioSimulator {
 
+    /**
+     * How the random increments of the asset processes are generated.
+     */
+    public static enum Sampling {
+
+        /**
+         * Realisations are simulated in pairs, where the second uses the negated increments of the first.
+         */
+        ANTITHETIC,
+
+        /**
+         * A scrambled Halton low-discrepancy sequence, with the paths constructed by a Brownian bridge.
+         *
+         * @see HaltonSequence
+         * @see BrownianBridge
+         */
+        HALTON,
+
+        /**
+         * Plain pseudo-random numbers
+         */
+        RANDOM;
+
+    }
+
+    private List<GeometricBrownianMotion> myAssetProcesses;
+    private boolean myControlVariate = false;
     private GeometricBrownian1D myProcess;
+    private Sampling mySampling = Sampling.RANDOM;
+    private Long mySeed = null;
 
     public PortfolioSimulator(final Access2D<?> correlations, final List<GeometricBrownianMotion> assetProcesses) {
 
@@ -47,6 +85,8 @@ public class PortfolioSimulator {
             throw new IllegalArgumentException();
         }
 
+        myAssetProcesses = new ArrayList<GeometricBrownianMotion>(assetProcesses);
+
         if (correlations != null) {
             myProcess = new GeometricBrownian1D(correlations, assetProcesses);
         } else {
@@ -58,8 +98,33 @@ public class PortfolioSimulator {
         super();
     }
 
+    /**
+     * With the control variate switched on the simulated portfolio values of each step are scaled so that the
+     * simulated buy-and-hold portfolio (the same asset paths but never rebalanced) gets exactly the
+     * analytical expected value of the asset processes. Without rebalancing that makes the mean exact, and
+     * the whole sample set is adjusted so quantiles (VaR) benefit as well. Requires all results to be kept
+     * in memory - it does not work with streaming.
+     */
+    public PortfolioSimulator controlVariate(final boolean controlVariate) {
+        myControlVariate = controlVariate;
+        return this;
+    }
+
+    public PortfolioSimulator sampling(final Sampling sampling) {
+        mySampling = sampling;
+        return this;
+    }
+
+    /**
+     * Same seed (and same settings), same results.
+     */
+    public PortfolioSimulator seed(final long seed) {
+        mySeed = seed;
+        return this;
+    }
+
     public RandomProcess.SimulationResults simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize) {
-        return this.simulate(aNumberOfRealisations, aNumberOfSteps, aStepSize, null);
+        return this.simulate(aNumberOfRealisations, aNumberOfSteps, aStepSize, (Integer) null);
     }
 
     public RandomProcess.SimulationResults simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize,
@@ -67,8 +132,45 @@ public class PortfolioSimulator {
         return this.simulate(aNumberOfRealisations, aNumberOfSteps, aStepSize, Integer.valueOf(rebalancingInterval));
     }
 
+    /**
+     * Streaming alternative, where the memory requirement does not depend on the number of realisations. Can't
+     * be combined with the control variate.
+     *
+     * @see SimulationStatistics
+     */
+    public void simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(aNumberOfRealisations, aNumberOfSteps, aStepSize, null, consumer);
+    }
+
+    /**
+     * @see #simulate(int, int, double, RandomProcess.SimulationConsumer)
+     */
+    public void simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize, final int rebalancingInterval,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(aNumberOfRealisations, aNumberOfSteps, aStepSize, Integer.valueOf(rebalancingInterval), consumer);
+    }
+
     RandomProcess.SimulationResults simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize,
             final Integer rebalancingInterval) {
+        final long tmpSeed = this.getSeed();
+        return this.getSimulator(aNumberOfRealisations, aNumberOfSteps, aStepSize, rebalancingInterval, tmpSeed).simulate(aNumberOfRealisations,
+                aNumberOfSteps, aStepSize, tmpSeed);
+    }
+
+    void simulate(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize, final Integer rebalancingInterval,
+            final RandomProcess.SimulationConsumer consumer) {
+        final long tmpSeed = this.getSeed();
+        this.getSimulator(aNumberOfRealisations, aNumberOfSteps, aStepSize, rebalancingInterval, tmpSeed).simulate(aNumberOfRealisations,
+                aNumberOfSteps, aStepSize, tmpSeed, consumer);
+    }
+
+    private long getSeed() {
+        return mySeed != null ? mySeed.longValue() : ThreadLocalRandom.current().nextLong();
+    }
+
+    private ProcessSimulator getSimulator(final int aNumberOfRealisations, final int aNumberOfSteps, final double aStepSize,
+            final Integer rebalancingInterval, final long seed) {
 
         final int tmpProcDim = myProcess.size();
 
@@ -79,36 +181,178 @@ public class PortfolioSimulator {
         }
         final List<BigDecimal> tmpWeights = new SimplePortfolio(tmpValues).normalise().getWeights();
 
-        final Array2D<Double> tmpRealisationValues = Array2D.PRIMITIVE.makeZero(aNumberOfRealisations, aNumberOfSteps);
+        final double[] tmpInitial = tmpInitialValues.data;
+        final double[] tmpTargets = new double[tmpProcDim];
+        for (int p = 0; p < tmpProcDim; p++) {
+            tmpTargets[p] = tmpWeights.get(p).doubleValue();
+        }
+
+        final AggregatorFunction<Double> tmpAggregator = Aggregator.SUM.getPrimitiveFunction();
+        for (int i = 0; i < tmpInitialValues.count(); i++) {
+            tmpAggregator.invoke(tmpInitialValues.doubleValue(i));
+        }
+        final double tmpInitialValue = tmpAggregator.doubleValue();
+
+        final Sampling tmpSampling = mySampling;
 
-        for (int r = 0; r < aNumberOfRealisations; r++) {
+        final HaltonSequence tmpSequence = tmpSampling == Sampling.HALTON ? new HaltonSequence(aNumberOfSteps * tmpProcDim, seed) : null;
+        final BrownianBridge tmpBridge = tmpSampling == Sampling.HALTON ? new BrownianBridge(aNumberOfSteps) : null;
 
+        // The control variate's expected value, and its simulated sum, per block and step
+        final double[] tmpExpected = myControlVariate ? new double[aNumberOfSteps] : null;
+        final double[][] tmpControls = myControlVariate ? new double[(aNumberOfRealisations + ProcessSimulator.BLOCK_SIZE - 1)
+                / ProcessSimulator.BLOCK_SIZE][aNumberOfSteps] : null;
+        if (myControlVariate) {
             for (int s = 0; s < aNumberOfSteps; s++) {
+                for (final GeometricBrownianMotion tmpAssetProcess : myAssetProcesses) {
+                    tmpExpected[s] += tmpAssetProcess.getDistribution((s + 1) * aStepSize).getExpected();
+                }
+            }
+        }
 
-                if ((rebalancingInterval != null) && (s != 0) && ((s % rebalancingInterval) == 0)) {
+        final GeometricBrownian1D tmpProcess = myProcess;
 
-                    final double tmpPortfolioValue = tmpRealisationValues.doubleValue(r, s - 1);
+        return new ProcessSimulator() {
 
-                    for (int p = 0; p < tmpProcDim; p++) {
-                        myProcess.setValue(p, tmpPortfolioValue * tmpWeights.get(p).doubleValue());
+            @Override
+            protected void complete(final double[] results, final int numberOfRealisations, final int numberOfSteps) {
+                if (tmpControls != null) {
+                    for (int s = 0; s < numberOfSteps; s++) {
+                        double tmpSum = ZERO;
+                        for (int b = 0; b < tmpControls.length; b++) {
+                            tmpSum += tmpControls[b][s];
+                        }
+                        final double tmpScale = tmpExpected[s] / (tmpSum / numberOfRealisations);
+                        final int tmpOffset = s * numberOfRealisations;
+                        for (int r = 0; r < numberOfRealisations; r++) {
+                            results[tmpOffset + r] *= tmpScale;
+                        }
                     }
                 }
+            }
 
-                final Array1D<Double> tmpRealisation = myProcess.step(aStepSize);
+            @Override
+            protected double getInitialValue() {
+                return tmpInitialValue;
+            }
 
-                final AggregatorFunction<Double> tmpAggregator = Aggregator.SUM.getPrimitiveFunction();
-                tmpRealisation.visitAll(tmpAggregator);
-                tmpRealisationValues.set(r, s, tmpAggregator.doubleValue());
+            @Override
+            protected boolean isCompleting() {
+                return tmpControls != null;
             }
 
-            myProcess.setValues(tmpInitialValues);
-        }
+            @Override
+            protected void simulate(final SplittableRandom random, final int first, final int count, final int numberOfSteps, final double stepSize,
+                    final double[] destination, final int offset, final int stride) {
 
-        final AggregatorFunction<Double> tmpAggregator = Aggregator.SUM.getPrimitiveFunction();
-        for (int i = 0; i < tmpInitialValues.count(); i++) {
-            tmpAggregator.invoke(tmpInitialValues.doubleValue(i));
-        }
+                final double[] tmpControl = tmpControls != null ? tmpControls[first / BLOCK_SIZE] : null;
+
+                // Quasi-random paths are constructed one at a time
+                final int tmpChunk = tmpSequence != null ? 1 : count;
+
+                final Random1D.Generator tmpGenerator = tmpProcess.newGenerator(tmpChunk);
+
+                for (int c = 0; c < count; c += tmpChunk) {
+                    this.simulate(random, first + c, Math.min(tmpChunk, count - c), numberOfSteps, stepSize, destination, offset + c, stride, tmpControl,
+                            tmpGenerator);
+                }
+            }
+
+            private void simulate(final SplittableRandom random, final int first, final int count, final int numberOfSteps, final double stepSize,
+                    final double[] destination, final int offset, final int stride, final double[] control, final Random1D.Generator generator) {
+
+                final int tmpSize = count * tmpProcDim;
+
+                final double[] tmpAssetValues = new double[tmpSize];
+                for (int r = 0; r < count; r++) {
+                    System.arraycopy(tmpInitial, 0, tmpAssetValues, r * tmpProcDim, tmpProcDim);
+                }
+                final double[] tmpIncrements = new double[tmpSize];
+
+                final double[] tmpHeld = control != null ? tmpAssetValues.clone() : null;
+                final double[] tmpBefore = control != null ? new double[tmpSize] : null;
+
+                final double[] tmpPath = tmpSequence != null ? new double[numberOfSteps * tmpProcDim] : null;
+                if (tmpSequence != null) {
+                    // count == 1
+                    final double[] tmpNormals = new double[tmpSequence.dimension()];
+                    tmpSequence.point(first, tmpNormals);
+                    for (int d = 0; d < tmpNormals.length; d++) {
+                        tmpNormals[d] = RandomUtils.probit(tmpNormals[d]);
+                    }
+                    final double[] tmpAssetPath = new double[numberOfSteps];
+                    for (int p = 0; p < tmpProcDim; p++) {
+                        tmpBridge.increments(tmpNormals, p, tmpProcDim, tmpAssetPath);
+                        for (int s = 0; s < numberOfSteps; s++) {
+                            tmpPath[(s * tmpProcDim) + p] = tmpAssetPath[s];
+                        }
+                    }
+                }
+
+                for (int s = 0; s < numberOfSteps; s++) {
+
+                    if ((rebalancingInterval != null) && (s != 0) && ((s % rebalancingInterval) == 0)) {
+                        final int tmpPrevious = offset + ((s - 1) * stride);
+                        for (int r = 0; r < count; r++) {
+                            final double tmpPortfolioValue = destination[tmpPrevious + r];
+                            for (int p = 0; p < tmpProcDim; p++) {
+                                tmpAssetValues[(r * tmpProcDim) + p] = tmpPortfolioValue * tmpTargets[p];
+                            }
+                        }
+                    }
+
+                    switch (tmpSampling) {
+                    case ANTITHETIC:
+                        for (int r = 0; r < count; r++) {
+                            final int tmpOffset = r * tmpProcDim;
+                            if (((first + r) % 2) == 0) {
+                                for (int p = 0; p < tmpProcDim; p++) {
+                                    tmpIncrements[tmpOffset + p] = RandomUtils.nextGaussian(random);
+                                }
+                            } else {
+                                for (int p = 0; p < tmpProcDim; p++) {
+                                    tmpIncrements[tmpOffset + p] = -tmpIncrements[(tmpOffset - tmpProcDim) + p];
+                                }
+                            }
+                        }
+                        break;
+                    case HALTON:
+                        System.arraycopy(tmpPath, s * tmpProcDim, tmpIncrements, 0, tmpProcDim);
+                        break;
+                    default:
+                        for (int i = 0; i < tmpSize; i++) {
+                            tmpIncrements[i] = RandomUtils.nextGaussian(random);
+                        }
+                        break;
+                    }
+
+                    if (control != null) {
+                        System.arraycopy(tmpAssetValues, 0, tmpBefore, 0, tmpSize);
+                    }
+
+                    tmpProcess.step(tmpAssetValues, count, stepSize, tmpIncrements, generator);
 
-        return new RandomProcess.SimulationResults(tmpAggregator.doubleValue(), tmpRealisationValues);
+                    final int tmpCurrent = offset + (s * stride);
+                    for (int r = 0; r < count; r++) {
+                        double tmpPortfolioValue = ZERO;
+                        for (int p = 0; p < tmpProcDim; p++) {
+                            tmpPortfolioValue += tmpAssetValues[(r * tmpProcDim) + p];
+                        }
+                        destination[tmpCurrent + r] = tmpPortfolioValue;
+                    }
+
+                    if (control != null) {
+                        double tmpHeldValue = ZERO;
+                        for (int i = 0; i < tmpSize; i++) {
+                            tmpHeld[i] *= tmpAssetValues[i] / tmpBefore[i];
+                            tmpHeldValue += tmpHeld[i];
+                        }
+                        control[s] += tmpHeldValue;
+                    }
+                }
+            }
+
+        };
     }
+
 }
@@ -37,6 +37,14 @@ abstract class AbstractMachine extends BasicMachine {
      * The size of one top level (L3 or L2) cache unit in bytes.
      */
     public final long cache;
+    /**
+     * The size of one L1 cache unit in bytes.
+     */
+    public final long cacheL1;
+    /**
+     * The size of one L2 cache unit in bytes. If no L2 cache was specified this is the same as the L1 cache.
+     */
+    public final long cacheL2;
     /**
      * The total number of processor cores.
      */
@@ -60,6 +68,8 @@ abstract class AbstractMachine extends BasicMachine {
         architecture = hardware.architecture;
 
         cache = hardware.cache;
+        cacheL1 = hardware.cacheL1;
+        cacheL2 = hardware.cacheL2;
 
         cores = hardware.cores;
         units = hardware.units;
@@ -78,6 +88,9 @@ abstract class AbstractMachine extends BasicMachine {
 
         cores = threads / levels[levels.length - 1].threads;
 
+        cacheL1 = levels[levels.length - 1].memory;
+        cacheL2 = levels.length > 2 ? levels[levels.length - 2].memory : cacheL1;
+
         if (levels.length > 3) { // L3 specified
             cache = levels[levels.length - 3].memory;
             units = threads / levels[levels.length - 3].threads;
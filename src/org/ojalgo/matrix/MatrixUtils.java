@@ -394,12 +394,16 @@ public abstract class MatrixUtils {
         ApplyCholesky.THRESHOLD = Math.min(maxValue, ApplyCholesky.THRESHOLD);
         ApplyLU.THRESHOLD = Math.min(maxValue, ApplyLU.THRESHOLD);
         AXPY.THRESHOLD = Math.min(maxValue, AXPY.THRESHOLD);
+        BlockedCholesky.THRESHOLD = Math.min(maxValue, BlockedCholesky.THRESHOLD);
+        BlockedLU.THRESHOLD = Math.min(maxValue, BlockedLU.THRESHOLD);
+        BlockedQR.THRESHOLD = Math.min(maxValue, BlockedQR.THRESHOLD);
         FillMatchingBoth.THRESHOLD = Math.min(maxValue, FillMatchingBoth.THRESHOLD);
         FillConjugated.THRESHOLD = Math.min(maxValue, FillConjugated.THRESHOLD);
         FillMatchingLeft.THRESHOLD = Math.min(maxValue, FillMatchingLeft.THRESHOLD);
         FillMatchingRight.THRESHOLD = Math.min(maxValue, FillMatchingRight.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.min(maxValue, FillMatchingSingle.THRESHOLD);
         FillTransposed.THRESHOLD = Math.min(maxValue, FillTransposed.THRESHOLD);
+        GEMM.THRESHOLD = Math.min(maxValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.min(maxValue, HermitianRank2Update.THRESHOLD);
@@ -409,9 +413,15 @@ public abstract class MatrixUtils {
         MAXPY.THRESHOLD = Math.min(maxValue, MAXPY.THRESHOLD);
         ModifyAll.THRESHOLD = Math.min(maxValue, ModifyAll.THRESHOLD);
         MultiplyBoth.THRESHOLD = Math.min(maxValue, MultiplyBoth.THRESHOLD);
+        MultiplyBoth.THRESHOLD_BIG = Math.min(maxValue, MultiplyBoth.THRESHOLD_BIG);
+        MultiplyBoth.THRESHOLD_COMPLEX = Math.min(maxValue, MultiplyBoth.THRESHOLD_COMPLEX);
         MultiplyHermitianAndVector.THRESHOLD = Math.min(maxValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.min(maxValue, MultiplyLeft.THRESHOLD);
+        MultiplyLeft.THRESHOLD_BIG = Math.min(maxValue, MultiplyLeft.THRESHOLD_BIG);
+        MultiplyLeft.THRESHOLD_COMPLEX = Math.min(maxValue, MultiplyLeft.THRESHOLD_COMPLEX);
         MultiplyRight.THRESHOLD = Math.min(maxValue, MultiplyRight.THRESHOLD);
+        MultiplyRight.THRESHOLD_BIG = Math.min(maxValue, MultiplyRight.THRESHOLD_BIG);
+        MultiplyRight.THRESHOLD_COMPLEX = Math.min(maxValue, MultiplyRight.THRESHOLD_COMPLEX);
         RotateLeft.THRESHOLD = Math.min(maxValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.min(maxValue, RotateRight.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.min(maxValue, SubstituteBackwards.THRESHOLD);
@@ -427,12 +437,16 @@ public abstract class MatrixUtils {
         ApplyCholesky.THRESHOLD = Math.max(minValue, ApplyCholesky.THRESHOLD);
         ApplyLU.THRESHOLD = Math.max(minValue, ApplyLU.THRESHOLD);
         AXPY.THRESHOLD = Math.max(minValue, AXPY.THRESHOLD);
+        BlockedCholesky.THRESHOLD = Math.max(minValue, BlockedCholesky.THRESHOLD);
+        BlockedLU.THRESHOLD = Math.max(minValue, BlockedLU.THRESHOLD);
+        BlockedQR.THRESHOLD = Math.max(minValue, BlockedQR.THRESHOLD);
         FillMatchingBoth.THRESHOLD = Math.max(minValue, FillMatchingBoth.THRESHOLD);
         FillConjugated.THRESHOLD = Math.max(minValue, FillConjugated.THRESHOLD);
         FillMatchingLeft.THRESHOLD = Math.max(minValue, FillMatchingLeft.THRESHOLD);
         FillMatchingRight.THRESHOLD = Math.max(minValue, FillMatchingRight.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.max(minValue, FillMatchingSingle.THRESHOLD);
         FillTransposed.THRESHOLD = Math.max(minValue, FillTransposed.THRESHOLD);
+        GEMM.THRESHOLD = Math.max(minValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.max(minValue, HermitianRank2Update.THRESHOLD);
@@ -442,9 +456,15 @@ public abstract class MatrixUtils {
         MAXPY.THRESHOLD = Math.max(minValue, MAXPY.THRESHOLD);
         ModifyAll.THRESHOLD = Math.max(minValue, ModifyAll.THRESHOLD);
         MultiplyBoth.THRESHOLD = Math.max(minValue, MultiplyBoth.THRESHOLD);
+        MultiplyBoth.THRESHOLD_BIG = Math.max(minValue, MultiplyBoth.THRESHOLD_BIG);
+        MultiplyBoth.THRESHOLD_COMPLEX = Math.max(minValue, MultiplyBoth.THRESHOLD_COMPLEX);
         MultiplyHermitianAndVector.THRESHOLD = Math.max(minValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.max(minValue, MultiplyLeft.THRESHOLD);
+        MultiplyLeft.THRESHOLD_BIG = Math.max(minValue, MultiplyLeft.THRESHOLD_BIG);
+        MultiplyLeft.THRESHOLD_COMPLEX = Math.max(minValue, MultiplyLeft.THRESHOLD_COMPLEX);
         MultiplyRight.THRESHOLD = Math.max(minValue, MultiplyRight.THRESHOLD);
+        MultiplyRight.THRESHOLD_BIG = Math.max(minValue, MultiplyRight.THRESHOLD_BIG);
+        MultiplyRight.THRESHOLD_COMPLEX = Math.max(minValue, MultiplyRight.THRESHOLD_COMPLEX);
         RotateLeft.THRESHOLD = Math.max(minValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.max(minValue, RotateRight.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.max(minValue, SubstituteBackwards.THRESHOLD);
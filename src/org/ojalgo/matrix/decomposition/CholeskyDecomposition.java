@@ -34,6 +34,7 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.LowerHermitianStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.BlockedCholesky;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -93,6 +94,10 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
             tmpPositiveDefinite &= MatrixUtils.isHermitian(tmpInPlace);
         }
 
+        if (tmpPositiveDefinite && (tmpInPlace instanceof PrimitiveDenseStore) && (tmpMinDim >= BlockedCholesky.THRESHOLD)) {
+            return this.computed(mySPD = BlockedCholesky.invoke(((PrimitiveDenseStore) tmpInPlace).data, tmpMinDim));
+        }
+
         final UnaryFunction<N> tmpSqrtFunc = this.getFunctionSet().sqrt();
 
         // Main loop - along the diagonal
@@ -38,6 +38,7 @@ import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.matrix.store.RowsStore;
 import org.ojalgo.matrix.store.UpperTriangularStore;
 import org.ojalgo.matrix.store.WrapperStore;
+import org.ojalgo.matrix.store.operation.BlockedLU;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -247,6 +248,21 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
         myPivot = new Pivot(tmpRowDim);
 
+        if (!assumeNoPivotingRequired && (tmpInPlace instanceof PrimitiveDenseStore) && (tmpMinDim >= BlockedLU.THRESHOLD)) {
+
+            final int[] tmpPivotRows = new int[tmpMinDim];
+
+            BlockedLU.invoke(((PrimitiveDenseStore) tmpInPlace).data, tmpRowDim, tmpColDim, tmpPivotRows);
+
+            for (int ij = 0; ij < tmpMinDim; ij++) {
+                if (tmpPivotRows[ij] != ij) {
+                    myPivot.change(tmpPivotRows[ij], ij);
+                }
+            }
+
+            return this.computed(true);
+        }
+
         final BasicArray<N> tmpMultipliers = this.makeArray(tmpRowDim);
 
         // Main loop - along the diagonal
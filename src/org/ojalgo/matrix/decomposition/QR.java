@@ -82,6 +82,14 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
         return new QRDecomposition.Primitive();
     }
 
+    /**
+     * For matrices with many more rows than columns. The rows are split into blocks that are decomposed in
+     * parallel (TSQR). Full size decompositions are not blocked.
+     */
+    public static QR<Double> makeTallSkinny() {
+        return new TallSkinnyQR();
+    }
+
     MatrixStore<N> getQ();
 
     MatrixStore<N> getR();
@@ -31,6 +31,7 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.matrix.store.UpperTriangularStore;
+import org.ojalgo.matrix.store.operation.BlockedQR;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
@@ -76,10 +77,17 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         final int tmpRowDim = this.getRowDim();
         final int tmpColDim = this.getColDim();
 
-        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
-
         final int tmpLimit = Math.min(tmpRowDim, tmpColDim);
 
+        if ((tmpStore instanceof PrimitiveDenseStore) && (tmpLimit >= BlockedQR.THRESHOLD)) {
+
+            BlockedQR.invoke(((PrimitiveDenseStore) tmpStore).data, tmpRowDim, tmpColDim);
+
+            return this.computed(true);
+        }
+
+        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
+
         for (int ij = 0; ij < tmpLimit; ij++) {
             if (((ij + 1) < tmpRowDim) && tmpStore.generateApplyAndCopyHouseholderColumn(ij, ij, tmpHouseholder)) {
                 tmpStore.transformLeft(tmpHouseholder, ij + 1);
@@ -200,18 +208,7 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         final int tmpRowDim = this.getRowDim();
         final int tmpColDim = this.getColDim();
 
-        final DecompositionStore.HouseholderReference<N> tmpReference = new DecompositionStore.HouseholderReference<N>(tmpStore, true);
-
-        final int tmpLimit = this.getMinDim();
-        for (int j = 0; j < tmpLimit; j++) {
-
-            tmpReference.row = j;
-            tmpReference.col = j;
-
-            if (!tmpReference.isZero()) {
-                preallocated.transformLeft(tmpReference, 0);
-            }
-        }
+        this.transformQt(preallocated);
 
         preallocated.substituteBackwards(tmpStore, false, false, false);
 
@@ -224,6 +221,25 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         }
     }
 
+    /**
+     * [target] = [Q]<sup>T</sup>[target]
+     */
+    void transformQt(final DecompositionStore<N> target) {
+
+        final DecompositionStore.HouseholderReference<N> tmpReference = new DecompositionStore.HouseholderReference<N>(this.getInPlace(), true);
+
+        final int tmpLimit = this.getMinDim();
+        for (int j = 0; j < tmpLimit; j++) {
+
+            tmpReference.row = j;
+            tmpReference.col = j;
+
+            if (!tmpReference.isZero()) {
+                target.transformLeft(tmpReference, 0);
+            }
+        }
+    }
+
     /**
      * @return L as in R<sup>T</sup>.
      */
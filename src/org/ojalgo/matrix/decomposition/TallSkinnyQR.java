@@ -0,0 +1,246 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Tall-skinny QR (TSQR) for matrices with (many) more rows than columns. The rows are split into blocks that
+ * are decomposed in parallel, then the stacked [R] factors of the blocks are decomposed once more. [Q] is kept
+ * implicitly - as the reflectors of the block decompositions and of the final decomposition. That only works
+ * for economy sized [Q] and [R]; when {@linkplain #setFullSize(boolean) full size} is requested the whole
+ * matrix is decomposed as one block, with an ordinary (dense, Householder) QR decomposition.
+ *
+ * @author apete
+ */
+final class TallSkinnyQR extends GenericDecomposition<Double> implements QR<Double> {
+
+    private QRDecomposition.Primitive[] myBlocks = null;
+    private int myColDim;
+    private int[] myFirstRows = null;
+    private boolean myFullSize = false;
+    private int myRowDim;
+    private QRDecomposition.Primitive myTop = null;
+
+    TallSkinnyQR() {
+        super(PrimitiveDenseStore.FACTORY);
+    }
+
+    public boolean decompose(final Access2D<?> matrix) {
+
+        this.reset();
+
+        myRowDim = (int) matrix.countRows();
+        myColDim = (int) matrix.countColumns();
+
+        final int tmpBlockCount = myFullSize ? 1 : Math.max(1, Math.min(DivideAndConquer.getParallelism(), myRowDim / Math.max(1, 2 * myColDim)));
+
+        myBlocks = new QRDecomposition.Primitive[tmpBlockCount];
+        myFirstRows = new int[tmpBlockCount + 1];
+        for (int b = 0; b <= tmpBlockCount; b++) {
+            myFirstRows[b] = (int) (((long) myRowDim * b) / tmpBlockCount);
+        }
+
+        final MatrixStore<Double> tmpMatrix = this.wrap(matrix);
+
+        if (tmpBlockCount == 1) {
+
+            myBlocks[0] = new QRDecomposition.Primitive();
+            myBlocks[0].setFullSize(myFullSize);
+            myBlocks[0].decompose(tmpMatrix);
+
+        } else {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    for (int b = first; b < limit; b++) {
+                        myBlocks[b] = new QRDecomposition.Primitive();
+                        myBlocks[b].decompose(tmpMatrix.builder().rows(myFirstRows[b], myFirstRows[b + 1]).build());
+                    }
+                }
+            };
+
+            tmpConquerer.invoke(0, tmpBlockCount, 1);
+
+            // The stacked [R] factors of the blocks
+            final DecompositionStore<Double> tmpStacked = this.makeZero(tmpBlockCount * myColDim, myColDim);
+            for (int b = 0; b < tmpBlockCount; b++) {
+                final MatrixStore<Double> tmpR = myBlocks[b].getR();
+                final int tmpFirstRow = b * myColDim;
+                for (int j = 0; j < myColDim; j++) {
+                    for (int i = 0; i <= j; i++) {
+                        tmpStacked.set(tmpFirstRow + i, j, tmpR.doubleValue(i, j));
+                    }
+                }
+            }
+
+            myTop = new QRDecomposition.Primitive();
+            myTop.decompose(tmpStacked);
+        }
+
+        this.aspectRatioNormal(myRowDim >= myColDim);
+
+        return this.computed(true);
+    }
+
+    public boolean equals(final MatrixStore<Double> other, final NumberContext context) {
+        return MatrixUtils.equals(other, this, context);
+    }
+
+    public Double getDeterminant() {
+        return this.getFinal().getDeterminant();
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.preallocate(myRowDim, myRowDim));
+    }
+
+    public MatrixStore<Double> getInverse(final DecompositionStore<Double> preallocated) {
+        return this.solve(this.makeIdentity(myRowDim), preallocated);
+    }
+
+    public MatrixStore<Double> getQ() {
+
+        if (myTop == null) {
+            return myBlocks[0].getQ();
+        }
+
+        final MatrixStore<Double> tmpTopQ = myTop.getQ();
+
+        final DecompositionStore<Double> retVal = this.makeZero(myRowDim, myColDim);
+
+        for (int b = 0; b < myBlocks.length; b++) {
+
+            final MatrixStore<Double> tmpBlockQ = myBlocks[b].getQ().multiply(tmpTopQ.builder().rows(b * myColDim, (b + 1) * myColDim).build());
+
+            final int tmpFirstRow = myFirstRows[b];
+            final int tmpRowCount = myFirstRows[b + 1] - tmpFirstRow;
+            for (int j = 0; j < myColDim; j++) {
+                for (int i = 0; i < tmpRowCount; i++) {
+                    retVal.set(tmpFirstRow + i, j, tmpBlockQ.doubleValue(i, j));
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getR() {
+        return this.getFinal().getR();
+    }
+
+    public int getRank() {
+        return this.getFinal().getRank();
+    }
+
+    public boolean isFullColumnRank() {
+        return this.getRank() == Math.min(myRowDim, myColDim);
+    }
+
+    public boolean isFullSize() {
+        return myFullSize;
+    }
+
+    public boolean isSolvable() {
+        return this.isComputed() && this.isFullColumnRank();
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myBlocks = null;
+        myFirstRows = null;
+        myTop = null;
+    }
+
+    public void setFullSize(final boolean fullSize) {
+        myFullSize = fullSize;
+    }
+
+    public MatrixStore<Double> solve(final Access2D<Double> rhs) {
+        return this.solve(rhs, this.preallocate(myRowDim, rhs.countColumns()));
+    }
+
+    /**
+     * Solves each block's [Q]<sup>T</sup>[rhs] in parallel, and then solves the stacked results with the final
+     * decomposition. The solution is formed in the first rows of "preallocated".
+     */
+    public MatrixStore<Double> solve(final Access2D<Double> rhs, final DecompositionStore<Double> preallocated) {
+
+        if (myTop == null) {
+            return myBlocks[0].solve(rhs, preallocated);
+        }
+
+        final int tmpRHSColumns = (int) rhs.countColumns();
+
+        final MatrixStore<Double> tmpRHS = this.wrap(rhs);
+        final DecompositionStore<Double> tmpStacked = this.makeZero(myBlocks.length * myColDim, tmpRHSColumns);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+
+                    final DecompositionStore<Double> tmpBlockRHS = TallSkinnyQR.this.copy(tmpRHS.builder().rows(myFirstRows[b], myFirstRows[b + 1]).build());
+
+                    myBlocks[b].transformQt(tmpBlockRHS);
+
+                    final int tmpFirstRow = b * myColDim;
+                    for (int j = 0; j < tmpRHSColumns; j++) {
+                        for (int i = 0; i < myColDim; i++) {
+                            tmpStacked.set(tmpFirstRow + i, j, tmpBlockRHS.doubleValue(i, j));
+                        }
+                    }
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, myBlocks.length, 1);
+
+        myTop.transformQt(tmpStacked);
+
+        for (int j = 0; j < tmpRHSColumns; j++) {
+            for (int i = 0; i < myColDim; i++) {
+                preallocated.set(i, j, tmpStacked.doubleValue(i, j));
+            }
+        }
+
+        preallocated.substituteBackwards(myTop.getR(), false, false, false);
+
+        return preallocated.builder().rows(0, myColDim).build();
+    }
+
+    private QRDecomposition.Primitive getFinal() {
+        return myTop != null ? myTop : myBlocks[0];
+    }
+
+}
@@ -1203,7 +1203,13 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
         final double[] tmpProductData = data;
 
-        if (right instanceof PrimitiveDenseStore) {
+        if (left instanceof SparseStore) {
+            ((SparseStore) left).multiply(right, myColDim, tmpProductData);
+        } else if (right instanceof SparseStore) {
+            ((SparseStore) right).multiplyLeft(left, myRowDim, tmpProductData);
+        } else if (GEMM.isApplicable(myRowDim, tmpComplexity, myColDim)) {
+            GEMM.getPrimitive(myRowDim, myColDim).invoke(tmpProductData, left, tmpComplexity, right);
+        } else if (right instanceof PrimitiveDenseStore) {
             multiplyLeft.invoke(tmpProductData, left, tmpComplexity, PrimitiveDenseStore.cast(right).data);
         } else if (left instanceof PrimitiveDenseStore) {
             multiplyRight.invoke(tmpProductData, PrimitiveDenseStore.cast(left).data, tmpComplexity, right);
@@ -1503,7 +1509,11 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
         final PrimitiveDenseStore retVal = FACTORY.makeZero(myRowDim, right.count() / myColDim);
 
-        retVal.multiplyRight.invoke(retVal.data, data, myColDim, right);
+        if (GEMM.isApplicable(retVal.myRowDim, myColDim, retVal.myColDim)) {
+            GEMM.getPrimitive(retVal.myRowDim, retVal.myColDim).invoke(retVal.data, this, myColDim, right);
+        } else {
+            retVal.multiplyRight.invoke(retVal.data, data, myColDim, right);
+        }
 
         return retVal;
     }
@@ -1512,7 +1522,11 @@ public final class PrimitiveDenseStore extends PrimitiveArray implements Physica
 
         final PrimitiveDenseStore retVal = FACTORY.makeZero(left.count() / myRowDim, myColDim);
 
-        retVal.multiplyLeft.invoke(retVal.data, left, myRowDim, data);
+        if (GEMM.isApplicable(retVal.myRowDim, myRowDim, retVal.myColDim)) {
+            GEMM.getPrimitive(retVal.myRowDim, retVal.myColDim).invoke(retVal.data, left, myRowDim, this);
+        } else {
+            retVal.multiplyLeft.invoke(retVal.data, left, myRowDim, data);
+        }
 
         return retVal;
     }
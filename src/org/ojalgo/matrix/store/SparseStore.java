@@ -0,0 +1,1302 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.AccessUtils;
+import org.ojalgo.array.BasicArray;
+import org.ojalgo.function.BinaryFunction;
+import org.ojalgo.function.FunctionSet;
+import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.function.UnaryFunction;
+import org.ojalgo.function.aggregator.AggregatorSet;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.matrix.transformation.Rotation;
+import org.ojalgo.scalar.PrimitiveScalar;
+import org.ojalgo.scalar.Scalar;
+
+/**
+ * A compressed sparse double matrix. With {@link #FACTORY} the nonzero elements are stored column by column
+ * (CSC), with {@link #FACTORY_CSR} row by row (CSR). Within each column/row the elements are kept sorted by
+ * row/column index, and exact zeros are never stored.
+ * <p>
+ * Reading an element is a binary search within a column/row. Setting a previously zero element shifts the
+ * elements stored after it, and so does setting a nonzero element to zero. The column/row pointers are
+ * updated lazily, so the pointer update costs are proportional to the distance from the previously modified
+ * column/row. Build a matrix in column/row-order, from {@linkplain Triplets}, or from some other
+ * {@linkplain Access2D}, rather than by random access. Operations that do not preserve sparsity (fill with
+ * nonzero values, Householder transformations...) are performed on a dense copy and then compressed again.
+ * </p>
+ *
+ * @author apete
+ */
+public final class SparseStore extends AbstractStore<Double> implements PhysicalStore<Double> {
+
+    /**
+     * Callback used to iterate over the nonzero elements without visiting the zeros.
+     */
+    public static interface NonzeroVisitor {
+
+        void visit(long row, long column, double value);
+
+    }
+
+    static final class Factory implements PhysicalStore.Factory<Double, SparseStore> {
+
+        private static final long serialVersionUID = -2946185379025137481L;
+
+        private final boolean myColumns;
+
+        Factory(final boolean columns) {
+            super();
+            myColumns = columns;
+        }
+
+        public AggregatorSet<Double> aggregator() {
+            return PrimitiveDenseStore.FACTORY.aggregator();
+        }
+
+        public SparseStore columns(final Access1D<?>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public SparseStore columns(final double[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        @SuppressWarnings("unchecked")
+        public SparseStore columns(final List<? extends Number>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public SparseStore columns(final Number[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.columns(source));
+        }
+
+        public SparseStore conjugate(final Access2D<?> source) {
+            return this.transpose(source);
+        }
+
+        public SparseStore copy(final Access2D<?> source) {
+
+            if (source instanceof SparseStore) {
+                final SparseStore tmpSource = (SparseStore) source;
+                if (tmpSource.isCompressedColumns() == myColumns) {
+                    return tmpSource.copy();
+                } else {
+                    return tmpSource.convert();
+                }
+            }
+
+            final SparseStore retVal = this.makeZero(source.countRows(), source.countColumns());
+
+            retVal.reload(source);
+
+            return retVal;
+        }
+
+        public FunctionSet<Double> function() {
+            return PrimitiveDenseStore.FACTORY.function();
+        }
+
+        public BasicArray<Double> makeArray(final int length) {
+            return PrimitiveDenseStore.FACTORY.makeArray(length);
+        }
+
+        public SparseStore makeEye(final long rows, final long columns) {
+
+            final SparseStore retVal = this.makeZero(rows, columns);
+
+            retVal.fillDiagonal(0L, 0L, ONE);
+
+            return retVal;
+        }
+
+        public SparseStore makeFilled(final long rows, final long columns, final NullaryFunction<?> supplier) {
+            return this.copy(PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, supplier));
+        }
+
+        public Householder<Double> makeHouseholder(final int length) {
+            return PrimitiveDenseStore.FACTORY.makeHouseholder(length);
+        }
+
+        public Rotation<Double> makeRotation(final int low, final int high, final double cos, final double sin) {
+            return PrimitiveDenseStore.FACTORY.makeRotation(low, high, cos, sin);
+        }
+
+        public Rotation<Double> makeRotation(final int low, final int high, final Double cos, final Double sin) {
+            return PrimitiveDenseStore.FACTORY.makeRotation(low, high, cos, sin);
+        }
+
+        public SparseStore makeZero(final long rows, final long columns) {
+            final int tmpMajorDim = (int) (myColumns ? columns : rows);
+            return new SparseStore((int) rows, (int) columns, myColumns, new int[tmpMajorDim + 1], new int[0], new double[0]);
+        }
+
+        public SparseStore rows(final Access1D<?>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public SparseStore rows(final double[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        @SuppressWarnings("unchecked")
+        public SparseStore rows(final List<? extends Number>... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public SparseStore rows(final Number[]... source) {
+            return this.copy(PrimitiveDenseStore.FACTORY.rows(source));
+        }
+
+        public Scalar.Factory<Double> scalar() {
+            return PrimitiveDenseStore.FACTORY.scalar();
+        }
+
+        public SparseStore transpose(final Access2D<?> source) {
+            if (source instanceof SparseStore) {
+                return this.copy(((SparseStore) source).transpose());
+            } else {
+                return this.copy(new TransposedStore<>(PrimitiveDenseStore.FACTORY.copy(source)));
+            }
+        }
+
+    }
+
+    /**
+     * Collects (row, column, value) triplets, in any order, and then compresses them all at once. Building is
+     * linear in the number of triplets and the dimensions. Setting the same element more than once keeps the
+     * last value, and zeros are not stored.
+     */
+    public static final class Triplets implements Access2D.Fillable<Double> {
+
+        private int myCount = 0;
+        private int[] myColumnIndices;
+        private final int myColDim;
+        private int[] myRowIndices;
+        private final int myRowDim;
+        private double[] myValues;
+
+        Triplets(final int rowsCount, final int columnsCount, final int capacity) {
+
+            super();
+
+            myRowDim = rowsCount;
+            myColDim = columnsCount;
+
+            final int tmpCapacity = Math.max(INITIAL_CAPACITY, capacity);
+            myRowIndices = new int[tmpCapacity];
+            myColumnIndices = new int[tmpCapacity];
+            myValues = new double[tmpCapacity];
+        }
+
+        public long count() {
+            return (long) myRowDim * (long) myColDim;
+        }
+
+        public long countColumns() {
+            return myColDim;
+        }
+
+        public long countRows() {
+            return myRowDim;
+        }
+
+        public void fillAll(final Double value) {
+            this.fillRange(0L, this.count(), value);
+        }
+
+        public void fillAll(final NullaryFunction<Double> supplier) {
+            this.fillRange(0L, this.count(), supplier);
+        }
+
+        public void fillColumn(final long row, final long column, final Double value) {
+            for (long i = row; i < myRowDim; i++) {
+                this.set(i, column, value);
+            }
+        }
+
+        public void fillColumn(final long row, final long column, final NullaryFunction<Double> supplier) {
+            for (long i = row; i < myRowDim; i++) {
+                this.set(i, column, supplier.doubleValue());
+            }
+        }
+
+        public void fillDiagonal(final long row, final long column, final Double value) {
+            final long tmpCount = Math.min(myRowDim - row, myColDim - column);
+            for (long ij = 0L; ij < tmpCount; ij++) {
+                this.set(row + ij, column + ij, value);
+            }
+        }
+
+        public void fillDiagonal(final long row, final long column, final NullaryFunction<Double> supplier) {
+            final long tmpCount = Math.min(myRowDim - row, myColDim - column);
+            for (long ij = 0L; ij < tmpCount; ij++) {
+                this.set(row + ij, column + ij, supplier.doubleValue());
+            }
+        }
+
+        public void fillRange(final long first, final long limit, final Double value) {
+            for (long index = first; index < limit; index++) {
+                this.set(index, value);
+            }
+        }
+
+        public void fillRange(final long first, final long limit, final NullaryFunction<Double> supplier) {
+            for (long index = first; index < limit; index++) {
+                this.set(index, supplier.doubleValue());
+            }
+        }
+
+        public void fillRow(final long row, final long column, final Double value) {
+            for (long j = column; j < myColDim; j++) {
+                this.set(row, j, value);
+            }
+        }
+
+        public void fillRow(final long row, final long column, final NullaryFunction<Double> supplier) {
+            for (long j = column; j < myColDim; j++) {
+                this.set(row, j, supplier.doubleValue());
+            }
+        }
+
+        public void set(final long index, final double value) {
+            this.set(AccessUtils.row(index, myRowDim), AccessUtils.column(index, myRowDim), value);
+        }
+
+        public void set(final long row, final long column, final double value) {
+
+            if ((row < 0L) || (row >= myRowDim) || (column < 0L) || (column >= myColDim)) {
+                throw new IndexOutOfBoundsException("(" + row + "," + column + ") not in " + myRowDim + "x" + myColDim);
+            }
+
+            if (myCount == myValues.length) {
+                final int tmpCapacity = 2 * myCount;
+                myRowIndices = Arrays.copyOf(myRowIndices, tmpCapacity);
+                myColumnIndices = Arrays.copyOf(myColumnIndices, tmpCapacity);
+                myValues = Arrays.copyOf(myValues, tmpCapacity);
+            }
+
+            myRowIndices[myCount] = (int) row;
+            myColumnIndices[myCount] = (int) column;
+            myValues[myCount] = value;
+            myCount++;
+        }
+
+        public void set(final long row, final long column, final Number value) {
+            this.set(row, column, value.doubleValue());
+        }
+
+        public void set(final long index, final Number value) {
+            this.set(index, value.doubleValue());
+        }
+
+        /**
+         * @return A new compressed sparse column store
+         */
+        public SparseStore toCSC() {
+            return this.compress(true);
+        }
+
+        /**
+         * @return A new compressed sparse row store
+         */
+        public SparseStore toCSR() {
+            return this.compress(false);
+        }
+
+        /**
+         * Two stable counting sorts, first by minor and then by major index, leave the triplets sorted by
+         * (major, minor) and in the order they were set among equal keys.
+         */
+        private SparseStore compress(final boolean columns) {
+
+            final int tmpMajorDim = columns ? myColDim : myRowDim;
+            final int tmpMinorDim = columns ? myRowDim : myColDim;
+            final int[] tmpMajors = columns ? myColumnIndices : myRowIndices;
+            final int[] tmpMinors = columns ? myRowIndices : myColumnIndices;
+
+            final int[] tmpOrder = new int[myCount];
+            for (int k = 0; k < myCount; k++) {
+                tmpOrder[k] = k;
+            }
+
+            final int[] tmpByMinor = Triplets.sort(tmpMinors, tmpMinorDim, tmpOrder, myCount, new int[tmpMinorDim + 1]);
+            final int[] tmpBuckets = new int[tmpMajorDim + 1];
+            final int[] tmpSorted = Triplets.sort(tmpMajors, tmpMajorDim, tmpByMinor, myCount, tmpBuckets);
+
+            final int[] tmpPointers = new int[tmpMajorDim + 1];
+            final int[] tmpIndices = new int[myCount];
+            final double[] tmpValues = new double[myCount];
+
+            int tmpKept = 0;
+            for (int m = 0; m < tmpMajorDim; m++) {
+                tmpPointers[m] = tmpKept;
+                final int tmpLimit = tmpBuckets[m + 1];
+                for (int k = tmpBuckets[m]; k < tmpLimit; k++) {
+                    final int tmpTriplet = tmpSorted[k];
+                    final int tmpMinor = tmpMinors[tmpTriplet];
+                    // Only the last of equal (major, minor) keys counts
+                    if (((k + 1) == tmpLimit) || (tmpMinors[tmpSorted[k + 1]] != tmpMinor)) {
+                        final double tmpValue = myValues[tmpTriplet];
+                        if (tmpValue != ZERO) {
+                            tmpIndices[tmpKept] = tmpMinor;
+                            tmpValues[tmpKept] = tmpValue;
+                            tmpKept++;
+                        }
+                    }
+                }
+            }
+            tmpPointers[tmpMajorDim] = tmpKept;
+
+            return new SparseStore(myRowDim, myColDim, columns, tmpPointers, tmpIndices, tmpValues);
+        }
+
+        /**
+         * @param buckets Will be filled with the start positions of each key (and the total count last)
+         * @return The triplets of order, stably sorted by key
+         */
+        private static int[] sort(final int[] keys, final int dim, final int[] order, final int count, final int[] buckets) {
+
+            for (int k = 0; k < count; k++) {
+                buckets[keys[order[k]] + 1]++;
+            }
+            for (int d = 0; d < dim; d++) {
+                buckets[d + 1] += buckets[d];
+            }
+
+            final int[] tmpNext = Arrays.copyOf(buckets, dim);
+            final int[] retVal = new int[count];
+            for (int k = 0; k < count; k++) {
+                final int tmpTriplet = order[k];
+                retVal[tmpNext[keys[tmpTriplet]]++] = tmpTriplet;
+            }
+
+            return retVal;
+        }
+
+    }
+
+    /**
+     * Compressed sparse column
+     */
+    public static final PhysicalStore.Factory<Double, SparseStore> FACTORY = new SparseStore.Factory(true);
+
+    /**
+     * Compressed sparse row
+     */
+    public static final PhysicalStore.Factory<Double, SparseStore> FACTORY_CSR = new SparseStore.Factory(false);
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long serialVersionUID = 6094436178406622347L;
+
+    /**
+     * @param capacity The expected number of (nonzero) elements
+     */
+    public static SparseStore.Triplets makeTriplets(final long rows, final long columns, final int capacity) {
+        return new SparseStore.Triplets((int) rows, (int) columns, capacity);
+    }
+
+    private final boolean myColumns;
+    private int[] myIndices;
+    private final int myMajorDim;
+    private final int myMinorDim;
+    private int[] myPointers;
+    /**
+     * The pointers after {@link #myShiftFrom} are all {@link #myShift} larger than stored in
+     * {@link #myPointers}.
+     */
+    private int myShift = 0;
+    private int myShiftFrom;
+    private double[] myValues;
+
+    @SuppressWarnings("unused")
+    private SparseStore() {
+        this(0, 0, true, new int[1], new int[0], new double[0]);
+    }
+
+    SparseStore(final int rowsCount, final int columnsCount, final boolean columns, final int[] pointers, final int[] indices, final double[] values) {
+
+        super(rowsCount, columnsCount);
+
+        myColumns = columns;
+        myMajorDim = columns ? columnsCount : rowsCount;
+        myMinorDim = columns ? rowsCount : columnsCount;
+
+        myPointers = pointers;
+        myIndices = indices;
+        myValues = values;
+
+        myShiftFrom = myMajorDim;
+    }
+
+    public void accept(final Access2D<Double> supplied) {
+        if ((supplied.countRows() == this.countRows()) && (supplied.countColumns() == this.countColumns())) {
+            this.reload(supplied);
+        } else {
+            for (long j = 0L; j < supplied.countColumns(); j++) {
+                for (long i = 0L; i < supplied.countRows(); i++) {
+                    this.set(i, j, supplied.doubleValue(i, j));
+                }
+            }
+        }
+    }
+
+    public List<Double> asList() {
+        return new AbstractList<Double>() {
+
+            @Override
+            public Double get(final int index) {
+                return SparseStore.this.get(index);
+            }
+
+            @Override
+            public Double set(final int index, final Double value) {
+                final Double retVal = SparseStore.this.get(index);
+                SparseStore.this.set(index, value);
+                return retVal;
+            }
+
+            @Override
+            public int size() {
+                return (int) SparseStore.this.count();
+            }
+        };
+    }
+
+    /**
+     * @deprecated v32 See {@link PhysicalStore#caxpy(Number, int, int, int)}
+     */
+    @Deprecated
+    public void caxpy(final Double scalarA, final int columnX, final int columnY, final int firstRow) {
+        final double tmpScalar = scalarA.doubleValue();
+        for (int i = firstRow; i < this.getRowDim(); i++) {
+            this.set(i, columnY, this.doubleValue(i, columnY) + (tmpScalar * this.doubleValue(i, columnX)));
+        }
+    }
+
+    @Override
+    public SparseStore conjugate() {
+        return this.transpose();
+    }
+
+    @Override
+    public SparseStore copy() {
+        this.flush();
+        final int tmpCount = this.countNonzeros();
+        return new SparseStore(this.getRowDim(), this.getColDim(), myColumns, myPointers.clone(), Arrays.copyOf(myIndices, tmpCount),
+                Arrays.copyOf(myValues, tmpCount));
+    }
+
+    /**
+     * @return The number of stored (nonzero) elements
+     */
+    public int countNonzeros() {
+        return this.pointer(myMajorDim);
+    }
+
+    public double doubleValue(final long row, final long column) {
+        final int tmpIndex = this.find((int) row, (int) column);
+        return tmpIndex >= 0 ? myValues[tmpIndex] : ZERO;
+    }
+
+    public void exchangeColumns(final int colA, final int colB) {
+        if (myColumns) {
+            this.exchangeMajor(colA, colB);
+        } else {
+            this.exchangeMinor(colA, colB);
+        }
+    }
+
+    public void exchangeRows(final int rowA, final int rowB) {
+        if (myColumns) {
+            this.exchangeMinor(rowA, rowB);
+        } else {
+            this.exchangeMajor(rowA, rowB);
+        }
+    }
+
+    public PhysicalStore.Factory<Double, SparseStore> factory() {
+        return myColumns ? FACTORY : FACTORY_CSR;
+    }
+
+    public void fillAll(final Double value) {
+        if (value.doubleValue() == ZERO) {
+            Arrays.fill(myPointers, 0);
+            myShift = 0;
+        } else {
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+            tmpDense.fillAll(value);
+            this.reload(tmpDense);
+        }
+    }
+
+    public void fillAll(final NullaryFunction<Double> supplier) {
+        this.reload(PrimitiveDenseStore.FACTORY.makeFilled(this.countRows(), this.countColumns(), supplier));
+    }
+
+    public void fillByMultiplying(final Access1D<Double> left, final Access1D<Double> right) {
+        if ((left instanceof SparseStore) && (right instanceof SparseStore)) {
+            final SparseStore tmpProduct = ((SparseStore) left).multiply((SparseStore) right);
+            final SparseStore tmpSource = tmpProduct.isCompressedColumns() == myColumns ? tmpProduct : tmpProduct.convert();
+            tmpSource.flush();
+            myPointers = tmpSource.myPointers;
+            myIndices = tmpSource.myIndices;
+            myValues = tmpSource.myValues;
+            myShift = 0;
+        } else {
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+            tmpDense.fillByMultiplying(left, right);
+            this.reload(tmpDense);
+        }
+    }
+
+    public void fillColumn(final long row, final long column, final Double value) {
+        for (long i = row; i < this.countRows(); i++) {
+            this.set(i, column, value);
+        }
+    }
+
+    public void fillColumn(final long row, final long column, final NullaryFunction<Double> supplier) {
+        for (long i = row; i < this.countRows(); i++) {
+            this.set(i, column, supplier.doubleValue());
+        }
+    }
+
+    /**
+     * @deprecated v38 Use {@link #conjugate()} or {@link PhysicalStore.Factory#conjugate(Access2D)} instead.
+     */
+    @Deprecated
+    public void fillConjugated(final Access2D<? extends Number> source) {
+        this.reload(new TransposedStore<>(PrimitiveDenseStore.FACTORY.copy(source)));
+    }
+
+    public void fillDiagonal(final long row, final long column, final Double value) {
+        final long tmpCount = Math.min(this.countRows() - row, this.countColumns() - column);
+        for (long ij = 0L; ij < tmpCount; ij++) {
+            this.set(row + ij, column + ij, value);
+        }
+    }
+
+    public void fillDiagonal(final long row, final long column, final NullaryFunction<Double> supplier) {
+        final long tmpCount = Math.min(this.countRows() - row, this.countColumns() - column);
+        for (long ij = 0L; ij < tmpCount; ij++) {
+            this.set(row + ij, column + ij, supplier.doubleValue());
+        }
+    }
+
+    public void fillMatching(final Access1D<? extends Number> source) {
+        if (source instanceof Access2D<?>) {
+            this.reload((Access2D<?>) source);
+        } else {
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+            tmpDense.fillMatching(source);
+            this.reload(tmpDense);
+        }
+    }
+
+    public void fillMatching(final Access1D<Double> left, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+        tmpDense.fillMatching(left, function, right);
+        this.reload(tmpDense);
+    }
+
+    public void fillMatching(final Access1D<Double> left, final BinaryFunction<Double> function, final Double right) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+        tmpDense.fillMatching(left, function, right);
+        this.reload(tmpDense);
+    }
+
+    public void fillMatching(final Double left, final BinaryFunction<Double> function, final Access1D<Double> right) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), this.countColumns());
+        tmpDense.fillMatching(left, function, right);
+        this.reload(tmpDense);
+    }
+
+    public void fillRange(final long first, final long limit, final Double value) {
+        for (long index = first; index < limit; index++) {
+            this.set(index, value);
+        }
+    }
+
+    public void fillRange(final long first, final long limit, final NullaryFunction<Double> supplier) {
+        for (long index = first; index < limit; index++) {
+            this.set(index, supplier.doubleValue());
+        }
+    }
+
+    public void fillRow(final long row, final long column, final Double value) {
+        for (long j = column; j < this.countColumns(); j++) {
+            this.set(row, j, value);
+        }
+    }
+
+    public void fillRow(final long row, final long column, final NullaryFunction<Double> supplier) {
+        for (long j = column; j < this.countColumns(); j++) {
+            this.set(row, j, supplier.doubleValue());
+        }
+    }
+
+    /**
+     * @deprecated v38 Use {@link #transpose()} or {@link PhysicalStore.Factory#transpose(Access2D)} instead.
+     */
+    @Deprecated
+    public void fillTransposed(final Access2D<? extends Number> source) {
+        this.reload(new TransposedStore<>(PrimitiveDenseStore.FACTORY.copy(source)));
+    }
+
+    public Double get(final long row, final long column) {
+        return this.doubleValue(row, column);
+    }
+
+    /**
+     * @return true if compressed sparse column (CSC), false if compressed sparse row (CSR)
+     */
+    public boolean isCompressedColumns() {
+        return myColumns;
+    }
+
+    public boolean isLowerLeftShaded() {
+        return false;
+    }
+
+    public boolean isUpperRightShaded() {
+        return false;
+    }
+
+    /**
+     * @deprecated v32 See {@link PhysicalStore#maxpy(Number, MatrixStore)}
+     */
+    @Deprecated
+    public void maxpy(final Double scalarA, final MatrixStore<Double> matrixX) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+        tmpDense.maxpy(scalarA, matrixX);
+        this.reload(tmpDense);
+    }
+
+    public void modifyAll(final UnaryFunction<Double> function) {
+        if (function.invoke(ZERO) == ZERO) {
+            final int tmpCount = this.countNonzeros();
+            for (int k = 0; k < tmpCount; k++) {
+                myValues[k] = function.invoke(myValues[k]);
+            }
+            this.compact();
+        } else {
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+            tmpDense.modifyAll(function);
+            this.reload(tmpDense);
+        }
+    }
+
+    public void modifyColumn(final long row, final long column, final UnaryFunction<Double> function) {
+        for (long i = row; i < this.countRows(); i++) {
+            this.modifyOne(i, column, function);
+        }
+    }
+
+    public void modifyDiagonal(final long row, final long column, final UnaryFunction<Double> function) {
+        final long tmpCount = Math.min(this.countRows() - row, this.countColumns() - column);
+        for (long ij = 0L; ij < tmpCount; ij++) {
+            this.modifyOne(row + ij, column + ij, function);
+        }
+    }
+
+    public void modifyOne(final long row, final long column, final UnaryFunction<Double> function) {
+        this.set(row, column, function.invoke(this.doubleValue(row, column)));
+    }
+
+    public void modifyOne(final long index, final UnaryFunction<Double> function) {
+        this.set(index, function.invoke(this.doubleValue(index)));
+    }
+
+    public void modifyRange(final long first, final long limit, final UnaryFunction<Double> function) {
+        for (long index = first; index < limit; index++) {
+            this.modifyOne(index, function);
+        }
+    }
+
+    public void modifyRow(final long row, final long column, final UnaryFunction<Double> function) {
+        for (long j = column; j < this.countColumns(); j++) {
+            this.modifyOne(row, j, function);
+        }
+    }
+
+    /**
+     * Sparse-sparse returns a (CSC) {@linkplain SparseStore}, sparse-dense returns a
+     * {@linkplain PrimitiveDenseStore}.
+     */
+    @Override
+    public MatrixStore<Double> multiply(final Access1D<Double> right) {
+        if (right instanceof SparseStore) {
+            return this.multiply((SparseStore) right);
+        } else {
+            final int tmpColDim = (int) (right.count() / this.countColumns());
+            final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(this.countRows(), tmpColDim);
+            this.multiply(right, tmpColDim, retVal.data);
+            return retVal;
+        }
+    }
+
+    /**
+     * Gustavson's algorithm - both factors are (if necessary converted to) CSC, and so is the product.
+     */
+    public SparseStore multiply(final SparseStore right) {
+
+        final SparseStore tmpLeft = this.toCSC();
+        final SparseStore tmpRight = right.toCSC();
+
+        tmpLeft.flush();
+        tmpRight.flush();
+
+        final int tmpRowDim = tmpLeft.getRowDim();
+        final int tmpColDim = tmpRight.getColDim();
+
+        final double[] tmpWork = new double[tmpRowDim];
+        final int[] tmpMarker = new int[tmpRowDim];
+        Arrays.fill(tmpMarker, -1);
+
+        final int[] tmpPointers = new int[tmpColDim + 1];
+        int[] tmpIndices = new int[Math.max(INITIAL_CAPACITY, tmpLeft.countNonzeros() + tmpRight.countNonzeros())];
+        double[] tmpValues = new double[tmpIndices.length];
+        int tmpCount = 0;
+
+        for (int j = 0; j < tmpColDim; j++) {
+
+            tmpPointers[j] = tmpCount;
+
+            for (int kj = tmpRight.myPointers[j]; kj < tmpRight.myPointers[j + 1]; kj++) {
+                final int k = tmpRight.myIndices[kj];
+                final double tmpVal = tmpRight.myValues[kj];
+                for (int ik = tmpLeft.myPointers[k]; ik < tmpLeft.myPointers[k + 1]; ik++) {
+                    final int i = tmpLeft.myIndices[ik];
+                    if (tmpMarker[i] != j) {
+                        tmpMarker[i] = j;
+                        if (tmpCount == tmpIndices.length) {
+                            tmpIndices = Arrays.copyOf(tmpIndices, 2 * tmpCount);
+                            tmpValues = Arrays.copyOf(tmpValues, 2 * tmpCount);
+                        }
+                        tmpIndices[tmpCount++] = i;
+                        tmpWork[i] = tmpLeft.myValues[ik] * tmpVal;
+                    } else {
+                        tmpWork[i] += tmpLeft.myValues[ik] * tmpVal;
+                    }
+                }
+            }
+
+            final int tmpFirst = tmpPointers[j];
+            Arrays.sort(tmpIndices, tmpFirst, tmpCount);
+
+            int tmpKept = tmpFirst;
+            for (int ij = tmpFirst; ij < tmpCount; ij++) {
+                final int i = tmpIndices[ij];
+                if (tmpWork[i] != ZERO) {
+                    tmpIndices[tmpKept] = i;
+                    tmpValues[tmpKept] = tmpWork[i];
+                    tmpKept++;
+                }
+            }
+            tmpCount = tmpKept;
+        }
+        tmpPointers[tmpColDim] = tmpCount;
+
+        return new SparseStore(tmpRowDim, tmpColDim, true, tmpPointers, tmpIndices, tmpValues);
+    }
+
+    @Override
+    public MatrixStore<Double> multiplyLeft(final Access1D<Double> leftMtrx) {
+        if (leftMtrx instanceof SparseStore) {
+            return ((SparseStore) leftMtrx).multiply(this);
+        } else {
+            final int tmpRowDim = (int) (leftMtrx.count() / this.countRows());
+            final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, this.countColumns());
+            this.multiplyLeft(leftMtrx, tmpRowDim, retVal.data);
+            return retVal;
+        }
+    }
+
+    /**
+     * @deprecated v32 See {@link PhysicalStore#raxpy(Number, int, int, int)}
+     */
+    @Deprecated
+    public void raxpy(final Double scalarA, final int rowX, final int rowY, final int firstColumn) {
+        final double tmpScalar = scalarA.doubleValue();
+        for (int j = firstColumn; j < this.getColDim(); j++) {
+            this.set(rowY, j, this.doubleValue(rowY, j) + (tmpScalar * this.doubleValue(rowX, j)));
+        }
+    }
+
+    public MatrixStore.ElementsConsumer<Double> region(final int row, final int column) {
+        return new PhysicalStore.ConsumerRegion<Double>(this, row, column);
+    }
+
+    @Override
+    public SparseStore scale(final Double scalar) {
+        final SparseStore retVal = this.copy();
+        retVal.modifyAll(PrimitiveDenseStore.FACTORY.function().multiply().first(scalar));
+        return retVal;
+    }
+
+    public void set(final long index, final double value) {
+        final int tmpRowDim = this.getRowDim();
+        this.set(AccessUtils.row(index, tmpRowDim), AccessUtils.column(index, tmpRowDim), value);
+    }
+
+    public void set(final long row, final long column, final double value) {
+
+        final int tmpMajor = (int) (myColumns ? column : row);
+        final int tmpIndex = this.find((int) row, (int) column);
+
+        if (tmpIndex >= 0) {
+            if (value == ZERO) {
+                this.remove(tmpMajor, tmpIndex);
+            } else {
+                myValues[tmpIndex] = value;
+            }
+        } else if (value != ZERO) {
+            this.insert(tmpMajor, (int) (myColumns ? row : column), -(tmpIndex + 1), value);
+        }
+    }
+
+    public void set(final long row, final long column, final Number value) {
+        this.set(row, column, value.doubleValue());
+    }
+
+    public void set(final long index, final Number value) {
+        this.set(index, value.doubleValue());
+    }
+
+    /**
+     * @return This store if it already is CSC, otherwise a converted copy
+     */
+    public SparseStore toCSC() {
+        return myColumns ? this : this.convert();
+    }
+
+    /**
+     * @return This store if it already is CSR, otherwise a converted copy
+     */
+    public SparseStore toCSR() {
+        return myColumns ? this.convert() : this;
+    }
+
+    public PrimitiveScalar toScalar(final long row, final long column) {
+        return new PrimitiveScalar(this.doubleValue(row, column));
+    }
+
+    public void transformLeft(final Householder<Double> transformation, final int firstColumn) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+        tmpDense.transformLeft(transformation, firstColumn);
+        this.reload(tmpDense);
+    }
+
+    public void transformLeft(final Rotation<Double> transformation) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+        tmpDense.transformLeft(transformation);
+        this.reload(tmpDense);
+    }
+
+    public void transformRight(final Householder<Double> transformation, final int firstRow) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+        tmpDense.transformRight(transformation, firstRow);
+        this.reload(tmpDense);
+    }
+
+    public void transformRight(final Rotation<Double> transformation) {
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(this);
+        tmpDense.transformRight(transformation);
+        this.reload(tmpDense);
+    }
+
+    /**
+     * The CSC arrays of a matrix are the CSR arrays of its transpose (and vice versa) - no reordering needed.
+     */
+    @Override
+    public SparseStore transpose() {
+        this.flush();
+        final int tmpCount = this.countNonzeros();
+        return new SparseStore(this.getColDim(), this.getRowDim(), !myColumns, myPointers.clone(), Arrays.copyOf(myIndices, tmpCount),
+                Arrays.copyOf(myValues, tmpCount));
+    }
+
+    /**
+     * Visits the nonzero elements, column by column (CSC) or row by row (CSR).
+     */
+    public void visitNonzeros(final NonzeroVisitor visitor) {
+        for (int m = 0; m < myMajorDim; m++) {
+            this.visitMajor(m, visitor);
+        }
+    }
+
+    /**
+     * Efficient for CSC, requires one binary search per row for CSR.
+     */
+    public void visitNonzerosInColumn(final long column, final NonzeroVisitor visitor) {
+        if (myColumns) {
+            this.visitMajor((int) column, visitor);
+        } else {
+            this.visitMinor((int) column, visitor);
+        }
+    }
+
+    /**
+     * Efficient for CSR, requires one binary search per column for CSC.
+     */
+    public void visitNonzerosInRow(final long row, final NonzeroVisitor visitor) {
+        if (myColumns) {
+            this.visitMinor((int) row, visitor);
+        } else {
+            this.visitMajor((int) row, visitor);
+        }
+    }
+
+    private void compact() {
+        this.flush();
+        int tmpKept = 0;
+        int tmpFirst = 0;
+        for (int m = 0; m < myMajorDim; m++) {
+            final int tmpLimit = myPointers[m + 1];
+            myPointers[m] = tmpKept;
+            for (int k = tmpFirst; k < tmpLimit; k++) {
+                if (myValues[k] != ZERO) {
+                    myIndices[tmpKept] = myIndices[k];
+                    myValues[tmpKept] = myValues[k];
+                    tmpKept++;
+                }
+            }
+            tmpFirst = tmpLimit;
+        }
+        myPointers[myMajorDim] = tmpKept;
+    }
+
+    private void exchangeMajor(final int majorA, final int majorB) {
+
+        this.flush();
+
+        final int tmpCount = this.countNonzeros();
+
+        final int[] tmpPointers = new int[myMajorDim + 1];
+        final int[] tmpIndices = new int[tmpCount];
+        final double[] tmpValues = new double[tmpCount];
+
+        int tmpNext = 0;
+        for (int m = 0; m < myMajorDim; m++) {
+            tmpPointers[m] = tmpNext;
+            final int tmpSource = m == majorA ? majorB : (m == majorB ? majorA : m);
+            final int tmpLength = myPointers[tmpSource + 1] - myPointers[tmpSource];
+            System.arraycopy(myIndices, myPointers[tmpSource], tmpIndices, tmpNext, tmpLength);
+            System.arraycopy(myValues, myPointers[tmpSource], tmpValues, tmpNext, tmpLength);
+            tmpNext += tmpLength;
+        }
+        tmpPointers[myMajorDim] = tmpNext;
+
+        myPointers = tmpPointers;
+        myIndices = tmpIndices;
+        myValues = tmpValues;
+    }
+
+    private void exchangeMinor(final int minorA, final int minorB) {
+        this.flush();
+        for (int m = 0; m < myMajorDim; m++) {
+
+            final int tmpFirst = myPointers[m];
+            final int tmpLimit = myPointers[m + 1];
+
+            final int tmpIndexA = Arrays.binarySearch(myIndices, tmpFirst, tmpLimit, minorA);
+            final int tmpIndexB = Arrays.binarySearch(myIndices, tmpFirst, tmpLimit, minorB);
+
+            if ((tmpIndexA >= 0) && (tmpIndexB >= 0)) {
+                final double tmpVal = myValues[tmpIndexA];
+                myValues[tmpIndexA] = myValues[tmpIndexB];
+                myValues[tmpIndexB] = tmpVal;
+            } else if (tmpIndexA >= 0) {
+                myIndices[tmpIndexA] = minorB;
+                this.resort(tmpIndexA, tmpFirst, tmpLimit);
+            } else if (tmpIndexB >= 0) {
+                myIndices[tmpIndexB] = minorA;
+                this.resort(tmpIndexB, tmpFirst, tmpLimit);
+            }
+        }
+    }
+
+    /**
+     * @return The position of the element in the internal arrays, or (-(insertion point) - 1) if it is not
+     *         stored - same as {@linkplain Arrays#binarySearch(int[], int, int, int)}.
+     */
+    private int find(final int row, final int column) {
+        final int tmpMajor = myColumns ? column : row;
+        return Arrays.binarySearch(myIndices, this.pointer(tmpMajor), this.pointer(tmpMajor + 1), myColumns ? row : column);
+    }
+
+    /**
+     * Apply any pending (lazy) pointer shift
+     */
+    private void flush() {
+        if (myShift != 0) {
+            synchronized (this) {
+                if (myShift != 0) {
+                    for (int m = myShiftFrom + 1; m <= myMajorDim; m++) {
+                        myPointers[m] += myShift;
+                    }
+                    myShift = 0;
+                    myShiftFrom = myMajorDim;
+                }
+            }
+        }
+    }
+
+    private void insert(final int major, final int minor, final int position, final double value) {
+
+        final int tmpCount = this.countNonzeros();
+
+        if (tmpCount == myIndices.length) {
+            final int tmpCapacity = Math.max(INITIAL_CAPACITY, 2 * tmpCount);
+            myIndices = Arrays.copyOf(myIndices, tmpCapacity);
+            myValues = Arrays.copyOf(myValues, tmpCapacity);
+        }
+
+        System.arraycopy(myIndices, position, myIndices, position + 1, tmpCount - position);
+        System.arraycopy(myValues, position, myValues, position + 1, tmpCount - position);
+
+        myIndices[position] = minor;
+        myValues[position] = value;
+
+        this.shift(major, 1);
+    }
+
+    /**
+     * Sparse * dense (column-major, any {@linkplain Access1D}) into a dense column-major product array that is
+     * overwritten.
+     */
+    void multiply(final Access1D<Double> right, final int columns, final double[] product) {
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpComplexity = this.getColDim();
+
+        final double[] tmpRight = PrimitiveDenseStore.cast(right).data;
+
+        this.flush();
+
+        Arrays.fill(product, 0, tmpRowDim * columns, ZERO);
+
+        for (int m = 0; m < myMajorDim; m++) {
+            for (int mn = myPointers[m]; mn < myPointers[m + 1]; mn++) {
+                final int i = myColumns ? myIndices[mn] : m;
+                final int k = myColumns ? m : myIndices[mn];
+                final double tmpVal = myValues[mn];
+                for (int j = 0; j < columns; j++) {
+                    product[i + (j * tmpRowDim)] += tmpVal * tmpRight[k + (j * tmpComplexity)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Dense (column-major, any {@linkplain Access1D}) * sparse into a dense column-major product array that is
+     * overwritten.
+     */
+    void multiplyLeft(final Access1D<Double> left, final int rows, final double[] product) {
+
+        final double[] tmpLeft = PrimitiveDenseStore.cast(left).data;
+
+        this.flush();
+
+        Arrays.fill(product, 0, rows * this.getColDim(), ZERO);
+
+        for (int m = 0; m < myMajorDim; m++) {
+            for (int mn = myPointers[m]; mn < myPointers[m + 1]; mn++) {
+                final int k = myColumns ? myIndices[mn] : m;
+                final int j = myColumns ? m : myIndices[mn];
+                final double tmpVal = myValues[mn];
+                final int tmpLeftOffset = k * rows;
+                final int tmpProductOffset = j * rows;
+                for (int i = 0; i < rows; i++) {
+                    product[tmpProductOffset + i] += tmpLeft[tmpLeftOffset + i] * tmpVal;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace all elements with those of source (same dimensions), scanning it in column/row-order.
+     */
+    void reload(final Access2D<?> source) {
+
+        final int[] tmpPointers = new int[myMajorDim + 1];
+        int[] tmpIndices = new int[Math.max(INITIAL_CAPACITY, this.countNonzeros())];
+        double[] tmpValues = new double[tmpIndices.length];
+
+        int tmpCount = 0;
+        for (int m = 0; m < myMajorDim; m++) {
+            tmpPointers[m] = tmpCount;
+            for (int n = 0; n < myMinorDim; n++) {
+                final double tmpVal = myColumns ? source.doubleValue(n, m) : source.doubleValue(m, n);
+                if (tmpVal != ZERO) {
+                    if (tmpCount == tmpIndices.length) {
+                        tmpIndices = Arrays.copyOf(tmpIndices, 2 * tmpCount);
+                        tmpValues = Arrays.copyOf(tmpValues, 2 * tmpCount);
+                    }
+                    tmpIndices[tmpCount] = n;
+                    tmpValues[tmpCount] = tmpVal;
+                    tmpCount++;
+                }
+            }
+        }
+        tmpPointers[myMajorDim] = tmpCount;
+
+        myPointers = tmpPointers;
+        myIndices = tmpIndices;
+        myValues = tmpValues;
+        myShift = 0;
+        myShiftFrom = myMajorDim;
+    }
+
+    /**
+     * The actual (shifted) pointer
+     */
+    private int pointer(final int major) {
+        return major > myShiftFrom ? myPointers[major] + myShift : myPointers[major];
+    }
+
+    private void remove(final int major, final int position) {
+
+        final int tmpCount = this.countNonzeros();
+
+        System.arraycopy(myIndices, position + 1, myIndices, position, tmpCount - position - 1);
+        System.arraycopy(myValues, position + 1, myValues, position, tmpCount - position - 1);
+
+        this.shift(major, -1);
+    }
+
+    /**
+     * Move the element at position (with a changed index) to its sorted place within [first, limit).
+     */
+    private void resort(final int position, final int first, final int limit) {
+        int tmpPos = position;
+        while ((tmpPos > first) && (myIndices[tmpPos - 1] > myIndices[tmpPos])) {
+            this.swap(tmpPos - 1, tmpPos);
+            tmpPos--;
+        }
+        while ((tmpPos < (limit - 1)) && (myIndices[tmpPos + 1] < myIndices[tmpPos])) {
+            this.swap(tmpPos, tmpPos + 1);
+            tmpPos++;
+        }
+    }
+
+    /**
+     * Add delta to all pointers after major. Only the pointers between major and the previous shift are
+     * actually updated.
+     */
+    private void shift(final int major, final int delta) {
+
+        if (myShift == 0) {
+            myShiftFrom = major;
+        }
+
+        if (major >= myShiftFrom) {
+            for (int m = myShiftFrom + 1; m <= major; m++) {
+                myPointers[m] += myShift;
+            }
+            myShiftFrom = major;
+        } else {
+            for (int m = major + 1; m <= myShiftFrom; m++) {
+                myPointers[m] += delta;
+            }
+        }
+
+        myShift += delta;
+    }
+
+    private void swap(final int positionA, final int positionB) {
+        final int tmpIndex = myIndices[positionA];
+        myIndices[positionA] = myIndices[positionB];
+        myIndices[positionB] = tmpIndex;
+        final double tmpValue = myValues[positionA];
+        myValues[positionA] = myValues[positionB];
+        myValues[positionB] = tmpValue;
+    }
+
+    private void visitMajor(final int major, final NonzeroVisitor visitor) {
+        this.flush();
+        for (int mn = myPointers[major]; mn < myPointers[major + 1]; mn++) {
+            if (myColumns) {
+                visitor.visit(myIndices[mn], major, myValues[mn]);
+            } else {
+                visitor.visit(major, myIndices[mn], myValues[mn]);
+            }
+        }
+    }
+
+    private void visitMinor(final int minor, final NonzeroVisitor visitor) {
+        this.flush();
+        for (int m = 0; m < myMajorDim; m++) {
+            final int tmpIndex = Arrays.binarySearch(myIndices, myPointers[m], myPointers[m + 1], minor);
+            if (tmpIndex >= 0) {
+                if (myColumns) {
+                    visitor.visit(minor, m, myValues[tmpIndex]);
+                } else {
+                    visitor.visit(m, minor, myValues[tmpIndex]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same matrix, the other compression (CSC to CSR or CSR to CSC)
+     */
+    SparseStore convert() {
+
+        this.flush();
+
+        final int tmpCount = this.countNonzeros();
+
+        final int[] tmpPointers = new int[myMinorDim + 1];
+        final int[] tmpIndices = new int[tmpCount];
+        final double[] tmpValues = new double[tmpCount];
+
+        for (int k = 0; k < tmpCount; k++) {
+            tmpPointers[myIndices[k] + 1]++;
+        }
+        for (int n = 0; n < myMinorDim; n++) {
+            tmpPointers[n + 1] += tmpPointers[n];
+        }
+
+        final int[] tmpNext = Arrays.copyOf(tmpPointers, myMinorDim);
+        for (int m = 0; m < myMajorDim; m++) {
+            for (int mn = myPointers[m]; mn < myPointers[m + 1]; mn++) {
+                final int tmpPos = tmpNext[myIndices[mn]]++;
+                tmpIndices[tmpPos] = m;
+                tmpValues[tmpPos] = myValues[mn];
+            }
+        }
+
+        return new SparseStore(this.getRowDim(), this.getColDim(), !myColumns, tmpPointers, tmpIndices, tmpValues);
+    }
+
+}
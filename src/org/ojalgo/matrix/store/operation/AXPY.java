@@ -28,7 +28,7 @@ import org.ojalgo.scalar.ComplexNumber;
 
 public abstract class AXPY implements BLAS1 {
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(AXPY.class, 128);
 
     public static void invoke(final BigDecimal[] vectorY, final int offsetY, final int stepY, final BigDecimal scalar, final BigDecimal[] vectorX,
             final int offsetX, final int stepX, final int count) {
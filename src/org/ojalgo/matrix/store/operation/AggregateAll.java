@@ -25,7 +25,7 @@ public final class AggregateAll extends MatrixOperation {
 
     public static final AggregateAll SETUP = new AggregateAll();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(AggregateAll.class, 64);
 
     private AggregateAll() {
         super();
@@ -29,7 +29,7 @@ public final class ApplyLU extends MatrixOperation {
 
     public static final ApplyLU SETUP = new ApplyLU();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = Calibration.threshold(ApplyLU.class, 256);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int columnLimit, final BigDecimal[] multipliers,
             final int iterationPoint) {
@@ -0,0 +1,176 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Blocked, right-looking, in-place Cholesky decomposition of primitive double column-major data. A panel of
+ * {@value #BLOCK} columns is factored column by column, and then the trailing submatrix is updated with a
+ * single rank-{@value #BLOCK} update using {@linkplain GEMM}. The trailing update is split between threads.
+ * Only the lower triangular part is read and written - same as with the unblocked algorithm using
+ * {@linkplain ApplyCholesky}.
+ *
+ * @author apete
+ */
+public final class BlockedCholesky extends MatrixOperation {
+
+    public static final BlockedCholesky SETUP = new BlockedCholesky();
+
+    /**
+     * The blocked algorithm is used for matrices with at least this many rows/columns, and the trailing
+     * matrix update is split between threads when it has more than this many columns.
+     */
+    public static int THRESHOLD = Calibration.threshold(BlockedCholesky.class, 128);
+
+    /**
+     * Panel width
+     */
+    static final int BLOCK = 64;
+
+    /**
+     * @param data The (square) matrix to decompose. On return the lower triangular part contains [L].
+     * @param structure The number of rows/columns
+     * @return true if the matrix was positive definite (all pivots positive)
+     */
+    public static boolean invoke(final double[] data, final int structure) {
+
+        for (int k = 0; k < structure; k += BLOCK) {
+
+            final int tmpPanel = k;
+            final int tmpBlock = Math.min(BLOCK, structure - tmpPanel);
+            final int tmpNext = tmpPanel + tmpBlock;
+
+            if (!BlockedCholesky.panel(data, structure, tmpPanel, tmpNext)) {
+                return false;
+            }
+
+            final int tmpCount = structure - tmpNext;
+
+            if (tmpCount > 0) {
+
+                // Transposed copy of the panel part below the diagonal block - the right hand factor of the update
+                final double[] tmpTransposed = new double[tmpBlock * tmpCount];
+                for (int i = 0; i < tmpCount; i++) {
+                    for (int p = 0; p < tmpBlock; p++) {
+                        tmpTransposed[p + (i * tmpBlock)] = data[tmpNext + i + ((tmpPanel + p) * structure)];
+                    }
+                }
+
+                if (tmpCount > THRESHOLD) {
+
+                    final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                        @Override
+                        protected void conquer(final int first, final int limit) {
+                            BlockedCholesky.update(data, structure, first, limit, tmpPanel, tmpBlock, tmpTransposed);
+                        }
+                    };
+
+                    tmpConquerer.invoke(tmpNext, structure, THRESHOLD);
+
+                } else {
+
+                    BlockedCholesky.update(data, structure, tmpNext, structure, tmpPanel, tmpBlock, tmpTransposed);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Unblocked factorisation of the columns [first,limit) - only those columns are updated.
+     */
+    static boolean panel(final double[] data, final int structure, final int first, final int limit) {
+
+        for (int ij = first; ij < limit; ij++) {
+
+            final int tmpColBase = ij * structure;
+            final double tmpDiagonal = data[ij + tmpColBase];
+
+            if (tmpDiagonal > ZERO) {
+
+                final double tmpSqrt = Math.sqrt(tmpDiagonal);
+                data[ij + tmpColBase] = tmpSqrt;
+
+                for (int i = ij + 1; i < structure; i++) {
+                    data[i + tmpColBase] /= tmpSqrt;
+                }
+
+                for (int j = ij + 1; j < limit; j++) {
+                    SubtractScaledVector.invoke(data, j * structure, data, tmpColBase, data[j + tmpColBase], j, structure);
+                }
+
+            } else {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Subtracts [L21][L21]<sup>T</sup> from the trailing matrix columns [first,limit), on and below the
+     * diagonal.
+     */
+    static void update(final double[] data, final int structure, final int first, final int limit, final int panel, final int width,
+            final double[] transposed) {
+
+        final int tmpTrailing = panel + width;
+
+        for (int jb = first; jb < limit; jb += BLOCK) {
+
+            final int tmpLimit = Math.min(jb + BLOCK, limit);
+
+            // The diagonal block - only the lower triangular part
+            for (int j = jb; j < tmpLimit; j++) {
+                final int tmpColBase = (j - tmpTrailing) * width;
+                for (int i = j; i < tmpLimit; i++) {
+                    final int tmpRowBase = (i - tmpTrailing) * width;
+                    double tmpSum = ZERO;
+                    for (int p = 0; p < width; p++) {
+                        tmpSum += transposed[p + tmpRowBase] * transposed[p + tmpColBase];
+                    }
+                    data[i + (j * structure)] -= tmpSum;
+                }
+            }
+
+            // Everything below the diagonal block
+            GEMM.subtract(data, structure, tmpLimit, jb, structure - tmpLimit, tmpLimit - jb, data, structure, tmpLimit, panel, width, transposed, width, 0,
+                    jb - tmpTrailing);
+        }
+    }
+
+    private BlockedCholesky() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
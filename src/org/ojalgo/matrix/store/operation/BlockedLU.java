@@ -0,0 +1,171 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Blocked, right-looking, in-place LU decomposition with partial (row) pivoting of primitive double
+ * column-major data. A panel of {@value #BLOCK} columns is factored column by column (row exchanges are
+ * applied to the full rows), the corresponding block row of [U] is solved for, and then the trailing
+ * submatrix is updated using {@linkplain GEMM}. The block row solve and trailing update are split between
+ * threads. The result is the same as with the unblocked algorithm using {@linkplain ApplyLU}.
+ *
+ * @author apete
+ */
+public final class BlockedLU extends MatrixOperation {
+
+    public static final BlockedLU SETUP = new BlockedLU();
+
+    /**
+     * The blocked algorithm is used for matrices with at least this many rows and columns, and the trailing
+     * matrix update is split between threads when it has more than this many columns.
+     */
+    public static int THRESHOLD = Calibration.threshold(BlockedLU.class, 128);
+
+    /**
+     * Panel width
+     */
+    static final int BLOCK = 64;
+
+    /**
+     * @param data The matrix to decompose. On return it contains [L] (unit diagonal not stored) below, and [U]
+     *        on and above, the diagonal.
+     * @param structure The number of rows
+     * @param columns The number of columns
+     * @param pivots Will contain the row exchanges; row ij was exchanged with row pivots[ij] (in that order).
+     *        The length must be at least min(structure, columns).
+     */
+    public static void invoke(final double[] data, final int structure, final int columns, final int[] pivots) {
+
+        final int tmpMinDim = Math.min(structure, columns);
+
+        for (int k = 0; k < tmpMinDim; k += BLOCK) {
+
+            final int tmpPanel = k;
+            final int tmpNext = Math.min(tmpPanel + BLOCK, tmpMinDim);
+
+            BlockedLU.panel(data, structure, columns, tmpPanel, tmpNext, pivots);
+
+            if ((columns - tmpNext) > THRESHOLD) {
+
+                final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                    @Override
+                    protected void conquer(final int first, final int limit) {
+                        BlockedLU.update(data, structure, first, limit, tmpPanel, tmpNext);
+                    }
+                };
+
+                tmpConquerer.invoke(tmpNext, columns, THRESHOLD);
+
+            } else {
+
+                BlockedLU.update(data, structure, tmpNext, columns, tmpPanel, tmpNext);
+            }
+        }
+    }
+
+    /**
+     * Unblocked factorisation of the columns [first,limit) - only those columns are updated, but row
+     * exchanges are applied to the full rows.
+     */
+    static void panel(final double[] data, final int structure, final int columns, final int first, final int limit, final int[] pivots) {
+
+        for (int ij = first; ij < limit; ij++) {
+
+            final int tmpColBase = ij * structure;
+
+            // Find next pivot row
+            int tmpPivotRow = ij;
+            double tmpLargest = ZERO;
+            for (int i = ij; i < structure; i++) {
+                final double tmpValue = Math.abs(data[i + tmpColBase]);
+                if (tmpValue > tmpLargest) {
+                    tmpLargest = tmpValue;
+                    tmpPivotRow = i;
+                }
+            }
+            pivots[ij] = tmpPivotRow;
+
+            // Pivot?
+            if (tmpPivotRow != ij) {
+                for (int j = 0; j < columns; j++) {
+                    final int tmpBase = j * structure;
+                    final double tmpValue = data[tmpPivotRow + tmpBase];
+                    data[tmpPivotRow + tmpBase] = data[ij + tmpBase];
+                    data[ij + tmpBase] = tmpValue;
+                }
+            }
+
+            final double tmpPivot = data[ij + tmpColBase];
+
+            if (tmpPivot != ZERO) {
+
+                // Calculate multipliers
+                for (int i = ij + 1; i < structure; i++) {
+                    data[i + tmpColBase] /= tmpPivot;
+                }
+
+                // Apply transformations to the remaining panel columns
+                for (int j = ij + 1; j < limit; j++) {
+                    final int tmpBase = j * structure;
+                    SubtractScaledVector.invoke(data, tmpBase, data, tmpColBase, data[ij + tmpBase], ij + 1, structure);
+                }
+
+            } else {
+
+                data[ij + tmpColBase] = ZERO;
+            }
+        }
+    }
+
+    /**
+     * Solves for the block row of [U] and updates the trailing matrix, for the columns [first,limit).
+     */
+    static void update(final double[] data, final int structure, final int first, final int limit, final int panel, final int trailing) {
+
+        // [L11][U12] = [A12]
+        for (int j = first; j < limit; j++) {
+            final int tmpBase = j * structure;
+            for (int p = panel; p < trailing; p++) {
+                SubtractScaledVector.invoke(data, tmpBase, data, p * structure, data[p + tmpBase], p + 1, trailing);
+            }
+        }
+
+        // [A22] -= [L21][U12]
+        GEMM.subtract(data, structure, trailing, first, structure - trailing, limit - first, data, structure, trailing, panel, trailing - panel, data,
+                structure, panel, first);
+    }
+
+    private BlockedLU() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
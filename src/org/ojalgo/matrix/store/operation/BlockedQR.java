@@ -0,0 +1,199 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.matrix.transformation.Householder;
+
+/**
+ * Blocked, in-place, Householder QR decomposition of primitive double column-major data. A panel of
+ * {@value #BLOCK} columns is factored one reflector at a time (using
+ * {@linkplain GenerateApplyAndCopyHouseholderColumn} and {@linkplain HouseholderLeft}), then the panel's
+ * reflectors are accumulated in compact WY form, [H<sub>0</sub>][H<sub>1</sub>]...[H<sub>k-1</sub>] = [I] -
+ * [V][T][V]<sup>T</sup>, and applied to the trailing columns with matrix-matrix products ({@linkplain GEMM}).
+ * The trailing update is split between threads. The result (reflectors below and [R] on/above the diagonal)
+ * is stored the same way as with the unblocked algorithm.
+ *
+ * @author apete
+ */
+public final class BlockedQR extends MatrixOperation {
+
+    public static final BlockedQR SETUP = new BlockedQR();
+
+    /**
+     * The blocked algorithm is used for matrices with at least this many rows and columns, and the trailing
+     * matrix update is split between threads when it has more than this many columns.
+     */
+    public static int THRESHOLD = Calibration.threshold(BlockedQR.class, 128);
+
+    /**
+     * Panel width
+     */
+    static final int BLOCK = 32;
+
+    /**
+     * @param data The matrix to decompose
+     * @param structure The number of rows
+     * @param columns The number of columns
+     */
+    public static void invoke(final double[] data, final int structure, final int columns) {
+
+        final int tmpMinDim = Math.min(structure, columns);
+
+        final Householder.Primitive tmpHouseholder = new Householder.Primitive(structure);
+
+        for (int k = 0; k < tmpMinDim; k += BLOCK) {
+
+            final int tmpPanel = k;
+            final int tmpNext = Math.min(tmpPanel + BLOCK, tmpMinDim);
+            final int tmpWidth = tmpNext - tmpPanel;
+            final int tmpHeight = structure - tmpPanel;
+
+            final double[] tmpBetas = new double[tmpWidth];
+
+            for (int ij = tmpPanel; ij < tmpNext; ij++) {
+                if (((ij + 1) < structure) && GenerateApplyAndCopyHouseholderColumn.invoke(data, structure, ij, ij, tmpHouseholder)) {
+                    HouseholderLeft.invoke(data, structure, ij + 1, tmpNext, tmpHouseholder);
+                    tmpBetas[ij - tmpPanel] = tmpHouseholder.beta;
+                }
+            }
+
+            if (tmpNext < columns) {
+
+                // The reflectors, [V] and [V]^T, with explicit unit diagonal and zeros above it
+                final double[] tmpV = new double[tmpHeight * tmpWidth];
+                final double[] tmpVt = new double[tmpWidth * tmpHeight];
+                for (int p = 0; p < tmpWidth; p++) {
+                    if (tmpBetas[p] != ZERO) {
+                        final int tmpColBase = (tmpPanel + p) * structure;
+                        tmpV[p + (p * tmpHeight)] = ONE;
+                        tmpVt[p + (p * tmpWidth)] = ONE;
+                        for (int i = p + 1; i < tmpHeight; i++) {
+                            tmpVt[p + (i * tmpWidth)] = tmpV[i + (p * tmpHeight)] = data[tmpPanel + i + tmpColBase];
+                        }
+                    }
+                }
+
+                final double[] tmpT = BlockedQR.makeT(tmpVt, tmpWidth, tmpHeight, tmpBetas);
+
+                if ((columns - tmpNext) > THRESHOLD) {
+
+                    final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                        @Override
+                        protected void conquer(final int first, final int limit) {
+                            BlockedQR.update(data, structure, first, limit, tmpPanel, tmpV, tmpVt, tmpT, tmpWidth);
+                        }
+                    };
+
+                    tmpConquerer.invoke(tmpNext, columns, THRESHOLD);
+
+                } else {
+
+                    BlockedQR.update(data, structure, tmpNext, columns, tmpPanel, tmpV, tmpVt, tmpT, tmpWidth);
+                }
+            }
+        }
+    }
+
+    /**
+     * The upper triangular [T] (width x width, column-major) of the compact WY representation.
+     * [T]<sub>jj</sub> = beta<sub>j</sub> and [T]<sub>0:j,j</sub> = -beta<sub>j</sub>
+     * [T]<sub>0:j,0:j</sub>[V]<sub>:,0:j</sub><sup>T</sup>[v]<sub>j</sub>
+     */
+    static double[] makeT(final double[] vt, final int width, final int height, final double[] betas) {
+
+        final double[] retVal = new double[width * width];
+        final double[] tmpProducts = new double[width];
+
+        for (int j = 0; j < width; j++) {
+
+            final double tmpBeta = betas[j];
+            retVal[j + (j * width)] = tmpBeta;
+
+            if ((tmpBeta != ZERO) && (j > 0)) {
+
+                // [V]^T[v] for the previous reflectors - [v] is zero above row j
+                for (int p = 0; p < j; p++) {
+                    double tmpSum = ZERO;
+                    for (int i = j; i < height; i++) {
+                        final int tmpBase = i * width;
+                        tmpSum += vt[p + tmpBase] * vt[j + tmpBase];
+                    }
+                    tmpProducts[p] = tmpSum;
+                }
+
+                for (int i = 0; i < j; i++) {
+                    double tmpSum = ZERO;
+                    for (int p = i; p < j; p++) {
+                        tmpSum += retVal[i + (p * width)] * tmpProducts[p];
+                    }
+                    retVal[i + (j * width)] = -tmpBeta * tmpSum;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * [C] = ([I] - [V][T][V]<sup>T</sup>)<sup>T</sup>[C] = [C] - [V]([T]<sup>T</sup>([V]<sup>T</sup>[C])) for
+     * the columns [first,limit) of the rows below the panel's first row.
+     */
+    static void update(final double[] data, final int structure, final int first, final int limit, final int panel, final double[] v, final double[] vt,
+            final double[] t, final int width) {
+
+        final int tmpHeight = structure - panel;
+        final int tmpCount = limit - first;
+
+        // [W] = -[V]^T[C]
+        final double[] tmpW = new double[width * tmpCount];
+        GEMM.subtract(tmpW, width, 0, 0, width, tmpCount, vt, width, 0, 0, tmpHeight, data, structure, panel, first);
+
+        // [W] = -[T]^T[W] = [T]^T[V]^T[C]
+        for (int j = 0; j < tmpCount; j++) {
+            final int tmpBase = j * width;
+            for (int i = width - 1; i >= 0; i--) {
+                double tmpSum = ZERO;
+                for (int p = 0; p <= i; p++) {
+                    tmpSum += t[p + (i * width)] * tmpW[p + tmpBase];
+                }
+                tmpW[i + tmpBase] = -tmpSum;
+            }
+        }
+
+        // [C] -= [V][W]
+        GEMM.subtract(data, structure, panel, first, tmpHeight, tmpCount, v, tmpHeight, 0, 0, width, tmpW, width, 0, 0);
+    }
+
+    private BlockedQR() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
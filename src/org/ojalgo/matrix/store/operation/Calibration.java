@@ -0,0 +1,556 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.machine.VirtualMachine;
+import org.ojalgo.matrix.store.BigDenseStore;
+import org.ojalgo.matrix.store.ComplexDenseStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.transformation.Householder;
+import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.scalar.ComplexNumber;
+
+/**
+ * Machine specific operation thresholds. The thresholds, the matrix sizes at which the operations switch from
+ * single-threaded to multi-threaded implementations, are by default hard-coded values. {@link #calibrate()}
+ * times the alternatives on the running machine, updates the thresholds and stores them in a profile file
+ * specific to {@linkplain OjAlgoUtils#ENVIRONMENT}. When the operation classes are loaded the thresholds are
+ * read from that profile, if it exists.
+ * <p>
+ * The profile is an ordinary properties file located in the directory specified by the system property
+ * {@value #DIRECTORY}, or by default in ".ojalgo" in the user's home directory. The keys are the simple
+ * names of the operation classes, optionally suffixed with the element type; "MultiplyBoth" (primitive),
+ * "MultiplyBoth.big" and "MultiplyBoth.complex".
+ * </p>
+ *
+ * @author apete
+ */
+public final class Calibration {
+
+    /**
+     * When looking for a multi-threading threshold {@link #single()} and {@link #multi()} are the single- and
+     * multi-threaded variants of the same operation. Otherwise {@link #single()} is the reference and
+     * {@link #multi()} the alternative implementation.
+     */
+    static abstract class Benchmark {
+
+        abstract void multi();
+
+        abstract void setup(int size);
+
+        abstract void single();
+
+    }
+
+    static abstract class BigBenchmark extends Benchmark {
+
+        BigDecimal[] product;
+        BigDenseStore left;
+        BigDenseStore right;
+
+        @Override
+        void setup(final int size) {
+            product = new BigDecimal[size * size];
+            left = BigDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+            right = BigDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+        }
+
+    }
+
+    static abstract class ComplexBenchmark extends Benchmark {
+
+        ComplexNumber[] product;
+        ComplexDenseStore left;
+        ComplexDenseStore right;
+
+        @Override
+        void setup(final int size) {
+            product = new ComplexNumber[size * size];
+            left = ComplexDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+            right = ComplexDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+        }
+
+    }
+
+    static abstract class PrimitiveBenchmark extends Benchmark {
+
+        double[] product;
+        PrimitiveDenseStore left;
+        PrimitiveDenseStore right;
+
+        @Override
+        void setup(final int size) {
+            product = new double[size * size];
+            left = PrimitiveDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+            right = PrimitiveDenseStore.FACTORY.makeFilled(size, size, new Uniform());
+        }
+
+    }
+
+    public static final String BIG = "big";
+    public static final String COMPLEX = "complex";
+
+    /**
+     * The name of the system property that (optionally) specifies the profile directory.
+     */
+    public static final String DIRECTORY = "org.ojalgo.calibration";
+
+    private static final int MAX_SIZE_PRIMITIVE = 512;
+    private static final int MAX_SIZE_REFERENCE = 128;
+    private static final int MIN_SIZE = 4;
+    private static final long MIN_TIME = 20_000_000L; // 20ms
+    private static final Properties PROFILE = new Properties();
+    private static final int ROUNDS = 5;
+    private static final double SPEEDUP = 0.9;
+
+    static {
+        PROFILE.putAll(Calibration.load(Calibration.getFile()));
+    }
+
+    /**
+     * Times the single-threaded and multi-threaded variants of the multiplication operations (for each element
+     * type), and of the primitive {@linkplain HouseholderLeft} and {@linkplain SubstituteBackwards} operations,
+     * to find the sizes where the multi-threaded variants become faster, and the size where the blocked
+     * {@linkplain GEMM} algorithm becomes faster than the plain primitive multiplication. The thresholds are
+     * updated immediately and saved to the {@linkplain #getFile() profile}. This typically takes a few minutes.
+     * <p>
+     * {@linkplain RotateLeft} is not calibrated; it only has a single-threaded implementation and its
+     * threshold is never used to split the work.
+     * </p>
+     *
+     * @return A copy of the (updated) profile
+     */
+    public static synchronized Properties calibrate() {
+
+        MultiplyBoth.THRESHOLD = Calibration.parallel(MultiplyBoth.class, null, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyBoth.PRIMITIVE_MT.invoke(product, left, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyBoth.PRIMITIVE.invoke(product, left, left.getColDim(), right);
+            }
+
+        });
+
+        MultiplyBoth.THRESHOLD_BIG = Calibration.parallel(MultiplyBoth.class, BIG, MAX_SIZE_REFERENCE, new BigBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyBoth.BIG_MT.invoke(product, left, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyBoth.BIG.invoke(product, left, left.getColDim(), right);
+            }
+
+        });
+
+        MultiplyBoth.THRESHOLD_COMPLEX = Calibration.parallel(MultiplyBoth.class, COMPLEX, MAX_SIZE_REFERENCE, new ComplexBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyBoth.COMPLEX_MT.invoke(product, left, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyBoth.COMPLEX.invoke(product, left, left.getColDim(), right);
+            }
+
+        });
+
+        MultiplyLeft.THRESHOLD = Calibration.parallel(MultiplyLeft.class, null, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyLeft.PRIMITIVE_MT.invoke(product, left, left.getColDim(), right.data);
+            }
+
+            @Override
+            void single() {
+                MultiplyLeft.PRIMITIVE.invoke(product, left, left.getColDim(), right.data);
+            }
+
+        });
+
+        MultiplyLeft.THRESHOLD_BIG = Calibration.parallel(MultiplyLeft.class, BIG, MAX_SIZE_REFERENCE, new BigBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyLeft.BIG_MT.invoke(product, left, left.getColDim(), right.data);
+            }
+
+            @Override
+            void single() {
+                MultiplyLeft.BIG.invoke(product, left, left.getColDim(), right.data);
+            }
+
+        });
+
+        MultiplyLeft.THRESHOLD_COMPLEX = Calibration.parallel(MultiplyLeft.class, COMPLEX, MAX_SIZE_REFERENCE, new ComplexBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyLeft.COMPLEX_MT.invoke(product, left, left.getColDim(), right.data);
+            }
+
+            @Override
+            void single() {
+                MultiplyLeft.COMPLEX.invoke(product, left, left.getColDim(), right.data);
+            }
+
+        });
+
+        MultiplyRight.THRESHOLD = Calibration.parallel(MultiplyRight.class, null, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyRight.PRIMITIVE_MT.invoke(product, left.data, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyRight.PRIMITIVE.invoke(product, left.data, left.getColDim(), right);
+            }
+
+        });
+
+        MultiplyRight.THRESHOLD_BIG = Calibration.parallel(MultiplyRight.class, BIG, MAX_SIZE_REFERENCE, new BigBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyRight.BIG_MT.invoke(product, left.data, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyRight.BIG.invoke(product, left.data, left.getColDim(), right);
+            }
+
+        });
+
+        MultiplyRight.THRESHOLD_COMPLEX = Calibration.parallel(MultiplyRight.class, COMPLEX, MAX_SIZE_REFERENCE, new ComplexBenchmark() {
+
+            @Override
+            void multi() {
+                MultiplyRight.COMPLEX_MT.invoke(product, left.data, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyRight.COMPLEX.invoke(product, left.data, left.getColDim(), right);
+            }
+
+        });
+
+        GEMM.THRESHOLD = Calibration.faster(GEMM.class, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            @Override
+            void multi() {
+                GEMM.getPrimitive(left.getRowDim(), right.getColDim()).invoke(product, left, left.getColDim(), right);
+            }
+
+            @Override
+            void single() {
+                MultiplyLeft.getPrimitive(left.getRowDim(), right.getColDim()).invoke(product, left, left.getColDim(), right.data);
+            }
+
+        });
+
+        HouseholderLeft.THRESHOLD = Calibration.parallel(HouseholderLeft.class, null, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            Householder.Primitive reflector;
+
+            @Override
+            void multi() {
+
+                final int tmpRowDim = left.getRowDim();
+                final Householder.Primitive tmpReflector = reflector;
+
+                final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                    @Override
+                    public void conquer(final int first, final int limit) {
+                        HouseholderLeft.invoke(product, tmpRowDim, first, limit, tmpReflector);
+                    }
+
+                };
+
+                tmpConquerer.invoke(0, left.getColDim(), Math.max(1, left.getColDim() / DivideAndConquer.getParallelism()));
+            }
+
+            @Override
+            void setup(final int size) {
+
+                super.setup(size);
+                System.arraycopy(left.data, 0, product, 0, product.length);
+
+                reflector = new Householder.Primitive(size);
+                double tmpNorm2 = PrimitiveMath.ZERO;
+                for (int i = 0; i < size; i++) {
+                    reflector.vector[i] = right.data[i];
+                    tmpNorm2 += right.data[i] * right.data[i];
+                }
+                reflector.beta = PrimitiveMath.TWO / tmpNorm2;
+            }
+
+            @Override
+            void single() {
+                HouseholderLeft.invoke(product, left.getRowDim(), 0, left.getColDim(), reflector);
+            }
+
+        });
+
+        SubstituteBackwards.THRESHOLD = Calibration.parallel(SubstituteBackwards.class, null, MAX_SIZE_PRIMITIVE, new PrimitiveBenchmark() {
+
+            @Override
+            void multi() {
+
+                System.arraycopy(right.data, 0, product, 0, product.length);
+
+                final int tmpRowDim = left.getRowDim();
+                final PrimitiveDenseStore tmpBody = left;
+
+                final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                    @Override
+                    public void conquer(final int first, final int limit) {
+                        SubstituteBackwards.invoke(product, tmpRowDim, first, limit, tmpBody, false, false, false);
+                    }
+
+                };
+
+                tmpConquerer.invoke(0, right.getColDim(), Math.max(1, right.getColDim() / DivideAndConquer.getParallelism()));
+            }
+
+            @Override
+            void setup(final int size) {
+
+                super.setup(size);
+
+                // Diagonally dominant so that repeated solves stay well conditioned
+                for (int ij = 0; ij < size; ij++) {
+                    left.set(ij, ij, left.doubleValue(ij, ij) + size);
+                }
+            }
+
+            @Override
+            void single() {
+                System.arraycopy(right.data, 0, product, 0, product.length);
+                SubstituteBackwards.invoke(product, left.getRowDim(), 0, right.getColDim(), left, false, false, false);
+            }
+
+        });
+
+        Calibration.save(Calibration.getFile(), PROFILE);
+
+        return Calibration.getProfile();
+    }
+
+    /**
+     * @return The profile file for {@linkplain OjAlgoUtils#ENVIRONMENT}
+     */
+    public static File getFile() {
+
+        final String tmpDirectory = System.getProperty(DIRECTORY);
+
+        final File tmpParent = tmpDirectory != null ? new File(tmpDirectory) : new File(System.getProperty("user.home"), ".ojalgo");
+
+        return new File(tmpParent, "thresholds_" + Calibration.getKey() + ".properties");
+    }
+
+    /**
+     * @return A key identifying {@linkplain OjAlgoUtils#ENVIRONMENT}; architecture, threads, cores, cache units
+     *         and top level cache size.
+     */
+    public static String getKey() {
+
+        final VirtualMachine tmpEnvironment = OjAlgoUtils.ENVIRONMENT;
+
+        return tmpEnvironment.architecture + "_" + tmpEnvironment.threads + "T" + tmpEnvironment.cores + "C" + tmpEnvironment.units + "U"
+                + (tmpEnvironment.cache / 1024L) + "K";
+    }
+
+    /**
+     * @return A copy of the currently loaded/calibrated profile
+     */
+    public static synchronized Properties getProfile() {
+        final Properties retVal = new Properties();
+        retVal.putAll(PROFILE);
+        return retVal;
+    }
+
+    private static int faster(final Class<?> operation, final int maxSize, final Benchmark benchmark) {
+
+        int retVal = maxSize;
+
+        for (int tmpSize = MIN_SIZE; tmpSize <= maxSize; tmpSize += tmpSize) {
+            if (Calibration.isMultiFaster(benchmark, tmpSize)) {
+                retVal = tmpSize;
+                break;
+            }
+        }
+
+        PROFILE.setProperty(Calibration.key(operation, null), Integer.toString(retVal));
+
+        return retVal;
+    }
+
+    private static boolean isMultiFaster(final Benchmark benchmark, final int size) {
+
+        benchmark.setup(size);
+
+        long tmpSingle = Long.MAX_VALUE;
+        long tmpMulti = Long.MAX_VALUE;
+
+        // Alternate, and keep the best, to not favour whichever is measured last (JIT compiled)
+        for (int r = 0; r < ROUNDS; r++) {
+            tmpSingle = Math.min(tmpSingle, Calibration.time(benchmark, false));
+            tmpMulti = Math.min(tmpMulti, Calibration.time(benchmark, true));
+        }
+
+        return tmpMulti < (SPEEDUP * tmpSingle);
+    }
+
+    private static String key(final Class<?> operation, final String type) {
+        return type != null ? operation.getSimpleName() + "." + type : operation.getSimpleName();
+    }
+
+    private static int parallel(final Class<?> operation, final String type, final int maxSize, final Benchmark benchmark) {
+
+        int retVal = maxSize;
+
+        if (DivideAndConquer.getParallelism() > 1) {
+            for (int tmpSize = MIN_SIZE; tmpSize <= maxSize; tmpSize += tmpSize) {
+                if (Calibration.isMultiFaster(benchmark, tmpSize)) {
+                    retVal = Math.max(1, tmpSize / 2);
+                    break;
+                }
+            }
+        }
+
+        PROFILE.setProperty(Calibration.key(operation, type), Integer.toString(retVal));
+
+        return retVal;
+    }
+
+    private static int parse(final Properties profile, final Class<?> operation, final String type, final int defaultValue) {
+
+        final String tmpValue = profile.getProperty(Calibration.key(operation, type));
+
+        if (tmpValue != null) {
+            try {
+                return Integer.parseInt(tmpValue.trim());
+            } catch (final NumberFormatException exception) {
+                BasicLogger.error("Invalid calibration profile value {}={}", Calibration.key(operation, type), tmpValue);
+            }
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * @return Nanoseconds per invocation
+     */
+    private static long time(final Benchmark benchmark, final boolean multi) {
+
+        int tmpCount = 0;
+        final long tmpStart = System.nanoTime();
+        long tmpElapsed;
+        do {
+            if (multi) {
+                benchmark.multi();
+            } else {
+                benchmark.single();
+            }
+            tmpCount++;
+            tmpElapsed = System.nanoTime() - tmpStart;
+        } while (tmpElapsed < MIN_TIME);
+
+        return tmpElapsed / tmpCount;
+    }
+
+    /**
+     * @return The profile read from the file, or an empty profile if the file does not exist or can't be read
+     */
+    static Properties load(final File file) {
+
+        final Properties retVal = new Properties();
+
+        if (file.exists()) {
+            try (InputStream tmpStream = new FileInputStream(file)) {
+                retVal.load(tmpStream);
+            } catch (final IOException | IllegalArgumentException exception) {
+                BasicLogger.error("Failed to load the calibration profile {}: {}", file, exception.getMessage());
+                retVal.clear();
+            }
+        }
+
+        return retVal;
+    }
+
+    static void save(final File file, final Properties profile) {
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+
+        try (OutputStream tmpStream = new FileOutputStream(file)) {
+            profile.store(tmpStream, OjAlgoUtils.ENVIRONMENT.toString());
+        } catch (final IOException exception) {
+            BasicLogger.error("Failed to save the calibration profile {}: {}", file, exception.getMessage());
+        }
+    }
+
+    static int threshold(final Class<?> operation, final int defaultValue) {
+        return Calibration.threshold(operation, null, defaultValue);
+    }
+
+    static synchronized int threshold(final Class<?> operation, final String type, final int defaultValue) {
+        return Calibration.parse(PROFILE, operation, type, defaultValue);
+    }
+
+    static int threshold(final Properties profile, final Class<?> operation, final String type, final int defaultValue) {
+        return Calibration.parse(profile, operation, type, defaultValue);
+    }
+
+    private Calibration() {
+        super();
+    }
+
+}
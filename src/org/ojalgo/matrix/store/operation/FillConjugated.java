@@ -31,7 +31,7 @@ public final class FillConjugated extends MatrixOperation {
 
     public static final FillConjugated SETUP = new FillConjugated();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(FillConjugated.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
         FillTransposed.invoke(data, structure, firstColumn, limitColumn, source);
@@ -31,7 +31,7 @@ public final class FillMatchingSingle extends MatrixOperation {
 
     public static final FillMatchingSingle SETUP = new FillMatchingSingle();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(FillMatchingSingle.class, 64);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int limitColumn,
             final Access1D<? extends Number> source) {
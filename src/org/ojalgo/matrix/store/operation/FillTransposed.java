@@ -31,7 +31,7 @@ public final class FillTransposed extends MatrixOperation {
 
     public static final FillTransposed SETUP = new FillTransposed();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(FillTransposed.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
         int tmpIndex = structure * firstColumn;
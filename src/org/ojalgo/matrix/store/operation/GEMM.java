@@ -0,0 +1,419 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.util.Arrays;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.machine.JavaType;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore.PrimitiveMultiplyBoth;
+
+/**
+ * General matrix-matrix multiplication, [C] = [A][B], for primitive double column-major data. Blocks of [A]
+ * and panels of [B] are packed into contiguous buffers sized to fit the L2 and L1 caches respectively, and
+ * the product is accumulated {@value #MR}x{@value #NR} elements at a time by a register tiled micro-kernel.
+ * The block sizes are derived from {@linkplain OjAlgoUtils#ENVIRONMENT}.
+ *
+ * @author apete
+ */
+public final class GEMM extends MatrixOperation implements BLAS3 {
+
+    public static final GEMM SETUP = new GEMM();
+
+    /**
+     * The blocked/packed algorithm is only used when the number of rows, columns and the complexity are all
+     * at least this large. Smaller products are faster with the plain {@linkplain MultiplyBoth},
+     * {@linkplain MultiplyLeft} and {@linkplain MultiplyRight} implementations.
+     */
+    public static int THRESHOLD = Calibration.threshold(GEMM.class, 64);
+
+    /**
+     * Micro-kernel (register tile) rows
+     */
+    static final int MR = 4;
+
+    /**
+     * Micro-kernel (register tile) columns
+     */
+    static final int NR = 4;
+
+    /**
+     * Depth of the packed panels. A {@value #MR}xKC micro-panel of [A] and a KCx{@value #NR} micro-panel of
+     * [B] should together fill (no more than) half the L1 cache.
+     */
+    public static final int KC;
+
+    /**
+     * Rows of the packed block of [A]. The MCxKC block should fill (no more than) half the L2 cache.
+     */
+    public static final int MC;
+
+    /**
+     * Columns of the packed panel of [B]. The KCxNC panel should fill (no more than) half the per thread share
+     * of the top level cache.
+     */
+    public static final int NC;
+
+    static final PrimitiveMultiplyBoth PRIMITIVE = new PrimitiveMultiplyBoth() {
+
+        public void invoke(final double[] product, final Access1D<?> left, final int complexity, final Access1D<?> right) {
+            GEMM.invoke(product, 0, (int) (right.count() / complexity), left, complexity, right);
+        }
+
+    };
+
+    static final PrimitiveMultiplyBoth PRIMITIVE_MT = new PrimitiveMultiplyBoth() {
+
+        public void invoke(final double[] product, final Access1D<?> left, final int complexity, final Access1D<?> right) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                public void conquer(final int first, final int limit) {
+                    GEMM.invoke(product, first, limit, left, complexity, right);
+                }
+            };
+
+            tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD);
+        }
+
+    };
+
+    static {
+
+        final long tmpElementSize = JavaType.DOUBLE.memory();
+
+        final long tmpL1 = OjAlgoUtils.ENVIRONMENT.cacheL1;
+        final long tmpL2 = OjAlgoUtils.ENVIRONMENT.cacheL2;
+        final long tmpTop = (OjAlgoUtils.ENVIRONMENT.cache * OjAlgoUtils.ENVIRONMENT.units) / OjAlgoUtils.ENVIRONMENT.threads;
+
+        KC = GEMM.limit((tmpL1 / (2L * tmpElementSize * (MR + NR))), 8, 64, 512);
+        MC = GEMM.limit((tmpL2 / (2L * tmpElementSize * KC)), MR, 4 * MR, 512);
+        NC = GEMM.limit((tmpTop / (2L * tmpElementSize * KC)), NR, 16 * NR, 4096);
+    }
+
+    public static PrimitiveMultiplyBoth getPrimitive(final long rows, final long columns) {
+        if (columns > THRESHOLD) {
+            return PRIMITIVE_MT;
+        } else {
+            return PRIMITIVE;
+        }
+    }
+
+    /**
+     * @return true if a product of this size should use the blocked/packed algorithm
+     */
+    public static boolean isApplicable(final long rows, final long complexity, final long columns) {
+        return (rows >= THRESHOLD) && (complexity >= THRESHOLD) && (columns >= THRESHOLD);
+    }
+
+    /**
+     * Calculates the columns [firstColumn,columnLimit) of the product. The product columns in that range are
+     * overwritten (not accumulated).
+     */
+    static void invoke(final double[] product, final int firstColumn, final int columnLimit, final Access1D<?> left, final int complexity,
+            final Access1D<?> right) {
+
+        final int tmpRowDim = (int) (left.count() / complexity);
+
+        Arrays.fill(product, firstColumn * tmpRowDim, columnLimit * tmpRowDim, PrimitiveMath.ZERO);
+
+        final double[] tmpLeftData = left instanceof PrimitiveDenseStore ? ((PrimitiveDenseStore) left).data : null;
+        final double[] tmpRightData = right instanceof PrimitiveDenseStore ? ((PrimitiveDenseStore) right).data : null;
+
+        final int tmpKC = Math.min(KC, complexity);
+        final int tmpMC = Math.min(MC, GEMM.roundUp(tmpRowDim, MR));
+        final int tmpNC = Math.min(NC, GEMM.roundUp(columnLimit - firstColumn, NR));
+
+        final double[] tmpPackedLeft = new double[tmpMC * tmpKC];
+        final double[] tmpPackedRight = new double[tmpKC * tmpNC];
+
+        for (int jc = firstColumn; jc < columnLimit; jc += NC) {
+            final int nc = Math.min(NC, columnLimit - jc);
+
+            for (int pc = 0; pc < complexity; pc += KC) {
+                final int kc = Math.min(KC, complexity - pc);
+
+                if (tmpRightData != null) {
+                    GEMM.packRight(tmpPackedRight, tmpRightData, complexity, pc, kc, jc, nc);
+                } else {
+                    GEMM.packRight(tmpPackedRight, right, complexity, pc, kc, jc, nc);
+                }
+
+                for (int ic = 0; ic < tmpRowDim; ic += MC) {
+                    final int mc = Math.min(MC, tmpRowDim - ic);
+
+                    if (tmpLeftData != null) {
+                        GEMM.packLeft(tmpPackedLeft, tmpLeftData, tmpRowDim, ic, mc, pc, kc);
+                    } else {
+                        GEMM.packLeft(tmpPackedLeft, left, tmpRowDim, ic, mc, pc, kc);
+                    }
+
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        final int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            final int mr = Math.min(MR, mc - ir);
+                            GEMM.kernel(product, (ic + ir) + ((jc + jr) * tmpRowDim), tmpRowDim, mr, nr, kc, tmpPackedLeft, ir * kc, tmpPackedRight, jr * kc);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * [C] -= [A][B] where [C] is a rows x columns, [A] a rows x complexity and [B] a complexity x columns
+     * sub-matrix of column-major data. Each is identified by its array, structure (number of rows of the full
+     * matrix - the leading dimension) and first row/column. This is the trailing matrix update of the blocked
+     * decompositions; [C], [A] and [B] may all be (non-overlapping) parts of the same array.
+     */
+    static void subtract(final double[] product, final int productStructure, final int productRow, final int productColumn, final int rows,
+            final int columns, final double[] left, final int leftStructure, final int leftRow, final int leftColumn, final int complexity,
+            final double[] right, final int rightStructure, final int rightRow, final int rightColumn) {
+
+        if ((rows <= 0) || (columns <= 0) || (complexity <= 0)) {
+            return;
+        }
+
+        final int tmpKC = Math.min(KC, complexity);
+        final int tmpMC = Math.min(MC, GEMM.roundUp(rows, MR));
+        final int tmpNC = Math.min(NC, GEMM.roundUp(columns, NR));
+
+        final double[] tmpPackedLeft = new double[tmpMC * tmpKC];
+        final double[] tmpPackedRight = new double[tmpKC * tmpNC];
+
+        for (int jc = 0; jc < columns; jc += NC) {
+            final int nc = Math.min(NC, columns - jc);
+
+            for (int pc = 0; pc < complexity; pc += KC) {
+                final int kc = Math.min(KC, complexity - pc);
+
+                GEMM.packRight(tmpPackedRight, right, rightStructure, rightRow + pc, kc, rightColumn + jc, nc);
+
+                for (int ic = 0; ic < rows; ic += MC) {
+                    final int mc = Math.min(MC, rows - ic);
+
+                    GEMM.packLeft(tmpPackedLeft, left, leftStructure, leftRow + ic, mc, leftColumn + pc, kc);
+                    final int tmpPacked = GEMM.roundUp(mc, MR) * kc;
+                    for (int i = 0; i < tmpPacked; i++) {
+                        tmpPackedLeft[i] = -tmpPackedLeft[i];
+                    }
+
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        final int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            final int mr = Math.min(MR, mc - ir);
+                            GEMM.kernel(product, (productRow + ic + ir) + ((productColumn + jc + jr) * productStructure), productStructure, mr, nr, kc,
+                                    tmpPackedLeft, ir * kc, tmpPackedRight, jr * kc);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the product of one packed {@value #MR}xkc micro-panel of [A] and one packed kcx{@value #NR}
+     * micro-panel of [B] to the mrxnr block of [C] starting at offset.
+     */
+    static void kernel(final double[] product, final int offset, final int rowDim, final int mr, final int nr, final int kc, final double[] packedLeft,
+            final int leftOffset, final double[] packedRight, final int rightOffset) {
+
+        double c00 = PrimitiveMath.ZERO, c10 = PrimitiveMath.ZERO, c20 = PrimitiveMath.ZERO, c30 = PrimitiveMath.ZERO;
+        double c01 = PrimitiveMath.ZERO, c11 = PrimitiveMath.ZERO, c21 = PrimitiveMath.ZERO, c31 = PrimitiveMath.ZERO;
+        double c02 = PrimitiveMath.ZERO, c12 = PrimitiveMath.ZERO, c22 = PrimitiveMath.ZERO, c32 = PrimitiveMath.ZERO;
+        double c03 = PrimitiveMath.ZERO, c13 = PrimitiveMath.ZERO, c23 = PrimitiveMath.ZERO, c33 = PrimitiveMath.ZERO;
+
+        int a = leftOffset;
+        int b = rightOffset;
+        for (int p = 0; p < kc; p++) {
+
+            final double a0 = packedLeft[a];
+            final double a1 = packedLeft[a + 1];
+            final double a2 = packedLeft[a + 2];
+            final double a3 = packedLeft[a + 3];
+
+            double tmpB = packedRight[b];
+            c00 += a0 * tmpB;
+            c10 += a1 * tmpB;
+            c20 += a2 * tmpB;
+            c30 += a3 * tmpB;
+
+            tmpB = packedRight[b + 1];
+            c01 += a0 * tmpB;
+            c11 += a1 * tmpB;
+            c21 += a2 * tmpB;
+            c31 += a3 * tmpB;
+
+            tmpB = packedRight[b + 2];
+            c02 += a0 * tmpB;
+            c12 += a1 * tmpB;
+            c22 += a2 * tmpB;
+            c32 += a3 * tmpB;
+
+            tmpB = packedRight[b + 3];
+            c03 += a0 * tmpB;
+            c13 += a1 * tmpB;
+            c23 += a2 * tmpB;
+            c33 += a3 * tmpB;
+
+            a += MR;
+            b += NR;
+        }
+
+        if ((mr == MR) && (nr == NR)) {
+
+            int tmpIndex = offset;
+            product[tmpIndex] += c00;
+            product[tmpIndex + 1] += c10;
+            product[tmpIndex + 2] += c20;
+            product[tmpIndex + 3] += c30;
+
+            tmpIndex += rowDim;
+            product[tmpIndex] += c01;
+            product[tmpIndex + 1] += c11;
+            product[tmpIndex + 2] += c21;
+            product[tmpIndex + 3] += c31;
+
+            tmpIndex += rowDim;
+            product[tmpIndex] += c02;
+            product[tmpIndex + 1] += c12;
+            product[tmpIndex + 2] += c22;
+            product[tmpIndex + 3] += c32;
+
+            tmpIndex += rowDim;
+            product[tmpIndex] += c03;
+            product[tmpIndex + 1] += c13;
+            product[tmpIndex + 2] += c23;
+            product[tmpIndex + 3] += c33;
+
+        } else {
+
+            // Edge of the matrix - the packed buffers are zero padded, but only part of the tile is valid
+            final double[] tmpTile = { c00, c10, c20, c30, c01, c11, c21, c31, c02, c12, c22, c32, c03, c13, c23, c33 };
+
+            for (int j = 0; j < nr; j++) {
+                for (int i = 0; i < mr; i++) {
+                    product[offset + i + (j * rowDim)] += tmpTile[i + (j * MR)];
+                }
+            }
+        }
+    }
+
+    static void packLeft(final double[] packed, final Access1D<?> left, final int rowDim, final int firstRow, final int rowCount, final int firstCol,
+            final int colCount) {
+        int tmpIndex = 0;
+        for (int ir = 0; ir < rowCount; ir += MR) {
+            final int mr = Math.min(MR, rowCount - ir);
+            for (int p = 0; p < colCount; p++) {
+                final int tmpSource = firstRow + ir + ((firstCol + p) * rowDim);
+                for (int i = 0; i < mr; i++) {
+                    packed[tmpIndex++] = left.doubleValue(tmpSource + i);
+                }
+                for (int i = mr; i < MR; i++) {
+                    packed[tmpIndex++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    static void packLeft(final double[] packed, final double[] left, final int rowDim, final int firstRow, final int rowCount, final int firstCol,
+            final int colCount) {
+        int tmpIndex = 0;
+        for (int ir = 0; ir < rowCount; ir += MR) {
+            final int mr = Math.min(MR, rowCount - ir);
+            for (int p = 0; p < colCount; p++) {
+                final int tmpSource = firstRow + ir + ((firstCol + p) * rowDim);
+                if (mr == MR) {
+                    packed[tmpIndex++] = left[tmpSource];
+                    packed[tmpIndex++] = left[tmpSource + 1];
+                    packed[tmpIndex++] = left[tmpSource + 2];
+                    packed[tmpIndex++] = left[tmpSource + 3];
+                } else {
+                    for (int i = 0; i < mr; i++) {
+                        packed[tmpIndex++] = left[tmpSource + i];
+                    }
+                    for (int i = mr; i < MR; i++) {
+                        packed[tmpIndex++] = PrimitiveMath.ZERO;
+                    }
+                }
+            }
+        }
+    }
+
+    static void packRight(final double[] packed, final Access1D<?> right, final int rowDim, final int firstRow, final int rowCount, final int firstCol,
+            final int colCount) {
+        int tmpIndex = 0;
+        for (int jr = 0; jr < colCount; jr += NR) {
+            final int nr = Math.min(NR, colCount - jr);
+            for (int p = 0; p < rowCount; p++) {
+                final int tmpSource = firstRow + p + ((firstCol + jr) * rowDim);
+                for (int j = 0; j < nr; j++) {
+                    packed[tmpIndex++] = right.doubleValue(tmpSource + (j * rowDim));
+                }
+                for (int j = nr; j < NR; j++) {
+                    packed[tmpIndex++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    static void packRight(final double[] packed, final double[] right, final int rowDim, final int firstRow, final int rowCount, final int firstCol,
+            final int colCount) {
+        int tmpIndex = 0;
+        for (int jr = 0; jr < colCount; jr += NR) {
+            final int nr = Math.min(NR, colCount - jr);
+            for (int p = 0; p < rowCount; p++) {
+                final int tmpSource = firstRow + p + ((firstCol + jr) * rowDim);
+                for (int j = 0; j < nr; j++) {
+                    packed[tmpIndex++] = right[tmpSource + (j * rowDim)];
+                }
+                for (int j = nr; j < NR; j++) {
+                    packed[tmpIndex++] = PrimitiveMath.ZERO;
+                }
+            }
+        }
+    }
+
+    private static int limit(final long value, final int multiple, final int min, final int max) {
+        final int tmpValue = (int) Math.max(min, Math.min(max, value));
+        return Math.max(multiple, (tmpValue / multiple) * multiple);
+    }
+
+    private static int roundUp(final int value, final int multiple) {
+        return ((value + multiple - 1) / multiple) * multiple;
+    }
+
+    private GEMM() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
@@ -35,7 +35,7 @@ public final class GenerateApplyAndCopyHouseholderColumn extends MatrixOperation
 
     public static final GenerateApplyAndCopyHouseholderColumn SETUP = new GenerateApplyAndCopyHouseholderColumn();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(GenerateApplyAndCopyHouseholderColumn.class, 128);
 
     public static boolean invoke(final BigDecimal[] data, final int structure, final int row, final int col, final Householder.Big destination) {
 
@@ -35,7 +35,7 @@ public final class GenerateApplyAndCopyHouseholderRow extends MatrixOperation {
 
     public static final GenerateApplyAndCopyHouseholderRow SETUP = new GenerateApplyAndCopyHouseholderRow();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(GenerateApplyAndCopyHouseholderRow.class, 128);
 
     public static boolean invoke(final BigDecimal[] data, final int structure, final int row, final int col, final Householder.Big destination) {
 
@@ -36,7 +36,7 @@ public final class HermitianRank2Update extends MatrixOperation {
 
     public static final HermitianRank2Update SETUP = new HermitianRank2Update();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(HermitianRank2Update.class, 64);
 
     public static void invoke(final BigDecimal[] aData, final int aFirstCol, final int aColLimit, final BigDecimal[] aVector1, final BigDecimal[] aVector2) {
 
@@ -43,7 +43,7 @@ public final class HouseholderHermitian extends MatrixOperation {
 
     public static final HouseholderHermitian SETUP = new HouseholderHermitian();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(HouseholderHermitian.class, 64);
 
     public static void invoke(final BigDecimal[] aData, final Householder.Big aHouseholder, final BigDecimal[] aWorker) {
 
@@ -33,7 +33,7 @@ public final class HouseholderLeft extends MatrixOperation {
 
     public static final HouseholderLeft SETUP = new HouseholderLeft();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(HouseholderLeft.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int first, final int limit, final Householder.Big householder) {
 
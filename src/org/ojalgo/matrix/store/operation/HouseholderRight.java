@@ -33,7 +33,7 @@ public final class HouseholderRight extends MatrixOperation {
 
     public static final HouseholderRight SETUP = new HouseholderRight();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(HouseholderRight.class, 128);
 
     public static void invoke(final BigDecimal[] aData, final int aFirstRow, final int aRowLimit, final int aColDim, final Householder.Big aHouseholder) {
 
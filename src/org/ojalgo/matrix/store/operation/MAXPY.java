@@ -31,7 +31,7 @@ public final class MAXPY extends MatrixOperation {
 
     public static final MAXPY SETUP = new MAXPY();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(MAXPY.class, 128);
 
     public static void invoke(final BigDecimal[] aData, final int aRowDim, final int aFirstCol, final int aColLimit, final BigDecimal aScale,
             final MatrixStore<BigDecimal> aStore) {
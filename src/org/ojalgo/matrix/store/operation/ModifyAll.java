@@ -25,7 +25,7 @@ public final class ModifyAll extends MatrixOperation {
 
     public static final ModifyAll SETUP = new ModifyAll();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(ModifyAll.class, 64);
 
     private ModifyAll() {
         super();
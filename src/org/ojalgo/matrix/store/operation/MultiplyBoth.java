@@ -39,7 +39,11 @@ public final class MultiplyBoth extends MatrixOperation {
 
     public static final MultiplyBoth SETUP = new MultiplyBoth();
 
-    public static int THRESHOLD = 16;
+    public static int THRESHOLD = Calibration.threshold(MultiplyBoth.class, 16);
+
+    public static int THRESHOLD_BIG = Calibration.threshold(MultiplyBoth.class, Calibration.BIG, 16);
+
+    public static int THRESHOLD_COMPLEX = Calibration.threshold(MultiplyBoth.class, Calibration.COMPLEX, 16);
 
     static final BigMultiplyBoth BIG = new BigMultiplyBoth() {
 
@@ -61,7 +65,7 @@ public final class MultiplyBoth extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, ((int) left.count()) / complexity, THRESHOLD);
+            tmpConquerer.invoke(0, ((int) left.count()) / complexity, THRESHOLD_BIG);
         }
 
     };
@@ -86,7 +90,7 @@ public final class MultiplyBoth extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, ((int) left.count()) / complexity, THRESHOLD);
+            tmpConquerer.invoke(0, ((int) left.count()) / complexity, THRESHOLD_COMPLEX);
         }
 
     };
@@ -651,7 +655,7 @@ public final class MultiplyBoth extends MatrixOperation {
     };
 
     public static BigMultiplyBoth getBig(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if (rows > THRESHOLD_BIG) {
             return BIG_MT;
         } else {
             return BIG;
@@ -659,7 +663,7 @@ public final class MultiplyBoth extends MatrixOperation {
     }
 
     public static ComplexMultiplyBoth getComplex(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if (rows > THRESHOLD_COMPLEX) {
             return COMPLEX_MT;
         } else {
             return COMPLEX;
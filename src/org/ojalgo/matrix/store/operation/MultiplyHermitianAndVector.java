@@ -38,7 +38,7 @@ public final class MultiplyHermitianAndVector extends MatrixOperation {
 
     public static final MultiplyHermitianAndVector SETUP = new MultiplyHermitianAndVector();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = Calibration.threshold(MultiplyHermitianAndVector.class, 64);
 
     public static void invoke(final BigDecimal[] productMtrx, final int aFirst, final int aLimit, final BigDecimal[] aSymmetric, final BigDecimal[] aVector,
             final int aFirstNonZero) {
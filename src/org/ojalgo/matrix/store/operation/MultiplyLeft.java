@@ -35,7 +35,11 @@ public final class MultiplyLeft extends MatrixOperation {
 
     public static final MultiplyLeft SETUP = new MultiplyLeft();
 
-    public static int THRESHOLD = 32;
+    public static int THRESHOLD = Calibration.threshold(MultiplyLeft.class, 32);
+
+    public static int THRESHOLD_BIG = Calibration.threshold(MultiplyLeft.class, Calibration.BIG, 32);
+
+    public static int THRESHOLD_COMPLEX = Calibration.threshold(MultiplyLeft.class, Calibration.COMPLEX, 32);
 
     static final BigMultiplyLeft BIG = new BigMultiplyLeft() {
 
@@ -57,7 +61,7 @@ public final class MultiplyLeft extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, (int) (left.count() / complexity), THRESHOLD);
+            tmpConquerer.invoke(0, (int) (left.count() / complexity), THRESHOLD_BIG);
         }
 
     };
@@ -82,7 +86,7 @@ public final class MultiplyLeft extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, (int) (left.count() / complexity), THRESHOLD);
+            tmpConquerer.invoke(0, (int) (left.count() / complexity), THRESHOLD_COMPLEX);
         }
 
     };
@@ -649,7 +653,7 @@ public final class MultiplyLeft extends MatrixOperation {
     };
 
     public static BigMultiplyLeft getBig(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if (rows > THRESHOLD_BIG) {
             return BIG_MT;
         } else {
             return BIG;
@@ -657,7 +661,7 @@ public final class MultiplyLeft extends MatrixOperation {
     }
 
     public static ComplexMultiplyLeft getComplex(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if (rows > THRESHOLD_COMPLEX) {
             return COMPLEX_MT;
         } else {
             return COMPLEX;
@@ -36,7 +36,11 @@ public final class MultiplyRight extends MatrixOperation {
 
     public static final MultiplyRight SETUP = new MultiplyRight();
 
-    public static int THRESHOLD = 32;
+    public static int THRESHOLD = Calibration.threshold(MultiplyRight.class, 32);
+
+    public static int THRESHOLD_BIG = Calibration.threshold(MultiplyRight.class, Calibration.BIG, 32);
+
+    public static int THRESHOLD_COMPLEX = Calibration.threshold(MultiplyRight.class, Calibration.COMPLEX, 32);
 
     static final BigMultiplyRight BIG = new BigMultiplyRight() {
 
@@ -58,7 +62,7 @@ public final class MultiplyRight extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD);
+            tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD_BIG);
         }
 
     };
@@ -83,7 +87,7 @@ public final class MultiplyRight extends MatrixOperation {
                 }
             };
 
-            tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD);
+            tmpConquerer.invoke(0, (int) (right.count() / complexity), THRESHOLD_COMPLEX);
         }
 
     };
@@ -650,7 +654,7 @@ public final class MultiplyRight extends MatrixOperation {
     };
 
     public static BigMultiplyRight getBig(final long rows, final long columns) {
-        if (columns > THRESHOLD) {
+        if (columns > THRESHOLD_BIG) {
             return BIG_MT;
         } else {
             return BIG;
@@ -658,7 +662,7 @@ public final class MultiplyRight extends MatrixOperation {
     }
 
     public static ComplexMultiplyRight getComplex(final long rows, final long columns) {
-        if (columns > THRESHOLD) {
+        if (columns > THRESHOLD_COMPLEX) {
             return COMPLEX_MT;
         } else {
             return COMPLEX;
@@ -30,7 +30,7 @@ public final class RotateLeft extends MatrixOperation {
 
     public static final RotateLeft SETUP = new RotateLeft();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(RotateLeft.class, 128);
 
     public static void invoke(final BigDecimal[] aData, final int aColDim, final int aRowA, final int aRowB, final BigDecimal aCos, final BigDecimal aSin) {
 
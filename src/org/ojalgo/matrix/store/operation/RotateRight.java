@@ -30,7 +30,7 @@ public final class RotateRight extends MatrixOperation {
 
     public static final RotateRight SETUP = new RotateRight();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(RotateRight.class, 128);
 
     public static void invoke(final BigDecimal[] aData, final int aRowDim, final int aColA, final int aColB, final BigDecimal aCos, final BigDecimal aSin) {
 
@@ -33,7 +33,7 @@ public final class SubtractScaledVector extends MatrixOperation {
 
     public static final SubtractScaledVector SETUP = new SubtractScaledVector();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = Calibration.threshold(SubtractScaledVector.class, 128);
 
     /**
      * y -= ax
@@ -23,11 +23,12 @@ package org.ojalgo.optimisation;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.AbstractSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.ojalgo.ProgrammingError;
@@ -37,9 +38,7 @@ import org.ojalgo.access.AccessUtils;
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BigFunction;
-import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.PrimitiveFunction;
-import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.function.VoidFunction;
 import org.ojalgo.function.multiary.CompoundFunction;
 import org.ojalgo.function.multiary.ConstantFunction;
@@ -47,6 +46,7 @@ import org.ojalgo.function.multiary.LinearFunction;
 import org.ojalgo.function.multiary.MultiaryFunction;
 import org.ojalgo.function.multiary.QuadraticFunction;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.type.TypeUtils;
@@ -69,11 +69,81 @@ import org.ojalgo.type.context.NumberContext;
  * weight can be set to anything except zero (0.0). Often you may just want to set it to one (1.0). Other
  * values can be used to balance multiple expressions Contributing to the objective function.
  * </p>
+ * <p>
+ * The factors are stored as primitive doubles. The {@link BigDecimal} getters create their return values on
+ * demand, and a {@link BigDecimal} factor is only stored as such if it has more precision than a double. A
+ * dense matrix of quadratic factors can be set using {@link #setQuadraticFactors(Access2D)}, and is then kept
+ * by reference.
+ * </p>
  *
  * @author apete
  */
 public final class Expression extends ModelEntity<Expression> {
 
+    /**
+     * A (live) set view of the keys in a {@linkplain FactorMap}. The key instances are created as you iterate.
+     */
+    static abstract class FactorKeys<K> extends AbstractSet<K> {
+
+        private final FactorMap myFactors;
+
+        FactorKeys(final FactorMap factors) {
+
+            super();
+
+            myFactors = factors;
+        }
+
+        @Override
+        public final boolean contains(final Object obj) {
+            final long tmpKey = this.toKey(obj);
+            return (tmpKey >= 0L) && myFactors.containsKey(tmpKey);
+        }
+
+        @Override
+        public final Iterator<K> iterator() {
+            return new Iterator<K>() {
+
+                private int mySlot = this.next(-1);
+
+                public boolean hasNext() {
+                    return mySlot < myFactors.capacity();
+                }
+
+                public K next() {
+                    if (mySlot >= myFactors.capacity()) {
+                        throw new NoSuchElementException();
+                    }
+                    final K retVal = FactorKeys.this.toIndex(myFactors.keyAt(mySlot));
+                    mySlot = this.next(mySlot);
+                    return retVal;
+                }
+
+                private int next(final int slot) {
+                    int retVal = slot + 1;
+                    while ((retVal < myFactors.capacity()) && (myFactors.keyAt(retVal) < 0L)) {
+                        retVal++;
+                    }
+                    return retVal;
+                }
+
+            };
+        }
+
+        @Override
+        public final int size() {
+            return myFactors.size();
+        }
+
+        abstract K toIndex(long key);
+
+        /**
+         * @return The key, or a negative number if the object is not a (valid) key
+         */
+        abstract long toKey(Object obj);
+
+    }
+
     public static final class Index implements Comparable<Index> {
 
         public final int index;
@@ -194,10 +264,24 @@ public final class Expression extends ModelEntity<Expression> {
 
     }
 
+    /**
+     * Presolve doesn't derive integer variable bounds larger than this (in magnitude)
+     */
+    private static final double INTEGER_BOUND = 1.0E9;
+
+    private static int validate(final int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException();
+        }
+        return index;
+    }
+
+    private Access2D<?> myDenseQuadratic = null;
+    private double myDenseQuadraticScale = PrimitiveMath.ONE;
     private transient boolean myInfeasible = false;
-    private final HashMap<Index, BigDecimal> myLinear;
+    private final FactorMap myLinear;
     private final ExpressionsBasedModel myModel;
-    private final HashMap<RowColumn, BigDecimal> myQuadratic;
+    private final FactorMap myQuadratic;
     private transient boolean myRedundant = false;
     private final boolean myShallowCopy;
 
@@ -223,15 +307,15 @@ public final class Expression extends ModelEntity<Expression> {
 
         myModel = destinationModel;
 
+        myDenseQuadratic = entityToCopy.myDenseQuadratic;
+        myDenseQuadraticScale = entityToCopy.myDenseQuadraticScale;
+
         if (deep) {
 
             myShallowCopy = false;
 
-            myLinear = new HashMap<>();
-            myLinear.putAll(entityToCopy.getLinear());
-
-            myQuadratic = new HashMap<>();
-            myQuadratic.putAll(entityToCopy.getQuadratic());
+            myLinear = new FactorMap(entityToCopy.getLinear());
+            myQuadratic = new FactorMap(entityToCopy.getQuadratic());
 
         } else {
 
@@ -250,8 +334,8 @@ public final class Expression extends ModelEntity<Expression> {
 
         myShallowCopy = false;
 
-        myLinear = new HashMap<>();
-        myQuadratic = new HashMap<>();
+        myLinear = new FactorMap();
+        myQuadratic = new FactorMap();
 
         ProgrammingError.throwIfNull(myModel);
         ProgrammingError.throwIfNull(myLinear);
@@ -264,9 +348,39 @@ public final class Expression extends ModelEntity<Expression> {
 
         BigDecimal tmpFactor;
 
-        for (final RowColumn tmpKey : this.getQuadraticFactorKeys()) {
-            tmpFactor = this.getQuadraticFactor(tmpKey);
-            retVal = retVal.add(point.get(tmpKey.row).multiply(tmpFactor).multiply(point.get(tmpKey.column)));
+        if (myDenseQuadratic != null) {
+
+            // The dense part in double precision, the factors are doubles anyway
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            final double[] tmpPoint = new double[tmpDim];
+            for (int i = 0; i < tmpDim; i++) {
+                tmpPoint[i] = point.doubleValue(i);
+            }
+
+            double tmpDenseValue = PrimitiveMath.ZERO;
+            for (int j = 0; j < tmpDim; j++) {
+                double tmpColumnValue = PrimitiveMath.ZERO;
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpColumnValue += tmpPoint[i] * myDenseQuadratic.doubleValue(i, j);
+                }
+                tmpDenseValue += tmpColumnValue * tmpPoint[j];
+            }
+            retVal = retVal.add(BigDecimal.valueOf(myDenseQuadraticScale * tmpDenseValue));
+
+            long tmpKey;
+            for (int s = 0; s < myQuadratic.capacity(); s++) {
+                if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                    tmpFactor = BigDecimal.valueOf(myQuadratic.valueAt(s));
+                    retVal = retVal.add(point.get(FactorMap.row(tmpKey)).multiply(tmpFactor).multiply(point.get(FactorMap.column(tmpKey))));
+                }
+            }
+
+        } else {
+
+            for (final RowColumn tmpKey : this.getQuadraticFactorKeys()) {
+                tmpFactor = this.getQuadraticFactor(tmpKey);
+                retVal = retVal.add(point.get(tmpKey.row).multiply(tmpFactor).multiply(point.get(tmpKey.column)));
+            }
         }
 
         for (final Index tmpKey : this.getLinearFactorKeys()) {
@@ -281,21 +395,38 @@ public final class Expression extends ModelEntity<Expression> {
 
         final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(myModel.countVariables(), 1);
 
-        final BinaryFunction<Double> tmpBaseFunc = PrimitiveFunction.ADD;
+        long tmpKey;
         double tmpAdjustedFactor;
-        UnaryFunction<Double> tmpModFunc;
-        for (final RowColumn tmpKey : this.getQuadraticFactorKeys()) {
-            tmpAdjustedFactor = this.getAdjustedQuadraticFactor(tmpKey);
-            tmpModFunc = tmpBaseFunc.second(tmpAdjustedFactor * point.doubleValue(tmpKey.column));
-            retVal.modifyOne(tmpKey.row, 0, tmpModFunc);
-            tmpModFunc = tmpBaseFunc.second(tmpAdjustedFactor * point.doubleValue(tmpKey.row));
-            retVal.modifyOne(tmpKey.column, 0, tmpModFunc);
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            final double tmpScale = this.adjust(myDenseQuadraticScale);
+            for (int j = 0; j < tmpDim; j++) {
+                final double tmpPointJ = point.doubleValue(j);
+                double tmpSum = PrimitiveMath.ZERO;
+                for (int i = 0; i < tmpDim; i++) {
+                    retVal.set(i, 0, retVal.doubleValue(i, 0) + (tmpScale * myDenseQuadratic.doubleValue(i, j) * tmpPointJ));
+                    tmpSum += myDenseQuadratic.doubleValue(i, j) * point.doubleValue(i);
+                }
+                retVal.set(j, 0, retVal.doubleValue(j, 0) + (tmpScale * tmpSum));
+            }
         }
 
-        for (final Index tmpKey : this.getLinearFactorKeys()) {
-            tmpAdjustedFactor = this.getAdjustedLinearFactor(tmpKey);
-            tmpModFunc = tmpBaseFunc.second(tmpAdjustedFactor);
-            retVal.modifyOne(tmpKey.index, 0, tmpModFunc);
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                final int tmpRow = FactorMap.row(tmpKey);
+                final int tmpCol = FactorMap.column(tmpKey);
+                tmpAdjustedFactor = this.adjust(myQuadratic.valueAt(s));
+                retVal.set(tmpRow, 0, retVal.doubleValue(tmpRow, 0) + (tmpAdjustedFactor * point.doubleValue(tmpCol)));
+                retVal.set(tmpCol, 0, retVal.doubleValue(tmpCol, 0) + (tmpAdjustedFactor * point.doubleValue(tmpRow)));
+            }
+        }
+
+        for (int s = 0; s < myLinear.capacity(); s++) {
+            if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+                final int tmpIndex = (int) tmpKey;
+                retVal.set(tmpIndex, 0, retVal.doubleValue(tmpIndex, 0) + this.adjust(myLinear.valueAt(s)));
+            }
         }
 
         return retVal;
@@ -306,23 +437,38 @@ public final class Expression extends ModelEntity<Expression> {
         final int tmpCountVariables = myModel.countVariables();
         final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(tmpCountVariables, tmpCountVariables);
 
-        final BinaryFunction<Double> tmpBaseFunc = PrimitiveFunction.ADD;
-        UnaryFunction<Double> tmpModFunc;
-        for (final RowColumn tmpKey : this.getQuadraticFactorKeys()) {
-            tmpModFunc = tmpBaseFunc.second(this.getAdjustedQuadraticFactor(tmpKey));
-            retVal.modifyOne(tmpKey.row, tmpKey.column, tmpModFunc);
-            retVal.modifyOne(tmpKey.column, tmpKey.row, tmpModFunc);
+        long tmpKey;
+        double tmpAdjustedFactor;
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            final double tmpScale = this.adjust(myDenseQuadraticScale);
+            for (int j = 0; j < tmpDim; j++) {
+                for (int i = 0; i < tmpDim; i++) {
+                    retVal.set(i, j, tmpScale * (myDenseQuadratic.doubleValue(i, j) + myDenseQuadratic.doubleValue(j, i)));
+                }
+            }
+        }
+
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                final int tmpRow = FactorMap.row(tmpKey);
+                final int tmpCol = FactorMap.column(tmpKey);
+                tmpAdjustedFactor = this.adjust(myQuadratic.valueAt(s));
+                retVal.set(tmpRow, tmpCol, retVal.doubleValue(tmpRow, tmpCol) + tmpAdjustedFactor);
+                retVal.set(tmpCol, tmpRow, retVal.doubleValue(tmpCol, tmpRow) + tmpAdjustedFactor);
+            }
         }
 
         return retVal;
     }
 
     public double getAdjustedLinearFactor(final Index key) {
-        return this.getLinearFactor(key, true).doubleValue();
+        return this.getAdjustedLinearFactor(key.index);
     }
 
     public double getAdjustedLinearFactor(final int aVar) {
-        return this.getAdjustedLinearFactor(new Index(aVar));
+        return this.adjust(myLinear.doubleValue(aVar));
     }
 
     public double getAdjustedLinearFactor(final Variable aVar) {
@@ -330,11 +476,11 @@ public final class Expression extends ModelEntity<Expression> {
     }
 
     public double getAdjustedQuadraticFactor(final int aVar1, final int aVar2) {
-        return this.getAdjustedQuadraticFactor(new RowColumn(aVar1, aVar2));
+        return this.adjust(this.getQuadraticValue(aVar1, aVar2));
     }
 
     public double getAdjustedQuadraticFactor(final RowColumn key) {
-        return this.getQuadraticFactor(key, true).doubleValue();
+        return this.getAdjustedQuadraticFactor(key.row, key.column);
     }
 
     public double getAdjustedQuadraticFactor(final Variable aVar1, final Variable aVar2) {
@@ -368,7 +514,19 @@ public final class Expression extends ModelEntity<Expression> {
     }
 
     public Set<Expression.Index> getLinearFactorKeys() {
-        return myLinear.keySet();
+        return new FactorKeys<Expression.Index>(myLinear) {
+
+            @Override
+            Index toIndex(final long key) {
+                return new Index((int) key);
+            }
+
+            @Override
+            long toKey(final Object obj) {
+                return obj instanceof Index ? ((Index) obj).index : -1L;
+            }
+
+        };
     }
 
     public BigDecimal getQuadraticFactor(final int aVar1, final int aVar2) {
@@ -384,15 +542,37 @@ public final class Expression extends ModelEntity<Expression> {
     }
 
     public Set<Expression.RowColumn> getQuadraticFactorKeys() {
-        return myQuadratic.keySet();
+
+        if (myDenseQuadratic != null) {
+            return this.getDenseQuadraticFactorKeys();
+        }
+
+        return new FactorKeys<Expression.RowColumn>(myQuadratic) {
+
+            @Override
+            RowColumn toIndex(final long key) {
+                return new RowColumn(FactorMap.row(key), FactorMap.column(key));
+            }
+
+            @Override
+            long toKey(final Object obj) {
+                if (obj instanceof RowColumn) {
+                    final RowColumn tmpKey = (RowColumn) obj;
+                    return (tmpKey.row >= 0) && (tmpKey.column >= 0) ? FactorMap.key(tmpKey.row, tmpKey.column) : -1L;
+                } else {
+                    return -1L;
+                }
+            }
+
+        };
     }
 
     public boolean isAnyLinearFactorNonZero() {
-        return myLinear.size() > 0;
+        return !myLinear.isEmpty();
     }
 
     public boolean isAnyQuadraticFactorNonZero() {
-        return myQuadratic.size() > 0;
+        return (myDenseQuadratic != null) || !myQuadratic.isEmpty();
     }
 
     public boolean isFunctionCompound() {
@@ -445,13 +625,7 @@ public final class Expression extends ModelEntity<Expression> {
 
         if (key != null) {
 
-            final BigDecimal tmpValue = TypeUtils.toBigDecimal(value);
-
-            if (tmpValue.signum() != 0) {
-                myLinear.put(key, tmpValue);
-            } else {
-                myLinear.remove(key);
-            }
+            this.setLinearFactor(key.index, value);
 
         } else {
 
@@ -459,8 +633,12 @@ public final class Expression extends ModelEntity<Expression> {
         }
     }
 
+    public void setLinearFactor(final int aVar, final double value) {
+        myLinear.set(Expression.validate(aVar), value);
+    }
+
     public void setLinearFactor(final int aVar, final Number value) {
-        this.setLinearFactor(new Index(aVar), value);
+        myLinear.set(Expression.validate(aVar), value);
     }
 
     public void setLinearFactor(final Variable aVar, final Number value) {
@@ -491,21 +669,31 @@ public final class Expression extends ModelEntity<Expression> {
         }
     }
 
+    public void setQuadraticFactor(final int aVar1, final int aVar2, final double value) {
+
+        final long tmpKey = FactorMap.key(Expression.validate(aVar1), Expression.validate(aVar2));
+
+        if (myDenseQuadratic != null) {
+            // Stored as the difference to the dense factor
+            myQuadratic.set(tmpKey, value - this.getDenseQuadraticValue(aVar1, aVar2));
+        } else {
+            myQuadratic.set(tmpKey, value);
+        }
+    }
+
     public void setQuadraticFactor(final int aVar1, final int aVar2, final Number value) {
-        this.setQuadraticFactor(new RowColumn(aVar1, aVar2), value);
+        if (myDenseQuadratic != null) {
+            this.setQuadraticFactor(aVar1, aVar2, value.doubleValue());
+        } else {
+            myQuadratic.set(FactorMap.key(Expression.validate(aVar1), Expression.validate(aVar2)), value);
+        }
     }
 
     public void setQuadraticFactor(final RowColumn key, final Number value) {
 
         if (key != null) {
 
-            final BigDecimal tmpValue = TypeUtils.toBigDecimal(value);
-
-            if (tmpValue.signum() != 0) {
-                myQuadratic.put(key, tmpValue);
-            } else {
-                myQuadratic.remove(key);
-            }
+            this.setQuadraticFactor(key.row, key.column, value);
 
         } else {
 
@@ -517,6 +705,26 @@ public final class Expression extends ModelEntity<Expression> {
         this.setQuadraticFactor(myModel.indexOf(aVar1), myModel.indexOf(aVar2), value);
     }
 
+    /**
+     * Sets all the quadratic factors at once. The matrix is kept by reference, not copied, and its row/column
+     * i corresponds to the model's variable i (it must be square with the same dimension as the number of
+     * variables in the model). Any previously set quadratic factors are cleared. Individual factors can still
+     * be set afterwards - the matrix itself is never modified.
+     */
+    public void setQuadraticFactors(final Access2D<?> factors) {
+
+        final long tmpDim = myModel.countVariables();
+
+        if ((factors.countRows() != tmpDim) || (factors.countColumns() != tmpDim)) {
+            throw new IllegalArgumentException();
+        }
+
+        myQuadratic.clear();
+
+        myDenseQuadratic = factors;
+        myDenseQuadraticScale = PrimitiveMath.ONE;
+    }
+
     public void setQuadraticFactors(final List<Variable> variables, final Access2D<?> factors) {
 
         final int tmpLimit = variables.size();
@@ -546,6 +754,19 @@ public final class Expression extends ModelEntity<Expression> {
         }
     }
 
+    private double adjust(final double value) {
+
+        final int tmpAdjExp = this.getAdjustmentExponent();
+
+        if (tmpAdjExp > 0) {
+            return value * PrimitiveFunction.POWER.invoke(PrimitiveMath.TEN, tmpAdjExp);
+        } else if (tmpAdjExp < 0) {
+            return value / PrimitiveFunction.POWER.invoke(PrimitiveMath.TEN, -tmpAdjExp);
+        } else {
+            return value;
+        }
+    }
+
     private final BigDecimal convert(final BigDecimal value, final boolean adjusted) {
 
         if (value != null) {
@@ -578,21 +799,195 @@ public final class Expression extends ModelEntity<Expression> {
 
         double retVal = PrimitiveMath.ZERO;
 
-        double tmpAdjustedFactor;
+        long tmpKey;
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            double tmpDenseValue = PrimitiveMath.ZERO;
+            for (int j = 0; j < tmpDim; j++) {
+                double tmpColumnValue = PrimitiveMath.ZERO;
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpColumnValue += point.doubleValue(i) * myDenseQuadratic.doubleValue(i, j);
+                }
+                tmpDenseValue += tmpColumnValue * point.doubleValue(j);
+            }
+            retVal += this.adjust(myDenseQuadraticScale) * tmpDenseValue;
+        }
 
-        for (final RowColumn tmpKey : this.getQuadraticFactorKeys()) {
-            tmpAdjustedFactor = this.getAdjustedQuadraticFactor(tmpKey);
-            retVal += point.doubleValue(tmpKey.row) * tmpAdjustedFactor * point.doubleValue(tmpKey.column);
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                retVal += point.doubleValue(FactorMap.row(tmpKey)) * this.adjust(myQuadratic.valueAt(s)) * point.doubleValue(FactorMap.column(tmpKey));
+            }
         }
 
-        for (final Index tmpKey : this.getLinearFactorKeys()) {
-            tmpAdjustedFactor = this.getAdjustedLinearFactor(tmpKey);
-            retVal += point.doubleValue(tmpKey.index) * tmpAdjustedFactor;
+        for (int s = 0; s < myLinear.capacity(); s++) {
+            if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+                retVal += point.doubleValue((int) tmpKey) * this.adjust(myLinear.valueAt(s));
+            }
         }
 
         return retVal;
     }
 
+    private void fillQuadratic(final PhysicalStore<Double> destination) {
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            for (int j = 0; j < tmpDim; j++) {
+                for (int i = 0; i < tmpDim; i++) {
+                    destination.set(i, j, myDenseQuadraticScale * myDenseQuadratic.doubleValue(i, j));
+                }
+            }
+        }
+
+        long tmpKey;
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                final int tmpRow = FactorMap.row(tmpKey);
+                final int tmpCol = FactorMap.column(tmpKey);
+                destination.set(tmpRow, tmpCol, destination.doubleValue(tmpRow, tmpCol) + myQuadratic.valueAt(s));
+            }
+        }
+    }
+
+    /**
+     * The keys of the nonzero quadratic factors when there is a dense matrix - a view scanning the matrix and
+     * then the (sparse) differences to it.
+     */
+    private Set<Expression.RowColumn> getDenseQuadraticFactorKeys() {
+        return new AbstractSet<Expression.RowColumn>() {
+
+            @Override
+            public boolean contains(final Object obj) {
+                if (obj instanceof RowColumn) {
+                    final RowColumn tmpKey = (RowColumn) obj;
+                    final long tmpDim = myModel.countVariables();
+                    return (tmpKey.row >= 0) && (tmpKey.row < tmpDim) && (tmpKey.column >= 0) && (tmpKey.column < tmpDim)
+                            && (Expression.this.getQuadraticValue(tmpKey.row, tmpKey.column) != PrimitiveMath.ZERO);
+                } else {
+                    return false;
+                }
+            }
+
+            @Override
+            public Iterator<Expression.RowColumn> iterator() {
+                return new Iterator<Expression.RowColumn>() {
+
+                    private final Access2D<?> myDense = myDenseQuadratic;
+                    private final int myDim = (int) myDense.countRows();
+                    private int myPosition = this.next(-1);
+
+                    public boolean hasNext() {
+                        return myPosition < ((myDim * myDim) + myQuadratic.capacity());
+                    }
+
+                    public RowColumn next() {
+
+                        if (!this.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final RowColumn retVal;
+                        if (myPosition < (myDim * myDim)) {
+                            retVal = new RowColumn(myPosition % myDim, myPosition / myDim);
+                        } else {
+                            final long tmpKey = myQuadratic.keyAt(myPosition - (myDim * myDim));
+                            retVal = new RowColumn(FactorMap.row(tmpKey), FactorMap.column(tmpKey));
+                        }
+
+                        myPosition = this.next(myPosition);
+
+                        return retVal;
+                    }
+
+                    private int next(final int position) {
+
+                        final int tmpDenseCount = myDim * myDim;
+                        final int tmpLimit = tmpDenseCount + myQuadratic.capacity();
+
+                        int retVal = position + 1;
+                        for (; retVal < tmpLimit; retVal++) {
+                            if (retVal < tmpDenseCount) {
+                                final int tmpRow = retVal % myDim;
+                                final int tmpCol = retVal / myDim;
+                                if (Expression.this.getQuadraticValue(tmpRow, tmpCol) != PrimitiveMath.ZERO) {
+                                    break;
+                                }
+                            } else {
+                                final long tmpKey = myQuadratic.keyAt(retVal - tmpDenseCount);
+                                if ((tmpKey >= 0L) && !this.isDense(FactorMap.row(tmpKey), FactorMap.column(tmpKey))) {
+                                    break;
+                                }
+                            }
+                        }
+
+                        return retVal;
+                    }
+
+                    private boolean isDense(final int row, final int column) {
+                        return (row < myDim) && (column < myDim) && (myDense.doubleValue(row, column) != PrimitiveMath.ZERO);
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                int retVal = 0;
+                for (final Iterator<Expression.RowColumn> tmpIterator = this.iterator(); tmpIterator.hasNext(); tmpIterator.next()) {
+                    retVal++;
+                }
+                return retVal;
+            }
+
+        };
+    }
+
+    private double getDenseQuadraticValue(final int row, final int column) {
+        final Access2D<?> tmpDense = myDenseQuadratic;
+        if ((tmpDense != null) && (row < tmpDense.countRows()) && (column < tmpDense.countColumns())) {
+            return myDenseQuadraticScale * tmpDense.doubleValue(row, column);
+        } else {
+            return PrimitiveMath.ZERO;
+        }
+    }
+
+    /**
+     * @return The largest possible value of factor * variable, given the variable's bounds
+     */
+    private double getMaxContribution(final Variable variable, final double factor, final Set<Index> fixedVariables) {
+        return -this.getMinContribution(variable, -factor, fixedVariables);
+    }
+
+    /**
+     * @return The smallest possible value of factor * variable, given the variable's bounds
+     */
+    private double getMinContribution(final Variable variable, final double factor, final Set<Index> fixedVariables) {
+
+        if (factor == PrimitiveMath.ZERO) {
+            return PrimitiveMath.ZERO;
+        }
+
+        if (fixedVariables.contains(variable.getIndex()) && (variable.getValue() != null)) {
+            return factor * variable.getValue().doubleValue();
+        }
+
+        final BigDecimal tmpBound = factor > PrimitiveMath.ZERO ? myModel.getLowerBound(variable) : myModel.getUpperBound(variable);
+
+        if (tmpBound != null) {
+            return factor * tmpBound.doubleValue();
+        } else {
+            return Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * @return The (unadjusted) quadratic factor, the dense part and the sparse part added
+     */
+    private double getQuadraticValue(final int row, final int column) {
+        return this.getDenseQuadraticValue(row, column) + myQuadratic.doubleValue(FactorMap.key(row, column));
+    }
+
     protected void appendMiddlePart(final StringBuilder builder, final Access1D<BigDecimal> currentSolution) {
 
         builder.append(this.getName());
@@ -611,6 +1006,8 @@ public final class Expression extends ModelEntity<Expression> {
 
         super.destroy();
 
+        myDenseQuadratic = null;
+
         if (!myShallowCopy) {
             myLinear.clear();
             myQuadratic.clear();
@@ -625,18 +1022,64 @@ public final class Expression extends ModelEntity<Expression> {
     }
 
     @Override
-    void visitAllParameters(final VoidFunction<BigDecimal> largest, final VoidFunction<BigDecimal> smallest) {
+    void visitAllParameters(final VoidFunction<Double> largest, final VoidFunction<Double> smallest) {
 
         super.visitAllParameters(largest, smallest);
 
-        for (final BigDecimal tmpLinearFactor : myLinear.values()) {
-            largest.invoke(tmpLinearFactor);
-            smallest.invoke(tmpLinearFactor);
+        for (int s = 0; s < myLinear.capacity(); s++) {
+            if (myLinear.keyAt(s) >= 0L) {
+                largest.invoke(myLinear.valueAt(s));
+                smallest.invoke(myLinear.valueAt(s));
+            }
         }
 
-        for (final BigDecimal tmpQuadraticFactor : myQuadratic.values()) {
-            largest.invoke(tmpQuadraticFactor);
-            smallest.invoke(tmpQuadraticFactor);
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if (myQuadratic.keyAt(s) >= 0L) {
+                largest.invoke(myQuadratic.valueAt(s));
+                smallest.invoke(myQuadratic.valueAt(s));
+            }
+        }
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) myDenseQuadratic.countRows();
+            for (int j = 0; j < tmpDim; j++) {
+                for (int i = 0; i < tmpDim; i++) {
+                    final double tmpValue = myDenseQuadraticScale * myDenseQuadratic.doubleValue(i, j);
+                    largest.invoke(tmpValue);
+                    smallest.invoke(tmpValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * this += weight * source, for the quadratic factors. A dense matrix of factors is kept by reference if
+     * this expression doesn't already have one.
+     */
+    void addQuadraticFactors(final Expression source, final BigDecimal weight) {
+
+        myQuadratic.add(source.getQuadratic(), weight);
+
+        if (source.myDenseQuadratic != null) {
+
+            final double tmpScale = weight.doubleValue() * source.myDenseQuadraticScale;
+
+            if (myDenseQuadratic == null) {
+
+                myDenseQuadratic = source.myDenseQuadratic;
+                myDenseQuadraticScale = tmpScale;
+
+            } else {
+
+                final Access2D<?> tmpDense = source.myDenseQuadratic;
+                final int tmpDim = (int) tmpDense.countRows();
+                for (int j = 0; j < tmpDim; j++) {
+                    for (int i = 0; i < tmpDim; i++) {
+                        final long tmpKey = FactorMap.key(i, j);
+                        myQuadratic.set(tmpKey, myQuadratic.doubleValue(tmpKey) + (tmpScale * tmpDense.doubleValue(i, j)));
+                    }
+                }
+            }
         }
     }
 
@@ -715,35 +1158,32 @@ public final class Expression extends ModelEntity<Expression> {
         return myLinear.size();
     }
 
-    int countQuadraticFactors() {
-        return myQuadratic.size();
-    }
-
     CompoundFunction<Double> getCompoundFunction() {
 
         final CompoundFunction<Double> retVal = CompoundFunction.makePrimitive(myModel.countVariables());
 
         if (this.isAnyQuadraticFactorNonZero()) {
-            for (final Entry<RowColumn, BigDecimal> tmpEntry : myQuadratic.entrySet()) {
-                retVal.quadratic().set(tmpEntry.getKey().row, tmpEntry.getKey().column, tmpEntry.getValue().doubleValue());
-            }
+            this.fillQuadratic(retVal.quadratic());
         }
 
         if (this.isAnyLinearFactorNonZero()) {
-            for (final Entry<Index, BigDecimal> tmpEntry : myLinear.entrySet()) {
-                retVal.linear().set(tmpEntry.getKey().index, tmpEntry.getValue().doubleValue());
+            long tmpKey;
+            for (int s = 0; s < myLinear.capacity(); s++) {
+                if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+                    retVal.linear().set((int) tmpKey, myLinear.valueAt(s));
+                }
             }
         }
 
         return retVal;
     }
 
-    HashMap<Index, BigDecimal> getLinear() {
+    FactorMap getLinear() {
         return myLinear;
     }
 
     BigDecimal getLinearFactor(final Index key, final boolean adjusted) {
-        return this.convert(myLinear.get(key), adjusted);
+        return this.convert(myLinear.get(key.index), adjusted);
     }
 
     LinearFunction<Double> getLinearFunction() {
@@ -751,8 +1191,11 @@ public final class Expression extends ModelEntity<Expression> {
         final LinearFunction<Double> retVal = LinearFunction.makePrimitive(myModel.countVariables());
 
         if (this.isAnyLinearFactorNonZero()) {
-            for (final Entry<Index, BigDecimal> tmpEntry : myLinear.entrySet()) {
-                retVal.linear().set(tmpEntry.getKey().index, tmpEntry.getValue().doubleValue());
+            long tmpKey;
+            for (int s = 0; s < myLinear.capacity(); s++) {
+                if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+                    retVal.linear().set((int) tmpKey, myLinear.valueAt(s));
+                }
             }
         }
 
@@ -763,12 +1206,17 @@ public final class Expression extends ModelEntity<Expression> {
         return myModel;
     }
 
-    HashMap<RowColumn, BigDecimal> getQuadratic() {
+    FactorMap getQuadratic() {
         return myQuadratic;
     }
 
     BigDecimal getQuadraticFactor(final RowColumn key, final boolean adjusted) {
-        return this.convert(myQuadratic.get(key), adjusted);
+        if (myDenseQuadratic != null) {
+            final double tmpValue = this.getQuadraticValue(key.row, key.column);
+            return this.convert(tmpValue != PrimitiveMath.ZERO ? BigDecimal.valueOf(tmpValue) : null, adjusted);
+        } else {
+            return this.convert(myQuadratic.get(FactorMap.key(key.row, key.column)), adjusted);
+        }
     }
 
     QuadraticFunction<Double> getQuadraticFunction() {
@@ -776,9 +1224,7 @@ public final class Expression extends ModelEntity<Expression> {
         final QuadraticFunction<Double> retVal = QuadraticFunction.makePrimitive(myModel.countVariables());
 
         if (this.isAnyQuadraticFactorNonZero()) {
-            for (final Entry<RowColumn, BigDecimal> tmpEntry : myQuadratic.entrySet()) {
-                retVal.quadratic().set(tmpEntry.getKey().row, tmpEntry.getKey().column, tmpEntry.getValue().doubleValue());
-            }
+            this.fillQuadratic(retVal.quadratic());
         }
 
         return retVal;
@@ -796,6 +1242,37 @@ public final class Expression extends ModelEntity<Expression> {
         return myRedundant;
     }
 
+    /**
+     * Sets marks[j] to true for every variable j part of a quadratic term. All variables covered by the dense
+     * quadratic factors are marked, without looking at the individual (n*n) factors.
+     */
+    void markQuadraticVariables(final boolean[] marks) {
+
+        if (myDenseQuadratic != null) {
+            final int tmpDim = (int) Math.min(myDenseQuadratic.countRows(), marks.length);
+            for (int j = 0; j < tmpDim; j++) {
+                marks[j] = true;
+            }
+        }
+
+        long tmpKey;
+        for (int s = 0; s < myQuadratic.capacity(); s++) {
+            if ((tmpKey = myQuadratic.keyAt(s)) >= 0L) {
+                marks[FactorMap.row(tmpKey)] = true;
+                marks[FactorMap.column(tmpKey)] = true;
+            }
+        }
+    }
+
+    /**
+     * Forget what a previous presolve concluded - the limits (of this or of the variables) may have changed
+     * since.
+     */
+    void reset() {
+        myRedundant = false;
+        myInfeasible = false;
+    }
+
     /**
      * @return true if this expression was changed from not redundant to redundant
      */
@@ -805,7 +1282,7 @@ public final class Expression extends ModelEntity<Expression> {
         final boolean tmpInitiallyRedundant = myRedundant;
 
         final Set<Index> tmpFixedVariables = myModel.getFixedVariables();
-        if (!tmpInitiallyRedundant && (this.countQuadraticFactors() == 0) && (this.countLinearFactors() <= (tmpFixedVariables.size() + 1))) {
+        if (!tmpInitiallyRedundant && !this.isAnyQuadraticFactorNonZero() && (this.countLinearFactors() <= (tmpFixedVariables.size() + 1))) {
             // This constraint can possibly be reduced to 0 or 1 remaining linear factors
 
             BigDecimal tmpFixedValue = this.calculateFixedValue(tmpFixedVariables);
@@ -937,4 +1414,140 @@ public final class Expression extends ModelEntity<Expression> {
         }
     }
 
+    /**
+     * Compares the constraint limits with the range of values this (linear) expression can take, given the
+     * variables' bounds. If the limits can't be reached the expression is infeasible, and if they can't be
+     * violated it is redundant. Otherwise the limits are used to tighten the bounds of the integer variables.
+     *
+     * @return true if this expression was changed from not redundant to redundant, or any variable bound was
+     *         tightened
+     */
+    boolean tighten() {
+
+        if (myRedundant || myInfeasible || !this.isConstraint() || this.isAnyQuadraticFactorNonZero()) {
+            return false;
+        }
+
+        final Set<Index> tmpFixedVariables = myModel.getFixedVariables();
+
+        final double tmpLowerLimit = this.isLowerLimitSet() ? this.getLowerLimit().doubleValue() : Double.NEGATIVE_INFINITY;
+        final double tmpUpperLimit = this.isUpperLimitSet() ? this.getUpperLimit().doubleValue() : Double.POSITIVE_INFINITY;
+
+        // The smallest/largest possible value of this expression, and how many (infinite) terms were left out
+        double tmpMinActivity = PrimitiveMath.ZERO;
+        double tmpMaxActivity = PrimitiveMath.ZERO;
+        int tmpMinInfinite = 0;
+        int tmpMaxInfinite = 0;
+
+        long tmpKey;
+        for (int s = 0; s < myLinear.capacity(); s++) {
+            if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+
+                final double tmpFactor = myLinear.valueAt(s);
+                final Variable tmpVariable = myModel.getVariable((int) tmpKey);
+
+                final double tmpMin = this.getMinContribution(tmpVariable, tmpFactor, tmpFixedVariables);
+                final double tmpMax = this.getMaxContribution(tmpVariable, tmpFactor, tmpFixedVariables);
+
+                if (Double.isInfinite(tmpMin)) {
+                    tmpMinInfinite++;
+                } else {
+                    tmpMinActivity += tmpMin;
+                }
+                if (Double.isInfinite(tmpMax)) {
+                    tmpMaxInfinite++;
+                } else {
+                    tmpMaxActivity += tmpMax;
+                }
+            }
+        }
+
+        final NumberContext tmpSlack = myModel.options.slack;
+
+        if (((tmpMinInfinite == 0) && (tmpMinActivity > tmpUpperLimit) && tmpSlack.isDifferent(tmpUpperLimit, tmpMinActivity))
+                || ((tmpMaxInfinite == 0) && (tmpMaxActivity < tmpLowerLimit) && tmpSlack.isDifferent(tmpLowerLimit, tmpMaxActivity))) {
+            myInfeasible = true;
+            return false;
+        }
+
+        if (((tmpLowerLimit == Double.NEGATIVE_INFINITY) || ((tmpMinInfinite == 0) && (tmpMinActivity >= tmpLowerLimit)))
+                && ((tmpUpperLimit == Double.POSITIVE_INFINITY) || ((tmpMaxInfinite == 0) && (tmpMaxActivity <= tmpUpperLimit)))) {
+            myRedundant = true;
+            return true;
+        }
+
+        final double tmpEpsilon = myModel.options.integer.epsilon();
+
+        boolean retVal = false;
+
+        for (int s = 0; s < myLinear.capacity(); s++) {
+            if ((tmpKey = myLinear.keyAt(s)) >= 0L) {
+
+                final double tmpFactor = myLinear.valueAt(s);
+                final Variable tmpVariable = myModel.getVariable((int) tmpKey);
+
+                if (!tmpVariable.isInteger() || (tmpFactor == PrimitiveMath.ZERO) || tmpFixedVariables.contains(tmpVariable.getIndex())) {
+                    continue;
+                }
+
+                final double tmpMin = this.getMinContribution(tmpVariable, tmpFactor, tmpFixedVariables);
+                final double tmpMax = this.getMaxContribution(tmpVariable, tmpFactor, tmpFixedVariables);
+
+                // What's left for this variable's term, when all the others take their smallest/largest values
+                double tmpTermUpper = Double.POSITIVE_INFINITY;
+                if (tmpUpperLimit != Double.POSITIVE_INFINITY) {
+                    if (tmpMinInfinite == 0) {
+                        tmpTermUpper = tmpUpperLimit - (tmpMinActivity - tmpMin);
+                    } else if ((tmpMinInfinite == 1) && Double.isInfinite(tmpMin)) {
+                        tmpTermUpper = tmpUpperLimit - tmpMinActivity;
+                    }
+                }
+                double tmpTermLower = Double.NEGATIVE_INFINITY;
+                if (tmpLowerLimit != Double.NEGATIVE_INFINITY) {
+                    if (tmpMaxInfinite == 0) {
+                        tmpTermLower = tmpLowerLimit - (tmpMaxActivity - tmpMax);
+                    } else if ((tmpMaxInfinite == 1) && Double.isInfinite(tmpMax)) {
+                        tmpTermLower = tmpLowerLimit - tmpMaxActivity;
+                    }
+                }
+
+                double tmpNewLower, tmpNewUpper;
+                if (tmpFactor > PrimitiveMath.ZERO) {
+                    tmpNewLower = Math.ceil((tmpTermLower / tmpFactor) - tmpEpsilon);
+                    tmpNewUpper = Math.floor((tmpTermUpper / tmpFactor) + tmpEpsilon);
+                } else {
+                    tmpNewLower = Math.ceil((tmpTermUpper / tmpFactor) - tmpEpsilon);
+                    tmpNewUpper = Math.floor((tmpTermLower / tmpFactor) + tmpEpsilon);
+                }
+
+                BigDecimal tmpLower = myModel.getLowerBound(tmpVariable);
+                BigDecimal tmpUpper = myModel.getUpperBound(tmpVariable);
+
+                if ((Math.abs(tmpNewLower) < INTEGER_BOUND) && ((tmpLower == null) || (tmpNewLower > tmpLower.doubleValue()))) {
+                    tmpLower = new BigDecimal((long) tmpNewLower);
+                    myModel.setLowerBound(tmpVariable.getIndex(), tmpLower);
+                    retVal = true;
+                }
+                if ((Math.abs(tmpNewUpper) < INTEGER_BOUND) && ((tmpUpper == null) || (tmpNewUpper < tmpUpper.doubleValue()))) {
+                    tmpUpper = new BigDecimal((long) tmpNewUpper);
+                    myModel.setUpperBound(tmpVariable.getIndex(), tmpUpper);
+                    retVal = true;
+                }
+
+                if ((tmpLower != null) && (tmpUpper != null)) {
+                    final int tmpComparison = tmpLower.compareTo(tmpUpper);
+                    if (tmpComparison > 0) {
+                        myInfeasible = true;
+                        return false;
+                    } else if (tmpComparison == 0) {
+                        tmpVariable.setValue(tmpLower);
+                        myModel.addFixedVariable(tmpVariable.getIndex());
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
 }
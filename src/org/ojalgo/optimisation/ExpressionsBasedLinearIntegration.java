@@ -36,6 +36,10 @@ final class ExpressionsBasedLinearIntegration extends Integration<LinearSolver>
 
         LinearSolver.copy(model, tmpBuilder);
 
+        if (this.isWarmStartPossible(model)) {
+            tmpBuilder.warmStart();
+        }
+
         return tmpBuilder.build(model.options);
     }
 
@@ -109,4 +113,25 @@ final class ExpressionsBasedLinearIntegration extends Integration<LinearSolver>
         return new Result(modelState.getState(), modelState.getValue(), tmpSolverSolution);
     }
 
+    /**
+     * The model has been solved to optimality before (and then modified), and all free variables still have
+     * values. The values written back after a failed solve are no basis to continue from.
+     */
+    private boolean isWarmStartPossible(final ExpressionsBasedModel model) {
+        if (!model.isOptimalValues()) {
+            return false;
+        }
+        for (final Variable tmpVariable : model.getPositiveVariables()) {
+            if (tmpVariable.getValue() == null) {
+                return false;
+            }
+        }
+        for (final Variable tmpVariable : model.getNegativeVariables()) {
+            if (tmpVariable.getValue() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -24,6 +24,7 @@ package org.ojalgo.optimisation;
 import static org.ojalgo.constant.BigMath.*;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 import org.ojalgo.access.Access1D;
@@ -118,30 +119,65 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
 
     };
 
+    /**
+     * The maximum number of times the presolver goes through the expressions. Each pass may allow further
+     * simplifications, but bound tightening could go on for long with only marginal changes.
+     */
+    static final int PRESOLVE_PASSES = 16;
+
+    /**
+     * Simplifies the expressions, with the variables' bounds, until nothing more changes. Redundant
+     * expressions are marked as such (and then ignored by the solvers), variable bounds may be tightened and
+     * variables fixed. Fixed variables keep their value and are not part of what the solvers see.
+     */
     static final void presolve(final ExpressionsBasedModel model) {
 
-        for (final Expression tmpExpression : model.getExpressions()) {
-            if (tmpExpression.simplify()) {
-                ExpressionsBasedModel.presolve(model);
-                break;
+        boolean tmpChanged = true;
+
+        for (int p = 0; tmpChanged && (p < PRESOLVE_PASSES); p++) {
+
+            tmpChanged = false;
+
+            for (final Expression tmpExpression : model.getExpressions()) {
+                tmpChanged |= tmpExpression.simplify();
+            }
+
+            for (final Expression tmpExpression : model.getExpressions()) {
+                tmpChanged |= tmpExpression.tighten();
             }
         }
     }
 
     private transient BasicLogger.Appender myAppender = null;
     private final CharacterRing myBuffer = new CharacterRing();
+    /**
+     * Some variables were fixed because of the objective function, not (only) the constraints
+     */
+    private transient boolean myDominatedVariables = false;
     private final HashMap<String, Expression> myExpressions = new HashMap<String, Expression>();
     private final HashSet<Index> myFixedVariables = new HashSet<Index>();
     private transient int[] myFreeIndices = null;
     private transient List<Variable> myFreeVariables = null;
     private transient int[] myIntegerIndices = null;
     private transient List<Variable> myIntegerVariables = null;
+    /**
+     * Integer variable lower bounds derived by the presolver, tighter than the variables' own limits
+     */
+    private final HashMap<Index, BigDecimal> myLowerBounds = new HashMap<Index, BigDecimal>();
     private transient int[] myNegativeIndices = null;
     private transient List<Variable> myNegativeVariables = null;
     private transient Expression myObjectiveExpression = null;
     private transient MultiaryFunction.TwiceDifferentiable<Double> myObjectiveFunction = null;
+    /**
+     * The variable values were set from an optimal solution (by the latest call to maximise or minimise)
+     */
+    private transient boolean myOptimalValues = false;
     private transient int[] myPositiveIndices = null;
     private transient List<Variable> myPositiveVariables = null;
+    /**
+     * Integer variable upper bounds derived by the presolver, tighter than the variables' own limits
+     */
+    private final HashMap<Index, BigDecimal> myUpperBounds = new HashMap<Index, BigDecimal>();
     private final ArrayList<Variable> myVariables = new ArrayList<Variable>();
     private final boolean myWorkCopy;
 
@@ -194,6 +230,8 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
             myObjectiveFunction = modelToCopy.getObjectiveFunction();
 
             myFixedVariables.addAll(modelToCopy.getFixedVariables());
+            myLowerBounds.putAll(modelToCopy.myLowerBounds);
+            myUpperBounds.putAll(modelToCopy.myUpperBounds);
         }
     }
 
@@ -286,6 +324,16 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
      * @return A list of the variables that are not fixed at a specific value and are marked as integer
      *         variables
      */
+    /**
+     * @return The variable's lower limit, or the (tighter) bound derived from the constraints by the latest
+     *         presolve. Those derived bounds are not written to the variable - they're only valid as long as the
+     *         model isn't changed.
+     */
+    public BigDecimal getLowerBound(final Variable variable) {
+        final BigDecimal tmpBound = myLowerBounds.get(variable.getIndex());
+        return tmpBound != null ? tmpBound : variable.getLowerLimit();
+    }
+
     public List<Variable> getIntegerVariables() {
 
         if (myIntegerVariables == null) {
@@ -323,33 +371,18 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
                 }
             }
 
-            BigDecimal tmpOldVal = null;
-            BigDecimal tmpDiff = null;
-            BigDecimal tmpNewVal = null;
-
             for (final Expression tmpExpression : myExpressions.values()) {
 
                 if (tmpExpression.isObjective()) {
 
                     final BigDecimal tmpContributionWeight = tmpExpression.getContributionWeight();
-                    final boolean tmpNotOne = tmpContributionWeight.compareTo(ONE) != 0; // To avoid multiplication by 1.0
 
                     if (tmpExpression.isAnyLinearFactorNonZero()) {
-                        for (final Expression.Index tmpKey : tmpExpression.getLinearFactorKeys()) {
-                            tmpOldVal = myObjectiveExpression.getLinearFactor(tmpKey);
-                            tmpDiff = tmpExpression.getLinearFactor(tmpKey);
-                            tmpNewVal = tmpOldVal.add(tmpNotOne ? tmpContributionWeight.multiply(tmpDiff) : tmpDiff);
-                            myObjectiveExpression.setLinearFactor(tmpKey, tmpNewVal);
-                        }
+                        myObjectiveExpression.getLinear().add(tmpExpression.getLinear(), tmpContributionWeight);
                     }
 
                     if (tmpExpression.isAnyQuadraticFactorNonZero()) {
-                        for (final Expression.RowColumn tmpKey : tmpExpression.getQuadraticFactorKeys()) {
-                            tmpOldVal = myObjectiveExpression.getQuadraticFactor(tmpKey);
-                            tmpDiff = tmpExpression.getQuadraticFactor(tmpKey);
-                            tmpNewVal = tmpOldVal.add(tmpNotOne ? tmpContributionWeight.multiply(tmpDiff) : tmpDiff);
-                            myObjectiveExpression.setQuadraticFactor(tmpKey, tmpNewVal);
-                        }
+                        myObjectiveExpression.addQuadraticFactors(tmpExpression, tmpContributionWeight);
                     }
                 }
             }
@@ -371,6 +404,14 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
      * @return A list of the variables that are not fixed at a specific value and whos range include positive
      *         values and/or zero
      */
+    /**
+     * @see #getLowerBound(Variable)
+     */
+    public BigDecimal getUpperBound(final Variable variable) {
+        final BigDecimal tmpBound = myUpperBounds.get(variable.getIndex());
+        return tmpBound != null ? tmpBound : variable.getUpperLimit();
+    }
+
     public List<Variable> getPositiveVariables() {
 
         if (myPositiveVariables == null) {
@@ -764,7 +805,7 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
 
             if (tmpSolution.getState().isFeasible()) {
 
-                retVal = new Result(State.DISTINCT, tmpSolution);
+                retVal = new Result(myDominatedVariables ? State.OPTIMAL : State.DISTINCT, tmpSolution);
 
             } else {
 
@@ -874,6 +915,10 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
                 tmpVariable.setValue(tmpVariable.getLowerLimit());
                 myFixedVariables.add(tmpVariable.getIndex());
 
+            } else if (myFixedVariables.contains(tmpVariable.getIndex())) {
+
+                // Fixed by the presolver, the value is already set
+
             } else {
 
                 myFreeVariables.add(tmpVariable);
@@ -902,6 +947,115 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
         myIntegerVariables = Collections.unmodifiableList(myIntegerVariables);
     }
 
+    /**
+     * Fixes variables at the bound the objective function prefers, when moving them there can't violate any
+     * (not redundant) constraint - dual fixing. That includes the variables not part of any constraint. The
+     * variables' limits are not changed, they're only added to the set of fixed variables (with a value).
+     *
+     * @return true if any variable was fixed
+     */
+    private boolean fixDominatedVariables() {
+
+        final int tmpLength = myVariables.size();
+
+        // Can the variable be increased/decreased without violating any constraint?
+        final boolean[] tmpIncrease = new boolean[tmpLength];
+        final boolean[] tmpDecrease = new boolean[tmpLength];
+        Arrays.fill(tmpIncrease, true);
+        Arrays.fill(tmpDecrease, true);
+
+        // Variables part of any quadratic term, in a constraint or in the objective
+        final boolean[] tmpQuadraticVariables = new boolean[tmpLength];
+
+        for (final Expression tmpExpression : myExpressions.values()) {
+            if (tmpExpression.isConstraint() && !tmpExpression.isRedundant()) {
+
+                final boolean tmpLower = tmpExpression.isLowerLimitSet();
+                final boolean tmpUpper = tmpExpression.isUpperLimitSet();
+                final boolean tmpQuadratic = tmpExpression.isAnyQuadraticFactorNonZero();
+
+                for (final Index tmpKey : tmpExpression.getLinearFactorKeys()) {
+                    if (tmpQuadratic) {
+                        tmpIncrease[tmpKey.index] = tmpDecrease[tmpKey.index] = false;
+                    } else {
+                        final int tmpSignum = tmpExpression.getLinearFactor(tmpKey).signum();
+                        if (((tmpSignum > 0) && tmpUpper) || ((tmpSignum < 0) && tmpLower)) {
+                            tmpIncrease[tmpKey.index] = false;
+                        }
+                        if (((tmpSignum > 0) && tmpLower) || ((tmpSignum < 0) && tmpUpper)) {
+                            tmpDecrease[tmpKey.index] = false;
+                        }
+                    }
+                }
+
+                if (tmpQuadratic) {
+                    tmpExpression.markQuadraticVariables(tmpQuadraticVariables);
+                }
+            }
+        }
+
+        final Expression tmpObjective = this.getObjectiveExpression();
+
+        if (tmpObjective.isAnyQuadraticFactorNonZero()) {
+            tmpObjective.markQuadraticVariables(tmpQuadraticVariables);
+        }
+
+        for (int i = 0; i < tmpLength; i++) {
+            if (tmpQuadraticVariables[i]) {
+                tmpIncrease[i] = tmpDecrease[i] = false;
+            }
+        }
+
+        boolean retVal = false;
+
+        for (int i = 0; i < tmpLength; i++) {
+
+            final Variable tmpVariable = myVariables.get(i);
+
+            if ((!tmpIncrease[i] && !tmpDecrease[i]) || myFixedVariables.contains(tmpVariable.getIndex())) {
+                continue;
+            }
+
+            final BigDecimal tmpWeight = tmpObjective.getLinearFactor(i);
+            int tmpSignum = tmpWeight != null ? tmpWeight.signum() : 0;
+            if (this.isMaximisation()) {
+                tmpSignum = -tmpSignum;
+            }
+
+            BigDecimal tmpLower = this.getLowerBound(tmpVariable);
+            BigDecimal tmpUpper = this.getUpperBound(tmpVariable);
+            if (tmpVariable.isInteger()) {
+                tmpLower = tmpLower != null ? tmpLower.setScale(0, RoundingMode.CEILING) : null;
+                tmpUpper = tmpUpper != null ? tmpUpper.setScale(0, RoundingMode.FLOOR) : null;
+            }
+            if ((tmpLower != null) && (tmpUpper != null) && (tmpLower.compareTo(tmpUpper) > 0)) {
+                continue;
+            }
+
+            BigDecimal tmpValue = null;
+            if ((tmpSignum >= 0) && tmpDecrease[i]) {
+                if (tmpLower != null) {
+                    tmpValue = tmpLower;
+                } else if ((tmpSignum == 0) && tmpIncrease[i]) {
+                    tmpValue = tmpUpper != null ? tmpUpper.min(BigMath.ZERO) : BigMath.ZERO;
+                }
+            }
+            if ((tmpValue == null) && (tmpSignum <= 0) && tmpIncrease[i]) {
+                if (tmpUpper != null) {
+                    tmpValue = tmpUpper;
+                }
+            }
+
+            if (tmpValue != null) {
+                tmpVariable.setValue(tmpValue);
+                myFixedVariables.add(tmpVariable.getIndex());
+                retVal = true;
+            }
+        }
+
+        return retVal;
+    }
+
     private Optimisation.Result handleResult(final Result solverResult) {
 
         final NumberContext tmpSolutionContext = options.solution;
@@ -918,6 +1072,8 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
         final Optimisation.State tmpState = solverResult.getState();
         final double tmpValue = this.getObjectiveExpression().evaluate(tmpSolution).doubleValue();
 
+        myOptimalValues = tmpState.isOptimal();
+
         if (options.validate) {
             // TODO && this.validate(tmpSolution, options.slack)
         }
@@ -945,10 +1101,22 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
         myPositiveIndices = null;
     }
 
+    boolean isOptimalValues() {
+        return myOptimalValues;
+    }
+
     boolean addFixedVariable(final Index index) {
         return myFixedVariables.add(index);
     }
 
+    void setLowerBound(final Index index, final BigDecimal bound) {
+        myLowerBounds.put(index, bound);
+    }
+
+    void setUpperBound(final Index index, final BigDecimal bound) {
+        myUpperBounds.put(index, bound);
+    }
+
     BasicLogger.Appender appender() {
         if (myAppender == null) {
             myAppender = new GenericAppender(myBuffer);
@@ -981,9 +1149,35 @@ public final class ExpressionsBasedModel extends AbstractModel<GenericSolver> {
 
     final void presolve() {
 
+        // Variables fixed, and expressions found redundant, by a previous presolve may depend on the objective
+        // or on limits changed since - start over
+        myFixedVariables.clear();
+        myLowerBounds.clear();
+        myUpperBounds.clear();
+        for (final Expression tmpExpression : myExpressions.values()) {
+            tmpExpression.reset();
+        }
+
+        this.flushCaches();
         this.categoriseVariables();
 
         ExpressionsBasedModel.presolve(this);
+
+        myDominatedVariables = !this.isInfeasible() && this.fixDominatedVariables();
+        if (myDominatedVariables) {
+            this.categoriseVariables();
+        }
+
+        if (options.debug_appender != null) {
+            int tmpRedundant = 0;
+            for (final Expression tmpExpression : myExpressions.values()) {
+                if (tmpExpression.isConstraint() && tmpExpression.isRedundant()) {
+                    tmpRedundant++;
+                }
+            }
+            options.debug_appender.println("Presolve: {} redundant expressions, {} of {} variables fixed", tmpRedundant, myFixedVariables.size(),
+                    myVariables.size());
+        }
     }
 
 }
@@ -0,0 +1,329 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.ojalgo.type.TypeUtils;
+
+/**
+ * The factors of an {@linkplain Expression}, stored as primitive doubles in an open addressing (linear
+ * probing) hash table with long keys. Linear factors are keyed by the variable index and quadratic factors
+ * by {@link #key(int, int)}.
+ * <p>
+ * A {@link BigDecimal} value is only kept (in addition to its double) when it can not be recreated from
+ * that double - when the caller explicitly set a more precise value. Everything else is primitive.
+ * </p>
+ *
+ * @author apete
+ */
+final class FactorMap {
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 16;
+
+    static long key(final int row, final int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    static int column(final long key) {
+        return (int) key;
+    }
+
+    static int row(final long key) {
+        return (int) (key >>> 32);
+    }
+
+    private HashMap<Long, BigDecimal> myExact = null;
+    private long[] myKeys;
+    private int mySize = 0;
+    private double[] myValues;
+
+    FactorMap() {
+
+        super();
+
+        myKeys = new long[INITIAL_CAPACITY];
+        Arrays.fill(myKeys, EMPTY);
+        myValues = new double[INITIAL_CAPACITY];
+    }
+
+    FactorMap(final FactorMap mapToCopy) {
+
+        super();
+
+        myKeys = mapToCopy.myKeys.clone();
+        myValues = mapToCopy.myValues.clone();
+        mySize = mapToCopy.mySize;
+
+        if (mapToCopy.myExact != null) {
+            myExact = new HashMap<>(mapToCopy.myExact);
+        }
+    }
+
+    /**
+     * this += weight * source, primitive unless either of the two has an exact value for a key.
+     */
+    void add(final FactorMap source, final BigDecimal weight) {
+
+        final boolean tmpOne = weight.compareTo(BigDecimal.ONE) == 0;
+        final double tmpWeight = weight.doubleValue();
+
+        final long[] tmpKeys = source.myKeys;
+        for (int s = 0; s < tmpKeys.length; s++) {
+            final long tmpKey = tmpKeys[s];
+            if (tmpKey != EMPTY) {
+                if (((source.myExact != null) && source.myExact.containsKey(tmpKey)) || ((myExact != null) && myExact.containsKey(tmpKey))) {
+                    final BigDecimal tmpDiff = source.get(tmpKey);
+                    final BigDecimal tmpOld = this.containsKey(tmpKey) ? this.get(tmpKey) : BigDecimal.ZERO;
+                    this.set(tmpKey, tmpOld.add(tmpOne ? tmpDiff : weight.multiply(tmpDiff)));
+                } else {
+                    this.set(tmpKey, this.doubleValue(tmpKey) + (tmpOne ? source.myValues[s] : tmpWeight * source.myValues[s]));
+                }
+            }
+        }
+    }
+
+    int capacity() {
+        return myKeys.length;
+    }
+
+    void clear() {
+        Arrays.fill(myKeys, EMPTY);
+        mySize = 0;
+        myExact = null;
+    }
+
+    boolean containsKey(final long key) {
+        return myKeys[this.slot(key)] != EMPTY;
+    }
+
+    /**
+     * @return The value, or 0.0 if there is none
+     */
+    double doubleValue(final long key) {
+        final int tmpSlot = this.slot(key);
+        return myKeys[tmpSlot] != EMPTY ? myValues[tmpSlot] : ZERO;
+    }
+
+    /**
+     * @return The value, or null if there is none
+     */
+    BigDecimal get(final long key) {
+
+        final int tmpSlot = this.slot(key);
+
+        if (myKeys[tmpSlot] == EMPTY) {
+            return null;
+        }
+
+        if (myExact != null) {
+            final BigDecimal tmpExact = myExact.get(key);
+            if (tmpExact != null) {
+                return tmpExact;
+            }
+        }
+
+        return BigDecimal.valueOf(myValues[tmpSlot]);
+    }
+
+    boolean isEmpty() {
+        return mySize == 0;
+    }
+
+    /**
+     * @return The key in that slot, or a negative number if the slot is empty
+     */
+    long keyAt(final int slot) {
+        return myKeys[slot];
+    }
+
+    void remove(final long key) {
+
+        int tmpSlot = this.slot(key);
+
+        if (myKeys[tmpSlot] == EMPTY) {
+            return;
+        }
+
+        if (myExact != null) {
+            myExact.remove(key);
+        }
+
+        final int tmpMask = myKeys.length - 1;
+
+        // Backward shift deletion, no tombstones
+        int tmpNext = tmpSlot;
+        for (;;) {
+            tmpNext = (tmpNext + 1) & tmpMask;
+            final long tmpKey = myKeys[tmpNext];
+            if (tmpKey == EMPTY) {
+                break;
+            }
+            final int tmpHome = FactorMap.hash(tmpKey, tmpMask);
+            if (((tmpNext - tmpHome) & tmpMask) >= ((tmpNext - tmpSlot) & tmpMask)) {
+                myKeys[tmpSlot] = tmpKey;
+                myValues[tmpSlot] = myValues[tmpNext];
+                tmpSlot = tmpNext;
+            }
+        }
+
+        myKeys[tmpSlot] = EMPTY;
+        mySize--;
+    }
+
+    /**
+     * Setting a value of 0.0 removes the key.
+     */
+    void set(final long key, final double value) {
+
+        if (value == ZERO) {
+
+            this.remove(key);
+
+        } else {
+
+            if (myExact != null) {
+                myExact.remove(key);
+            }
+
+            this.put(key, value);
+        }
+    }
+
+    /**
+     * Setting a value of 0.0 removes the key.
+     */
+    void set(final long key, final Number value) {
+
+        if (value instanceof Double) {
+
+            this.set(key, value.doubleValue());
+
+        } else {
+
+            final BigDecimal tmpValue = TypeUtils.toBigDecimal(value);
+
+            if (tmpValue.signum() == 0) {
+
+                this.remove(key);
+
+            } else {
+
+                final double tmpDouble = tmpValue.doubleValue();
+
+                if (BigDecimal.valueOf(tmpDouble).compareTo(tmpValue) == 0) {
+                    if (myExact != null) {
+                        myExact.remove(key);
+                    }
+                } else {
+                    if (myExact == null) {
+                        myExact = new HashMap<>();
+                    }
+                    myExact.put(key, tmpValue);
+                }
+
+                this.put(key, tmpDouble);
+            }
+        }
+    }
+
+    int size() {
+        return mySize;
+    }
+
+    /**
+     * @return The value in that slot, only meaningful if the slot is not empty
+     */
+    double valueAt(final int slot) {
+        return myValues[slot];
+    }
+
+    private void put(final long key, final double value) {
+
+        final int tmpSlot = this.slot(key);
+
+        if (myKeys[tmpSlot] == EMPTY) {
+
+            if ((4L * (mySize + 1)) > (3L * myKeys.length)) {
+                this.rehash(2 * myKeys.length);
+                this.put(key, value);
+                return;
+            }
+
+            myKeys[tmpSlot] = key;
+            mySize++;
+        }
+
+        myValues[tmpSlot] = value;
+    }
+
+    private void rehash(final int capacity) {
+
+        final long[] tmpOldKeys = myKeys;
+        final double[] tmpOldValues = myValues;
+
+        myKeys = new long[capacity];
+        Arrays.fill(myKeys, EMPTY);
+        myValues = new double[capacity];
+
+        final int tmpMask = capacity - 1;
+        for (int s = 0; s < tmpOldKeys.length; s++) {
+            final long tmpKey = tmpOldKeys[s];
+            if (tmpKey != EMPTY) {
+                int tmpSlot = FactorMap.hash(tmpKey, tmpMask);
+                while (myKeys[tmpSlot] != EMPTY) {
+                    tmpSlot = (tmpSlot + 1) & tmpMask;
+                }
+                myKeys[tmpSlot] = tmpKey;
+                myValues[tmpSlot] = tmpOldValues[s];
+            }
+        }
+    }
+
+    /**
+     * @return The slot containing the key, or the (empty) slot where it would be inserted
+     */
+    private int slot(final long key) {
+
+        final long[] tmpKeys = myKeys;
+        final int tmpMask = tmpKeys.length - 1;
+
+        int retVal = FactorMap.hash(key, tmpMask);
+        long tmpKey;
+        while (((tmpKey = tmpKeys[retVal]) != EMPTY) && (tmpKey != key)) {
+            retVal = (retVal + 1) & tmpMask;
+        }
+
+        return retVal;
+    }
+
+    private static int hash(final long key, final int mask) {
+        final long tmpMixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (tmpMixed ^ (tmpMixed >>> 32)) & mask;
+    }
+
+}
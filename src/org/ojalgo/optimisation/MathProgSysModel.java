@@ -23,13 +23,11 @@ package org.ojalgo.optimisation;
 
 import static org.ojalgo.constant.BigMath.*;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.ArrayList;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.type.context.NumberContext;
@@ -187,8 +185,8 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
             return this;
         }
 
-        public void setRowValue(final String rowName, final BigDecimal value) {
-            myRows.get(rowName).getExpression().setLinearFactor(myVariable, value);
+        public void setRowValue(final Row row, final double value) {
+            row.getExpression().setLinearFactor(myVariable.getIndex().index, value);
         }
 
         /**
@@ -322,8 +320,8 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
             return this;
         }
 
-        public void setColumnValue(final String columnName, final BigDecimal value) {
-            myExpression.setLinearFactor(myColumns.get(columnName).getVariable(), value);
+        public void setColumnValue(final Column column, final double value) {
+            myExpression.setLinearFactor(column.getVariable().getIndex().index, value);
         }
 
         /**
@@ -370,41 +368,46 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
 
     }
 
-    private static final String COMMENT = "*";
+    private static final byte COMMENT = '*';
     private static final String EMPTY = "";
-    private static final int[] FIELD_LIMITS = new int[] { 3, 12, 22, 36, 47, 61 };
-    private static final String SPACE = " ";
+    private static final BoundType[] BOUND_TYPES = BoundType.values();
+    private static final RowType[] ROW_TYPES = RowType.values();
+    private static final byte SPACE = ' ';
+
+    /**
+     * The file is streamed, memory mapped, and may be gzip compressed. Row and column names are interned to
+     * integer ids and the (matrix) coefficients are parsed straight to double.
+     */
+    private static <E extends Enum<E>> E identify(final E[] values, final MathProgSysParser parser, final int field) {
+
+        for (final E tmpValue : values) {
+            if (parser.equals(field, tmpValue.name())) {
+                return tmpValue;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown type: " + parser.getString(field));
+    }
 
     public static MathProgSysModel make(final File file) {
 
         final MathProgSysModel retVal = new MathProgSysModel();
 
-        String tmpLine;
         FileSection tmpSection = null;
 
-        try {
-
-            final BufferedReader tmpBufferedFileReader = new BufferedReader(new FileReader(file));
+        try (final MathProgSysParser tmpParser = MathProgSysParser.open(file)) {
 
-            //readLine is a bit quirky :
-            //it returns the content of a line MINUS the newline.
-            //it returns null only for the END of the stream.
-            //it returns an empty String if two newlines appear in a row.
-            while ((tmpLine = tmpBufferedFileReader.readLine()) != null) {
+            while (tmpParser.nextLine()) {
 
-                //        BasicLogger.logDebug("Line: {}.", tmpLine);
-
-                if ((tmpLine.length() == 0) || tmpLine.startsWith(COMMENT)) {
+                if (tmpParser.isEmpty() || (tmpParser.first() == COMMENT)) {
                     // Skip this line
-                } else if (tmpLine.startsWith(SPACE)) {
-                    retVal.parseSectionLine(tmpSection, tmpLine);
+                } else if (tmpParser.first() == SPACE) {
+                    retVal.parseSectionLine(tmpSection, tmpParser);
                 } else {
-                    tmpSection = retVal.identifySection(tmpLine);
+                    tmpSection = retVal.identifySection(tmpParser.toString());
                 }
             }
 
-            tmpBufferedFileReader.close();
-
         } catch (final FileNotFoundException anException) {
             anException.printStackTrace();
         } catch (final IOException anException) {
@@ -414,13 +417,13 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
         return retVal;
     }
 
-    private final HashMap<String, Column> myColumns = new HashMap<String, Column>();
+    private final MathProgSysParser.Names myColumnNames = new MathProgSysParser.Names();
+    private final ArrayList<Column> myColumns = new ArrayList<Column>();
     private final ExpressionsBasedModel myDelegate;
-    private final String[] myFields = new String[6];
     private boolean myIntegerMarker = false;
     private String myName;
-
-    private final HashMap<String, Row> myRows = new HashMap<String, Row>();
+    private final MathProgSysParser.Names myRowNames = new MathProgSysParser.Names();
+    private final ArrayList<Row> myRows = new ArrayList<Row>();
 
     MathProgSysModel() {
 
@@ -435,7 +438,9 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
     public void destroy() {
         myDelegate.destroy();
         myRows.clear();
+        myRowNames.clear();
         myColumns.clear();
+        myColumnNames.clear();
     }
 
     @Override
@@ -513,22 +518,31 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
         return myDelegate.validate(solution, context);
     }
 
-    private void extractFields(final String line) {
+    private Column getColumn(final MathProgSysParser parser, final int field) {
 
-        final int tmpLength = line.length();
+        final int tmpId = parser.find(myColumnNames, field);
 
-        int tmpFirst = 0;
-        int tmpLimit = tmpFirst;
-        for (int i = 0; i < myFields.length; i++) {
-            tmpLimit = Math.min(FIELD_LIMITS[i], tmpLength);
-            myFields[i] = line.substring(tmpFirst, tmpLimit).trim();
-            tmpFirst = tmpLimit;
+        if (tmpId < 0) {
+            throw new IllegalArgumentException("Unknown column: " + parser.getString(field));
         }
+
+        return myColumns.get(tmpId);
+    }
+
+    private Row getRow(final MathProgSysParser parser, final int field) {
+
+        final int tmpId = parser.find(myRowNames, field);
+
+        if (tmpId < 0) {
+            throw new IllegalArgumentException("Unknown row: " + parser.getString(field));
+        }
+
+        return myRows.get(tmpId);
     }
 
     FileSection identifySection(final String line) {
 
-        final int tmpSplit = line.indexOf(SPACE);
+        final int tmpSplit = line.indexOf(' ');
         String tmpSection;
         String tmpArgument;
         if (tmpSplit != -1) {
@@ -559,11 +573,9 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
         return retVal;
     }
 
-    void parseSectionLine(final FileSection section, final String line) {
-
-        this.extractFields(line);
+    void parseSectionLine(final FileSection section, final MathProgSysParser parser) {
 
-        //      BasicLogger.logDebug("{}: {}.", aSection, Arrays.toString(myFields));
+        parser.extractFields();
 
         switch (section) {
 
@@ -573,7 +585,7 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
 
         case OBJSENSE:
 
-            if (myFields[0].equals("MAX")) {
+            if (parser.equals(0, "MAX")) {
                 this.setMaximisation();
             } else {
                 this.setMinimisation();
@@ -587,33 +599,37 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
 
         case ROWS:
 
-            final Row tmpRow = new Row(myFields[1], RowType.valueOf(myFields[0]));
+            final int tmpRowId = parser.intern(myRowNames, 1);
 
-            myRows.put(myFields[1], tmpRow);
+            if (tmpRowId == myRows.size()) {
+                myRows.add(new Row(myRowNames.name(tmpRowId), MathProgSysModel.identify(ROW_TYPES, parser, 0)));
+            }
 
             break;
 
         case COLUMNS:
 
-            if (myFields[2].indexOf("MARKER") != -1) {
+            if (parser.contains(2, "MARKER")) {
 
-                if (myFields[4].indexOf("INTORG") != -1) {
+                if (parser.contains(4, "INTORG")) {
                     myIntegerMarker = true;
-                } else if (myFields[4].indexOf("INTEND") != -1) {
+                } else if (parser.contains(4, "INTEND")) {
                     myIntegerMarker = false;
                 }
 
             } else {
 
-                if (!myColumns.containsKey(myFields[1])) {
-                    myColumns.put(myFields[1], new Column(myFields[1]));
+                final int tmpColumnId = parser.intern(myColumnNames, 1);
+
+                if (tmpColumnId == myColumns.size()) {
+                    myColumns.add(new Column(myColumnNames.name(tmpColumnId)));
                 }
 
-                final Column tmpColumn = myColumns.get(myFields[1]);
+                final Column tmpColumn = myColumns.get(tmpColumnId);
 
-                tmpColumn.setRowValue(myFields[2], new BigDecimal(myFields[3]));
-                if (myFields[4].length() != 0) {
-                    tmpColumn.setRowValue(myFields[4], new BigDecimal(myFields[5]));
+                tmpColumn.setRowValue(this.getRow(parser, 2), parser.doubleValue(3));
+                if (!parser.isEmpty(4)) {
+                    tmpColumn.setRowValue(this.getRow(parser, 4), parser.doubleValue(5));
                 }
 
                 if (myIntegerMarker) {
@@ -626,27 +642,27 @@ public final class MathProgSysModel extends AbstractModel<GenericSolver> {
 
         case RHS:
 
-            myRows.get(myFields[2]).rhs(new BigDecimal(myFields[3]));
+            this.getRow(parser, 2).rhs(parser.getBigDecimal(3));
 
-            if (myFields[4].length() != 0) {
-                myRows.get(myFields[4]).rhs(new BigDecimal(myFields[5]));
+            if (!parser.isEmpty(4)) {
+                this.getRow(parser, 4).rhs(parser.getBigDecimal(5));
             }
 
             break;
 
         case RANGES:
 
-            myRows.get(myFields[2]).range(new BigDecimal(myFields[3]));
+            this.getRow(parser, 2).range(parser.getBigDecimal(3));
 
-            if (myFields[4].length() != 0) {
-                myRows.get(myFields[4]).range(new BigDecimal(myFields[5]));
+            if (!parser.isEmpty(4)) {
+                this.getRow(parser, 4).range(parser.getBigDecimal(5));
             }
 
             break;
 
         case BOUNDS:
 
-            myColumns.get(myFields[2]).bound(BoundType.valueOf(myFields[0]), myFields[3].length() == 0 ? null : new BigDecimal(myFields[3]));
+            this.getColumn(parser, 2).bound(MathProgSysModel.identify(BOUND_TYPES, parser, 0), parser.isEmpty(3) ? null : parser.getBigDecimal(3));
 
             break;
 
@@ -0,0 +1,487 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the lines, and the fixed position fields, of an MPS file without creating a String (or BigDecimal)
+ * per token. Plain files are memory mapped, window by window; gzip compressed files (recognised by their
+ * magic number) are inflated into a reusable buffer. Each line is copied to a reusable byte array and the
+ * fields are only offsets into that array. Names are interned to integer ids with {@link Names}, and numbers
+ * are parsed straight to double.
+ *
+ * @author apete
+ */
+final class MathProgSysParser implements AutoCloseable {
+
+    /**
+     * Interns names (byte sequences) to consecutive integer ids. Only the first occurrence of a name
+     * allocates anything.
+     */
+    static final class Names {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int[] myIds;
+        private byte[][] myKeys;
+        private String[] myNames = new String[INITIAL_CAPACITY / 2];
+        private int mySize = 0;
+
+        Names() {
+
+            super();
+
+            myKeys = new byte[INITIAL_CAPACITY][];
+            myIds = new int[INITIAL_CAPACITY];
+        }
+
+        private static int hash(final byte[] bytes, final int start, final int end) {
+            int retVal = 0x811C9DC5;
+            for (int i = start; i < end; i++) {
+                retVal = (retVal ^ bytes[i]) * 0x01000193;
+            }
+            return retVal ^ (retVal >>> 16);
+        }
+
+        private static boolean matches(final byte[] key, final byte[] bytes, final int start, final int end) {
+            if (key.length != (end - start)) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != bytes[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+
+            final byte[][] tmpKeys = myKeys;
+            final int[] tmpIds = myIds;
+
+            myKeys = new byte[tmpKeys.length * 2][];
+            myIds = new int[tmpKeys.length * 2];
+
+            final int tmpMask = myKeys.length - 1;
+            for (int s = 0; s < tmpKeys.length; s++) {
+                if (tmpKeys[s] != null) {
+                    int tmpSlot = Names.hash(tmpKeys[s], 0, tmpKeys[s].length) & tmpMask;
+                    while (myKeys[tmpSlot] != null) {
+                        tmpSlot = (tmpSlot + 1) & tmpMask;
+                    }
+                    myKeys[tmpSlot] = tmpKeys[s];
+                    myIds[tmpSlot] = tmpIds[s];
+                }
+            }
+        }
+
+        private int slot(final byte[] bytes, final int start, final int end) {
+            final int tmpMask = myKeys.length - 1;
+            int retVal = Names.hash(bytes, start, end) & tmpMask;
+            while ((myKeys[retVal] != null) && !Names.matches(myKeys[retVal], bytes, start, end)) {
+                retVal = (retVal + 1) & tmpMask;
+            }
+            return retVal;
+        }
+
+        void clear() {
+            Arrays.fill(myKeys, null);
+            Arrays.fill(myNames, null);
+            mySize = 0;
+        }
+
+        /**
+         * @return The id, or -1 if the name is not (yet) known
+         */
+        int find(final byte[] bytes, final int start, final int end) {
+            final int tmpSlot = this.slot(bytes, start, end);
+            return myKeys[tmpSlot] != null ? myIds[tmpSlot] : -1;
+        }
+
+        /**
+         * @return The id - a new one if the name was not already known
+         */
+        int intern(final byte[] bytes, final int start, final int end) {
+
+            int tmpSlot = this.slot(bytes, start, end);
+
+            if (myKeys[tmpSlot] != null) {
+                return myIds[tmpSlot];
+            }
+
+            if ((2 * (mySize + 1)) > myKeys.length) {
+                this.grow();
+                tmpSlot = this.slot(bytes, start, end);
+            }
+
+            final int retVal = mySize++;
+
+            myKeys[tmpSlot] = Arrays.copyOfRange(bytes, start, end);
+            myIds[tmpSlot] = retVal;
+
+            if (retVal == myNames.length) {
+                myNames = Arrays.copyOf(myNames, 2 * retVal);
+            }
+            myNames[retVal] = new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+
+            return retVal;
+        }
+
+        String name(final int id) {
+            return myNames[id];
+        }
+
+        int size() {
+            return mySize;
+        }
+
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * The exact powers of ten representable as doubles
+     */
+    private static final double[] EXACT_POWERS = new double[] { 1E0, 1E1, 1E2, 1E3, 1E4, 1E5, 1E6, 1E7, 1E8, 1E9, 1E10, 1E11, 1E12, 1E13, 1E14,
+            1E15, 1E16, 1E17, 1E18, 1E19, 1E20, 1E21, 1E22 };
+    private static final int[] FIELD_LIMITS = new int[] { 3, 12, 22, 36, 47, 61 };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_WINDOW = 1 << 26;
+
+    static MathProgSysParser open(final File file) throws IOException {
+
+        final FileInputStream tmpInput = new FileInputStream(file);
+        final FileChannel tmpChannel = tmpInput.getChannel();
+
+        final ByteBuffer tmpMagic = ByteBuffer.allocate(2);
+        while (tmpMagic.hasRemaining() && (tmpChannel.read(tmpMagic) > 0)) {
+            // Just reading the 2 first bytes
+        }
+
+        if ((tmpMagic.position() == 2) && ((tmpMagic.get(0) & 0xFF) == 0x1F) && ((tmpMagic.get(1) & 0xFF) == 0x8B)) {
+            tmpChannel.position(0L);
+            return new MathProgSysParser(Channels.newChannel(new GZIPInputStream(tmpInput, BUFFER_SIZE)));
+        } else {
+            return new MathProgSysParser(tmpChannel);
+        }
+    }
+
+    private ByteBuffer myBuffer;
+    private final ReadableByteChannel myChannel;
+    private final int[] myFieldEnds = new int[FIELD_LIMITS.length];
+    private final int[] myFieldStarts = new int[FIELD_LIMITS.length];
+    private byte[] myLine = new byte[256];
+    private int myLength = 0;
+    /**
+     * Only used when the channel is a (mapped) FileChannel
+     */
+    private long myPosition = 0L;
+
+    private MathProgSysParser(final ReadableByteChannel channel) {
+
+        super();
+
+        myChannel = channel;
+
+        if (channel instanceof FileChannel) {
+            myBuffer = ByteBuffer.allocate(0);
+        } else {
+            myBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+            myBuffer.flip();
+        }
+    }
+
+    public void close() throws IOException {
+        myChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return new String(myLine, 0, myLength, StandardCharsets.US_ASCII);
+    }
+
+    private void append(final byte value) {
+        if (myLength == myLine.length) {
+            myLine = Arrays.copyOf(myLine, 2 * myLength);
+        }
+        myLine[myLength++] = value;
+    }
+
+    /**
+     * @return false when there is no more input
+     */
+    private boolean fill() throws IOException {
+
+        if (myChannel instanceof FileChannel) {
+
+            final FileChannel tmpFileChannel = (FileChannel) myChannel;
+            final long tmpRemaining = tmpFileChannel.size() - myPosition;
+
+            if (tmpRemaining <= 0L) {
+                return false;
+            }
+
+            final long tmpWindow = Math.min(tmpRemaining, MAX_WINDOW);
+            myBuffer = tmpFileChannel.map(FileChannel.MapMode.READ_ONLY, myPosition, tmpWindow);
+            myPosition += tmpWindow;
+
+            return true;
+
+        } else {
+
+            myBuffer.clear();
+
+            int tmpRead;
+            do {
+                tmpRead = myChannel.read(myBuffer);
+            } while (tmpRead == 0);
+
+            myBuffer.flip();
+
+            return tmpRead > 0;
+        }
+    }
+
+    /**
+     * Parses the field as a double. Numbers with at most 15 significant digits and a small enough exponent
+     * (which is what MPS files typically contain) are converted exactly with a single multiplication or
+     * division, anything else falls back to {@link Double#parseDouble(String)}.
+     */
+    double doubleValue(final int field) {
+
+        final int tmpStart = myFieldStarts[field];
+        final int tmpEnd = myFieldEnds[field];
+
+        int i = tmpStart;
+        boolean tmpNegative = false;
+        if ((i < tmpEnd) && ((myLine[i] == '-') || (myLine[i] == '+'))) {
+            tmpNegative = myLine[i] == '-';
+            i++;
+        }
+
+        long tmpMantissa = 0L;
+        int tmpDigits = 0;
+        int tmpExponent = 0;
+        boolean tmpPoint = false;
+        boolean tmpAny = false;
+
+        for (; i < tmpEnd; i++) {
+            final byte tmpByte = myLine[i];
+            if ((tmpByte >= '0') && (tmpByte <= '9')) {
+                tmpAny = true;
+                if ((tmpMantissa != 0L) || (tmpByte != '0')) {
+                    if (tmpDigits >= 15) {
+                        return this.parseDouble(field);
+                    }
+                    tmpMantissa = (10L * tmpMantissa) + (tmpByte - '0');
+                    tmpDigits++;
+                }
+                if (tmpPoint) {
+                    tmpExponent--;
+                }
+            } else if ((tmpByte == '.') && !tmpPoint) {
+                tmpPoint = true;
+            } else if ((tmpByte == 'e') || (tmpByte == 'E')) {
+                break;
+            } else {
+                return this.parseDouble(field);
+            }
+        }
+
+        if (!tmpAny) {
+            return this.parseDouble(field);
+        }
+
+        if (i < tmpEnd) {
+            i++;
+            boolean tmpNegativeExponent = false;
+            if ((i < tmpEnd) && ((myLine[i] == '-') || (myLine[i] == '+'))) {
+                tmpNegativeExponent = myLine[i] == '-';
+                i++;
+            }
+            if ((i == tmpEnd) || ((tmpEnd - i) > 4)) {
+                return this.parseDouble(field);
+            }
+            int tmpExplicit = 0;
+            for (; i < tmpEnd; i++) {
+                final byte tmpByte = myLine[i];
+                if ((tmpByte < '0') || (tmpByte > '9')) {
+                    return this.parseDouble(field);
+                }
+                tmpExplicit = (10 * tmpExplicit) + (tmpByte - '0');
+            }
+            tmpExponent += tmpNegativeExponent ? -tmpExplicit : tmpExplicit;
+        }
+
+        if (tmpMantissa == 0L) {
+            return 0.0;
+        }
+
+        double retVal;
+        if ((tmpMantissa < MAX_EXACT_MANTISSA) && (tmpExponent >= 0) && (tmpExponent < EXACT_POWERS.length)) {
+            retVal = tmpMantissa * EXACT_POWERS[tmpExponent];
+        } else if ((tmpMantissa < MAX_EXACT_MANTISSA) && (tmpExponent < 0) && (-tmpExponent < EXACT_POWERS.length)) {
+            retVal = tmpMantissa / EXACT_POWERS[-tmpExponent];
+        } else {
+            return this.parseDouble(field);
+        }
+
+        return tmpNegative ? -retVal : retVal;
+    }
+
+    BigDecimal getBigDecimal(final int field) {
+        final int tmpStart = myFieldStarts[field];
+        final char[] tmpChars = new char[myFieldEnds[field] - tmpStart];
+        for (int i = 0; i < tmpChars.length; i++) {
+            tmpChars[i] = (char) myLine[tmpStart + i];
+        }
+        return new BigDecimal(tmpChars);
+    }
+
+    String getString(final int field) {
+        return new String(myLine, myFieldStarts[field], myFieldEnds[field] - myFieldStarts[field], StandardCharsets.US_ASCII);
+    }
+
+    boolean contains(final int field, final String text) {
+
+        final int tmpLast = myFieldEnds[field] - text.length();
+
+        for (int s = myFieldStarts[field]; s <= tmpLast; s++) {
+            int c = 0;
+            while ((c < text.length()) && (myLine[s + c] == text.charAt(c))) {
+                c++;
+            }
+            if (c == text.length()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    boolean equals(final int field, final String text) {
+
+        final int tmpStart = myFieldStarts[field];
+
+        if ((myFieldEnds[field] - tmpStart) != text.length()) {
+            return false;
+        }
+
+        for (int c = 0; c < text.length(); c++) {
+            if (myLine[tmpStart + c] != text.charAt(c)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Splits the current line into the (trimmed) fixed position fields.
+     */
+    void extractFields() {
+
+        int tmpFirst = 0;
+        for (int f = 0; f < FIELD_LIMITS.length; f++) {
+
+            final int tmpLimit = Math.min(FIELD_LIMITS[f], myLength);
+
+            int tmpStart = Math.min(tmpFirst, tmpLimit);
+            int tmpEnd = tmpLimit;
+            while ((tmpStart < tmpEnd) && (myLine[tmpStart] <= ' ')) {
+                tmpStart++;
+            }
+            while ((tmpEnd > tmpStart) && (myLine[tmpEnd - 1] <= ' ')) {
+                tmpEnd--;
+            }
+
+            myFieldStarts[f] = tmpStart;
+            myFieldEnds[f] = tmpEnd;
+
+            tmpFirst = tmpLimit;
+        }
+    }
+
+    int find(final Names names, final int field) {
+        return names.find(myLine, myFieldStarts[field], myFieldEnds[field]);
+    }
+
+    byte first() {
+        return myLine[0];
+    }
+
+    int intern(final Names names, final int field) {
+        return names.intern(myLine, myFieldStarts[field], myFieldEnds[field]);
+    }
+
+    boolean isEmpty() {
+        return myLength == 0;
+    }
+
+    boolean isEmpty(final int field) {
+        return myFieldStarts[field] == myFieldEnds[field];
+    }
+
+    /**
+     * Reads the next line (minus any line terminator) in to the line buffer.
+     *
+     * @return false at the end of the input
+     */
+    boolean nextLine() throws IOException {
+
+        myLength = 0;
+        boolean tmpAny = false;
+
+        for (;;) {
+
+            if (!myBuffer.hasRemaining() && !this.fill()) {
+                return tmpAny;
+            }
+
+            tmpAny = true;
+
+            final byte tmpByte = myBuffer.get();
+
+            if (tmpByte == '\n') {
+                return true;
+            } else if (tmpByte != '\r') {
+                this.append(tmpByte);
+            }
+        }
+    }
+
+    private double parseDouble(final int field) {
+        return Double.parseDouble(this.getString(field));
+    }
+
+}
@@ -29,7 +29,7 @@ import org.ojalgo.ProgrammingError;
 import org.ojalgo.function.VoidFunction;
 import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.function.aggregator.AggregatorSet;
-import org.ojalgo.function.aggregator.BigAggregator;
+import org.ojalgo.function.aggregator.PrimitiveAggregator;
 import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.type.TypeUtils;
 import org.ojalgo.type.context.NumberContext;
@@ -259,10 +259,10 @@ abstract class ModelEntity<ME extends ModelEntity<ME>> implements Optimisation.C
 
         if (myAdjustmentExponent == Integer.MIN_VALUE) {
 
-            final AggregatorSet<BigDecimal> tmpSet = BigAggregator.getSet();
+            final AggregatorSet<Double> tmpSet = PrimitiveAggregator.getSet();
 
-            final AggregatorFunction<BigDecimal> tmpLargest = tmpSet.largest();
-            final AggregatorFunction<BigDecimal> tmpSmallest = tmpSet.smallest();
+            final AggregatorFunction<Double> tmpLargest = tmpSet.largest();
+            final AggregatorFunction<Double> tmpSmallest = tmpSet.smallest();
 
             this.visitAllParameters(tmpLargest, tmpSmallest);
 
@@ -358,16 +358,16 @@ abstract class ModelEntity<ME extends ModelEntity<ME>> implements Optimisation.C
         }
     }
 
-    void visitAllParameters(final VoidFunction<BigDecimal> largest, final VoidFunction<BigDecimal> smallest) {
-        largest.invoke(ONE);
-        smallest.invoke(ONE);
+    void visitAllParameters(final VoidFunction<Double> largest, final VoidFunction<Double> smallest) {
+        largest.invoke(ONE.doubleValue());
+        smallest.invoke(ONE.doubleValue());
         if (myLowerLimit != null) {
-            largest.invoke(myLowerLimit);
-            smallest.invoke(myLowerLimit);
+            largest.invoke(myLowerLimit.doubleValue());
+            smallest.invoke(myLowerLimit.doubleValue());
         }
         if (myUpperLimit != null) {
-            largest.invoke(myUpperLimit);
-            smallest.invoke(myUpperLimit);
+            largest.invoke(myUpperLimit.doubleValue());
+            smallest.invoke(myUpperLimit.doubleValue());
         }
     }
 
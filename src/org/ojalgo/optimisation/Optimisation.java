@@ -25,6 +25,7 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import org.ojalgo.OjAlgoUtils;
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.access.Access1D;
 import org.ojalgo.array.Array1D;
@@ -193,6 +194,13 @@ public interface Optimisation {
          */
         public NumberContext integer = new NumberContext(12, 7, RoundingMode.HALF_EVEN);
 
+        /**
+         * The {@linkplain org.ojalgo.optimisation.convex.ConvexSolver} uses an active set method unless there
+         * are more inequality constraints than this. Larger problems are solved with a primal-dual interior
+         * point method - the number of iterations it needs hardly grows with the problem size.
+         */
+        public int interior_point = 1_000;
+
         /**
          * The maximmum number of iterations allowed for the solve() command.
          */
@@ -214,6 +222,25 @@ public interface Optimisation {
          */
         public double mip_gap = 1.0E-4;
 
+        /**
+         * The (approximate) number of bytes the branch&bound {@linkplain IntegerSolver} may use to keep open
+         * (not yet evaluated) nodes on the heap. Beyond that nodes are moved to a temporary file, or if that's
+         * not possible the search switches to depth-first diving.
+         */
+        public long mip_memory = Runtime.getRuntime().maxMemory() / 4L;
+
+        /**
+         * If true the branch&bound {@linkplain IntegerSolver} evaluates nodes in rounds, and the search (as well
+         * as the result) is reproducible for a given {@linkplain #mip_parallelism}. Otherwise the workers run
+         * freely, which is faster but the order in which nodes are evaluated varies between runs.
+         */
+        public boolean mip_deterministic = false;
+
+        /**
+         * The number of workers (threads) the branch&bound {@linkplain IntegerSolver} uses to evaluate nodes.
+         */
+        public int mip_parallelism = OjAlgoUtils.ENVIRONMENT.threads;
+
         /**
          * Used to compare/check objective function values (incl. temporary, phase 1, objectives). The most
          * importatnt use of this parameter is, with the linear (simplex) solver, to determine if the phase 1
@@ -258,6 +285,13 @@ public interface Optimisation {
          */
         public long time_abort = CalendarDateUnit.MILLENIUM.size();
 
+        /**
+         * The {@linkplain org.ojalgo.optimisation.linear.LinearSolver} uses a dense simplex tableau unless it
+         * would have more elements than this. Larger problems are solved with a revised simplex implementation
+         * that keeps the constraints sparse and maintains an LU factorisation of the basis.
+         */
+        public long sparse = 4_000_000L;
+
         /**
          * Calculations will be terminated after this amount of time if a feasible solution has been found. If
          * no feasible solution has been found calculations will continue until one is found or
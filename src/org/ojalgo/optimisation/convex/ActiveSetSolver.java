@@ -30,6 +30,7 @@ import org.ojalgo.matrix.store.AboveBelowStore;
 import org.ojalgo.matrix.store.IdentityStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.matrix.store.RowsStore;
 import org.ojalgo.matrix.store.ZeroStore;
 import org.ojalgo.optimisation.Optimisation;
@@ -55,6 +56,12 @@ final class ActiveSetSolver extends ConvexSolver {
 
     private int myConstraintToInclude = -1;
 
+    /**
+     * Factorisation of the working set KKT system, updated as constraints are included/excluded. Only
+     * available when [Q] is positive definite - otherwise each iteration solves the full KKT system.
+     */
+    private SchurComplementSolver myWorkingSet = null;
+
     ActiveSetSolver(final ConvexSolver.Builder matrices, final Optimisation.Options solverOptions) {
 
         super(matrices, solverOptions);
@@ -120,6 +127,79 @@ final class ActiveSetSolver extends ConvexSolver {
         return retVal;
     }
 
+    /**
+     * The inequalities that are active, or violated, at the kick-starter solution are assumed to be active
+     * also at the optimum. The problem with that working set (as equalities) is solved directly, and the
+     * current solution set to that. It's feasible if the working set was right, or nearly right. If not, the
+     * feasible point found by the LP is moved towards it.
+     */
+    private void initialiseWorkingSet(final Result kickStarter) {
+
+        final int tmpNumVars = this.countVariables();
+        final int tmpNumEqus = this.countEqualityConstraints();
+
+        final MatrixStore<Double> tmpAI = this.getAI();
+        final MatrixStore<Double> tmpBI = this.getBI();
+
+        this.fillX(kickStarter);
+
+        final MatrixStore<Double> tmpAIX = tmpAI.multiply(this.getX());
+        for (int i = 0; i < tmpAIX.countRows(); i++) {
+            final double tmpBody = tmpAIX.doubleValue(i);
+            final double tmpRHS = tmpBI.doubleValue(i);
+            if ((tmpBody >= tmpRHS) || !options.slack.isDifferent(tmpRHS, tmpBody)) {
+                myWorkingSet.add(tmpNumEqus + i, tmpAI, i);
+            }
+        }
+
+        final int tmpCount = myWorkingSet.count();
+        final double[] tmpB = new double[tmpCount];
+        for (int k = 0; k < tmpCount; k++) {
+            final int tmpKey = myWorkingSet.getKey(k);
+            tmpB[k] = tmpKey < tmpNumEqus ? this.getBE().doubleValue(tmpKey) : tmpBI.doubleValue(tmpKey - tmpNumEqus);
+        }
+
+        final double[] tmpC = new double[tmpNumVars];
+        for (int i = 0; i < tmpNumVars; i++) {
+            tmpC[i] = this.getC().doubleValue(i);
+        }
+
+        final double[] tmpX = new double[tmpNumVars];
+        myWorkingSet.solve(tmpC, tmpB, tmpX, new double[tmpCount]);
+
+        for (int i = 0; i < tmpNumVars; i++) {
+            this.setX(i, tmpX[i]);
+        }
+    }
+
+    /**
+     * Move the (feasible) current solution as far as possible towards the target, staying feasible.
+     */
+    private void moveTowards(final MatrixStore<Double> target) {
+
+        final MatrixStore<Double> tmpX = this.getX();
+        final MatrixStore<Double> tmpAI = this.getAI();
+        final MatrixStore<Double> tmpBI = this.getBI();
+
+        final MatrixStore<Double> tmpDirection = target.subtract(tmpX);
+
+        final MatrixStore<Double> tmpSlack = tmpBI.subtract(tmpAI.multiply(tmpX));
+        final MatrixStore<Double> tmpRate = tmpAI.multiply(tmpDirection);
+
+        double tmpStepLength = ONE;
+        for (int i = 0; i < tmpRate.countRows(); i++) {
+            final double tmpN = Math.max(ZERO, tmpSlack.doubleValue(i));
+            final double tmpD = tmpRate.doubleValue(i);
+            if ((tmpD > ZERO) && ((tmpN / tmpD) < tmpStepLength)) {
+                tmpStepLength = tmpN / tmpD;
+            }
+        }
+
+        if (tmpStepLength > ZERO) {
+            this.getX().fillMatching(tmpX, PrimitiveFunction.ADD, tmpDirection.scale(tmpStepLength));
+        }
+    }
+
     /**
      * Find the minimum (largest negative) lagrange multiplier - for the active inequalities - to potentially
      * deactivate.
@@ -185,6 +265,30 @@ final class ActiveSetSolver extends ConvexSolver {
         return myConstraintToInclude;
     }
 
+    /**
+     * Make the working set factorisation match the currently included inequalities - exclude those that
+     * can't be added (linearly dependent).
+     */
+    private void updateWorkingSet() {
+
+        final int tmpCountEqualityConstraints = this.countEqualityConstraints();
+
+        for (int k = myWorkingSet.count() - 1; k >= 0; k--) {
+            final int tmpKey = myWorkingSet.getKey(k);
+            if ((tmpKey >= tmpCountEqualityConstraints) && myActivator.isExcluded(tmpKey - tmpCountEqualityConstraints)) {
+                myWorkingSet.remove(tmpKey);
+            }
+        }
+
+        final MatrixStore<Double> tmpAI = this.getAI();
+        for (final int tmpIncluded : myActivator.getIncluded()) {
+            final int tmpKey = tmpCountEqualityConstraints + tmpIncluded;
+            if ((myWorkingSet.indexOf(tmpKey) < 0) && !myWorkingSet.add(tmpKey, tmpAI, tmpIncluded)) {
+                myActivator.exclude(tmpIncluded);
+            }
+        }
+    }
+
     @Override
     protected MatrixStore<Double> extractSolution() {
         return super.extractSolution();
@@ -208,12 +312,26 @@ final class ActiveSetSolver extends ConvexSolver {
 
         myActivator.excludeAll();
 
+        myWorkingSet = SchurComplementSolver.make(tmpQ);
+        for (int i = 0; (myWorkingSet != null) && (i < tmpNumEqus); i++) {
+            if (!myWorkingSet.add(i, tmpAE, i)) {
+                myWorkingSet = null;
+            }
+        }
+
         boolean tmpFeasible = false;
+        PhysicalStore<Double> tmpSeeded = null;
 
         if ((kickStarter != null) && kickStarter.getState().isApproximate()) {
 
             this.fillX(kickStarter);
 
+        } else if ((kickStarter != null) && (myWorkingSet != null) && (tmpNumInes > 0) && (kickStarter.count() == tmpNumVars)) {
+
+            this.initialiseWorkingSet(kickStarter);
+
+            tmpSeeded = tmpX.copy();
+
         } else {
 
             final KKTSolver.Input tmpInput = new KKTSolver.Input(tmpQ, tmpC, tmpAE, tmpBE);
@@ -282,6 +400,9 @@ final class ActiveSetSolver extends ConvexSolver {
                 for (int i = 0; i < tmpNumVars; i++) {
                     this.setX(i, tmpLinearResult.doubleValue(i) - tmpLinearResult.doubleValue(tmpNumVars + i));
                 }
+                if (tmpSeeded != null) {
+                    this.moveTowards(tmpSeeded);
+                }
             }
         }
 
@@ -390,26 +511,62 @@ final class ActiveSetSolver extends ConvexSolver {
 
         myConstraintToInclude = -1;
 
-        final Input tmpInput = this.buildDelegateSolverInput();
-        final KKTSolver tmpSolver = this.getDelegateSolver(tmpInput);
-        final Output tmpOutput = tmpSolver.solve(tmpInput, options);
+        final int tmpCountVariables = this.countVariables();
+        final int tmpCountEqualityConstraints = this.countEqualityConstraints();
+
+        final boolean tmpSolvable;
+        final MatrixStore<Double> tmpSubX;
+        final MatrixStore<Double> tmpSubL;
+
+        if (myWorkingSet != null) {
+
+            this.updateWorkingSet();
+
+            final MatrixStore<Double> tmpGradient = this.getC().subtract(this.getQ().multiply(this.getX()));
+            final double[] tmpC = new double[tmpCountVariables];
+            for (int i = 0; i < tmpCountVariables; i++) {
+                tmpC[i] = tmpGradient.doubleValue(i);
+            }
+
+            final double[] tmpX = new double[tmpCountVariables];
+            final double[] tmpL = new double[myWorkingSet.count()];
+            myWorkingSet.solve(tmpC, null, tmpX, tmpL);
+
+            final int[] tmpIncluded = myActivator.getIncluded();
+            final double[] tmpSortedL = new double[tmpCountEqualityConstraints + tmpIncluded.length];
+            for (int i = 0; i < tmpCountEqualityConstraints; i++) {
+                tmpSortedL[i] = tmpL[myWorkingSet.indexOf(i)];
+            }
+            for (int i = 0; i < tmpIncluded.length; i++) {
+                tmpSortedL[tmpCountEqualityConstraints + i] = tmpL[myWorkingSet.indexOf(tmpCountEqualityConstraints + tmpIncluded[i])];
+            }
+
+            tmpSolvable = true;
+            tmpSubX = PrimitiveDenseStore.FACTORY.columns(tmpX);
+            tmpSubL = PrimitiveDenseStore.FACTORY.columns(tmpSortedL);
+
+        } else {
+
+            final Input tmpInput = this.buildDelegateSolverInput();
+            final KKTSolver tmpSolver = this.getDelegateSolver(tmpInput);
+            final Output tmpOutput = tmpSolver.solve(tmpInput, options);
+
+            tmpSolvable = tmpOutput.isSolvable();
+            tmpSubX = tmpOutput.getX();
+            tmpSubL = tmpOutput.getL();
+        }
 
         if (this.isDebug()) {
-            this.debug("X/L: {}", tmpOutput);
+            this.debug("X/L: {} {} {}", tmpSolvable, tmpSubX != null ? tmpSubX.copy().asList() : null, tmpSubL != null ? tmpSubL.copy().asList() : null);
         }
 
         final int[] tmpIncluded = myActivator.getIncluded();
 
-        final int tmpCountVariables = this.countVariables();
-        final int tmpCountEqualityConstraints = this.countEqualityConstraints();
         final int tmpCountActiveInequalityConstraints = tmpIncluded.length;
 
-        if (tmpOutput.isSolvable()) {
+        if (tmpSolvable) {
             // Subproblem solved successfully
 
-            final MatrixStore<Double> tmpSubX = tmpOutput.getX();
-            final MatrixStore<Double> tmpSubL = tmpOutput.getL();
-
             if (this.isDebug()) {
                 this.debug("Current: {}", this.getX().copy().asList());
                 this.debug("Step: {}", tmpSubX.copy().asList());
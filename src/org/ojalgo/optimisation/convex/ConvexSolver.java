@@ -27,8 +27,6 @@ import java.util.List;
 import java.util.Set;
 
 import org.ojalgo.access.Access1D;
-import org.ojalgo.function.BinaryFunction;
-import org.ojalgo.function.UnaryFunction;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
@@ -95,7 +93,12 @@ public abstract class ConvexSolver extends BaseSolver {
             this.validate();
 
             if (this.hasInequalityConstraints()) {
-                return new ActiveSetSolver(this, options);
+                final int tmpLimit = options != null ? options.interior_point : new Optimisation.Options().interior_point;
+                if (this.countInequalityConstraints() > tmpLimit) {
+                    return new InteriorPointSolver(this, options);
+                } else {
+                    return new ActiveSetSolver(this, options);
+                }
             } else if (this.hasEqualityConstraints()) {
                 return new QPESolver(this, options);
             } else {
@@ -167,20 +170,32 @@ public abstract class ConvexSolver extends BaseSolver {
 
         final Expression tmpObjExpr = sourceModel.getObjectiveExpression();
 
-        PhysicalStore<Double> tmpQ = null;
+        MatrixStore<Double> tmpQ = null;
         if (tmpObjExpr.isAnyQuadraticFactorNonZero()) {
-            tmpQ = FACTORY.makeZero(tmpFreeVarDim, tmpFreeVarDim);
-
-            final BinaryFunction<Double> tmpBaseFunc = sourceModel.isMaximisation() ? SUBTRACT : ADD;
-            UnaryFunction<Double> tmpModifier;
-            for (final Expression.RowColumn tmpKey : tmpObjExpr.getQuadraticFactorKeys()) {
-                final int tmpRow = sourceModel.indexOfFreeVariable(tmpKey.row);
-                final int tmpColumn = sourceModel.indexOfFreeVariable(tmpKey.column);
-                if ((tmpRow >= 0) && (tmpColumn >= 0)) {
-                    tmpModifier = tmpBaseFunc.second(tmpObjExpr.getAdjustedQuadraticFactor(tmpKey));
-                    tmpQ.modifyOne(tmpRow, tmpColumn, tmpModifier);
-                    tmpQ.modifyOne(tmpColumn, tmpRow, tmpModifier);
+
+            // Built directly from the expression's (primitive) factors, dense or sparse
+            final MatrixStore<Double> tmpHessian = tmpObjExpr.getAdjustedHessian();
+            final boolean tmpMaximisation = sourceModel.isMaximisation();
+
+            if ((tmpFreeVarDim == sourceModel.countVariables()) && !tmpMaximisation) {
+
+                tmpQ = tmpHessian;
+
+            } else {
+
+                final int[] tmpFreeIndices = new int[tmpFreeVarDim];
+                for (int f = 0; f < tmpFreeVarDim; f++) {
+                    tmpFreeIndices[f] = sourceModel.indexOf(tmpFreeVariables.get(f));
+                }
+
+                final PhysicalStore<Double> tmpFreeQ = FACTORY.makeZero(tmpFreeVarDim, tmpFreeVarDim);
+                for (int j = 0; j < tmpFreeVarDim; j++) {
+                    for (int i = 0; i < tmpFreeVarDim; i++) {
+                        final double tmpValue = tmpHessian.doubleValue(tmpFreeIndices[i], tmpFreeIndices[j]);
+                        tmpFreeQ.set(i, j, tmpMaximisation ? -tmpValue : tmpValue);
+                    }
                 }
+                tmpQ = tmpFreeQ;
             }
         }
 
@@ -0,0 +1,614 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.system.KKTSolver;
+
+/**
+ * Solves optimisation problems of the form:
+ * <p>
+ * min 1/2 [X]<sup>T</sup>[Q][X] - [C]<sup>T</sup>[X]<br>
+ * when [AE][X] == [BE]<br>
+ * and [AI][X] &lt;= [BI]
+ * </p>
+ * Primal-dual interior point method with Mehrotra's predictor-corrector. The inequalities get slack variables
+ * [S] and multipliers [Z], and each iteration solves (twice) the normal equations
+ * <p>
+ * ([Q] + [AI]<sup>T</sup>diag([Z]/[S])[AI]) [dX] + [AE]<sup>T</sup>[dY] = ...
+ * </p>
+ * using one Cholesky decomposition. The number of iterations hardly depends on the number of inequalities,
+ * which is what makes this preferable to {@linkplain ActiveSetSolver} for larger problems. The rows of [AI]
+ * are stored sparse - variable bounds only add to the diagonal.
+ *
+ * @author apete
+ */
+final class InteriorPointSolver extends ConvexSolver {
+
+    private static final long serialVersionUID = -2035211240003333565L;
+
+    /**
+     * Relative tolerance for the primal and dual residuals
+     */
+    private static final double EPSILON = 1E-9;
+
+    /**
+     * Relative tolerance for the duality gap. Much smaller than {@linkplain #EPSILON} - the complementarity
+     * converges fast towards the end, and [X] is not accurate until it's (very) small.
+     */
+    private static final double GAP = 1E-14;
+
+    private static final int ITERATIONS = 100;
+
+    /**
+     * Fraction of the distance to the boundary (of the positive orthant) to step
+     */
+    private static final double STEP = 0.995;
+
+    private double[][] myAE;
+    private double[] myBE;
+    private double[] myBI;
+    private double[] myC;
+    private final Cholesky<Double> myCholesky = Cholesky.makePrimitive();
+    private int[][] myIndices;
+    /**
+     * [Q] + [AI]<sup>T</sup>diag(weights)[AI], refilled every iteration
+     */
+    private PrimitiveDenseStore myNormal;
+    private PrimitiveDenseStore myQ;
+    private double[] myQX;
+    private double[] myResidualE;
+    private double[] myResidualI;
+    private double[] myResidualQ;
+    private double[] myS;
+    private final LU<Double> mySchurComplement = LU.makePrimitive();
+    private double myStep = ONE;
+    private double[][] myValues;
+    /**
+     * inv([Normal])[AE]<sup>T</sup>
+     */
+    private MatrixStore<Double> myW;
+    private double[] myX;
+    private double[] myY;
+    private double[] myZ;
+
+    InteriorPointSolver(final ConvexSolver.Builder matrices, final Optimisation.Options solverOptions) {
+        super(matrices, solverOptions);
+    }
+
+    private void direction(final double[] complementarity, final double[] dX, final double[] dY, final double[] dZ, final double[] dS) {
+
+        final int tmpNumVars = myX.length;
+        final int tmpNumIneq = myS.length;
+
+        final double[] tmpRhsX = new double[tmpNumVars];
+        for (int j = 0; j < tmpNumVars; j++) {
+            tmpRhsX[j] = -myResidualQ[j];
+        }
+        for (int i = 0; i < tmpNumIneq; i++) {
+            final double tmpFactor = ((myZ[i] * myResidualI[i]) - complementarity[i]) / myS[i];
+            final int[] tmpIndices = myIndices[i];
+            final double[] tmpValues = myValues[i];
+            for (int k = 0; k < tmpIndices.length; k++) {
+                tmpRhsX[tmpIndices[k]] -= tmpValues[k] * tmpFactor;
+            }
+        }
+
+        final double[] tmpRhsY = new double[myY.length];
+        for (int i = 0; i < tmpRhsY.length; i++) {
+            tmpRhsY[i] = -myResidualE[i];
+        }
+
+        this.solve(tmpRhsX, tmpRhsY, dX, dY);
+
+        for (int i = 0; i < tmpNumIneq; i++) {
+            dS[i] = -myResidualI[i] - this.multiply(i, dX);
+            dZ[i] = (-complementarity[i] - (myZ[i] * dS[i])) / myS[i];
+        }
+    }
+
+    /**
+     * Forms and factorises [Q] + [AI]<sup>T</sup>diag(weights)[AI], and if there are equality constraints
+     * also their Schur complement. Should the Cholesky decomposition fail a (growing) multiple of the identity
+     * is added.
+     */
+    private boolean factorise(final double[] weights) {
+
+        final int tmpNumVars = myX.length;
+        final double[] tmpNormal = myNormal.data;
+
+        double tmpRegularisation = ZERO;
+        for (int attempt = 0; attempt < 8; attempt++) {
+
+            System.arraycopy(myQ.data, 0, tmpNormal, 0, tmpNormal.length);
+
+            for (int i = 0; i < weights.length; i++) {
+                final double tmpWeight = weights[i];
+                final int[] tmpIndices = myIndices[i];
+                final double[] tmpValues = myValues[i];
+                for (int k = 0; k < tmpIndices.length; k++) {
+                    final int tmpColBase = tmpIndices[k] * tmpNumVars;
+                    final double tmpScaled = tmpWeight * tmpValues[k];
+                    for (int l = 0; l < tmpIndices.length; l++) {
+                        tmpNormal[tmpIndices[l] + tmpColBase] += tmpScaled * tmpValues[l];
+                    }
+                }
+            }
+
+            double tmpLargest = ZERO;
+            for (int j = 0; j < tmpNumVars; j++) {
+                tmpLargest = Math.max(tmpLargest, tmpNormal[j + (j * tmpNumVars)]);
+            }
+            if (!(tmpLargest > ZERO) || Double.isInfinite(tmpLargest)) {
+                tmpLargest = ONE;
+            }
+
+            if (tmpRegularisation > ZERO) {
+                for (int j = 0; j < tmpNumVars; j++) {
+                    tmpNormal[j + (j * tmpNumVars)] += tmpRegularisation * tmpLargest;
+                }
+            }
+
+            if (myCholesky.decompose(myNormal) && myCholesky.isSPD()) {
+
+                if (myY.length == 0) {
+                    return true;
+                }
+
+                final PrimitiveDenseStore tmpAET = PrimitiveDenseStore.FACTORY.makeZero(tmpNumVars, myY.length);
+                for (int i = 0; i < myY.length; i++) {
+                    for (int j = 0; j < tmpNumVars; j++) {
+                        tmpAET.set(j, i, myAE[i][j]);
+                    }
+                }
+                myW = myCholesky.solve(tmpAET);
+
+                final PrimitiveDenseStore tmpSchur = PrimitiveDenseStore.FACTORY.makeZero(myY.length, myY.length);
+                for (int c = 0; c < myY.length; c++) {
+                    for (int r = 0; r < myY.length; r++) {
+                        double tmpSum = ZERO;
+                        final double[] tmpRow = myAE[r];
+                        for (int j = 0; j < tmpNumVars; j++) {
+                            tmpSum += tmpRow[j] * myW.doubleValue(j, c);
+                        }
+                        tmpSchur.set(r, c, tmpSum);
+                    }
+                }
+
+                if (mySchurComplement.decompose(tmpSchur) && mySchurComplement.isSolvable()) {
+                    return true;
+                }
+            }
+
+            tmpRegularisation = tmpRegularisation == ZERO ? 1E-12 : tmpRegularisation * HUNDRED;
+        }
+
+        return false;
+    }
+
+    private double multiply(final int row, final double[] vector) {
+        double retVal = ZERO;
+        final int[] tmpIndices = myIndices[row];
+        final double[] tmpValues = myValues[row];
+        for (int k = 0; k < tmpIndices.length; k++) {
+            retVal += tmpValues[k] * vector[tmpIndices[k]];
+        }
+        return retVal;
+    }
+
+    /**
+     * @return The largest primal residual, relative to the size of the right hand sides
+     */
+    private double primal() {
+
+        double tmpEquality = ZERO;
+        double tmpScaleE = ONE;
+        for (int i = 0; i < myY.length; i++) {
+            tmpEquality = Math.max(tmpEquality, Math.abs(myResidualE[i]));
+            tmpScaleE = Math.max(tmpScaleE, Math.abs(myBE[i]));
+        }
+
+        double tmpInequality = ZERO;
+        double tmpScaleI = ONE;
+        for (int i = 0; i < myS.length; i++) {
+            tmpInequality = Math.max(tmpInequality, Math.abs(myResidualI[i]));
+            tmpScaleI = Math.max(tmpScaleI, Math.abs(myBI[i]));
+        }
+
+        return Math.max(tmpEquality / tmpScaleE, tmpInequality / tmpScaleI);
+    }
+
+    /**
+     * Updates the residuals of the KKT conditions at the current point.
+     *
+     * @return The objective function value
+     */
+    private double residuals() {
+
+        final int tmpNumVars = myX.length;
+        final double[] tmpQ = myQ.data;
+
+        final double[] tmpQX = myQX;
+        Arrays.fill(tmpQX, ZERO);
+        for (int j = 0; j < tmpNumVars; j++) {
+            final double tmpVal = myX[j];
+            if (tmpVal != ZERO) {
+                final int tmpColBase = j * tmpNumVars;
+                for (int i = 0; i < tmpNumVars; i++) {
+                    tmpQX[i] += tmpQ[i + tmpColBase] * tmpVal;
+                }
+            }
+        }
+
+        double retVal = ZERO;
+        for (int j = 0; j < tmpNumVars; j++) {
+            retVal += ((HALF * tmpQX[j]) - myC[j]) * myX[j];
+            myResidualQ[j] = tmpQX[j] - myC[j];
+        }
+
+        for (int i = 0; i < myY.length; i++) {
+            final double[] tmpRow = myAE[i];
+            final double tmpY = myY[i];
+            double tmpSum = ZERO;
+            for (int j = 0; j < tmpNumVars; j++) {
+                tmpSum += tmpRow[j] * myX[j];
+                myResidualQ[j] += tmpRow[j] * tmpY;
+            }
+            myResidualE[i] = tmpSum - myBE[i];
+        }
+
+        for (int i = 0; i < myS.length; i++) {
+            final int[] tmpIndices = myIndices[i];
+            final double[] tmpValues = myValues[i];
+            final double tmpZ = myZ[i];
+            double tmpSum = ZERO;
+            for (int k = 0; k < tmpIndices.length; k++) {
+                tmpSum += tmpValues[k] * myX[tmpIndices[k]];
+                myResidualQ[tmpIndices[k]] += tmpValues[k] * tmpZ;
+            }
+            myResidualI[i] = (tmpSum + myS[i]) - myBI[i];
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Solves | [Normal] | [AE]<sup>T</sup> | [dX] = [rhsX] <br>
+     * | [AE] | 0 | [dY] = [rhsY]
+     */
+    private void solve(final double[] rhsX, final double[] rhsY, final double[] dX, final double[] dY) {
+
+        final int tmpNumVars = myX.length;
+
+        final MatrixStore<Double> tmpSolution = myCholesky.solve(PrimitiveDenseStore.FACTORY.columns(rhsX));
+
+        if (dY.length == 0) {
+
+            for (int j = 0; j < tmpNumVars; j++) {
+                dX[j] = tmpSolution.doubleValue(j);
+            }
+
+        } else {
+
+            final double[] tmpRhsY = new double[dY.length];
+            for (int i = 0; i < dY.length; i++) {
+                double tmpSum = -rhsY[i];
+                final double[] tmpRow = myAE[i];
+                for (int j = 0; j < tmpNumVars; j++) {
+                    tmpSum += tmpRow[j] * tmpSolution.doubleValue(j);
+                }
+                tmpRhsY[i] = tmpSum;
+            }
+
+            final MatrixStore<Double> tmpMultipliers = mySchurComplement.solve(PrimitiveDenseStore.FACTORY.columns(tmpRhsY));
+
+            for (int i = 0; i < dY.length; i++) {
+                dY[i] = tmpMultipliers.doubleValue(i);
+            }
+            for (int j = 0; j < tmpNumVars; j++) {
+                double tmpSum = tmpSolution.doubleValue(j);
+                for (int i = 0; i < dY.length; i++) {
+                    tmpSum -= myW.doubleValue(j, i) * dY[i];
+                }
+                dX[j] = tmpSum;
+            }
+        }
+    }
+
+    /**
+     * @return The largest step, not larger than 1, that keeps [S] and [Z] nonnegative
+     */
+    private double step(final double[] dZ, final double[] dS) {
+        double retVal = ONE;
+        for (int i = 0; i < myS.length; i++) {
+            if (dS[i] < ZERO) {
+                retVal = Math.min(retVal, -myS[i] / dS[i]);
+            }
+            if (dZ[i] < ZERO) {
+                retVal = Math.min(retVal, -myZ[i] / dZ[i]);
+            }
+        }
+        return retVal;
+    }
+
+    private void update() {
+        for (int j = 0; j < myX.length; j++) {
+            this.setX(j, myX[j]);
+        }
+        if (myY.length > 0) {
+            this.getLE().fillMatching(PrimitiveDenseStore.FACTORY.columns(myY));
+        }
+        for (int i = 0; i < myZ.length; i++) {
+            this.setLI(i, myZ[i]);
+        }
+    }
+
+    @Override
+    protected boolean initialise(final Result kickStarter) {
+
+        final int tmpNumVars = this.countVariables();
+        final int tmpNumEqus = this.countEqualityConstraints();
+        final int tmpNumIneq = this.countInequalityConstraints();
+
+        myQ = PrimitiveDenseStore.FACTORY.makeZero(tmpNumVars, tmpNumVars);
+        final MatrixStore<Double> tmpQ = this.getQ();
+        if (tmpQ != null) {
+            myQ.fillMatching(tmpQ);
+        }
+        myNormal = PrimitiveDenseStore.FACTORY.makeZero(tmpNumVars, tmpNumVars);
+
+        myC = new double[tmpNumVars];
+        final MatrixStore<Double> tmpC = this.getC();
+        if (tmpC != null) {
+            for (int j = 0; j < tmpNumVars; j++) {
+                myC[j] = tmpC.doubleValue(j);
+            }
+        }
+
+        myAE = new double[tmpNumEqus][tmpNumVars];
+        myBE = new double[tmpNumEqus];
+        if (tmpNumEqus > 0) {
+            final MatrixStore<Double> tmpAE = this.getAE();
+            final MatrixStore<Double> tmpBE = this.getBE();
+            for (int i = 0; i < tmpNumEqus; i++) {
+                for (int j = 0; j < tmpNumVars; j++) {
+                    myAE[i][j] = tmpAE.doubleValue(i, j);
+                }
+                myBE[i] = tmpBE.doubleValue(i);
+            }
+        }
+
+        myIndices = new int[tmpNumIneq][];
+        myValues = new double[tmpNumIneq][];
+        myBI = new double[tmpNumIneq];
+        final MatrixStore<Double> tmpAI = this.getAI();
+        final MatrixStore<Double> tmpBI = this.getBI();
+        final int[] tmpIndices = new int[tmpNumVars];
+        final double[] tmpValues = new double[tmpNumVars];
+        for (int i = 0; i < tmpNumIneq; i++) {
+            int tmpCount = 0;
+            for (int j = 0; j < tmpNumVars; j++) {
+                final double tmpValue = tmpAI.doubleValue(i, j);
+                if (tmpValue != ZERO) {
+                    tmpIndices[tmpCount] = j;
+                    tmpValues[tmpCount] = tmpValue;
+                    tmpCount++;
+                }
+            }
+            myIndices[i] = new int[tmpCount];
+            myValues[i] = new double[tmpCount];
+            System.arraycopy(tmpIndices, 0, myIndices[i], 0, tmpCount);
+            System.arraycopy(tmpValues, 0, myValues[i], 0, tmpCount);
+            myBI[i] = tmpBI.doubleValue(i);
+        }
+
+        myX = new double[tmpNumVars];
+        myY = new double[tmpNumEqus];
+        myZ = new double[tmpNumIneq];
+        myS = new double[tmpNumIneq];
+        myQX = new double[tmpNumVars];
+        myResidualQ = new double[tmpNumVars];
+        myResidualE = new double[tmpNumEqus];
+        myResidualI = new double[tmpNumIneq];
+
+        // Initial point from the least squares problem:
+        // min 1/2 [X]'[Q][X] - [C]'[X] + 1/2 |[AI][X] - [BI]|^2 when [AE][X] == [BE]
+
+        final double[] tmpOnes = new double[tmpNumIneq];
+        for (int i = 0; i < tmpNumIneq; i++) {
+            tmpOnes[i] = ONE;
+        }
+
+        if (!this.factorise(tmpOnes)) {
+            this.setState(State.FAILED);
+            return false;
+        }
+
+        final double[] tmpRhsX = new double[tmpNumVars];
+        System.arraycopy(myC, 0, tmpRhsX, 0, tmpNumVars);
+        for (int i = 0; i < tmpNumIneq; i++) {
+            final int[] tmpRowIndices = myIndices[i];
+            final double[] tmpRowValues = myValues[i];
+            for (int k = 0; k < tmpRowIndices.length; k++) {
+                tmpRhsX[tmpRowIndices[k]] += tmpRowValues[k] * myBI[i];
+            }
+        }
+        this.solve(tmpRhsX, myBE, myX, myY);
+
+        // The slacks and (their negatives) the multipliers of the least squares problem, shifted to be positive
+
+        double tmpMinSlack = POSITIVE_INFINITY;
+        for (int i = 0; i < tmpNumIneq; i++) {
+            myS[i] = myBI[i] - this.multiply(i, myX);
+            tmpMinSlack = Math.min(tmpMinSlack, myS[i]);
+        }
+
+        final double tmpShiftS = tmpMinSlack > ZERO ? ZERO : ONE - tmpMinSlack;
+        double tmpMinMultiplier = POSITIVE_INFINITY;
+        for (int i = 0; i < tmpNumIneq; i++) {
+            myZ[i] = -myS[i];
+            tmpMinMultiplier = Math.min(tmpMinMultiplier, myZ[i]);
+            myS[i] += tmpShiftS;
+        }
+
+        final double tmpShiftZ = tmpMinMultiplier > ZERO ? ZERO : ONE - tmpMinMultiplier;
+        for (int i = 0; i < tmpNumIneq; i++) {
+            myZ[i] += tmpShiftZ;
+        }
+
+        this.residuals();
+
+        this.update();
+        this.setState(State.APPROXIMATE);
+
+        return true;
+    }
+
+    @Override
+    protected boolean needsAnotherIteration() {
+
+        final double tmpObjective = this.residuals();
+
+        final double tmpPrimal = this.primal();
+
+        double tmpGap = ZERO;
+        for (int i = 0; i < myS.length; i++) {
+            tmpGap += myS[i] * myZ[i];
+        }
+
+        double tmpDual = ZERO;
+        double tmpScaleQ = ONE;
+        for (int j = 0; j < myX.length; j++) {
+            tmpDual = Math.max(tmpDual, Math.abs(myResidualQ[j]));
+            tmpScaleQ = Math.max(tmpScaleQ, Math.max(Math.abs(myC[j]), Math.abs(myQX[j])));
+        }
+        tmpDual /= tmpScaleQ;
+
+        tmpGap /= (ONE + Math.abs(tmpObjective));
+
+        if (Double.isNaN(tmpPrimal) || Double.isNaN(tmpDual) || Double.isNaN(tmpGap)) {
+
+            this.setState(State.FAILED);
+            return false;
+
+        } else if ((tmpPrimal <= EPSILON) && (tmpDual <= EPSILON) && (tmpGap <= GAP)) {
+
+            this.setState(State.OPTIMAL);
+            return false;
+
+        } else if ((myStep < EPSILON) || (this.countIterations() >= ITERATIONS)) {
+
+            // Stalled, or not converging
+
+            this.setState(tmpPrimal <= Math.sqrt(EPSILON) ? State.FEASIBLE : State.INFEASIBLE);
+            return false;
+
+        } else {
+
+            this.setState(State.APPROXIMATE);
+            return true;
+        }
+    }
+
+    @Override
+    protected void performIteration() {
+
+        final int tmpNumVars = myX.length;
+        final int tmpNumIneq = myS.length;
+
+        final double[] tmpWeights = new double[tmpNumIneq];
+        double tmpMu = ZERO;
+        for (int i = 0; i < tmpNumIneq; i++) {
+            tmpWeights[i] = myZ[i] / myS[i];
+            tmpMu += myS[i] * myZ[i];
+        }
+        tmpMu /= tmpNumIneq;
+
+        if (!this.factorise(tmpWeights)) {
+            // The weights explode close to the boundary - near the optimum, or with an infeasible problem where
+            // the steps get shorter and shorter. Can't go any further; let needsAnotherIteration() classify the
+            // current iterate (OPTIMAL, FEASIBLE or INFEASIBLE) the same way it would a stalled iteration.
+            myStep = ZERO;
+            return;
+        }
+
+        final double[] tmpDX = new double[tmpNumVars];
+        final double[] tmpDY = new double[myY.length];
+        final double[] tmpDZ = new double[tmpNumIneq];
+        final double[] tmpDS = new double[tmpNumIneq];
+
+        // Predictor (affine scaling) step
+
+        final double[] tmpComplementarity = new double[tmpNumIneq];
+        for (int i = 0; i < tmpNumIneq; i++) {
+            tmpComplementarity[i] = myS[i] * myZ[i];
+        }
+
+        this.direction(tmpComplementarity, tmpDX, tmpDY, tmpDZ, tmpDS);
+
+        final double tmpAffineStep = this.step(tmpDZ, tmpDS);
+        double tmpAffineMu = ZERO;
+        for (int i = 0; i < tmpNumIneq; i++) {
+            tmpAffineMu += (myS[i] + (tmpAffineStep * tmpDS[i])) * (myZ[i] + (tmpAffineStep * tmpDZ[i]));
+        }
+        tmpAffineMu /= tmpNumIneq;
+
+        final double tmpSigma = Math.pow(tmpAffineMu / tmpMu, THREE);
+
+        // Corrector (and centering) step
+
+        for (int i = 0; i < tmpNumIneq; i++) {
+            tmpComplementarity[i] += (tmpDS[i] * tmpDZ[i]) - (tmpSigma * tmpMu);
+        }
+
+        this.direction(tmpComplementarity, tmpDX, tmpDY, tmpDZ, tmpDS);
+
+        myStep = Math.min(ONE, STEP * this.step(tmpDZ, tmpDS));
+
+        for (int j = 0; j < tmpNumVars; j++) {
+            myX[j] += myStep * tmpDX[j];
+        }
+        for (int i = 0; i < myY.length; i++) {
+            myY[i] += myStep * tmpDY[i];
+        }
+        for (int i = 0; i < tmpNumIneq; i++) {
+            myZ[i] += myStep * tmpDZ[i];
+            myS[i] += myStep * tmpDS[i];
+        }
+
+        this.update();
+    }
+
+    @Override
+    KKTSolver.Input buildDelegateSolverInput() {
+        return new KKTSolver.Input(this.getQ(), this.getC(), this.getAE(), this.getBE());
+    }
+
+}
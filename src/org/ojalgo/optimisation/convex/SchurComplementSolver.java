@@ -0,0 +1,341 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.convex;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.access.Access2D;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.store.MatrixStore;
+
+/**
+ * Solves the KKT systems of an active set method:
+ * <p>
+ * | Q | A<sup>T</sup> | = | C | <br>
+ * | A | 0 | = | B |
+ * </p>
+ * [Q] must be positive definite, and the rows (constraints) of [A] are added and removed one at the time
+ * as the working set changes. [Q] is factorised once, [Q] = [L][L]<sup>T</sup>, and a QR decomposition of
+ * [Y] = [L]<sup>-1</sup>[A]<sup>T</sup> = [U][R] is maintained. Adding a row is a Gram-Schmidt step and
+ * removing one a sequence of Givens rotations - O(nm) instead of refactorising the KKT system.
+ *
+ * @author apete
+ */
+final class SchurComplementSolver {
+
+    /**
+     * A row with a component outside of the span of the rows already added that is smaller than this
+     * (relative to its own size) is considered linearly dependent, and is not added.
+     */
+    private static final double DEPENDENT = 1E-10;
+
+    /**
+     * A Cholesky pivot (squared) smaller than this, relative to the largest diagonal element of [Q], and [Q]
+     * is not considered positive definite.
+     */
+    private static final double SINGULAR = 1E-12;
+
+    /**
+     * @return null if [Q] is not (numerically) positive definite
+     */
+    static SchurComplementSolver make(final MatrixStore<Double> Q) {
+
+        final Cholesky<Double> tmpCholesky = Cholesky.makePrimitive();
+
+        if ((Q != null) && tmpCholesky.decompose(Q) && tmpCholesky.isSPD()) {
+
+            final MatrixStore<Double> tmpL = tmpCholesky.getL();
+            final int tmpDim = (int) tmpL.countRows();
+
+            double tmpLargest = ZERO;
+            for (int i = 0; i < tmpDim; i++) {
+                tmpLargest = Math.max(tmpLargest, Q.doubleValue(i, i));
+            }
+
+            for (int i = 0; i < tmpDim; i++) {
+                final double tmpPivot = tmpL.doubleValue(i, i);
+                if (!((tmpPivot * tmpPivot) > (SINGULAR * tmpLargest))) {
+                    return null;
+                }
+            }
+
+            return new SchurComplementSolver(tmpL);
+
+        } else {
+
+            return null;
+        }
+    }
+
+    private static double dot(final double[] vector1, final double[] vector2) {
+        double retVal = ZERO;
+        for (int i = 0; i < vector1.length; i++) {
+            retVal += vector1[i] * vector2[i];
+        }
+        return retVal;
+    }
+
+    private int myCount = 0;
+    private final int myDim;
+    private int[] myKeys = new int[16];
+    /**
+     * Lower triangular, row by row
+     */
+    private final double[][] myL;
+    /**
+     * Upper triangular, column by column - column j has j+1 elements.
+     */
+    private double[][] myR = new double[16][];
+    /**
+     * Orthonormal, column by column
+     */
+    private double[][] myU = new double[16][];
+
+    SchurComplementSolver(final Access2D<?> L) {
+
+        super();
+
+        myDim = (int) L.countRows();
+
+        myL = new double[myDim][];
+        for (int i = 0; i < myDim; i++) {
+            final double[] tmpRow = new double[i + 1];
+            for (int j = 0; j <= i; j++) {
+                tmpRow[j] = L.doubleValue(i, j);
+            }
+            myL[i] = tmpRow;
+        }
+    }
+
+    /**
+     * Add row [row] of [matrix] as a new (last) row of [A].
+     *
+     * @return false if the row is (numerically) a linear combination of the rows already added. In that case
+     *         it is not added.
+     */
+    boolean add(final int key, final Access2D<?> matrix, final long row) {
+
+        final int tmpDim = myDim;
+        final int tmpCount = myCount;
+
+        // y = inv(L) a
+        final double[] tmpY = new double[tmpDim];
+        for (int i = 0; i < tmpDim; i++) {
+            final double[] tmpRowL = myL[i];
+            double tmpVal = matrix.doubleValue(row, i);
+            for (int j = 0; j < i; j++) {
+                tmpVal -= tmpRowL[j] * tmpY[j];
+            }
+            tmpY[i] = tmpVal / tmpRowL[i];
+        }
+
+        final double tmpNorm = Math.sqrt(SchurComplementSolver.dot(tmpY, tmpY));
+
+        // Classical Gram-Schmidt, twice
+        final double[] tmpColR = new double[tmpCount + 1];
+        for (int p = 0; p < 2; p++) {
+            for (int j = 0; j < tmpCount; j++) {
+                final double[] tmpColU = myU[j];
+                final double tmpProj = SchurComplementSolver.dot(tmpColU, tmpY);
+                tmpColR[j] += tmpProj;
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpY[i] -= tmpProj * tmpColU[i];
+                }
+            }
+        }
+
+        final double tmpRest = Math.sqrt(SchurComplementSolver.dot(tmpY, tmpY));
+
+        if (!(tmpRest > (DEPENDENT * tmpNorm))) {
+            return false;
+        }
+
+        for (int i = 0; i < tmpDim; i++) {
+            tmpY[i] /= tmpRest;
+        }
+        tmpColR[tmpCount] = tmpRest;
+
+        if (tmpCount == myKeys.length) {
+            final int tmpCapacity = Math.min(2 * tmpCount, tmpDim);
+            myKeys = Arrays.copyOf(myKeys, tmpCapacity);
+            myR = Arrays.copyOf(myR, tmpCapacity);
+            myU = Arrays.copyOf(myU, tmpCapacity);
+        }
+
+        myKeys[tmpCount] = key;
+        myR[tmpCount] = tmpColR;
+        myU[tmpCount] = tmpY;
+        myCount++;
+
+        return true;
+    }
+
+    int count() {
+        return myCount;
+    }
+
+    int getKey(final int index) {
+        return myKeys[index];
+    }
+
+    int indexOf(final int key) {
+        for (int i = 0; i < myCount; i++) {
+            if (myKeys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove the row identified by [key] (if it's there). The rows after it move up one position.
+     */
+    void remove(final int key) {
+
+        final int tmpIndex = this.indexOf(key);
+
+        if (tmpIndex >= 0) {
+
+            final int tmpCount = myCount - 1;
+
+            for (int j = tmpIndex; j < tmpCount; j++) {
+                myKeys[j] = myKeys[j + 1];
+                myR[j] = myR[j + 1];
+            }
+
+            // [R] with a column removed is upper Hessenberg from that column on
+            for (int j = tmpIndex; j < tmpCount; j++) {
+
+                final double[] tmpColR = myR[j];
+                final double tmpA = tmpColR[j];
+                final double tmpB = tmpColR[j + 1];
+                final double tmpHyp = Math.hypot(tmpA, tmpB);
+                final double tmpCos = tmpA / tmpHyp;
+                final double tmpSin = tmpB / tmpHyp;
+
+                for (int c = j; c < tmpCount; c++) {
+                    final double[] tmpCol = myR[c];
+                    final double tmpVal1 = tmpCol[j];
+                    final double tmpVal2 = tmpCol[j + 1];
+                    tmpCol[j] = (tmpCos * tmpVal1) + (tmpSin * tmpVal2);
+                    tmpCol[j + 1] = (tmpCos * tmpVal2) - (tmpSin * tmpVal1);
+                }
+                myR[j] = Arrays.copyOf(tmpColR, j + 1);
+
+                final double[] tmpColU1 = myU[j];
+                final double[] tmpColU2 = myU[j + 1];
+                for (int i = 0; i < myDim; i++) {
+                    final double tmpVal1 = tmpColU1[i];
+                    final double tmpVal2 = tmpColU2[i];
+                    tmpColU1[i] = (tmpCos * tmpVal1) + (tmpSin * tmpVal2);
+                    tmpColU2[i] = (tmpCos * tmpVal2) - (tmpSin * tmpVal1);
+                }
+            }
+
+            myKeys[tmpCount] = 0;
+            myR[tmpCount] = null;
+            myU[tmpCount] = null;
+            myCount = tmpCount;
+        }
+    }
+
+    /**
+     * @param rhsC [C]
+     * @param rhsB [B] in the order the rows were added, or null if all zero
+     * @param solutionX Will be overwritten with [X]
+     * @param solutionL Will be overwritten with [L] in the order the rows were added
+     */
+    void solve(final double[] rhsC, final double[] rhsB, final double[] solutionX, final double[] solutionL) {
+
+        final int tmpDim = myDim;
+        final int tmpCount = myCount;
+
+        // u = inv(L) C
+        final double[] tmpU = new double[tmpDim];
+        for (int i = 0; i < tmpDim; i++) {
+            final double[] tmpRowL = myL[i];
+            double tmpVal = rhsC[i];
+            for (int j = 0; j < i; j++) {
+                tmpVal -= tmpRowL[j] * tmpU[j];
+            }
+            tmpU[i] = tmpVal / tmpRowL[i];
+        }
+
+        // z = inv([R]T) B and w = [U]T u - z
+        final double[] tmpZ = new double[tmpCount];
+        final double[] tmpW = new double[tmpCount];
+        for (int i = 0; i < tmpCount; i++) {
+            if (rhsB != null) {
+                final double[] tmpColR = myR[i];
+                double tmpVal = rhsB[i];
+                for (int j = 0; j < i; j++) {
+                    tmpVal -= tmpColR[j] * tmpZ[j];
+                }
+                tmpZ[i] = tmpVal / tmpColR[i];
+            }
+            tmpW[i] = SchurComplementSolver.dot(myU[i], tmpU) - tmpZ[i];
+        }
+
+        // [R] L = w
+        for (int i = tmpCount - 1; i >= 0; i--) {
+            double tmpVal = tmpW[i];
+            for (int j = i + 1; j < tmpCount; j++) {
+                tmpVal -= myR[j][i] * solutionL[j];
+            }
+            solutionL[i] = tmpVal / myR[i][i];
+        }
+
+        if (tmpCount < tmpDim) {
+            // v = u - [Y] L = u - [U] w
+            for (int j = 0; j < tmpCount; j++) {
+                final double[] tmpColU = myU[j];
+                final double tmpVal = tmpW[j];
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpU[i] -= tmpVal * tmpColU[i];
+                }
+            }
+        } else {
+            // [U] is square, and then v = [U] z exactly (the only solution to [A][X] = [B])
+            Arrays.fill(tmpU, ZERO);
+            for (int j = 0; j < tmpCount; j++) {
+                final double[] tmpColU = myU[j];
+                final double tmpVal = tmpZ[j];
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpU[i] += tmpVal * tmpColU[i];
+                }
+            }
+        }
+
+        // X = inv([L]T) v
+        for (int i = tmpDim - 1; i >= 0; i--) {
+            final double[] tmpRowL = myL[i];
+            final double tmpVal = tmpU[i] / tmpRowL[i];
+            solutionX[i] = tmpVal;
+            for (int j = 0; j < i; j++) {
+                tmpU[j] -= tmpRowL[j] * tmpVal;
+            }
+        }
+    }
+
+}
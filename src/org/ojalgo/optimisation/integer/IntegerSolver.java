@@ -21,10 +21,14 @@
  */
 package org.ojalgo.optimisation.integer;
 
+import static org.ojalgo.constant.PrimitiveMath.*;
+
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.AccessUtils;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.function.multiary.MultiaryFunction;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.ZeroStore;
@@ -34,6 +38,9 @@ import org.ojalgo.optimisation.Optimisation;
 
 public abstract class IntegerSolver extends GenericSolver {
 
+    private static final int CUT_ROUNDS = 5;
+    private static final double PSEUDO_COST_EPSILON = 1.0E-6;
+
     private final MultiaryFunction.TwiceDifferentiable<Double> myFunction;
 
     final class NodeStatistics {
@@ -127,10 +134,29 @@ public abstract class IntegerSolver extends GenericSolver {
 
     }
 
-    private volatile Optimisation.Result myBestResultSoFar = null;
+    /**
+     * The incumbent, updated without locking (compare-and-set)
+     */
+    private final AtomicReference<Optimisation.Result> myBestResultSoFar = new AtomicReference<>();
     private final AtomicInteger myIntegerSolutionsCount = new AtomicInteger();
     private final boolean myMinimisation;
     private final NodeStatistics myNodeStatistics = new NodeStatistics();
+    /**
+     * Per integer variable; the accumulated objective function degradation per unit displacement, and the
+     * number of observations, of down (lower) and up (upper) branches.
+     */
+    private final int[] myPseudoCostCountDown;
+    private final int[] myPseudoCostCountUp;
+    private final double[] myPseudoCostDown;
+    private final double[] myPseudoCostUp;
+    private int myPseudoCostTotalCountDown = 0;
+    private int myPseudoCostTotalCountUp = 0;
+    private double myPseudoCostTotalDown = ZERO;
+    private double myPseudoCostTotalUp = ZERO;
+    /**
+     * Replaced (only) by {@link #prepare()} when cuts are added, before any nodes are processed.
+     */
+    private LinearRelaxation myRelaxation;
 
     @SuppressWarnings("unused")
     private IntegerSolver(final Options solverOptions) {
@@ -145,6 +171,105 @@ public abstract class IntegerSolver extends GenericSolver {
         myFunction = model.getObjectiveFunction();
 
         myMinimisation = model.isMinimisation();
+
+        myRelaxation = LinearRelaxation.make(model);
+
+        final int tmpIntegerCount = model.getIntegerVariables().size();
+        myPseudoCostCountDown = new int[tmpIntegerCount];
+        myPseudoCostCountUp = new int[tmpIntegerCount];
+        myPseudoCostDown = new double[tmpIntegerCount];
+        myPseudoCostUp = new double[tmpIntegerCount];
+    }
+
+    /**
+     * Fractional diving; repeatedly bound the least fractional integer variable to its nearest integer value
+     * and resolve (warm started), until an integer solution is found or the dive fails. If a direction turns
+     * out to be infeasible the opposite direction is tried once.
+     */
+    private void dive(final NodeKey root, final Optimisation.Result relaxed) {
+
+        final int[] tmpIndices = myRelaxation.getIntegerIndices();
+
+        NodeKey tmpNode = root;
+        Optimisation.Result tmpResult = relaxed;
+
+        for (int d = 0; (d < (2 * tmpIndices.length)) && this.isIterationAllowed(); d++) {
+
+            final double tmpValue = this.evaluateFunction(tmpResult);
+
+            if (!this.isGoodEnoughToContinueBranching(tmpValue)) {
+                return;
+            }
+
+            int tmpIndex = -1;
+            double tmpMinFraction = ONE;
+            for (int i = 0; i < tmpIndices.length; i++) {
+                final double tmpFraction = tmpNode.getFraction(i, tmpResult.doubleValue(tmpIndices[i]));
+                if ((tmpFraction < tmpMinFraction) && !options.integer.isZero(tmpFraction)) {
+                    tmpIndex = i;
+                    tmpMinFraction = tmpFraction;
+                }
+            }
+
+            if (tmpIndex == -1) {
+                if (myModel.validate(tmpResult)) {
+                    if (this.isDebug()) {
+                        this.debug("Diving found an integer solution: {}", tmpValue);
+                    }
+                    this.markInteger(null, new Optimisation.Result(Optimisation.State.FEASIBLE, tmpValue, tmpResult));
+                }
+                return;
+            }
+
+            final double tmpVariableValue = tmpResult.doubleValue(tmpIndices[tmpIndex]);
+            final boolean tmpDown = (tmpVariableValue - Math.floor(tmpVariableValue)) < HALF;
+
+            NodeKey tmpChild = tmpDown ? tmpNode.createLowerBranch(tmpIndex, tmpVariableValue, tmpValue)
+                    : tmpNode.createUpperBranch(tmpIndex, tmpVariableValue, tmpValue);
+            Optimisation.Result tmpChildResult = myRelaxation.solve(tmpChild, tmpResult, options);
+            this.incrementIterationsCount();
+
+            if (!tmpChildResult.getState().isOptimal()) {
+                tmpChild = tmpDown ? tmpNode.createUpperBranch(tmpIndex, tmpVariableValue, tmpValue)
+                        : tmpNode.createLowerBranch(tmpIndex, tmpVariableValue, tmpValue);
+                tmpChildResult = myRelaxation.solve(tmpChild, tmpResult, options);
+                this.incrementIterationsCount();
+            }
+
+            if (!tmpChildResult.getState().isOptimal()) {
+                return;
+            }
+
+            this.updatePseudoCosts(tmpChild, this.evaluateFunction(tmpChildResult));
+
+            tmpNode = tmpChild;
+            tmpResult = tmpChildResult;
+        }
+    }
+
+    /**
+     * Simple rounding; round all integer variables to their nearest integer value and check if that is a
+     * feasible solution.
+     */
+    private void round(final Optimisation.Result relaxed) {
+
+        final double[] tmpSolution = new double[(int) relaxed.count()];
+        for (int j = 0; j < tmpSolution.length; j++) {
+            tmpSolution[j] = relaxed.doubleValue(j);
+        }
+        for (final int j : myRelaxation.getIntegerIndices()) {
+            tmpSolution[j] = Math.rint(tmpSolution[j]);
+        }
+
+        final Optimisation.Result tmpRounded = new Optimisation.Result(Optimisation.State.FEASIBLE, PrimitiveArray.wrap(tmpSolution));
+
+        if (myModel.validate(tmpRounded)) {
+            final double tmpValue = this.evaluateFunction(tmpRounded);
+            if (this.isDebug()) {
+                this.debug("Rounding found an integer solution: {}", tmpValue);
+            }
+            this.markInteger(null, new Optimisation.Result(Optimisation.State.FEASIBLE, tmpValue, tmpRounded));
+        }
     }
 
     protected final boolean isFunctionSet() {
@@ -157,7 +282,7 @@ public abstract class IntegerSolver extends GenericSolver {
 
     protected Optimisation.Result getBestResultSoFar() {
 
-        final Result tmpCurrentlyTheBest = myBestResultSoFar;
+        final Result tmpCurrentlyTheBest = myBestResultSoFar.get();
 
         if (tmpCurrentlyTheBest != null) {
 
@@ -185,7 +310,7 @@ public abstract class IntegerSolver extends GenericSolver {
 
     protected boolean isGoodEnoughToContinueBranching(final double nonIntegerValue) {
 
-        final Result tmpCurrentlyTheBest = myBestResultSoFar;
+        final Result tmpCurrentlyTheBest = myBestResultSoFar.get();
 
         if (tmpCurrentlyTheBest == null) {
 
@@ -205,13 +330,34 @@ public abstract class IntegerSolver extends GenericSolver {
         }
     }
 
+    protected final synchronized boolean isPseudoCostsAvailable() {
+        return (myPseudoCostTotalCountDown + myPseudoCostTotalCountUp) > 0;
+    }
+
+    /**
+     * The product score of the pseudo-cost estimated objective function degradation of the down and up
+     * branches. Variables not yet branched on (in a direction) get the average of those that have.
+     */
+    protected final synchronized double getPseudoCostScore(final int index, final double value) {
+
+        final double tmpFraction = value - Math.floor(value);
+
+        final double tmpAverageDown = myPseudoCostTotalCountDown > 0 ? myPseudoCostTotalDown / myPseudoCostTotalCountDown : ONE;
+        final double tmpAverageUp = myPseudoCostTotalCountUp > 0 ? myPseudoCostTotalUp / myPseudoCostTotalCountUp : ONE;
+
+        final double tmpDown = myPseudoCostCountDown[index] > 0 ? myPseudoCostDown[index] / myPseudoCostCountDown[index] : tmpAverageDown;
+        final double tmpUp = myPseudoCostCountUp[index] > 0 ? myPseudoCostUp[index] / myPseudoCostCountUp[index] : tmpAverageUp;
+
+        return Math.max(tmpDown * tmpFraction, PSEUDO_COST_EPSILON) * Math.max(tmpUp * (ONE - tmpFraction), PSEUDO_COST_EPSILON);
+    }
+
     protected boolean isIntegerSolutionFound() {
-        return myBestResultSoFar != null;
+        return myBestResultSoFar.get() != null;
     }
 
     protected boolean isIterationNecessary() {
 
-        if (myBestResultSoFar == null) {
+        if (myBestResultSoFar.get() == null) {
 
             return true;
 
@@ -224,24 +370,93 @@ public abstract class IntegerSolver extends GenericSolver {
         }
     }
 
-    protected synchronized void markInteger(final NodeKey node, final Optimisation.Result result) {
+    protected void markInteger(final NodeKey node, final Optimisation.Result result) {
 
-        final Optimisation.Result tmpCurrentlyTheBest = myBestResultSoFar;
+        Optimisation.Result tmpCurrentlyTheBest;
 
-        if (tmpCurrentlyTheBest == null) {
+        do {
 
-            myBestResultSoFar = result;
+            tmpCurrentlyTheBest = myBestResultSoFar.get();
 
-        } else if (myMinimisation && (result.getValue() < tmpCurrentlyTheBest.getValue())) {
+            if ((tmpCurrentlyTheBest != null) && (myMinimisation ? !(result.getValue() < tmpCurrentlyTheBest.getValue())
+                    : !(result.getValue() > tmpCurrentlyTheBest.getValue()))) {
+                break;
+            }
+
+        } while (!myBestResultSoFar.compareAndSet(tmpCurrentlyTheBest, result));
 
-            myBestResultSoFar = result;
+        myIntegerSolutionsCount.incrementAndGet();
+    }
 
-        } else if (!myMinimisation && (result.getValue() > tmpCurrentlyTheBest.getValue())) {
+    /**
+     * Solves the root node relaxation, strengthens it with rounds of cover cuts, and then tries to find an
+     * initial integer solution with the rounding and diving heuristics. An early incumbent allows most of
+     * the tree to be pruned. Does nothing if there is no (compiled) relaxation.
+     */
+    protected final void prepare() {
 
-            myBestResultSoFar = result;
+        if (myRelaxation == null) {
+            return;
         }
 
-        myIntegerSolutionsCount.incrementAndGet();
+        final NodeKey tmpRoot = new NodeKey(myModel);
+
+        Optimisation.Result tmpResult = myRelaxation.solve(tmpRoot, null, options);
+        this.incrementIterationsCount();
+
+        for (int r = 0; (r < CUT_ROUNDS) && tmpResult.getState().isOptimal(); r++) {
+
+            final LinearRelaxation tmpStrengthened = myRelaxation.separate(myModel, tmpResult, options.integer);
+            if (tmpStrengthened == null) {
+                break;
+            }
+
+            myRelaxation = tmpStrengthened;
+            tmpResult = myRelaxation.solve(tmpRoot, tmpResult, options);
+            this.incrementIterationsCount();
+        }
+
+        if (this.isDebug()) {
+            this.debug("Root node: {} cuts {}", myRelaxation.countCuts(), tmpResult);
+        }
+
+        if (tmpResult.getState().isOptimal()) {
+            this.round(tmpResult);
+            this.dive(tmpRoot, tmpResult);
+        }
+    }
+
+    /**
+     * Records the objective function degradation, per unit displacement of the branched on variable, of a
+     * solved node.
+     */
+    protected final synchronized void updatePseudoCosts(final NodeKey node, final double value) {
+
+        if ((node.index < 0) || Double.isNaN(node.objective) || Double.isNaN(value) || (node.displacement == ZERO)) {
+            return;
+        }
+
+        final double tmpGain = Math.abs(value - node.objective) / Math.abs(node.displacement);
+
+        if (node.displacement < ZERO) {
+            myPseudoCostDown[node.index] += tmpGain;
+            myPseudoCostCountDown[node.index]++;
+            myPseudoCostTotalDown += tmpGain;
+            myPseudoCostTotalCountDown++;
+        } else {
+            myPseudoCostUp[node.index] += tmpGain;
+            myPseudoCostCountUp[node.index]++;
+            myPseudoCostTotalUp += tmpGain;
+            myPseudoCostTotalCountUp++;
+        }
+    }
+
+    /**
+     * @return The shared (compiled) node relaxation, or null if node problems have to be solved as copies of
+     *         the model
+     */
+    final LinearRelaxation getRelaxation() {
+        return myRelaxation;
     }
 
     protected final MatrixStore<Double> getGradient(final Access1D<Double> solution) {
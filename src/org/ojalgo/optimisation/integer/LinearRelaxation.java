@@ -0,0 +1,599 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.array.PrimitiveArray;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.Expression.Index;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.optimisation.linear.LinearSolver;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The linear relaxation of an integer model compiled once, to primitive (sparse) standard form, and then
+ * shared by all branch&bound nodes. A node only changes the bounds of the integer variables, and that only
+ * changes the right hand side - the constraint matrix and the objective are never copied.
+ * <p>
+ * Every model variable is substituted with nonnegative solver variables; x = l + y when there is a lower
+ * limit, x = u - y when there is only an upper limit, and x = y<sup>+</sup> - y<sup>-</sup> when there are no
+ * limits. Integer variables must have both limits, and are always shifted by the (node) lower bound. Upper
+ * limits (on shifted variables) become rows y + s = u - l.
+ * </p>
+ * <p>
+ * Node problems are solved with the revised simplex, warm started from the parent node's solution. The
+ * parent's basis is still dual feasible so typically only a few dual simplex iterations are needed.
+ * </p>
+ * <p>
+ * The relaxation can be strengthened with (globally valid) knapsack cover cuts, separated from the root
+ * node solution. Each round of cuts results in a new relaxation instance - an instance is never modified.
+ * </p>
+ *
+ * @author apete
+ */
+final class LinearRelaxation {
+
+    /**
+     * A cut &Sigma; factor<sub>j</sub> x<sub>j</sub> &le; rhs in terms of the model variables.
+     */
+    static final class Cut {
+
+        final double[] factors;
+        final int[] indices;
+        final double rhs;
+
+        Cut(final int[] indices, final double[] factors, final double rhs) {
+
+            super();
+
+            this.indices = indices;
+            this.factors = factors;
+            this.rhs = rhs;
+        }
+
+    }
+
+    /**
+     * @return null if the model is not a mixed integer linear program with bounded integer variables
+     */
+    static LinearRelaxation make(final ExpressionsBasedModel integerModel) {
+
+        if (integerModel.isAnyExpressionQuadratic()) {
+            return null;
+        }
+
+        for (final Variable tmpVariable : integerModel.getIntegerVariables()) {
+            if ((integerModel.getLowerBound(tmpVariable) == null) || (integerModel.getUpperBound(tmpVariable) == null)) {
+                return null;
+            }
+        }
+
+        return new LinearRelaxation(integerModel, Collections.<Cut> emptyList());
+    }
+
+    /**
+     * Separates a knapsack cover cut from a linear constraint. Binary variables with a negative factor are
+     * complemented, and the other variables are replaced by their smallest possible contribution. A greedy
+     * (minimal) cover is built from the variables with the largest solution values.
+     *
+     * @return A cut violated by the solution, or null
+     */
+    private static Cut cover(final Expression expression, final boolean upper, final ExpressionsBasedModel model, final Set<Index> fixed,
+            final double[] shifts, final Access1D<?> solution, final NumberContext context) {
+
+        final double tmpSign = upper ? ONE : NEG;
+        double tmpCapacity = tmpSign * (upper ? expression.getCompensatedUpperLimit(Collections.<Index> emptySet())
+                : expression.getCompensatedLowerLimit(Collections.<Index> emptySet()));
+
+        final List<Index> tmpKeys = new ArrayList<>(expression.getLinearFactorKeys());
+        final int[] tmpIndices = new int[tmpKeys.size()];
+        final double[] tmpWeights = new double[tmpKeys.size()];
+        int tmpCount = 0;
+
+        for (final Index tmpKey : tmpKeys) {
+
+            final int j = tmpKey.index;
+            final double tmpFactor = tmpSign * expression.getAdjustedLinearFactor(tmpKey);
+            final Variable tmpVariable = model.getVariable(j);
+            final BigDecimal tmpLowerBound = model.getLowerBound(tmpVariable);
+            final BigDecimal tmpUpperBound = model.getUpperBound(tmpVariable);
+
+            if (tmpFactor == ZERO) {
+                continue;
+            } else if (fixed.contains(tmpKey)) {
+                tmpCapacity -= tmpFactor * shifts[j];
+            } else if (tmpVariable.isInteger() && (tmpLowerBound != null) && (tmpUpperBound != null) && (tmpLowerBound.signum() == 0)
+                    && (tmpUpperBound.compareTo(BigDecimal.ONE) == 0)) {
+                if (tmpFactor < ZERO) {
+                    tmpCapacity -= tmpFactor;
+                    tmpIndices[tmpCount] = -(j + 1);
+                } else {
+                    tmpIndices[tmpCount] = j;
+                }
+                tmpWeights[tmpCount++] = Math.abs(tmpFactor);
+            } else if ((tmpFactor > ZERO) && (tmpLowerBound != null)) {
+                tmpCapacity -= tmpFactor * tmpLowerBound.doubleValue();
+            } else if ((tmpFactor < ZERO) && (tmpUpperBound != null)) {
+                tmpCapacity -= tmpFactor * tmpUpperBound.doubleValue();
+            } else {
+                return null;
+            }
+        }
+
+        if ((tmpCount < 2) || (tmpCapacity < ZERO)) {
+            return null;
+        }
+
+        // (1 - x) per binary, in terms of the possibly complemented variable
+        final double[] tmpSlacks = new double[tmpCount];
+        final Integer[] tmpOrder = new Integer[tmpCount];
+        double tmpTotalWeight = ZERO;
+        for (int c = 0; c < tmpCount; c++) {
+            final double tmpValue = solution.doubleValue(tmpIndices[c] >= 0 ? tmpIndices[c] : -(tmpIndices[c] + 1));
+            tmpSlacks[c] = Math.max(ZERO, Math.min(ONE, tmpIndices[c] >= 0 ? ONE - tmpValue : tmpValue));
+            tmpOrder[c] = c;
+            tmpTotalWeight += tmpWeights[c];
+        }
+
+        if (tmpTotalWeight <= (tmpCapacity + context.epsilon())) {
+            return null;
+        }
+
+        Arrays.sort(tmpOrder, new Comparator<Integer>() {
+
+            public int compare(final Integer o1, final Integer o2) {
+                return Double.compare(tmpSlacks[o1] / tmpWeights[o1], tmpSlacks[o2] / tmpWeights[o2]);
+            }
+
+        });
+
+        final boolean[] tmpCover = new boolean[tmpCount];
+        double tmpWeight = ZERO;
+        int tmpSize = 0;
+        for (int o = 0; (o < tmpCount) && (tmpWeight <= (tmpCapacity + context.epsilon())); o++) {
+            tmpCover[tmpOrder[o]] = true;
+            tmpWeight += tmpWeights[tmpOrder[o]];
+            tmpSize++;
+        }
+
+        // Make it minimal, dropping those furthest from 1 first
+        for (int o = tmpCount - 1; o >= 0; o--) {
+            final int c = tmpOrder[o];
+            if (tmpCover[c] && ((tmpWeight - tmpWeights[c]) > (tmpCapacity + context.epsilon()))) {
+                tmpCover[c] = false;
+                tmpWeight -= tmpWeights[c];
+                tmpSize--;
+            }
+        }
+
+        double tmpViolation = ONE;
+        final int[] tmpCutIndices = new int[tmpSize];
+        final double[] tmpCutFactors = new double[tmpSize];
+        double tmpRHS = tmpSize - 1;
+        int k = 0;
+        for (int c = 0; c < tmpCount; c++) {
+            if (tmpCover[c]) {
+                tmpViolation -= tmpSlacks[c];
+                if (tmpIndices[c] >= 0) {
+                    tmpCutIndices[k] = tmpIndices[c];
+                    tmpCutFactors[k] = ONE;
+                } else {
+                    tmpCutIndices[k] = -(tmpIndices[c] + 1);
+                    tmpCutFactors[k] = NEG;
+                    tmpRHS -= ONE;
+                }
+                k++;
+            }
+        }
+
+        if ((tmpSize >= 2) && (tmpViolation > context.epsilon())) {
+            return new Cut(tmpCutIndices, tmpCutFactors, tmpRHS);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Per structural column
+     */
+    private final int[] myColumnPointers;
+    private final int[] myColumnRows;
+    private final double[] myColumnValues;
+    private final boolean[] myColumnSplit;
+    private final double[] myColumnSign;
+    private final int[] myColumnVariable;
+
+    private final SparseStore myAE;
+    private final PrimitiveDenseStore myC;
+    private final List<Cut> myCuts;
+
+    /**
+     * Per integer variable
+     */
+    private final int[] myIntegerBoundRow;
+    private final int[] myIntegerColumn;
+    private final int[] myIntegerIndices;
+
+    /**
+     * Per row; the right hand side with the root node shifts, and the sign of the slack (0 for equalities)
+     */
+    private final double[] myRHS;
+    private final int myConstraintCount;
+    private final int[] mySlackSign;
+
+    /**
+     * Per model variable; the root node shifts
+     */
+    private final double[] myShift;
+
+    private LinearRelaxation(final ExpressionsBasedModel integerModel, final List<Cut> cuts) {
+
+        super();
+
+        myCuts = cuts;
+
+        final List<Variable> tmpVariables = integerModel.getVariables();
+        final Set<Index> tmpFixed = integerModel.getFixedVariables();
+        final int tmpVariableCount = tmpVariables.size();
+
+        myShift = new double[tmpVariableCount];
+        final int[] tmpFirstColumn = new int[tmpVariableCount];
+        final int[] tmpColumnCount = new int[tmpVariableCount];
+
+        final List<Variable> tmpBounded = new ArrayList<>();
+        int tmpStructurals = 0;
+        for (int j = 0; j < tmpVariableCount; j++) {
+
+            final Variable tmpVariable = tmpVariables.get(j);
+            final BigDecimal tmpLowerBound = integerModel.getLowerBound(tmpVariable);
+            final BigDecimal tmpUpperBound = integerModel.getUpperBound(tmpVariable);
+            tmpFirstColumn[j] = tmpStructurals;
+
+            if (tmpFixed.contains(new Index(j))) {
+                myShift[j] = (tmpVariable.getValue() != null ? tmpVariable.getValue() : tmpLowerBound).doubleValue();
+            } else if (tmpLowerBound != null) {
+                myShift[j] = tmpLowerBound.doubleValue();
+                tmpColumnCount[j] = 1;
+                if (tmpUpperBound != null) {
+                    tmpBounded.add(tmpVariable);
+                }
+            } else if (tmpUpperBound != null) {
+                myShift[j] = tmpUpperBound.doubleValue();
+                tmpColumnCount[j] = 1;
+            } else {
+                tmpColumnCount[j] = 2;
+            }
+
+            tmpStructurals += tmpColumnCount[j];
+        }
+
+        myColumnVariable = new int[tmpStructurals];
+        myColumnSign = new double[tmpStructurals];
+        myColumnSplit = new boolean[tmpStructurals];
+        for (int j = 0; j < tmpVariableCount; j++) {
+            final int k = tmpFirstColumn[j];
+            if (tmpColumnCount[j] == 2) {
+                myColumnVariable[k] = j;
+                myColumnSign[k] = ONE;
+                myColumnSplit[k] = true;
+                myColumnVariable[k + 1] = j;
+                myColumnSign[k + 1] = NEG;
+                myColumnSplit[k + 1] = true;
+            } else if (tmpColumnCount[j] == 1) {
+                myColumnVariable[k] = j;
+                myColumnSign[k] = integerModel.getLowerBound(tmpVariables.get(j)) != null ? ONE : NEG;
+            }
+        }
+
+        final List<Expression> tmpExprsEq = integerModel.selectExpressionsLinearEquality();
+        final List<Expression> tmpExprsLo = integerModel.selectExpressionsLinearLower();
+        final List<Expression> tmpExprsUp = integerModel.selectExpressionsLinearUpper();
+
+        myConstraintCount = tmpExprsEq.size() + tmpExprsLo.size() + tmpExprsUp.size() + cuts.size();
+        final int tmpRowCount = myConstraintCount + tmpBounded.size();
+
+        myRHS = new double[tmpRowCount];
+        mySlackSign = new int[tmpRowCount];
+
+        // Row-wise entries, [row][column] -> value, collected per column
+        final List<List<double[]>> tmpColumns = new ArrayList<>(tmpStructurals);
+        for (int k = 0; k < tmpStructurals; k++) {
+            tmpColumns.add(new ArrayList<double[]>());
+        }
+
+        // Fixed variables are handled as any other shift
+        final Set<Index> tmpNone = Collections.emptySet();
+
+        int tmpRow = 0;
+        for (final Expression tmpExpression : tmpExprsEq) {
+            this.compile(tmpExpression, tmpExpression.getCompensatedLowerLimit(tmpNone), 0, tmpRow++, tmpFirstColumn, tmpColumnCount, tmpColumns);
+        }
+        for (final Expression tmpExpression : tmpExprsLo) {
+            this.compile(tmpExpression, tmpExpression.getCompensatedLowerLimit(tmpNone), -1, tmpRow++, tmpFirstColumn, tmpColumnCount, tmpColumns);
+        }
+        for (final Expression tmpExpression : tmpExprsUp) {
+            this.compile(tmpExpression, tmpExpression.getCompensatedUpperLimit(tmpNone), 1, tmpRow++, tmpFirstColumn, tmpColumnCount, tmpColumns);
+        }
+        for (final Cut tmpCut : cuts) {
+            double tmpRHS = tmpCut.rhs;
+            for (int c = 0; c < tmpCut.indices.length; c++) {
+                tmpRHS -= this.compile(tmpCut.indices[c], tmpCut.factors[c], tmpRow, tmpFirstColumn, tmpColumnCount, tmpColumns);
+            }
+            myRHS[tmpRow] = tmpRHS;
+            mySlackSign[tmpRow++] = 1;
+        }
+
+        final int[] tmpBoundRow = new int[tmpVariableCount];
+        for (final Variable tmpVariable : tmpBounded) {
+            final int j = integerModel.indexOf(tmpVariable);
+            tmpBoundRow[j] = tmpRow;
+            myRHS[tmpRow] = integerModel.getUpperBound(tmpVariable).doubleValue() - myShift[j];
+            mySlackSign[tmpRow] = 1;
+            tmpColumns.get(tmpFirstColumn[j]).add(new double[] { tmpRow, ONE });
+            tmpRow++;
+        }
+
+        final List<Variable> tmpIntegers = integerModel.getIntegerVariables();
+        myIntegerIndices = new int[tmpIntegers.size()];
+        myIntegerColumn = new int[tmpIntegers.size()];
+        myIntegerBoundRow = new int[tmpIntegers.size()];
+        for (int i = 0; i < myIntegerIndices.length; i++) {
+            final int j = integerModel.indexOf(tmpIntegers.get(i));
+            myIntegerIndices[i] = j;
+            myIntegerColumn[i] = tmpFirstColumn[j];
+            myIntegerBoundRow[i] = tmpBoundRow[j];
+        }
+
+        int tmpSlacks = 0;
+        for (int i = 0; i < tmpRowCount; i++) {
+            if (mySlackSign[i] != 0) {
+                tmpSlacks++;
+            }
+        }
+
+        myAE = SparseStore.FACTORY.makeZero(tmpRowCount, tmpStructurals + tmpSlacks);
+        myColumnPointers = new int[tmpStructurals + 1];
+        int tmpNonzeros = 0;
+        for (int k = 0; k < tmpStructurals; k++) {
+            tmpNonzeros += tmpColumns.get(k).size();
+            myColumnPointers[k + 1] = tmpNonzeros;
+        }
+        myColumnRows = new int[tmpNonzeros];
+        myColumnValues = new double[tmpNonzeros];
+        for (int k = 0; k < tmpStructurals; k++) {
+            // Rows were added in increasing order
+            int e = myColumnPointers[k];
+            for (final double[] tmpEntry : tmpColumns.get(k)) {
+                myColumnRows[e] = (int) tmpEntry[0];
+                myColumnValues[e] = tmpEntry[1];
+                myAE.set(myColumnRows[e], k, myColumnValues[e]);
+                e++;
+            }
+        }
+        int tmpSlackColumn = tmpStructurals;
+        for (int i = 0; i < tmpRowCount; i++) {
+            if (mySlackSign[i] != 0) {
+                myAE.set(i, tmpSlackColumn++, (double) mySlackSign[i]);
+            }
+        }
+
+        myC = PrimitiveDenseStore.FACTORY.makeZero(tmpStructurals + tmpSlacks, 1);
+        final Expression tmpObjective = integerModel.getObjectiveExpression();
+        final boolean tmpMaximisation = integerModel.isMaximisation();
+        for (final Index tmpKey : tmpObjective.getLinearFactorKeys()) {
+            final int j = tmpKey.index;
+            final double tmpFactor = tmpMaximisation ? -tmpObjective.getAdjustedLinearFactor(tmpKey) : tmpObjective.getAdjustedLinearFactor(tmpKey);
+            for (int k = tmpFirstColumn[j]; k < (tmpFirstColumn[j] + tmpColumnCount[j]); k++) {
+                myC.set(k, 0, myColumnSign[k] * tmpFactor);
+            }
+        }
+    }
+
+    private void compile(final Expression expression, final double limit, final int slackSign, final int row, final int[] firstColumn, final int[] columnCount,
+            final List<List<double[]>> columns) {
+
+        double tmpRHS = limit;
+
+        for (final Index tmpKey : expression.getLinearFactorKeys()) {
+            tmpRHS -= this.compile(tmpKey.index, expression.getAdjustedLinearFactor(tmpKey), row, firstColumn, columnCount, columns);
+        }
+
+        myRHS[row] = tmpRHS;
+        mySlackSign[row] = slackSign;
+    }
+
+    /**
+     * @return The (root node) shift contribution to subtract from the right hand side
+     */
+    private double compile(final int index, final double factor, final int row, final int[] firstColumn, final int[] columnCount,
+            final List<List<double[]>> columns) {
+
+        if (factor != ZERO) {
+            for (int k = firstColumn[index]; k < (firstColumn[index] + columnCount[index]); k++) {
+                columns.get(k).add(new double[] { row, myColumnSign[k] * factor });
+            }
+            return factor * myShift[index];
+        } else {
+            return ZERO;
+        }
+    }
+
+    private double[] getRHS(final NodeKey node, final double[] shifts) {
+
+        final double[] retVal = myRHS.clone();
+
+        for (int i = 0; i < myIntegerIndices.length; i++) {
+
+            final int j = myIntegerIndices[i];
+            final double tmpLower = node.lower(i);
+            final double tmpDelta = tmpLower - myShift[j];
+
+            if (tmpDelta != ZERO) {
+                final int k = myIntegerColumn[i];
+                for (int e = myColumnPointers[k]; e < myColumnPointers[k + 1]; e++) {
+                    if (myColumnRows[e] < myConstraintCount) {
+                        retVal[myColumnRows[e]] -= myColumnValues[e] * tmpDelta;
+                    }
+                }
+            }
+
+            shifts[j] = tmpLower;
+            retVal[myIntegerBoundRow[i]] = node.upper(i) - tmpLower;
+        }
+
+        return retVal;
+    }
+
+    private double[] getStructurals(final Access1D<?> solution, final double[] shifts) {
+
+        final double[] retVal = new double[myColumnVariable.length];
+
+        for (int k = 0; k < retVal.length; k++) {
+            final int j = myColumnVariable[k];
+            final double tmpValue = myColumnSign[k] * (solution.doubleValue(j) - shifts[j]);
+            retVal[k] = myColumnSplit[k] ? Math.max(tmpValue, ZERO) : tmpValue;
+        }
+
+        return retVal;
+    }
+
+    int countCuts() {
+        return myCuts.size();
+    }
+
+    int[] getIntegerIndices() {
+        return myIntegerIndices;
+    }
+
+    /**
+     * Separates knapsack cover cuts, from the linear constraints, that the (root node) solution violates.
+     *
+     * @return A new relaxation with the cuts added, or null if no violated cuts were found
+     */
+    LinearRelaxation separate(final ExpressionsBasedModel integerModel, final Access1D<?> solution, final NumberContext context) {
+
+        final Set<Index> tmpFixed = integerModel.getFixedVariables();
+        final List<Cut> tmpCuts = new ArrayList<>(myCuts);
+
+        for (final Expression tmpExpression : integerModel.selectExpressionsLinearEquality()) {
+            final Cut tmpUpper = LinearRelaxation.cover(tmpExpression, true, integerModel, tmpFixed, myShift, solution, context);
+            if (tmpUpper != null) {
+                tmpCuts.add(tmpUpper);
+            }
+            final Cut tmpLower = LinearRelaxation.cover(tmpExpression, false, integerModel, tmpFixed, myShift, solution, context);
+            if (tmpLower != null) {
+                tmpCuts.add(tmpLower);
+            }
+        }
+        for (final Expression tmpExpression : integerModel.selectExpressionsLinearLower()) {
+            final Cut tmpLower = LinearRelaxation.cover(tmpExpression, false, integerModel, tmpFixed, myShift, solution, context);
+            if (tmpLower != null) {
+                tmpCuts.add(tmpLower);
+            }
+        }
+        for (final Expression tmpExpression : integerModel.selectExpressionsLinearUpper()) {
+            final Cut tmpUpper = LinearRelaxation.cover(tmpExpression, true, integerModel, tmpFixed, myShift, solution, context);
+            if (tmpUpper != null) {
+                tmpCuts.add(tmpUpper);
+            }
+        }
+
+        if (tmpCuts.size() > myCuts.size()) {
+            return new LinearRelaxation(integerModel, tmpCuts);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @param node The node's integer variable bounds
+     * @param start The parent node's solution (model variables), or null
+     * @return The node solution in terms of the model variables
+     */
+    Optimisation.Result solve(final NodeKey node, final Access1D<?> start, final Optimisation.Options options) {
+
+        final double[] tmpShifts = myShift.clone();
+        final double[] tmpRHS = this.getRHS(node, tmpShifts);
+
+        final LinearSolver tmpSolver = LinearSolver.getBuilder(myC).equalities(myAE, PrimitiveDenseStore.FACTORY.columns(tmpRHS)).warmStart().build(options);
+
+        Optimisation.Result tmpKickStart = null;
+        if (start != null) {
+            tmpKickStart = new Optimisation.Result(Optimisation.State.APPROXIMATE, PrimitiveArray.wrap(this.getStructurals(start, tmpShifts)));
+        }
+
+        final Optimisation.Result tmpResult = tmpSolver.solve(tmpKickStart);
+
+        final double[] tmpSolution = tmpShifts;
+        for (int k = 0; k < myColumnVariable.length; k++) {
+            tmpSolution[myColumnVariable[k]] += myColumnSign[k] * tmpResult.doubleValue(k);
+        }
+
+        return new Optimisation.Result(tmpResult.getState(), tmpResult.getValue(), PrimitiveArray.wrap(tmpSolution));
+    }
+
+    /**
+     * Verifies that the solution satisfies the (compiled) constraints and the node's bounds.
+     */
+    boolean validate(final NodeKey node, final Access1D<?> solution, final NumberContext context) {
+
+        final double[] tmpShifts = myShift.clone();
+        final double[] tmpRHS = this.getRHS(node, tmpShifts);
+        final double[] tmpStructurals = this.getStructurals(solution, tmpShifts);
+
+        final double[] tmpActivity = new double[tmpRHS.length];
+        for (int k = 0; k < tmpStructurals.length; k++) {
+            if (context.isDifferent(ZERO, Math.min(tmpStructurals[k], ZERO))) {
+                return false;
+            }
+            for (int e = myColumnPointers[k]; e < myColumnPointers[k + 1]; e++) {
+                tmpActivity[myColumnRows[e]] += myColumnValues[e] * tmpStructurals[k];
+            }
+        }
+
+        for (int i = 0; i < tmpRHS.length; i++) {
+            final double tmpSlack = mySlackSign[i] * (tmpRHS[i] - tmpActivity[i]);
+            if ((mySlackSign[i] == 0 ? Math.abs(tmpRHS[i] - tmpActivity[i]) : -tmpSlack) > ZERO) {
+                if (context.isDifferent(tmpRHS[i], tmpActivity[i])) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -24,11 +24,12 @@ package org.ojalgo.optimisation.integer;
 import static org.ojalgo.constant.PrimitiveMath.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
 
 import org.ojalgo.concurrent.DaemonPoolExecutor;
 import org.ojalgo.constant.PrimitiveMath;
@@ -41,32 +42,71 @@ import org.ojalgo.optimisation.Variable;
 import org.ojalgo.type.TypeUtils;
 
 /**
- * IntegerSolver
+ * Branch&bound IntegerSolver that evaluates nodes in parallel. Each worker (thread) has its own deque of nodes
+ * to try, see {@linkplain NodePool} (kept within {@linkplain Optimisation.Options#mip_memory}), and the
+ * incumbent (best integer solution so far) is updated without locking. With
+ * {@linkplain Optimisation.Options#mip_deterministic} the workers proceed in rounds - in each round every
+ * worker evaluates one node, and then the results are processed in worker order. That makes the search, and
+ * the result, reproducible for a given {@linkplain Optimisation.Options#mip_parallelism}.
  *
  * @author apete
  */
 public final class NewIntegerSolver extends IntegerSolver {
 
-    class NodeWorker implements Callable<Boolean> {
+    /**
+     * Evaluates nodes, from its own deque or stolen from the others, until there are no more.
+     */
+    final class NodeWorker implements Callable<Boolean> {
+
+        private final int myIndex;
+        private final NodePool myPool;
+
+        NodeWorker(final NodePool pool, final int index) {
+
+            super();
+
+            myPool = pool;
+            myIndex = index;
+        }
 
         public Boolean call() throws Exception {
 
+            // The previous node's solution - typically the parent's - to warm start from
+            Optimisation.Result tmpStart = NewIntegerSolver.this.getBestResultSoFar();
+
             NodeKey tmpNodeKey = null;
 
-            while (normal && NewIntegerSolver.this.isStillNodesToTry() && ((tmpNodeKey = NewIntegerSolver.this.getNextNode()) != null)) {
-                NewIntegerSolver.this.compute(tmpNodeKey);
+            while ((tmpNodeKey = myPool.take(myIndex)) != null) {
+                try {
+
+                    final Optimisation.Result tmpResult = NewIntegerSolver.this.evaluate(tmpNodeKey, tmpStart);
+
+                    if (tmpResult != null) {
+                        tmpStart = tmpResult;
+                        final NodeKey[] tmpBranches = NewIntegerSolver.this.process(tmpNodeKey, tmpResult);
+                        if (tmpBranches != null) {
+                            myPool.add(myIndex, tmpBranches[1]);
+                            myPool.add(myIndex, tmpBranches[0]);
+                        }
+                    }
+
+                    if (!normal) {
+                        myPool.stop();
+                    }
+
+                } finally {
+                    myPool.done();
+                }
             }
 
             return normal;
         }
     }
 
-    private final PriorityBlockingQueue<NodeKey> myNodesToTry = new PriorityBlockingQueue<>();
-
     private final int[] myIntegerIndeces;
     private final double[] myIntegerSignificances;
 
-    boolean normal = true;
+    volatile boolean normal = true;
 
     NewIntegerSolver(final ExpressionsBasedModel model, final Options solverOptions) {
 
@@ -95,11 +135,25 @@ public final class NewIntegerSolver extends IntegerSolver {
 
         this.resetIterationsCount();
 
-        this.setup();
+        this.prepare();
 
-        //     final boolean tmpNormalExit = DaemonPoolExecutor.INSTANCE.invoke(tmpTask);
+        final NodeKey[] tmpRootNodes = this.setup();
 
-        //   this.add(new NodeKey(this.getModel()));
+        final int tmpWorkers = Math.max(1, options.mip_parallelism);
+        final NodePool tmpPool = new NodePool(tmpWorkers, this.getModel().isMinimisation(), options.mip_memory);
+        for (int n = tmpRootNodes.length - 1; n >= 0; n--) {
+            tmpPool.add(0, tmpRootNodes[n]);
+        }
+
+        try {
+            if (options.mip_deterministic) {
+                this.search(tmpPool, tmpWorkers);
+            } else {
+                this.explore(tmpPool, tmpWorkers);
+            }
+        } finally {
+            tmpPool.close();
+        }
 
         Optimisation.Result retVal = this.getBestResultSoFar();
 
@@ -123,6 +177,94 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
+    /**
+     * The workers run freely, the calling thread is one of them.
+     */
+    private void explore(final NodePool pool, final int workers) {
+
+        final List<Future<Boolean>> tmpFutures = new ArrayList<>(workers - 1);
+        for (int w = 1; w < workers; w++) {
+            tmpFutures.add(DaemonPoolExecutor.invoke(new NodeWorker(pool, w)));
+        }
+
+        try {
+            normal &= new NodeWorker(pool, 0).call();
+            for (final Future<Boolean> tmpFuture : tmpFutures) {
+                normal &= tmpFuture.get();
+            }
+        } catch (final Exception anException) {
+            pool.stop();
+            normal &= false;
+        }
+    }
+
+    /**
+     * The workers proceed in rounds. Which node each worker gets, and the processing of the results, is done
+     * by the calling thread in worker order - only the node evaluations are done in parallel.
+     */
+    private void search(final NodePool pool, final int workers) {
+
+        final NodeKey[] tmpNodes = new NodeKey[workers];
+        final Optimisation.Result[] tmpStarts = new Optimisation.Result[workers];
+        final Optimisation.Result[] tmpResults = new Optimisation.Result[workers];
+        Arrays.fill(tmpStarts, this.getBestResultSoFar());
+
+        final List<Future<Optimisation.Result>> tmpFutures = new ArrayList<>(workers - 1);
+
+        int tmpCount;
+        do {
+
+            tmpCount = 0;
+            for (int w = 0; w < workers; w++) {
+                if ((tmpNodes[w] = pool.poll(w)) != null) {
+                    tmpCount++;
+                }
+            }
+
+            tmpFutures.clear();
+            for (int w = 1; w < workers; w++) {
+                final NodeKey tmpNodeKey = tmpNodes[w];
+                final Optimisation.Result tmpStart = tmpStarts[w];
+                if (tmpNodeKey != null) {
+                    tmpFutures.add(DaemonPoolExecutor.invoke(new Callable<Optimisation.Result>() {
+
+                        public Optimisation.Result call() throws Exception {
+                            return NewIntegerSolver.this.evaluate(tmpNodeKey, tmpStart);
+                        }
+
+                    }));
+                } else {
+                    tmpFutures.add(null);
+                }
+            }
+
+            try {
+                tmpResults[0] = tmpNodes[0] != null ? this.evaluate(tmpNodes[0], tmpStarts[0]) : null;
+                for (int w = 1; w < workers; w++) {
+                    final Future<Optimisation.Result> tmpFuture = tmpFutures.get(w - 1);
+                    tmpResults[w] = tmpFuture != null ? tmpFuture.get() : null;
+                }
+            } catch (InterruptedException | ExecutionException anException) {
+                normal &= false;
+            }
+
+            for (int w = 0; w < workers; w++) {
+                if (tmpNodes[w] != null) {
+                    if (tmpResults[w] != null) {
+                        tmpStarts[w] = tmpResults[w];
+                        final NodeKey[] tmpBranches = this.process(tmpNodes[w], tmpResults[w]);
+                        if (tmpBranches != null) {
+                            pool.add(w, tmpBranches[1]);
+                            pool.add(w, tmpBranches[0]);
+                        }
+                    }
+                    pool.done();
+                }
+            }
+
+        } while (normal && (tmpCount > 0));
+    }
+
     @Override
     public String toString() {
         return TypeUtils.format("Solutions={} Nodes/Iterations={} {}", this.countIntegerSolutions(), this.countExploredNodes(), this.getBestResultSoFar());
@@ -165,115 +307,111 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    boolean add(final NodeKey e) {
-        return myNodesToTry.add(e);
-    }
-
-    void compute(final NodeKey nodeKey) {
-
-        if (NewIntegerSolver.this.isDebug()) {
-            NewIntegerSolver.this.debug("\nBranch&Bound Node");
-            NewIntegerSolver.this.debug(nodeKey.toString());
-            NewIntegerSolver.this.debug(NewIntegerSolver.this.toString());
+    /**
+     * Solves the node's relaxation, unless the node can be pruned or the iterations/time limits are reached.
+     *
+     * @return The node solution, or null if there is nothing more to do with this node (branch)
+     */
+    Optimisation.Result evaluate(final NodeKey nodeKey, final Optimisation.Result start) {
+
+        if (this.isDebug()) {
+            this.debug("\nBranch&Bound Node");
+            this.debug(nodeKey.toString());
+            this.debug(this.toString());
         }
 
-        if (!NewIntegerSolver.this.isIterationAllowed() || !NewIntegerSolver.this.isIterationNecessary()) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Reached iterations or time limit - stop!");
+        if (!this.isIterationAllowed() || !this.isIterationNecessary()) {
+            if (this.isDebug()) {
+                this.debug("Reached iterations or time limit - stop!");
             }
             normal &= false;
+            return null;
         }
 
-        if (!NewIntegerSolver.this.isGoodEnoughToContinueBranching(nodeKey.objective)) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("No longer a relevant node!");
+        if (!Double.isNaN(nodeKey.objective) && !this.isGoodEnoughToContinueBranching(nodeKey.objective)) {
+            if (this.isDebug()) {
+                this.debug("No longer a relevant node!");
             }
-            normal &= true;
+            return null;
         }
 
-        ExpressionsBasedModel tmpModel = NewIntegerSolver.this.makeNodeModel(nodeKey);
-        final Optimisation.Result tmpResult = tmpModel.solve(NewIntegerSolver.this.getBestResultSoFar());
+        final Optimisation.Result retVal = this.solveNode(nodeKey, start);
 
-        NewIntegerSolver.this.incrementIterationsCount();
+        this.incrementIterationsCount();
 
-        if (tmpResult.getState().isOptimal()) {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Node solved to optimality!");
+        if (!retVal.getState().isOptimal()) {
+            if (this.isDebug()) {
+                this.debug("Failed to solve problem - stop this branch!");
             }
+            return null;
+        }
 
-            if (NewIntegerSolver.this.options.validate && !tmpModel.validate(tmpResult)) {
-                // This should not be possible. There is a bug somewhere.
-                NewIntegerSolver.this.debug("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
-                //                    IntegerSolver.this.logDebug(myKey.toString());
-                //                    IntegerSolver.this.logDebug(tmpModel.toString());
-                //                    final GenericSolver tmpDefaultSolver = tmpModel.getDefaultSolver();
-                //                    tmpDefaultSolver.solve();
-                //                    IntegerSolver.this.logDebug(tmpDefaultSolver.toString());
-                normal &= false;
-            }
+        if (this.isDebug()) {
+            this.debug("Node solved to optimality!");
+        }
 
-            final int tmpBranchIndex = NewIntegerSolver.this.identifyNonIntegerVariable(tmpResult, nodeKey);
-            final double tmpSolutionValue = NewIntegerSolver.this.evaluateFunction(tmpResult);
+        if (options.validate && !this.validate(nodeKey, retVal)) {
+            // This should not be possible. There is a bug somewhere.
+            this.debug("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
+            normal &= false;
+            return null;
+        }
 
-            if (tmpBranchIndex == -1) {
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug("Integer solution! Store it among the others, and stop this branch!");
-                }
+        this.updatePseudoCosts(nodeKey, this.evaluateFunction(retVal));
 
-                final Optimisation.Result tmpIntegerSolutionResult = new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, tmpResult);
+        return retVal;
+    }
 
-                NewIntegerSolver.this.markInteger(nodeKey, tmpIntegerSolutionResult);
+    /**
+     * Stores the node solution if it's an integer solution, otherwise branches (if still relevant).
+     *
+     * @return The 2 new (lower and upper) branches, or null
+     */
+    NodeKey[] process(final NodeKey nodeKey, final Optimisation.Result nodeResult) {
 
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug(NewIntegerSolver.this.getBestResultSoFar().toString());
-                }
+        final int tmpBranchIndex = this.identifyNonIntegerVariable(nodeResult, nodeKey);
+        final double tmpSolutionValue = this.evaluateFunction(nodeResult);
 
-                BasicLogger.debug();
-                BasicLogger.debug(NewIntegerSolver.this.toString());
-                // BasicLogger.debug(DaemonPoolExecutor.INSTANCE.toString());
+        if (tmpBranchIndex == -1) {
+            if (this.isDebug()) {
+                this.debug("Integer solution! Store it among the others, and stop this branch!");
+            }
 
-            } else {
-                if (NewIntegerSolver.this.isDebug()) {
-                    NewIntegerSolver.this.debug("Not an Integer Solution: " + tmpSolutionValue);
-                }
+            this.markInteger(nodeKey, new Optimisation.Result(Optimisation.State.FEASIBLE, tmpSolutionValue, nodeResult));
 
-                final double tmpVariableValue = tmpResult.doubleValue(NewIntegerSolver.this.getGlobalIndex(tmpBranchIndex));
+            if (this.isDebug()) {
+                this.debug(this.getBestResultSoFar().toString());
+                BasicLogger.debug();
+                BasicLogger.debug(this.toString());
+            }
 
-                if (NewIntegerSolver.this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
-                    if (NewIntegerSolver.this.isDebug()) {
-                        NewIntegerSolver.this.debug("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
-                                tmpModel.getVariable(NewIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
-                    }
+            return null;
 
-                    tmpModel.destroy();
-                    tmpModel = null;
+        } else {
+            if (this.isDebug()) {
+                this.debug("Not an Integer Solution: " + tmpSolutionValue);
+            }
 
-                    final NodeKey tmpLowerBranchTask = nodeKey.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpResult.getValue());
-                    final NodeKey tmpUpperBranchTask = nodeKey.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpResult.getValue());
+            final double tmpVariableValue = nodeResult.doubleValue(this.getGlobalIndex(tmpBranchIndex));
 
-                    this.add(tmpLowerBranchTask);
-                    this.add(tmpUpperBranchTask);
+            if (this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
+                if (this.isDebug()) {
+                    this.debug("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
+                            this.getModel().getVariable(this.getGlobalIndex(tmpBranchIndex)));
+                }
 
-                    if (DaemonPoolExecutor.isDaemonAvailable()) {
-                        DaemonPoolExecutor.invoke(new NodeWorker());
-                    }
+                final NodeKey tmpLowerBranch = nodeKey.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
+                final NodeKey tmpUpperBranch = nodeKey.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
 
-                    normal &= true;
+                return new NodeKey[] { tmpLowerBranch, tmpUpperBranch };
 
-                } else {
-                    if (NewIntegerSolver.this.isDebug()) {
-                        NewIntegerSolver.this.debug("Can't find better integer solutions - stop this branch!");
-                    }
+            } else {
+                if (this.isDebug()) {
+                    this.debug("Can't find better integer solutions - stop this branch!");
                 }
-            }
-
-        } else {
-            if (NewIntegerSolver.this.isDebug()) {
-                NewIntegerSolver.this.debug("Failed to solve problem - stop this branch!");
+                return null;
             }
         }
-
-        normal &= true;
     }
 
     int countExploredNodes() {
@@ -292,32 +430,26 @@ public final class NewIntegerSolver extends IntegerSolver {
         return myIntegerSignificances[index];
     }
 
-    NodeKey getNextNode() {
-        return myNodesToTry.poll();
-        //        if (myMinimisation) {
-        //            final NodeKey retVal = myNodesToTry.first();
-        //            myNodesToTry.remove(retVal);
-        //            return retVal;
-        //        } else {
-        //            final NodeKey retVal = myNodesToTry.last();
-        //            myNodesToTry.remove(retVal);
-        //            return retVal;
-        //        }
-    }
-
     int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeKey nodeKey) {
 
+        final boolean tmpPseudoCosts = this.isPseudoCostsAvailable();
+
         int retVal = -1;
 
-        double tmpFraction, tmpImpact;
+        double tmpValue, tmpFraction, tmpImpact;
         double tmpMaxImpact = ZERO;
 
         for (int i = 0; i < myIntegerIndeces.length; i++) {
 
-            tmpFraction = nodeKey.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
+            tmpValue = nodeResult.doubleValue(myIntegerIndeces[i]);
+            tmpFraction = nodeKey.getFraction(i, tmpValue);
 
-            //tmpImpact = (ONE - tmpFraction) * this.getIntegerSignificance(i);
-            tmpImpact = tmpFraction * this.getIntegerSignificance(i);
+            if (tmpPseudoCosts) {
+                tmpImpact = this.getPseudoCostScore(i, tmpValue);
+            } else {
+                //tmpImpact = (ONE - tmpFraction) * this.getIntegerSignificance(i);
+                tmpImpact = tmpFraction * this.getIntegerSignificance(i);
+            }
 
             if ((tmpImpact > tmpMaxImpact) && !options.integer.isZero(tmpFraction)) {
                 retVal = i;
@@ -329,10 +461,6 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    boolean isStillNodesToTry() {
-        return !myNodesToTry.isEmpty();
-    }
-
     ExpressionsBasedModel makeNodeModel(final NodeKey nodeKey) {
 
         final ExpressionsBasedModel retVal = this.getModel().relax(false);
@@ -372,21 +500,17 @@ public final class NewIntegerSolver extends IntegerSolver {
         return retVal;
     }
 
-    void pruneNodes(final NodeKey integerNode) {
-        //        if (myMinimisation) {
-        //            final SortedSet<NodeKey> tmpTail = myNodesToTry.tailSet(integerNode);
-        //            myNodesToTry.removeAll(tmpTail);
-        //        } else {
-        //            final SortedSet<NodeKey> tmpHead = myNodesToTry.headSet(integerNode);
-        //            myNodesToTry.removeAll(tmpHead);
-        //        }
-    }
-
     void setIntegerSignificance(final int index, final double significance) {
         myIntegerSignificances[index] = significance;
     }
 
-    void setup() {
+    /**
+     * Solves the root node, and the nodes of branching on each of the integer variables, to estimate their
+     * significance.
+     *
+     * @return The node(s) to start the search with
+     */
+    NodeKey[] setup() {
 
         normal = true;
 
@@ -397,14 +521,13 @@ public final class NewIntegerSolver extends IntegerSolver {
         NodeKey myKey;
         myKey = new NodeKey(tmpIntegerModel);
 
-        final ExpressionsBasedModel tmpRootModel = NewIntegerSolver.this.makeNodeModel(myKey);
-        final Result tmpRootResult = tmpRootModel.solve(tmpIntegerModel.getVariableValues());
-        final double tmpRootValue = tmpRootResult.getValue();
+        final Result tmpRootResult = this.solveNode(myKey, tmpIntegerModel.getVariableValues());
+        final double tmpRootValue = this.evaluateFunction(tmpRootResult);
 
         double tmpMinValue = PrimitiveMath.MACHINE_LARGEST;
         double tmpMaxValue = -PrimitiveMath.MACHINE_LARGEST;
 
-        final double tmpBestValue = tmpRootModel.isMinimisation() ? PrimitiveMath.MACHINE_LARGEST : -PrimitiveMath.MACHINE_LARGEST;
+        final double tmpBestValue = tmpIntegerModel.isMinimisation() ? PrimitiveMath.MACHINE_LARGEST : -PrimitiveMath.MACHINE_LARGEST;
 
         final double[] tmpSignificance = new double[tmpIntegerVariables.size()];
 
@@ -414,8 +537,7 @@ public final class NewIntegerSolver extends IntegerSolver {
             final double tmpVariableValue = tmpRootResult.doubleValue(tmpGlobalIndex);
 
             final NodeKey tmpLowerNodeKey = myKey.createLowerBranch(i, tmpVariableValue, tmpRootValue);
-            final ExpressionsBasedModel tmpLowerModel = NewIntegerSolver.this.makeNodeModel(tmpLowerNodeKey);
-            final Result tmpLowerResult = tmpLowerModel.solve(tmpRootResult);
+            final Result tmpLowerResult = this.solveNode(tmpLowerNodeKey, tmpRootResult);
             final double tmpLowerValue = tmpLowerResult.getValue();
 
             if (tmpLowerValue < tmpMinValue) {
@@ -426,8 +548,7 @@ public final class NewIntegerSolver extends IntegerSolver {
             }
 
             final NodeKey tmpUpperNodeKey = myKey.createUpperBranch(i, tmpVariableValue, tmpRootValue);
-            final ExpressionsBasedModel tmpUpperModel = NewIntegerSolver.this.makeNodeModel(tmpUpperNodeKey);
-            final Result tmpUpperResult = tmpUpperModel.solve(tmpRootResult);
+            final Result tmpUpperResult = this.solveNode(tmpUpperNodeKey, tmpRootResult);
             final double tmpUpperValue = tmpUpperResult.getValue();
 
             if (tmpUpperValue < tmpMinValue) {
@@ -438,10 +559,10 @@ public final class NewIntegerSolver extends IntegerSolver {
             }
 
             if (tmpLowerResult.getState().isFeasible() && tmpUpperResult.getState().isFeasible()) {
-                if (tmpRootModel.isMinimisation() && ((tmpLowerValue < tmpBestValue) || (tmpUpperValue < tmpBestValue))) {
+                if (tmpIntegerModel.isMinimisation() && ((tmpLowerValue < tmpBestValue) || (tmpUpperValue < tmpBestValue))) {
                     retVal[0] = tmpLowerNodeKey;
                     retVal[1] = tmpUpperNodeKey;
-                } else if (tmpRootModel.isMaximisation() && ((tmpLowerValue > tmpBestValue) || (tmpUpperValue > tmpBestValue))) {
+                } else if (tmpIntegerModel.isMaximisation() && ((tmpLowerValue > tmpBestValue) || (tmpUpperValue > tmpBestValue))) {
                     retVal[0] = tmpLowerNodeKey;
                     retVal[1] = tmpUpperNodeKey;
                 }
@@ -450,6 +571,14 @@ public final class NewIntegerSolver extends IntegerSolver {
             if (!Double.isNaN(tmpUpperValue) && !Double.isNaN(tmpLowerValue)) {
                 tmpSignificance[i] = Math.abs(tmpUpperValue - tmpLowerValue);
             }
+
+            // Strong branching at the root also initialises the pseudo-costs
+            if (tmpLowerResult.getState().isOptimal()) {
+                this.updatePseudoCosts(tmpLowerNodeKey, this.evaluateFunction(tmpLowerResult));
+            }
+            if (tmpUpperResult.getState().isOptimal()) {
+                this.updatePseudoCosts(tmpUpperNodeKey, this.evaluateFunction(tmpUpperResult));
+            }
         }
 
         double tmpScale = tmpMaxValue - tmpMinValue;
@@ -461,18 +590,49 @@ public final class NewIntegerSolver extends IntegerSolver {
         }
 
         if ((retVal[0] != null) && (retVal[1] != null)) {
-            NewIntegerSolver.this.add(retVal[0]);
-            NewIntegerSolver.this.add(retVal[1]);
+            return retVal;
         } else {
-            NewIntegerSolver.this.add(new NodeKey(tmpIntegerModel));
+            return new NodeKey[] { new NodeKey(tmpIntegerModel) };
         }
+    }
 
-        final Future<Boolean> tmpFuture = DaemonPoolExecutor.invoke(new NodeWorker());
+    /**
+     * Solves the node's relaxation, on the shared {@link LinearRelaxation} when there is one, otherwise on a
+     * (temporary) copy of the model.
+     */
+    Optimisation.Result solveNode(final NodeKey nodeKey, final Optimisation.Result start) {
 
-        try {
-            normal = normal && tmpFuture.get();
-        } catch (InterruptedException | ExecutionException anException) {
-            normal &= false;
+        final LinearRelaxation tmpRelaxation = this.getRelaxation();
+
+        if (tmpRelaxation != null) {
+
+            return tmpRelaxation.solve(nodeKey, start, options);
+
+        } else {
+
+            final ExpressionsBasedModel tmpModel = this.makeNodeModel(nodeKey);
+            final Optimisation.Result retVal = tmpModel.solve(start);
+            tmpModel.destroy();
+
+            return retVal;
+        }
+    }
+
+    boolean validate(final NodeKey nodeKey, final Optimisation.Result nodeResult) {
+
+        final LinearRelaxation tmpRelaxation = this.getRelaxation();
+
+        if (tmpRelaxation != null) {
+
+            return tmpRelaxation.validate(nodeKey, nodeResult, options.slack);
+
+        } else {
+
+            final ExpressionsBasedModel tmpModel = this.makeNodeModel(nodeKey);
+            final boolean retVal = tmpModel.validate(nodeResult);
+            tmpModel.destroy();
+
+            return retVal;
         }
     }
 
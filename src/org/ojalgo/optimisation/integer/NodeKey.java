@@ -23,26 +23,44 @@ package org.ojalgo.optimisation.integer;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.ojalgo.ProgrammingError;
-import org.ojalgo.array.ArrayUtils;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
 import org.ojalgo.optimisation.Variable;
 
+/**
+ * The integer variable bounds of a branch&bound node. The bounds of the root node (the model's bounds) are
+ * shared by all nodes of the tree, and each node only stores the bounds that branching has changed -
+ * {index, lower, upper} triplets sorted on index. The size of a node is proportional to the number of
+ * branched on variables, rather than to the total number of integer variables.
+ *
+ * @author apete
+ */
 final class NodeKey implements Serializable, Comparable<NodeKey> {
 
     private static AtomicLong GENERATOR = new AtomicLong();
 
-    private final int[] myLowerBounds;
-    private final int[] myUpperBounds;
+    /**
+     * The (approximate) number of bytes a node occupies on the heap, excluding the branches.
+     */
+    private static final long FOOTPRINT = 96L;
+
+    /**
+     * The bounds that differ from the root's; {index, lower, upper} triplets sorted on index.
+     */
+    private final int[] myBranches;
+    private final int[] myRootLowerBounds;
+    private final int[] myRootUpperBounds;
 
     /**
      * How much the branched on variable must be displaced because of the new constraint introduced with this
-     * node (each node introduces precisely 1 new upper or lower bound).
+     * node (each node introduces precisely 1 new upper or lower bound). Negative for a lower (down) branch,
+     * positive for an upper (up) branch.
      */
     final double displacement;
     /**
@@ -60,7 +78,7 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     /**
      * Node sequennce number to keep track of in which order the nodes were created.
      */
-    final long sequence = GENERATOR.getAndIncrement();
+    final long sequence;
 
     @SuppressWarnings("unused")
     private NodeKey() {
@@ -68,14 +86,17 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         ProgrammingError.throwForIllegalInvocation();
     }
 
-    private NodeKey(final int[] lowerBounds, final int[] upperBounds, final long parentSequenceNumber, final int indexBranchedOn,
-            final double branchVariableDisplacement, final double parentObjectiveFunctionValue) {
+    private NodeKey(final int[] rootLowerBounds, final int[] rootUpperBounds, final int[] branches, final long sequenceNumber,
+            final long parentSequenceNumber, final int indexBranchedOn, final double branchVariableDisplacement,
+            final double parentObjectiveFunctionValue) {
 
         super();
 
-        myLowerBounds = lowerBounds;
-        myUpperBounds = upperBounds;
+        myRootLowerBounds = rootLowerBounds;
+        myRootUpperBounds = rootUpperBounds;
+        myBranches = branches;
 
+        sequence = sequenceNumber;
         parent = parentSequenceNumber;
         index = indexBranchedOn;
         displacement = branchVariableDisplacement;
@@ -89,26 +110,29 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         final List<Variable> tmpIntegerVariables = integerModel.getIntegerVariables();
         final int tmpLength = tmpIntegerVariables.size();
 
-        myLowerBounds = new int[tmpLength];
-        myUpperBounds = new int[tmpLength];
-        Arrays.fill(myLowerBounds, Integer.MIN_VALUE);
-        Arrays.fill(myUpperBounds, Integer.MAX_VALUE);
+        myRootLowerBounds = new int[tmpLength];
+        myRootUpperBounds = new int[tmpLength];
+        Arrays.fill(myRootLowerBounds, Integer.MIN_VALUE);
+        Arrays.fill(myRootUpperBounds, Integer.MAX_VALUE);
 
         for (int i = 0; i < tmpLength; i++) {
 
             final Variable tmpVariable = tmpIntegerVariables.get(i);
 
-            final BigDecimal tmpLowerLimit = tmpVariable.getLowerLimit();
-            if (tmpLowerLimit != null) {
-                myLowerBounds[i] = tmpLowerLimit.intValue();
+            final BigDecimal tmpLowerBound = integerModel.getLowerBound(tmpVariable);
+            if (tmpLowerBound != null) {
+                myRootLowerBounds[i] = tmpLowerBound.intValue();
             }
 
-            final BigDecimal tmpUpperLimit = tmpVariable.getUpperLimit();
-            if (tmpUpperLimit != null) {
-                myUpperBounds[i] = tmpUpperLimit.intValue();
+            final BigDecimal tmpUpperBound = integerModel.getUpperBound(tmpVariable);
+            if (tmpUpperBound != null) {
+                myRootUpperBounds[i] = tmpUpperBound.intValue();
             }
         }
 
+        myBranches = new int[0];
+
+        sequence = GENERATOR.getAndIncrement();
         parent = sequence;
         index = -1;
         displacement = PrimitiveMath.NaN;
@@ -131,10 +155,13 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
             return false;
         }
         final NodeKey other = (NodeKey) obj;
-        if (!Arrays.equals(myLowerBounds, other.myLowerBounds)) {
+        if (!Arrays.equals(myBranches, other.myBranches)) {
             return false;
         }
-        if (!Arrays.equals(myUpperBounds, other.myUpperBounds)) {
+        if ((myRootLowerBounds != other.myRootLowerBounds) && !Arrays.equals(myRootLowerBounds, other.myRootLowerBounds)) {
+            return false;
+        }
+        if ((myRootUpperBounds != other.myRootUpperBounds) && !Arrays.equals(myRootUpperBounds, other.myRootUpperBounds)) {
             return false;
         }
         return true;
@@ -142,11 +169,7 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = (prime * result) + Arrays.hashCode(myLowerBounds);
-        result = (prime * result) + Arrays.hashCode(myUpperBounds);
-        return result;
+        return Arrays.hashCode(myBranches);
     }
 
     @Override
@@ -168,11 +191,11 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         retVal.append(' ');
         retVal.append('[');
 
-        if (myLowerBounds.length > 0) {
+        if (myRootLowerBounds.length > 0) {
             this.append(retVal, 0);
         }
 
-        for (int i = 1; i < myLowerBounds.length; i++) {
+        for (int i = 1; i < myRootLowerBounds.length; i++) {
             retVal.append(',');
             retVal.append(' ');
             this.append(retVal, i);
@@ -184,30 +207,87 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     private void append(final StringBuilder builder, final int index) {
         builder.append(index);
         builder.append('=');
-        builder.append(myLowerBounds[index]);
+        builder.append(this.lower(index));
         builder.append('<');
-        builder.append(myUpperBounds[index]);
+        builder.append(this.upper(index));
     }
 
-    private double feasible(final int index, final double value) {
-        return Math.min(Math.max(myLowerBounds[index], value), myUpperBounds[index]);
+    /**
+     * @return The branch (triplet) offset of this index, or (-(insertion offset) - 1) if not branched on
+     */
+    private int branch(final int index) {
+
+        int tmpLow = 0;
+        int tmpHigh = (myBranches.length / 3) - 1;
+
+        while (tmpLow <= tmpHigh) {
+            final int tmpMid = (tmpLow + tmpHigh) >>> 1;
+            final int tmpIndex = myBranches[3 * tmpMid];
+            if (tmpIndex < index) {
+                tmpLow = tmpMid + 1;
+            } else if (tmpIndex > index) {
+                tmpHigh = tmpMid - 1;
+            } else {
+                return 3 * tmpMid;
+            }
+        }
+
+        return -(3 * tmpLow) - 1;
+    }
+
+    /**
+     * @return A copy of this node's branches with the bounds of this index set to lower/upper
+     */
+    private int[] branches(final int index, final int lower, final int upper) {
+
+        final int tmpOffset = this.branch(index);
+
+        final boolean tmpRoot = (lower == myRootLowerBounds[index]) && (upper == myRootUpperBounds[index]);
+
+        int[] retVal;
+
+        if (tmpOffset >= 0) {
+            if (tmpRoot) {
+                retVal = new int[myBranches.length - 3];
+                System.arraycopy(myBranches, 0, retVal, 0, tmpOffset);
+                System.arraycopy(myBranches, tmpOffset + 3, retVal, tmpOffset, retVal.length - tmpOffset);
+                return retVal;
+            } else {
+                retVal = myBranches.clone();
+            }
+        } else {
+            if (tmpRoot) {
+                return myBranches;
+            } else {
+                final int tmpInsert = -(tmpOffset + 1);
+                retVal = new int[myBranches.length + 3];
+                System.arraycopy(myBranches, 0, retVal, 0, tmpInsert);
+                System.arraycopy(myBranches, tmpInsert, retVal, tmpInsert + 3, myBranches.length - tmpInsert);
+                retVal[tmpInsert] = index;
+                return this.set(retVal, tmpInsert, lower, upper);
+            }
+        }
+
+        return this.set(retVal, tmpOffset, lower, upper);
     }
 
-    private int[] getLowerBounds() {
-        return ArrayUtils.copyOf(myLowerBounds);
+    private double feasible(final int index, final double value) {
+        return Math.min(Math.max(this.lower(index), value), this.upper(index));
     }
 
-    private int[] getUpperBounds() {
-        return ArrayUtils.copyOf(myUpperBounds);
+    private int[] set(final int[] branches, final int offset, final int lower, final int upper) {
+        branches[offset + 1] = lower;
+        branches[offset + 2] = upper;
+        return branches;
     }
 
     long calculateTreeSize() {
 
         long retVal = 1L;
 
-        final int tmpLength = myLowerBounds.length;
+        final int tmpLength = myRootLowerBounds.length;
         for (int i = 0; i < tmpLength; i++) {
-            retVal *= (1L + (myUpperBounds[i] - myLowerBounds[i]));
+            retVal *= (1L + (this.upper(i) - this.lower(i)));
         }
 
         return retVal;
@@ -215,38 +295,95 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
 
     NodeKey createLowerBranch(final int index, final double value, final double objective) {
 
-        final int[] tmpLBs = this.getLowerBounds();
-        final int[] tmpUBs = this.getUpperBounds();
+        final int tmpLB = this.lower(index);
+        int tmpUB = this.upper(index);
 
         final double tmpFeasibleValue = this.feasible(index, value);
 
         final int tmpFloor = (int) Math.floor(tmpFeasibleValue);
 
-        if ((tmpFloor >= tmpUBs[index]) && (tmpFloor > tmpLBs[index])) {
-            tmpUBs[index] = tmpFloor - 1;
+        if ((tmpFloor >= tmpUB) && (tmpFloor > tmpLB)) {
+            tmpUB = tmpFloor - 1;
         } else {
-            tmpUBs[index] = tmpFloor;
+            tmpUB = tmpFloor;
         }
 
-        return new NodeKey(tmpLBs, tmpUBs, sequence, index, value - tmpFloor, objective);
+        return new NodeKey(myRootLowerBounds, myRootUpperBounds, this.branches(index, tmpLB, tmpUB), GENERATOR.getAndIncrement(), sequence, index,
+                tmpFloor - value, objective);
     }
 
     NodeKey createUpperBranch(final int index, final double value, final double objective) {
 
-        final int[] tmpLBs = this.getLowerBounds();
-        final int[] tmpUBs = this.getUpperBounds();
+        int tmpLB = this.lower(index);
+        final int tmpUB = this.upper(index);
 
         final double tmpFeasibleValue = this.feasible(index, value);
 
         final int tmpCeil = (int) Math.ceil(tmpFeasibleValue);
 
-        if ((tmpCeil <= tmpLBs[index]) && (tmpCeil < tmpUBs[index])) {
-            tmpLBs[index] = tmpCeil + 1;
+        if ((tmpCeil <= tmpLB) && (tmpCeil < tmpUB)) {
+            tmpLB = tmpCeil + 1;
         } else {
-            tmpLBs[index] = tmpCeil;
+            tmpLB = tmpCeil;
         }
 
-        return new NodeKey(tmpLBs, tmpUBs, sequence, index, tmpCeil - value, objective);
+        return new NodeKey(myRootLowerBounds, myRootUpperBounds, this.branches(index, tmpLB, tmpUB), GENERATOR.getAndIncrement(), sequence, index,
+                tmpCeil - value, objective);
+    }
+
+    /**
+     * Recreates a node, of the same tree as this one, from what {@link #encode(ByteBuffer)} wrote.
+     */
+    NodeKey decode(final ByteBuffer buffer) {
+
+        final long tmpSequence = buffer.getLong();
+        final long tmpParent = buffer.getLong();
+        final int tmpIndex = buffer.getInt();
+        final double tmpDisplacement = buffer.getDouble();
+        final double tmpObjective = buffer.getDouble();
+
+        final int[] tmpBranches = new int[buffer.getInt()];
+        for (int b = 0; b < tmpBranches.length; b++) {
+            tmpBranches[b] = buffer.getInt();
+        }
+
+        return new NodeKey(myRootLowerBounds, myRootUpperBounds, tmpBranches, tmpSequence, tmpParent, tmpIndex, tmpDisplacement, tmpObjective);
+    }
+
+    /**
+     * Writes this node, excluding the (shared) root bounds, to the buffer.
+     *
+     * @return The number of bytes written
+     */
+    int encode(final ByteBuffer buffer) {
+
+        buffer.putLong(sequence);
+        buffer.putLong(parent);
+        buffer.putInt(index);
+        buffer.putDouble(displacement);
+        buffer.putDouble(objective);
+
+        buffer.putInt(myBranches.length);
+        for (int b = 0; b < myBranches.length; b++) {
+            buffer.putInt(myBranches[b]);
+        }
+
+        return this.encodedSize();
+    }
+
+    /**
+     * @return The number of bytes {@link #encode(ByteBuffer)} writes
+     */
+    int encodedSize() {
+        return 40 + (4 * myBranches.length);
+    }
+
+    /**
+     * @return The (approximate) number of bytes this node occupies on the heap - the root bounds are shared and
+     *         not included
+     */
+    long footprint() {
+        return FOOTPRINT + (4L * myBranches.length);
     }
 
     double getFraction(final int index, final double value) {
@@ -257,7 +394,7 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     }
 
     BigDecimal getLowerBound(final int index) {
-        final int tmpLower = myLowerBounds[index];
+        final int tmpLower = this.lower(index);
         if (tmpLower != Integer.MIN_VALUE) {
             return new BigDecimal(tmpLower);
         } else {
@@ -266,7 +403,7 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
     }
 
     BigDecimal getUpperBound(final int index) {
-        final int tmpUpper = myUpperBounds[index];
+        final int tmpUpper = this.upper(index);
         if (tmpUpper != Integer.MAX_VALUE) {
             return new BigDecimal(tmpUpper);
         } else {
@@ -274,4 +411,14 @@ final class NodeKey implements Serializable, Comparable<NodeKey> {
         }
     }
 
+    int lower(final int index) {
+        final int tmpOffset = this.branch(index);
+        return tmpOffset >= 0 ? myBranches[tmpOffset + 1] : myRootLowerBounds[index];
+    }
+
+    int upper(final int index) {
+        final int tmpOffset = this.branch(index);
+        return tmpOffset >= 0 ? myBranches[tmpOffset + 2] : myRootUpperBounds[index];
+    }
+
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Branch&bound nodes waiting to be evaluated, one deque per worker. A worker adds and takes nodes at the tail
+ * of its own deque (depth first), and when that's empty steals from the head of another worker's deque - the
+ * oldest node there. It steals from the worker whose oldest node has the best bound. Each deque has its own
+ * lock, and the owner is (almost) the only one to use it.
+ * <p>
+ * The (estimated) heap size of the queued nodes is kept within a budget. When that's exceeded the oldest nodes
+ * are moved to a {@linkplain NodeSpill} file, and they're not brought back until the deques run empty. If
+ * spilling isn't possible the workers instead switch to diving - stealing the newest rather than the oldest
+ * nodes - so that the number of open nodes stops growing.
+ *
+ * @author apete
+ */
+final class NodePool {
+
+    private static final long PAUSE = TimeUnit.MICROSECONDS.toNanos(50L);
+
+    @SuppressWarnings("unchecked")
+    private static ArrayDeque<NodeKey>[] makeDeques(final int workers) {
+
+        final ArrayDeque<NodeKey>[] retVal = (ArrayDeque<NodeKey>[]) new ArrayDeque<?>[workers];
+
+        for (int w = 0; w < workers; w++) {
+            retVal[w] = new ArrayDeque<>();
+        }
+
+        return retVal;
+    }
+
+    private final ArrayDeque<NodeKey>[] myDeques;
+    private volatile boolean myDiving = false;
+    /**
+     * The (estimated) heap size of the queued nodes
+     */
+    private final AtomicLong myFootprint = new AtomicLong();
+    private final long myMemory;
+    private final boolean myMinimisation;
+    /**
+     * Nodes added but not yet done with - queued or being evaluated
+     */
+    private final AtomicInteger myPending = new AtomicInteger();
+    private final NodeSpill mySpill = new NodeSpill();
+    private volatile boolean mySpillFailed = false;
+    private volatile boolean myStopped = false;
+
+    NodePool(final int workers, final boolean minimisation, final long memory) {
+
+        super();
+
+        myDeques = NodePool.makeDeques(workers);
+
+        myMinimisation = minimisation;
+        myMemory = memory;
+    }
+
+    /**
+     * @return true if the bound of node1 is better than that of node2 (the root node's NaN bound is better
+     *         than anything)
+     */
+    private boolean isBetter(final NodeKey node1, final NodeKey node2) {
+        if (Double.isNaN(node1.objective)) {
+            return !Double.isNaN(node2.objective);
+        } else if (Double.isNaN(node2.objective)) {
+            return false;
+        } else {
+            return myMinimisation ? node1.objective < node2.objective : node1.objective > node2.objective;
+        }
+    }
+
+    private NodeKey steal(final int worker) {
+
+        int tmpVictim = -1;
+        NodeKey tmpBest = null;
+
+        for (int w = 0; w < myDeques.length; w++) {
+            if (w != worker) {
+                final ArrayDeque<NodeKey> tmpDeque = myDeques[w];
+                final NodeKey tmpOldest;
+                synchronized (tmpDeque) {
+                    tmpOldest = myDiving ? tmpDeque.peekLast() : tmpDeque.peekFirst();
+                }
+                if ((tmpOldest != null) && ((tmpBest == null) || this.isBetter(tmpOldest, tmpBest))) {
+                    tmpVictim = w;
+                    tmpBest = tmpOldest;
+                }
+            }
+        }
+
+        if (tmpVictim >= 0) {
+            final ArrayDeque<NodeKey> tmpDeque = myDeques[tmpVictim];
+            synchronized (tmpDeque) {
+                // Not necessarily the same node as above, the victim may have taken it
+                return this.taken(myDiving ? tmpDeque.pollLast() : tmpDeque.pollFirst());
+            }
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Moves the oldest node(s) of this worker's deque to the spill file, until the queued nodes are within
+     * budget again.
+     */
+    private void spill(final int worker) {
+
+        final ArrayDeque<NodeKey> tmpDeque = myDeques[worker];
+
+        while (!mySpillFailed && (myFootprint.get() > myMemory)) {
+
+            final NodeKey tmpOldest;
+            synchronized (tmpDeque) {
+                // Leave the newest, the one to be evaluated next, in the deque
+                tmpOldest = tmpDeque.size() > 1 ? tmpDeque.pollFirst() : null;
+            }
+
+            if (tmpOldest == null) {
+                return;
+            }
+
+            final boolean tmpSpilled;
+            synchronized (mySpill) {
+                tmpSpilled = mySpill.push(tmpOldest);
+            }
+
+            if (tmpSpilled) {
+                myFootprint.addAndGet(-tmpOldest.footprint());
+            } else {
+                synchronized (tmpDeque) {
+                    tmpDeque.addFirst(tmpOldest);
+                }
+                mySpillFailed = true;
+                myDiving = true;
+            }
+        }
+    }
+
+    /**
+     * @return The node, after having accounted for it no longer being queued
+     */
+    private NodeKey taken(final NodeKey node) {
+        if (node != null) {
+            if ((myFootprint.addAndGet(-node.footprint()) < (myMemory / 2L)) && myDiving) {
+                myDiving = false;
+            }
+        }
+        return node;
+    }
+
+    private NodeKey unspill() {
+        synchronized (mySpill) {
+            return mySpill.pop();
+        }
+    }
+
+    void add(final int worker, final NodeKey node) {
+        myPending.incrementAndGet();
+        final ArrayDeque<NodeKey> tmpDeque = myDeques[worker];
+        synchronized (tmpDeque) {
+            tmpDeque.addLast(node);
+        }
+        if (myFootprint.addAndGet(node.footprint()) > myMemory) {
+            this.spill(worker);
+        }
+    }
+
+    /**
+     * Deletes the spill file, if any. The pool can't be used after this.
+     */
+    void close() {
+        myStopped = true;
+        synchronized (mySpill) {
+            mySpill.close();
+        }
+    }
+
+    /**
+     * Every node taken/polled must be marked done, after its child nodes (if any) have been added.
+     */
+    void done() {
+        myPending.decrementAndGet();
+    }
+
+    boolean isStopped() {
+        return myStopped;
+    }
+
+    /**
+     * @return The next node for this worker, or null if there is none available right now
+     */
+    NodeKey poll(final int worker) {
+
+        if (myStopped) {
+            return null;
+        }
+
+        final ArrayDeque<NodeKey> tmpDeque = myDeques[worker];
+        NodeKey retVal;
+        synchronized (tmpDeque) {
+            retVal = this.taken(tmpDeque.pollLast());
+        }
+
+        if (retVal == null) {
+            retVal = this.steal(worker);
+        }
+
+        return retVal != null ? retVal : this.unspill();
+    }
+
+    void stop() {
+        myStopped = true;
+    }
+
+    /**
+     * Waits for a node to become available, or for all nodes to be done with.
+     *
+     * @return The next node for this worker, or null if there are no more (or the pool is stopped)
+     */
+    NodeKey take(final int worker) {
+
+        NodeKey retVal = null;
+
+        while (((retVal = this.poll(worker)) == null) && !myStopped && (myPending.get() > 0)) {
+            // Other workers are still evaluating nodes that may result in new nodes
+            LockSupport.parkNanos(PAUSE);
+        }
+
+        return retVal;
+    }
+
+}
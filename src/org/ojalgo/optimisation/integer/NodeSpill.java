@@ -0,0 +1,155 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Branch&bound nodes moved off the heap to a (temporary) memory-mapped file. The nodes are stacked - the last
+ * one pushed is the first one popped. Each record is a node, as written by {@link NodeKey#encode(java.nio.ByteBuffer)},
+ * followed by its size so that the stack can be popped from the end.
+ *
+ * @author apete
+ */
+final class NodeSpill {
+
+    private static final int CHUNK = 1 << 20;
+
+    private MappedByteBuffer myBuffer = null;
+    private FileChannel myChannel = null;
+    private int myCount = 0;
+    private File myFile = null;
+    /**
+     * Any node of the tree - used to decode the others
+     */
+    private NodeKey myTemplate = null;
+
+    NodeSpill() {
+        super();
+    }
+
+    private void ensureCapacity(final int required) throws IOException {
+
+        if (myChannel == null) {
+
+            myFile = File.createTempFile("ojAlgo", ".nodes");
+            myFile.deleteOnExit();
+
+            final RandomAccessFile tmpRandomAccessFile = new RandomAccessFile(myFile, "rw");
+            myChannel = tmpRandomAccessFile.getChannel();
+        }
+
+        final int tmpPosition = myBuffer != null ? myBuffer.position() : 0;
+
+        if ((myBuffer == null) || (myBuffer.remaining() < required)) {
+
+            final long tmpCapacity = Math.max(myBuffer != null ? 2L * myBuffer.capacity() : CHUNK, (long) tmpPosition + required);
+            if (tmpCapacity > Integer.MAX_VALUE) {
+                throw new IOException("Node file too large!");
+            }
+
+            myBuffer = myChannel.map(FileChannel.MapMode.READ_WRITE, 0L, tmpCapacity);
+            myBuffer.order(ByteOrder.nativeOrder());
+            myBuffer.position(tmpPosition);
+        }
+    }
+
+    void close() {
+
+        myBuffer = null;
+        myTemplate = null;
+        myCount = 0;
+
+        if (myChannel != null) {
+            try {
+                myChannel.close();
+            } catch (final IOException exception) {
+                // Nothing to do about it - the file is deleted on exit anyway
+            }
+            myChannel = null;
+        }
+
+        if (myFile != null) {
+            myFile.delete();
+            myFile = null;
+        }
+    }
+
+    int count() {
+        return myCount;
+    }
+
+    boolean isEmpty() {
+        return myCount == 0;
+    }
+
+    /**
+     * @return The node most recently pushed, or null if there is none
+     */
+    NodeKey pop() {
+
+        if (myCount == 0) {
+            return null;
+        }
+
+        final int tmpEnd = myBuffer.position() - 4;
+        final int tmpStart = tmpEnd - myBuffer.getInt(tmpEnd);
+
+        myBuffer.position(tmpStart);
+        final NodeKey retVal = myTemplate.decode(myBuffer);
+        myBuffer.position(tmpStart);
+
+        myCount--;
+
+        return retVal;
+    }
+
+    /**
+     * @return true if the node was written to the file, false if that failed (the node is then still the
+     *         caller's responsibility)
+     */
+    boolean push(final NodeKey node) {
+
+        final int tmpSize = node.encodedSize();
+
+        try {
+            this.ensureCapacity(tmpSize + 4);
+        } catch (final IOException exception) {
+            return false;
+        }
+
+        if (myTemplate == null) {
+            myTemplate = node;
+        }
+
+        myBuffer.putInt(node.encode(myBuffer));
+        myCount++;
+
+        return true;
+    }
+
+}
@@ -51,12 +51,17 @@ public final class OldIntegerSolver extends IntegerSolver {
     final class BranchAndBoundNodeTask extends RecursiveTask<Boolean> {
 
         private final NodeKey myKey;
+        /**
+         * The parent node's solution - warm start
+         */
+        private final Optimisation.Result myStart;
 
-        private BranchAndBoundNodeTask(final NodeKey key) {
+        private BranchAndBoundNodeTask(final NodeKey key, final Optimisation.Result start) {
 
             super();
 
             myKey = key;
+            myStart = start;
         }
 
         BranchAndBoundNodeTask() {
@@ -64,6 +69,7 @@ public final class OldIntegerSolver extends IntegerSolver {
             super();
 
             myKey = new NodeKey(OldIntegerSolver.this.getModel());
+            myStart = null;
         }
 
         @Override
@@ -96,15 +102,23 @@ public final class OldIntegerSolver extends IntegerSolver {
                 OldIntegerSolver.this.markAsExplored(this);
             }
 
-            if (!OldIntegerSolver.this.isGoodEnoughToContinueBranching(myKey.objective)) {
+            if (!Double.isNaN(myKey.objective) && !OldIntegerSolver.this.isGoodEnoughToContinueBranching(myKey.objective)) {
                 if (OldIntegerSolver.this.isDebug()) {
                     OldIntegerSolver.this.debug("No longer a relevant node!");
                 }
                 return true;
             }
 
-            ExpressionsBasedModel tmpModel = this.getModel();
-            final Optimisation.Result tmpResult = tmpModel.solve(OldIntegerSolver.this.getBestResultSoFar());
+            final LinearRelaxation tmpRelaxation = OldIntegerSolver.this.getRelaxation();
+
+            ExpressionsBasedModel tmpModel = null;
+            final Optimisation.Result tmpResult;
+            if (tmpRelaxation != null) {
+                tmpResult = tmpRelaxation.solve(myKey, myStart, OldIntegerSolver.this.options);
+            } else {
+                tmpModel = this.getModel();
+                tmpResult = tmpModel.solve(OldIntegerSolver.this.getBestResultSoFar());
+            }
 
             OldIntegerSolver.this.incrementIterationsCount();
 
@@ -113,7 +127,8 @@ public final class OldIntegerSolver extends IntegerSolver {
                     OldIntegerSolver.this.debug("Node solved to optimality!");
                 }
 
-                if (OldIntegerSolver.this.options.validate && !tmpModel.validate(tmpResult)) {
+                if (OldIntegerSolver.this.options.validate
+                        && !(tmpModel != null ? tmpModel.validate(tmpResult) : tmpRelaxation.validate(myKey, tmpResult, OldIntegerSolver.this.options.slack))) {
                     // This should not be possible. There is a bug somewhere.
                     OldIntegerSolver.this.debug("Node solution marked as OPTIMAL, but is actually INVALID/INFEASIBLE/FAILED. Stop this branch!");
                     //                    IntegerSolver.this.logDebug(myKey.toString());
@@ -124,8 +139,9 @@ public final class OldIntegerSolver extends IntegerSolver {
                     return false;
                 }
 
-                final int tmpBranchIndex = OldIntegerSolver.this.identifyNonIntegerVariable(tmpResult, myKey);
                 final double tmpSolutionValue = OldIntegerSolver.this.evaluateFunction(tmpResult);
+                OldIntegerSolver.this.updatePseudoCosts(myKey, tmpSolutionValue);
+                final int tmpBranchIndex = OldIntegerSolver.this.identifyNonIntegerVariable(tmpResult, myKey);
 
                 if (tmpBranchIndex == -1) {
                     if (OldIntegerSolver.this.isDebug()) {
@@ -153,14 +169,16 @@ public final class OldIntegerSolver extends IntegerSolver {
                     if (OldIntegerSolver.this.isGoodEnoughToContinueBranching(tmpSolutionValue)) {
                         if (OldIntegerSolver.this.isDebug()) {
                             OldIntegerSolver.this.debug("Still hope, branching on {} @ {} >>> {}", tmpBranchIndex, tmpVariableValue,
-                                    tmpModel.getVariable(OldIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
+                                    OldIntegerSolver.this.getModel().getVariable(OldIntegerSolver.this.getGlobalIndex(tmpBranchIndex)));
                         }
 
-                        tmpModel.destroy();
-                        tmpModel = null;
+                        if (tmpModel != null) {
+                            tmpModel.destroy();
+                            tmpModel = null;
+                        }
 
-                        final BranchAndBoundNodeTask tmpLowerBranchTask = this.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
-                        final BranchAndBoundNodeTask tmpUpperBranchTask = this.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue);
+                        final BranchAndBoundNodeTask tmpLowerBranchTask = this.createLowerBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue, tmpResult);
+                        final BranchAndBoundNodeTask tmpUpperBranchTask = this.createUpperBranch(tmpBranchIndex, tmpVariableValue, tmpSolutionValue, tmpResult);
 
                         //   return tmpLowerBranchTask.compute() && tmpUpperBranchTask.compute();
 
@@ -192,18 +210,20 @@ public final class OldIntegerSolver extends IntegerSolver {
             return true;
         }
 
-        BranchAndBoundNodeTask createLowerBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue) {
+        BranchAndBoundNodeTask createLowerBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue,
+                final Optimisation.Result parentSolution) {
 
             final NodeKey tmpKey = myKey.createLowerBranch(branchIndex, nonIntegerValue, parentObjectiveValue);
 
-            return new BranchAndBoundNodeTask(tmpKey);
+            return new BranchAndBoundNodeTask(tmpKey, parentSolution);
         }
 
-        BranchAndBoundNodeTask createUpperBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue) {
+        BranchAndBoundNodeTask createUpperBranch(final int branchIndex, final double nonIntegerValue, final double parentObjectiveValue,
+                final Optimisation.Result parentSolution) {
 
             final NodeKey tmpKey = myKey.createUpperBranch(branchIndex, nonIntegerValue, parentObjectiveValue);
 
-            return new BranchAndBoundNodeTask(tmpKey);
+            return new BranchAndBoundNodeTask(tmpKey, parentSolution);
         }
 
         NodeKey getKey() {
@@ -280,6 +300,8 @@ public final class OldIntegerSolver extends IntegerSolver {
 
         this.resetIterationsCount();
 
+        this.prepare();
+
         final BranchAndBoundNodeTask tmpNodeTask = new BranchAndBoundNodeTask();
 
         final boolean tmpNormalExit = ForkJoinPool.commonPool().invoke(tmpNodeTask);
@@ -362,19 +384,30 @@ public final class OldIntegerSolver extends IntegerSolver {
 
     int identifyNonIntegerVariable(final Optimisation.Result nodeResult, final NodeKey nodeKey) {
 
-        final MatrixStore<Double> tmpGradient = this.getGradient(AccessUtils.asPrimitive1D(nodeResult));
+        final boolean tmpPseudoCosts = this.isPseudoCostsAvailable();
+        final MatrixStore<Double> tmpGradient = tmpPseudoCosts ? null : this.getGradient(AccessUtils.asPrimitive1D(nodeResult));
 
         int retVal = -1;
 
-        double tmpFraction, tmpWeightedFraction;
+        double tmpValue, tmpFraction, tmpWeightedFraction;
         double tmpMaxFraction = ZERO;
 
         for (int i = 0; i < myIntegerIndeces.length; i++) {
 
-            tmpFraction = nodeKey.getFraction(i, nodeResult.doubleValue(myIntegerIndeces[i]));
-            tmpWeightedFraction = tmpFraction * (PrimitiveMath.ONE + Math.abs(tmpGradient.doubleValue(myIntegerIndeces[i])));
+            tmpValue = nodeResult.doubleValue(myIntegerIndeces[i]);
+            tmpFraction = nodeKey.getFraction(i, tmpValue);
+
+            if (options.integer.isZero(tmpFraction)) {
+                continue;
+            }
+
+            if (tmpPseudoCosts) {
+                tmpWeightedFraction = this.getPseudoCostScore(i, tmpValue);
+            } else {
+                tmpWeightedFraction = tmpFraction * (PrimitiveMath.ONE + Math.abs(tmpGradient.doubleValue(myIntegerIndeces[i])));
+            }
 
-            if ((tmpWeightedFraction > tmpMaxFraction) && !options.integer.isZero(tmpWeightedFraction)) {
+            if (tmpWeightedFraction > tmpMaxFraction) {
                 retVal = i;
                 tmpMaxFraction = tmpWeightedFraction;
             }
@@ -26,11 +26,13 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import java.util.List;
 import java.util.Set;
 
+import org.ojalgo.access.Access2D;
 import org.ojalgo.access.AccessUtils;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PhysicalStore.Factory;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
 import org.ojalgo.optimisation.BaseSolver;
 import org.ojalgo.optimisation.Expression;
 import org.ojalgo.optimisation.Expression.Index;
@@ -68,6 +70,8 @@ public abstract class LinearSolver extends BaseSolver {
 
     public static final class Builder extends AbstractBuilder<LinearSolver.Builder, LinearSolver> {
 
+        private boolean myWarmStart = false;
+
         public Builder(final MatrixStore<Double> C) {
             super(C);
         }
@@ -93,7 +97,11 @@ public abstract class LinearSolver extends BaseSolver {
 
             this.validate();
 
-            return new SimplexTableauSolver(this, options);
+            if (myWarmStart || LinearSolver.isSparse(this.countEqualityConstraints(), this.countVariables(), options)) {
+                return new RevisedSimplexSolver(this, options);
+            } else {
+                return new SimplexTableauSolver(this, options);
+            }
         }
 
         @Override
@@ -105,6 +113,17 @@ public abstract class LinearSolver extends BaseSolver {
         public Builder objective(final MatrixStore<Double> C) {
             return super.objective(C);
         }
+
+        /**
+         * The solver will try to continue from the (basis of the) kick start solution passed to
+         * {@linkplain LinearSolver#solve(Optimisation.Result)}, using the dual simplex when the old basis is
+         * no longer primal feasible. Typically used when re-solving after changing some bounds or right hand
+         * sides. This always builds the revised simplex solver, regardless of problem size.
+         */
+        public Builder warmStart() {
+            myWarmStart = true;
+            return this;
+        }
     }
 
     static final Factory<Double, PrimitiveDenseStore> FACTORY = PrimitiveDenseStore.FACTORY;
@@ -139,11 +158,13 @@ public abstract class LinearSolver extends BaseSolver {
         final int[] tmpBasis = AccessUtils.makeIncreasingRange(-tmpConstraiCount, tmpConstraiCount);
 
         final PhysicalStore<Double> tmpC = FACTORY.makeZero(tmpTotalVarCount, 1);
-        final PhysicalStore<Double> tmpAE = FACTORY.makeZero(tmpConstraiCount, tmpTotalVarCount);
+        // When sparse, collected as triplets and compressed (to CSR) in one go at the end
+        final boolean tmpSparse = LinearSolver.isSparse(tmpConstraiCount, tmpTotalVarCount, sourceModel.options);
+        final Access2D.Fillable<Double> tmpAE = tmpSparse ? SparseStore.makeTriplets(tmpConstraiCount, tmpTotalVarCount, 2 * tmpConstraiCount)
+                : FACTORY.makeZero(tmpConstraiCount, tmpTotalVarCount);
         final PhysicalStore<Double> tmpBE = FACTORY.makeZero(tmpConstraiCount, 1);
 
         destinationBuilder.objective(tmpC);
-        destinationBuilder.equalities(tmpAE, tmpBE);
 
         final int tmpPosVarsBaseIndex = 0;
         final int tmpNegVarsBaseIndex = tmpPosVarsBaseIndex + tmpPosVariables.size();
@@ -416,6 +437,11 @@ public abstract class LinearSolver extends BaseSolver {
         }
         tmpConstrBaseIndex += tmpVarsNegUpLength;
 
+        if (tmpSparse) {
+            destinationBuilder.equalities(((SparseStore.Triplets) tmpAE).toCSR(), tmpBE);
+        } else {
+            destinationBuilder.equalities((PhysicalStore<Double>) tmpAE, tmpBE);
+        }
     }
 
     public static LinearSolver.Builder getBuilder() {
@@ -426,6 +452,15 @@ public abstract class LinearSolver extends BaseSolver {
         return LinearSolver.getBuilder().objective(C);
     }
 
+    /**
+     * Would the simplex tableau be larger than {@linkplain Optimisation.Options#sparse}? Null options means
+     * default options.
+     */
+    static boolean isSparse(final int constraints, final int variables, final Optimisation.Options options) {
+        final long tmpLimit = options != null ? options.sparse : new Optimisation.Options().sparse;
+        return ((constraints + 2L) * (variables + 1L)) > tmpLimit;
+    }
+
     private final IndexSelector mySelector;
 
     protected LinearSolver(final BaseSolver.AbstractBuilder<LinearSolver.Builder, LinearSolver> matrices, final Optimisation.Options solverOptions) {
@@ -0,0 +1,795 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.AccessUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.optimisation.Optimisation;
+
+/**
+ * Revised (two phase, primal) simplex. The constraint matrix is kept in compressed sparse column form and
+ * never modified. Each iteration only computes the vectors it needs - the simplex multipliers (BTRAN), the
+ * reduced costs of the nonbasic columns and the entering column (FTRAN) - using a sparse LU factorisation of
+ * the basis, see {@linkplain SparseLU}.
+ * <p>
+ * Artificial variables are implicit unit columns with the same (negative) indexing as in
+ * {@linkplain SimplexTableauSolver}.
+ * </p>
+ * <p>
+ * Given a kick start solution the solver continues from the corresponding basis - with the dual simplex if
+ * that basis is dual but not primal feasible, as is the case after tightening bounds on a previously optimal
+ * solution.
+ * </p>
+ *
+ * @author apete
+ */
+final class RevisedSimplexSolver extends LinearSolver {
+
+    private static final long serialVersionUID = 100009839558090232L;
+
+    /**
+     * Switch to Bland's rule after this many consecutive degenerate iterations.
+     */
+    private static final int DEGENERATE_LIMIT = 50;
+    /**
+     * Basic variables more negative than this are infeasible.
+     */
+    private static final double FEASIBILITY_TOLERANCE = 1.0E-9;
+    /**
+     * Reduced costs need to be more negative than this to be considered for entering the basis.
+     */
+    private static final double OPTIMALITY_TOLERANCE = 1.0E-9;
+    private static final double PIVOT_TOLERANCE = 1.0E-9;
+    private static final int REFACTORISE_LIMIT = 64;
+
+    private final double[] myAlpha;
+    private final int[] myBasis;
+    private final double[] myBasicValues;
+    private final int myColumnCount;
+    private final int[] myColumnPointers;
+    private final int[] myColumnRows;
+    private final double[] myColumnValues;
+    private int myDegenerate = 0;
+    private boolean myDual = false;
+    private int myEntering = -1;
+    private int myLeaving = -1;
+    private final SparseLU myLU;
+    private final double[] myMultipliers;
+    private final double[] myObjective;
+    private boolean myPhase1 = true;
+    private final double[] myRHS;
+    private double myStep = ZERO;
+    private boolean myWarm = false;
+
+    RevisedSimplexSolver(final LinearSolver.Builder matrices, final Optimisation.Options solverOptions) {
+
+        super(matrices, solverOptions);
+
+        final int tmpConstraintsCount = this.countConstraints();
+        final int tmpVariablesCount = this.countVariables();
+
+        myColumnCount = tmpVariablesCount;
+        myColumnPointers = new int[tmpVariablesCount + 1];
+
+        if (tmpConstraintsCount >= 1) {
+
+            final MatrixStore<Double> tmpAE = matrices.getAE();
+            final SparseStore tmpSparseAE = tmpAE instanceof SparseStore ? ((SparseStore) tmpAE).toCSC() : SparseStore.FACTORY.copy(tmpAE);
+
+            final int tmpNonzeros = tmpSparseAE.countNonzeros();
+            myColumnRows = new int[tmpNonzeros];
+            myColumnValues = new double[tmpNonzeros];
+
+            // CSC is visited column by column, and the rows in increasing order
+            tmpSparseAE.visitNonzeros(new SparseStore.NonzeroVisitor() {
+
+                private int myNext = 0;
+
+                public void visit(final long row, final long column, final double value) {
+                    myColumnRows[myNext] = (int) row;
+                    myColumnValues[myNext] = value;
+                    myNext++;
+                    myColumnPointers[(int) column + 1] = myNext;
+                }
+            });
+            for (int j = 1; j <= tmpVariablesCount; j++) {
+                myColumnPointers[j] = Math.max(myColumnPointers[j], myColumnPointers[j - 1]);
+            }
+
+        } else {
+
+            myColumnRows = new int[0];
+            myColumnValues = new double[0];
+        }
+
+        myObjective = new double[tmpVariablesCount];
+        final MatrixStore<Double> tmpC = matrices.getC();
+        for (int j = 0; j < tmpVariablesCount; j++) {
+            myObjective[j] = tmpC.doubleValue(j);
+        }
+
+        myRHS = new double[tmpConstraintsCount];
+        if (tmpConstraintsCount >= 1) {
+            final MatrixStore<Double> tmpBE = matrices.getBE();
+            for (int i = 0; i < tmpConstraintsCount; i++) {
+                myRHS[i] = tmpBE.doubleValue(i);
+            }
+        }
+
+        myBasis = AccessUtils.makeIncreasingRange(-tmpConstraintsCount, tmpConstraintsCount);
+        myBasicValues = new double[tmpConstraintsCount];
+        myAlpha = new double[tmpConstraintsCount];
+        myMultipliers = new double[tmpConstraintsCount];
+
+        myLU = new SparseLU(tmpConstraintsCount);
+    }
+
+    public Result solve(final Result kickStarter) {
+
+        this.resetIterationsCount();
+
+        if (!this.initialise(kickStarter)) {
+            this.restart();
+        }
+
+        while (this.isIterationAllowed() && this.needsAnotherIteration()) {
+
+            this.performIteration();
+
+            this.incrementIterationsCount();
+        }
+
+        return this.buildResult();
+    }
+
+    private void calculateMultipliers() {
+        final double[] tmpMultipliers = myMultipliers;
+        for (int i = 0; i < myBasis.length; i++) {
+            final int tmpBasisIndex = myBasis[i];
+            if (myPhase1) {
+                // Sum of infeasibilities - artificials should be zero and nothing negative
+                if (myBasicValues[i] < -FEASIBILITY_TOLERANCE) {
+                    tmpMultipliers[i] = NEG;
+                } else {
+                    tmpMultipliers[i] = tmpBasisIndex < 0 ? ONE : ZERO;
+                }
+            } else {
+                tmpMultipliers[i] = tmpBasisIndex < 0 ? ZERO : myObjective[tmpBasisIndex];
+            }
+        }
+        myLU.btran(tmpMultipliers);
+    }
+
+    private double calculateReducedCost(final int column) {
+        double retVal = myPhase1 ? ZERO : myObjective[column];
+        for (int e = myColumnPointers[column]; e < myColumnPointers[column + 1]; e++) {
+            retVal -= myColumnValues[e] * myMultipliers[myColumnRows[e]];
+        }
+        return retVal;
+    }
+
+    private int findEnteringColumn() {
+
+        this.calculateMultipliers();
+
+        final boolean tmpBland = myDegenerate > DEGENERATE_LIMIT;
+
+        int retVal = -1;
+        double tmpMin = -OPTIMALITY_TOLERANCE;
+
+        final int[] tmpExcluded = this.getExcluded();
+        for (int e = 0; e < tmpExcluded.length; e++) {
+            final int j = tmpExcluded[e];
+            final double tmpReducedCost = this.calculateReducedCost(j);
+            if (tmpReducedCost < tmpMin) {
+                if (tmpBland) {
+                    if ((retVal < 0) || (j < retVal)) {
+                        retVal = j;
+                    }
+                } else {
+                    retVal = j;
+                    tmpMin = tmpReducedCost;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * [alpha] = [B]<sup>-1</sup>[A<sub>entering</sub>]
+     */
+    private void calculateEnteringColumn() {
+        final double[] tmpAlpha = myAlpha;
+        Arrays.fill(tmpAlpha, ZERO);
+        for (int e = myColumnPointers[myEntering]; e < myColumnPointers[myEntering + 1]; e++) {
+            tmpAlpha[myColumnRows[e]] = myColumnValues[e];
+        }
+        myLU.ftran(tmpAlpha);
+    }
+
+    /**
+     * Dual simplex ratio test along the row of the leaving position; returns the entering column.
+     */
+    private int findDualEnteringColumn(final int leaving) {
+
+        final double[] tmpRow = new double[myBasis.length];
+        tmpRow[leaving] = ONE;
+        myLU.btran(tmpRow);
+
+        this.calculateMultipliers();
+
+        final boolean tmpBelow = myBasicValues[leaving] < ZERO;
+
+        final boolean tmpBland = myDegenerate > DEGENERATE_LIMIT;
+
+        int retVal = -1;
+        double tmpMinRatio = MACHINE_LARGEST;
+        double tmpBestPivot = ZERO;
+
+        final int[] tmpExcluded = this.getExcluded();
+        for (int x = 0; x < tmpExcluded.length; x++) {
+
+            final int j = tmpExcluded[x];
+
+            double tmpPivot = ZERO;
+            for (int e = myColumnPointers[j]; e < myColumnPointers[j + 1]; e++) {
+                tmpPivot += myColumnValues[e] * tmpRow[myColumnRows[e]];
+            }
+
+            if (tmpBelow ? (tmpPivot < -PIVOT_TOLERANCE) : (tmpPivot > PIVOT_TOLERANCE)) {
+                final double tmpAbs = Math.abs(tmpPivot);
+                final double tmpRatio = Math.max(this.calculateReducedCost(j), ZERO) / tmpAbs;
+                if ((tmpRatio < tmpMinRatio) || ((tmpRatio == tmpMinRatio) && (tmpBland ? (j < retVal) : (tmpAbs > tmpBestPivot)))) {
+                    retVal = j;
+                    tmpMinRatio = tmpRatio;
+                    tmpBestPivot = tmpAbs;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The most primal infeasible basic variable - negative, or a nonzero artificial (fixed at zero). With
+     * Bland's rule, after many degenerate iterations, the infeasible variable with the smallest index.
+     */
+    private int findDualLeavingPosition() {
+
+        final boolean tmpBland = myDegenerate > DEGENERATE_LIMIT;
+
+        int retVal = -1;
+        double tmpMaxInfeasibility = FEASIBILITY_TOLERANCE;
+
+        for (int i = 0; i < myBasis.length; i++) {
+            final double tmpValue = myBasicValues[i];
+            final double tmpInfeasibility = tmpValue < ZERO ? -tmpValue : (myBasis[i] < 0 ? tmpValue : ZERO);
+            if (tmpBland) {
+                if ((tmpInfeasibility > FEASIBILITY_TOLERANCE) && ((retVal < 0) || (myBasis[i] < myBasis[retVal]))) {
+                    retVal = i;
+                }
+            } else if (tmpInfeasibility > tmpMaxInfeasibility) {
+                retVal = i;
+                tmpMaxInfeasibility = tmpInfeasibility;
+            }
+        }
+
+        return retVal;
+    }
+
+    private int findLeavingPosition() {
+
+        this.calculateEnteringColumn();
+
+        final double[] tmpAlpha = myAlpha;
+
+        final boolean tmpBland = myDegenerate > DEGENERATE_LIMIT;
+
+        int retVal = -1;
+        double tmpMinRatio = MACHINE_LARGEST;
+        double tmpBestPivot = ZERO;
+
+        for (int i = 0; i < myBasis.length; i++) {
+
+            final double tmpPivot = tmpAlpha[i];
+
+            double tmpRatio = MACHINE_LARGEST;
+            if (!myPhase1 && (myBasis[i] < 0)) {
+                // Phase 2 with artificials still in the basis (at zero) - must not become nonzero
+                if (Math.abs(tmpPivot) > PIVOT_TOLERANCE) {
+                    tmpRatio = ZERO;
+                }
+            } else if (myBasicValues[i] < -FEASIBILITY_TOLERANCE) {
+                // Phase 1 from a warm start basis - stop where a negative variable reaches zero
+                if (tmpPivot < -PIVOT_TOLERANCE) {
+                    tmpRatio = myBasicValues[i] / tmpPivot;
+                }
+            } else if (tmpPivot > PIVOT_TOLERANCE) {
+                tmpRatio = Math.max(myBasicValues[i], ZERO) / tmpPivot;
+            }
+
+            if (tmpRatio < MACHINE_LARGEST) {
+                final double tmpAbs = Math.abs(tmpPivot);
+                if ((tmpRatio < tmpMinRatio) || ((tmpRatio == tmpMinRatio) && (tmpBland ? (myBasis[i] < myBasis[retVal]) : (tmpAbs > tmpBestPivot)))) {
+                    retVal = i;
+                    tmpMinRatio = tmpRatio;
+                    tmpBestPivot = tmpAbs;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Checks the current basic solution against the constraints - refactorising first, so that the values are
+     * not the result of many updates. Nothing may be negative, and [A][x] must match the (possibly changed)
+     * right hand side without the help of any artificials.
+     */
+    private boolean isPrimalFeasible() {
+
+        this.refactorise();
+
+        final int tmpDim = myBasis.length;
+
+        final double[] tmpActivities = new double[tmpDim];
+        final double[] tmpMagnitudes = new double[tmpDim];
+
+        for (int i = 0; i < tmpDim; i++) {
+            final int tmpBasisIndex = myBasis[i];
+            final double tmpValue = myBasicValues[i];
+            if (tmpValue < -FEASIBILITY_TOLERANCE) {
+                return false;
+            }
+            if ((tmpBasisIndex >= 0) && (Math.abs(tmpValue) > FEASIBILITY_TOLERANCE)) {
+                for (int e = myColumnPointers[tmpBasisIndex]; e < myColumnPointers[tmpBasisIndex + 1]; e++) {
+                    final double tmpTerm = myColumnValues[e] * tmpValue;
+                    tmpActivities[myColumnRows[e]] += tmpTerm;
+                    tmpMagnitudes[myColumnRows[e]] += Math.abs(tmpTerm);
+                }
+            }
+        }
+
+        for (int i = 0; i < tmpDim; i++) {
+            final double tmpScale = Math.max(ONE, Math.max(Math.abs(myRHS[i]), tmpMagnitudes[i]));
+            if (Math.abs(tmpActivities[i] - myRHS[i]) > (FEASIBILITY_TOLERANCE * tmpScale)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isBasicArtificials() {
+        for (int i = 0; i < myBasis.length; i++) {
+            if ((myBasis[i] < 0) && !options.objective.isZero(myBasicValues[i])) {
+                return true;
+            } else if (myBasicValues[i] < -FEASIBILITY_TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void performIteration() {
+
+        final int tmpOld = myBasis[myLeaving];
+
+        final double tmpStep = myStep;
+
+        if (tmpStep <= options.problem.epsilon()) {
+            myDegenerate++;
+        } else {
+            myDegenerate = 0;
+        }
+
+        if (tmpStep != ZERO) {
+            for (int i = 0; i < myBasicValues.length; i++) {
+                myBasicValues[i] -= tmpStep * myAlpha[i];
+            }
+        }
+        myBasicValues[myLeaving] = tmpStep;
+
+        if (tmpOld >= 0) {
+            this.exclude(tmpOld);
+        }
+        this.include(myEntering);
+        myBasis[myLeaving] = myEntering;
+
+        if (this.isDebug()) {
+            this.debug("Iteration Position: {}\tExit: {}\tEnter: {}\tStep: {}", myLeaving, tmpOld, myEntering, tmpStep);
+        }
+
+        if (myLU.countUpdates() >= REFACTORISE_LIMIT) {
+            this.refactorise();
+        } else {
+            myLU.update(myLeaving, myAlpha);
+        }
+    }
+
+    /**
+     * Cold start - phase 1 from the all artificial basis.
+     */
+    private void restart() {
+
+        this.excludeAll();
+        for (int i = 0; i < myBasis.length; i++) {
+            myBasis[i] = i - myBasis.length;
+        }
+
+        myPhase1 = true;
+        myDual = false;
+        myWarm = false;
+        myDegenerate = 0;
+
+        this.refactorise();
+    }
+
+    /**
+     * Factorise the current basis and recalculate the basic variable values. Should the basis be singular the
+     * offending columns are replaced with artificials.
+     */
+    private void refactorise() {
+
+        final int tmpDim = myBasis.length;
+
+        final int[][] tmpRows = new int[tmpDim][];
+        final double[][] tmpValues = new double[tmpDim][];
+
+        boolean tmpNonsingular = false;
+        while (!tmpNonsingular) {
+
+            for (int k = 0; k < tmpDim; k++) {
+                final int tmpBasisIndex = myBasis[k];
+                if (tmpBasisIndex < 0) {
+                    tmpRows[k] = new int[] { tmpBasisIndex + tmpDim };
+                    tmpValues[k] = new double[] { ONE };
+                } else {
+                    final int tmpFirst = myColumnPointers[tmpBasisIndex];
+                    final int tmpLimit = myColumnPointers[tmpBasisIndex + 1];
+                    tmpRows[k] = Arrays.copyOfRange(myColumnRows, tmpFirst, tmpLimit);
+                    tmpValues[k] = Arrays.copyOfRange(myColumnValues, tmpFirst, tmpLimit);
+                }
+            }
+
+            tmpNonsingular = myLU.factorise(tmpRows, tmpValues);
+
+            if (!tmpNonsingular) {
+                final int[] tmpPositions = myLU.getUnpivotedColumns();
+                final int[] tmpConstraints = myLU.getUnpivotedRows();
+                for (int u = 0; u < tmpPositions.length; u++) {
+                    final int tmpOld = myBasis[tmpPositions[u]];
+                    if (tmpOld >= 0) {
+                        this.exclude(tmpOld);
+                    }
+                    myBasis[tmpPositions[u]] = tmpConstraints[u] - tmpDim;
+                }
+                if (this.isDebug()) {
+                    this.debug("Singular basis, {} columns replaced with artificials.", tmpPositions.length);
+                }
+            }
+        }
+
+        System.arraycopy(myRHS, 0, myBasicValues, 0, tmpDim);
+        myLU.ftran(myBasicValues);
+    }
+
+    /**
+     * The same sign convention as {@linkplain SimplexTableauSolver}: the negated [C]<sup>T</sup>[X].
+     */
+    @Override
+    protected double evaluateFunction(final Access1D<?> solution) {
+        double retVal = ZERO;
+        for (int j = 0; j < myColumnCount; j++) {
+            retVal -= myObjective[j] * solution.doubleValue(j);
+        }
+        return retVal;
+    }
+
+    @Override
+    protected PhysicalStore<Double> extractSolution() {
+
+        this.resetX();
+
+        for (int i = 0; i < myBasis.length; i++) {
+            final int tmpBasisIndex = myBasis[i];
+            if (tmpBasisIndex >= 0) {
+                // Rounding noise, within the feasibility tolerance, is cleaned away
+                final double tmpValue = myBasicValues[i];
+                this.setX(tmpBasisIndex, Math.abs(tmpValue) <= FEASIBILITY_TOLERANCE ? ZERO : tmpValue);
+            }
+        }
+
+        return this.getX();
+    }
+
+    /**
+     * Warm start. A basis is reconstructed from the kick start solution; the columns with nonzero values, with
+     * slack (singleton) column values derived from the constraint residuals, and artificials for the remaining
+     * rows. Any artificial left in the basis, after factorisation, is replaced with the slack of the same row.
+     * If that basis is primal feasible the primal simplex continues from it, if it is dual feasible (typically
+     * a previously optimal basis after bound or right hand side changes) the dual simplex is used, and
+     * otherwise phase 1 minimises the sum of infeasibilities starting from it. An optimum reached from a warm
+     * start is only accepted if it is primal feasible, and an infeasibility only if the dual simplex proved it.
+     * Otherwise the problem is solved again from scratch.
+     */
+    @Override
+    protected boolean initialise(final Result kickStart) {
+
+        final int tmpDim = myBasis.length;
+
+        if ((kickStart == null) || (tmpDim == 0) || (kickStart.count() > myColumnCount)) {
+            return false;
+        }
+
+        final double tmpTolerance = options.problem.epsilon();
+        final int tmpKnown = (int) kickStart.count();
+
+        final double[] tmpValues = new double[myColumnCount];
+        final double[] tmpResiduals = Arrays.copyOf(myRHS, tmpDim);
+        for (int j = 0; j < tmpKnown; j++) {
+            final double tmpValue = kickStart.doubleValue(j);
+            if (Double.isNaN(tmpValue)) {
+                return false;
+            }
+            tmpValues[j] = tmpValue;
+            for (int e = myColumnPointers[j]; e < myColumnPointers[j + 1]; e++) {
+                tmpResiduals[myColumnRows[e]] -= myColumnValues[e] * tmpValue;
+            }
+        }
+
+        final int[] tmpSlackOfRow = new int[tmpDim];
+        Arrays.fill(tmpSlackOfRow, -1);
+        for (int j = tmpKnown; j < myColumnCount; j++) {
+            if ((myColumnPointers[j + 1] - myColumnPointers[j]) == 1) {
+                final int i = myColumnRows[myColumnPointers[j]];
+                if (tmpSlackOfRow[i] < 0) {
+                    tmpSlackOfRow[i] = j;
+                    tmpValues[j] = tmpResiduals[i] / myColumnValues[myColumnPointers[j]];
+                }
+            }
+        }
+
+        // Should there be more nonzeros than rows (rounding) only the largest are used
+        double tmpThreshold = tmpTolerance;
+        final double[] tmpMagnitudes = new double[tmpKnown];
+        for (int j = 0; j < tmpKnown; j++) {
+            tmpMagnitudes[j] = Math.abs(tmpValues[j]);
+        }
+        Arrays.sort(tmpMagnitudes);
+        if ((tmpKnown > tmpDim) && (tmpMagnitudes[tmpKnown - tmpDim] > tmpThreshold)) {
+            tmpThreshold = Math.nextUp(tmpMagnitudes[tmpKnown - tmpDim - 1]);
+        }
+
+        final boolean[] tmpCovered = new boolean[tmpDim];
+        int tmpCount = 0;
+
+        this.excludeAll();
+        for (int j = 0; (j < tmpKnown) && (tmpCount < tmpDim); j++) {
+            if (Math.abs(tmpValues[j]) >= tmpThreshold) {
+                myBasis[tmpCount++] = j;
+                this.include(j);
+            }
+        }
+        // The slacks of the inactive constraints (positive) first. Those with negative values belong to
+        // constraints changed since, and were probably not basic in the solution the kick start came from.
+        for (int p = 0; p < 2; p++) {
+            for (int j = tmpKnown; (j < myColumnCount) && (tmpCount < tmpDim); j++) {
+                if ((p == 0) ? (tmpValues[j] > tmpTolerance) : (tmpValues[j] < -tmpTolerance)) {
+                    myBasis[tmpCount++] = j;
+                    this.include(j);
+                    tmpCovered[myColumnRows[myColumnPointers[j]]] = true;
+                }
+            }
+        }
+        for (int i = 0; (i < tmpDim) && (tmpCount < tmpDim); i++) {
+            if (!tmpCovered[i]) {
+                myBasis[tmpCount++] = i - tmpDim;
+            }
+        }
+
+        // Should the basis be singular the refactorisation puts artificials where they're needed
+        this.refactorise();
+
+        // An artificial and the slack of the same row are parallel - swapping them keeps the basis nonsingular
+        final boolean[] tmpBasic = new boolean[myColumnCount];
+        for (int k = 0; k < tmpDim; k++) {
+            if (myBasis[k] >= 0) {
+                tmpBasic[myBasis[k]] = true;
+            }
+        }
+        boolean tmpSwapped = false;
+        for (int k = 0; k < tmpDim; k++) {
+            final int tmpBasisIndex = myBasis[k];
+            if (tmpBasisIndex < 0) {
+                final int tmpSlack = tmpSlackOfRow[tmpBasisIndex + tmpDim];
+                if ((tmpSlack >= 0) && !tmpBasic[tmpSlack]) {
+                    tmpBasic[tmpSlack] = true;
+                    myBasis[k] = tmpSlack;
+                    this.include(tmpSlack);
+                    tmpSwapped = true;
+                }
+            }
+        }
+        if (tmpSwapped) {
+            this.refactorise();
+        }
+
+        myDual = false;
+        myPhase1 = false;
+        myWarm = true;
+        myDegenerate = 0;
+
+        if (this.findDualLeavingPosition() >= 0) {
+
+            this.calculateMultipliers();
+
+            myDual = true;
+            final int[] tmpExcluded = this.getExcluded();
+            for (int x = 0; myDual && (x < tmpExcluded.length); x++) {
+                if (this.calculateReducedCost(tmpExcluded[x]) < -OPTIMALITY_TOLERANCE) {
+                    myDual = false;
+                }
+            }
+
+            // Neither primal nor dual feasible - phase 1 from this basis
+            myPhase1 = !myDual;
+        }
+
+        return true;
+    }
+
+    @Override
+    protected boolean needsAnotherIteration() {
+
+        myEntering = -1;
+        myLeaving = -1;
+
+        if (myDual) {
+
+            myLeaving = this.findDualLeavingPosition();
+
+            if (myLeaving >= 0) {
+
+                myEntering = this.findDualEnteringColumn(myLeaving);
+
+                if (myEntering < 0) {
+                    this.setState(State.INFEASIBLE);
+                    return false;
+                }
+
+                this.calculateEnteringColumn();
+
+                if ((Math.abs(myAlpha[myLeaving]) <= PIVOT_TOLERANCE) || ((myBasicValues[myLeaving] / myAlpha[myLeaving]) < ZERO)) {
+                    // The row (BTRAN) and column (FTRAN) pivots disagree - continue with phase 1 instead
+                    myDual = false;
+                    myPhase1 = true;
+                    return this.needsAnotherIteration();
+                }
+
+                myStep = myBasicValues[myLeaving] / myAlpha[myLeaving];
+
+                if (this.isDebug()) {
+                    this.debug("\n==>>\tDual,\tPosition: {},\tExit: {},\tEnter: {}.\n", myLeaving, myBasis[myLeaving], myEntering);
+                }
+
+                return true;
+
+            } else {
+
+                // Primal feasible - continue with the primal (phase 2) to clean up
+                myDual = false;
+                myPhase1 = false;
+            }
+        }
+
+        if (myPhase1 && !this.isBasicArtificials()) {
+            myPhase1 = false;
+        }
+
+        myEntering = this.findEnteringColumn();
+
+        if ((myEntering < 0) && myPhase1) {
+
+            double tmpInfeasibility = ZERO;
+            for (int i = 0; i < myBasis.length; i++) {
+                if (myBasis[i] < 0) {
+                    tmpInfeasibility += Math.abs(myBasicValues[i]);
+                } else if (myBasicValues[i] < -FEASIBILITY_TOLERANCE) {
+                    tmpInfeasibility -= myBasicValues[i];
+                }
+            }
+
+            if (options.objective.isZero(tmpInfeasibility)) {
+                myPhase1 = false;
+                myEntering = this.findEnteringColumn();
+            } else if (myWarm) {
+                return this.restartCold("infeasible");
+            } else {
+                this.setState(State.INFEASIBLE);
+                return false;
+            }
+        }
+
+        if (myEntering < 0) {
+            if (myWarm && !this.isPrimalFeasible()) {
+                return this.restartCold("not primal feasible");
+            }
+            this.setState(State.OPTIMAL);
+            return false;
+        }
+
+        myLeaving = this.findLeavingPosition();
+
+        if (myLeaving < 0) {
+            if (myWarm && myPhase1) {
+                return this.restartCold("infeasible");
+            }
+            this.setState(myPhase1 ? State.INFEASIBLE : State.UNBOUNDED);
+            return false;
+        }
+
+        final double tmpValue = myBasicValues[myLeaving];
+        if ((myBasis[myLeaving] < 0) && !myPhase1) {
+            myStep = ZERO;
+        } else if (tmpValue < -FEASIBILITY_TOLERANCE) {
+            myStep = tmpValue / myAlpha[myLeaving];
+        } else {
+            myStep = Math.max(tmpValue, ZERO) / myAlpha[myLeaving];
+        }
+
+        if (this.isDebug()) {
+            this.debug("\n==>>\tPhase: {},\tPosition: {},\tExit: {},\tEnter: {}.\n", myPhase1 ? 1 : 2, myLeaving, myBasis[myLeaving], myEntering);
+        }
+
+        return true;
+    }
+
+    /**
+     * The warm start ended with something that isn't a (verified) solution or proof - solve from scratch.
+     */
+    private boolean restartCold(final String reason) {
+
+        if (this.isDebug()) {
+            this.debug("Warm start {}, restarting from the artificial basis.", reason);
+        }
+
+        this.restart();
+
+        return this.needsAnotherIteration();
+    }
+
+    @Override
+    protected boolean validate() {
+        this.setState(State.VALID);
+        return true;
+    }
+
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+/**
+ * Sparse LU factorisation of a simplex basis, with product form (eta) updates between refactorisations.
+ * <p>
+ * The pivot order is chosen during the elimination using the Markowitz criterion, (r-1)(c-1), with
+ * threshold partial pivoting within the column. The search examines the columns with the fewest remaining
+ * nonzeros first and stops after {@value #SEARCH_LIMIT} acceptable columns. Column singletons (slack and
+ * artificial columns) are therefore pivoted without fill-in.
+ * </p>
+ * <p>
+ * The basis columns are indexed by their position in the basis, the rows by constraint. {@link #ftran(double[])}
+ * takes a row indexed vector and returns a position indexed one, {@link #btran(double[])} the other way
+ * around.
+ * </p>
+ *
+ * @author apete
+ */
+final class SparseLU {
+
+    /**
+     * A sequence of sparse vectors stored back to back.
+     */
+    private static final class Entries {
+
+        int[] indices = new int[16];
+        int[] pointers = new int[16];
+        int size = 0;
+        double[] values = new double[16];
+        int vectors = 0;
+
+        Entries() {
+            super();
+        }
+
+        void add(final int index, final double value) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            indices[size] = index;
+            values[size] = value;
+            size++;
+        }
+
+        void close() {
+            if ((vectors + 1) == pointers.length) {
+                pointers = Arrays.copyOf(pointers, 2 * pointers.length);
+            }
+            pointers[++vectors] = size;
+        }
+
+        void reset() {
+            size = 0;
+            vectors = 0;
+        }
+
+    }
+
+    private static final double PIVOT_THRESHOLD = 0.1;
+    private static final double PIVOT_TOLERANCE = 1.0E-11;
+    private static final int SEARCH_LIMIT = 4;
+
+    private final int myDim;
+    private final Entries myEtas = new Entries();
+    private double[] myEtaPivots = new double[16];
+    private int[] myEtaPositions = new int[16];
+    private final Entries myL = new Entries();
+    private final int[] myPivotColumns;
+    private final int[] myPivotRows;
+    private final double[] myPivotValues;
+    private int myRank;
+    private final Entries myU = new Entries();
+    private final double[] myWork;
+
+    SparseLU(final int dim) {
+
+        super();
+
+        myDim = dim;
+
+        myPivotRows = new int[dim];
+        myPivotColumns = new int[dim];
+        myPivotValues = new double[dim];
+
+        myWork = new double[dim];
+    }
+
+    /**
+     * [x] := [B]<sup>-T</sup>[x] (position indexed in, row indexed out)
+     */
+    void btran(final double[] x) {
+
+        for (int t = myEtas.vectors - 1; t >= 0; t--) {
+            final int tmpPosition = myEtaPositions[t];
+            double tmpVal = x[tmpPosition];
+            for (int e = myEtas.pointers[t]; e < myEtas.pointers[t + 1]; e++) {
+                tmpVal -= myEtas.values[e] * x[myEtas.indices[e]];
+            }
+            x[tmpPosition] = tmpVal / myEtaPivots[t];
+        }
+
+        final double[] tmpWork = myWork;
+        for (int k = 0; k < myDim; k++) {
+            final double tmpVal = x[myPivotColumns[k]] / myPivotValues[k];
+            tmpWork[myPivotRows[k]] = tmpVal;
+            if (tmpVal != ZERO) {
+                for (int e = myU.pointers[k]; e < myU.pointers[k + 1]; e++) {
+                    x[myU.indices[e]] -= myU.values[e] * tmpVal;
+                }
+            }
+        }
+
+        for (int k = myDim - 1; k >= 0; k--) {
+            final int tmpRow = myPivotRows[k];
+            double tmpVal = tmpWork[tmpRow];
+            for (int e = myL.pointers[k]; e < myL.pointers[k + 1]; e++) {
+                tmpVal -= myL.values[e] * tmpWork[myL.indices[e]];
+            }
+            tmpWork[tmpRow] = tmpVal;
+        }
+
+        System.arraycopy(tmpWork, 0, x, 0, myDim);
+    }
+
+    int countUpdates() {
+        return myEtas.vectors;
+    }
+
+    /**
+     * @param rows The row indices of the nonzero elements in each of the basis columns
+     * @param values The corresponding values
+     * @return true if the basis is (numerically) nonsingular, if not see {@link #getUnpivotedColumns()} and
+     *         {@link #getUnpivotedRows()}.
+     */
+    boolean factorise(final int[][] rows, final double[][] values) {
+
+        final int tmpDim = myDim;
+
+        myL.reset();
+        myU.reset();
+        myEtas.reset();
+
+        final int[] tmpRowLen = new int[tmpDim];
+        final int[] tmpColLen = new int[tmpDim];
+        for (int j = 0; j < tmpDim; j++) {
+            tmpColLen[j] = rows[j].length;
+            for (int e = 0; e < rows[j].length; e++) {
+                tmpRowLen[rows[j][e]]++;
+            }
+        }
+
+        final int[][] tmpRowCols = new int[tmpDim][];
+        final double[][] tmpRowVals = new double[tmpDim][];
+        for (int i = 0; i < tmpDim; i++) {
+            tmpRowCols[i] = new int[Math.max(4, 2 * tmpRowLen[i])];
+            tmpRowVals[i] = new double[tmpRowCols[i].length];
+            tmpRowLen[i] = 0;
+        }
+
+        final int[][] tmpColRows = new int[tmpDim][];
+        for (int j = 0; j < tmpDim; j++) {
+            tmpColRows[j] = Arrays.copyOf(rows[j], Math.max(4, 2 * rows[j].length));
+            for (int e = 0; e < rows[j].length; e++) {
+                final int i = rows[j][e];
+                tmpRowCols[i][tmpRowLen[i]] = j;
+                tmpRowVals[i][tmpRowLen[i]] = values[j][e];
+                tmpRowLen[i]++;
+            }
+        }
+
+        // Columns linked in buckets by their number of (remaining) nonzeros
+        final int[] tmpHead = new int[tmpDim + 1];
+        final int[] tmpNext = new int[tmpDim];
+        final int[] tmpPrev = new int[tmpDim];
+        final int[] tmpBucket = new int[tmpDim];
+        Arrays.fill(tmpHead, -1);
+        for (int j = 0; j < tmpDim; j++) {
+            SparseLU.link(j, tmpColLen[j], tmpHead, tmpNext, tmpPrev, tmpBucket);
+        }
+
+        final int[] tmpMark = new int[tmpDim];
+        Arrays.fill(tmpMark, -1);
+
+        myRank = 0;
+        for (int k = 0; k < tmpDim; k++) {
+
+            // Markowitz search
+
+            int tmpPivotRow = -1;
+            int tmpPivotCol = -1;
+            long tmpBestCost = Long.MAX_VALUE;
+            double tmpBestAbs = ZERO;
+            int tmpExamined = 0;
+
+            search: for (int c = 1; c <= tmpDim; c++) {
+                for (int j = tmpHead[c]; j >= 0; j = tmpNext[j]) {
+
+                    double tmpMax = ZERO;
+                    for (int e = 0; e < tmpColLen[j]; e++) {
+                        final int i = tmpColRows[j][e];
+                        tmpMax = Math.max(tmpMax, Math.abs(tmpRowVals[i][SparseLU.find(tmpRowCols[i], tmpRowLen[i], j)]));
+                    }
+
+                    if (tmpMax > PIVOT_TOLERANCE) {
+
+                        for (int e = 0; e < tmpColLen[j]; e++) {
+                            final int i = tmpColRows[j][e];
+                            final double tmpAbs = Math.abs(tmpRowVals[i][SparseLU.find(tmpRowCols[i], tmpRowLen[i], j)]);
+                            if (tmpAbs >= (PIVOT_THRESHOLD * tmpMax)) {
+                                final long tmpCost = (long) (tmpRowLen[i] - 1) * (c - 1);
+                                if ((tmpCost < tmpBestCost) || ((tmpCost == tmpBestCost) && (tmpAbs > tmpBestAbs))) {
+                                    tmpPivotRow = i;
+                                    tmpPivotCol = j;
+                                    tmpBestCost = tmpCost;
+                                    tmpBestAbs = tmpAbs;
+                                }
+                            }
+                        }
+
+                        if ((tmpBestCost == 0L) || (++tmpExamined >= SEARCH_LIMIT)) {
+                            break search;
+                        }
+                    }
+                }
+            }
+
+            if (tmpPivotRow < 0) {
+                this.markUnpivoted(tmpColLen, tmpRowLen);
+                return false;
+            }
+
+            // Pivot row to U
+
+            final int p = tmpPivotRow;
+            final int q = tmpPivotCol;
+            final int[] tmpCols = tmpRowCols[p];
+            final double[] tmpVals = tmpRowVals[p];
+            final int tmpLen = tmpRowLen[p];
+
+            final double tmpPivot = tmpVals[SparseLU.find(tmpCols, tmpLen, q)];
+
+            myPivotRows[k] = p;
+            myPivotColumns[k] = q;
+            myPivotValues[k] = tmpPivot;
+
+            for (int e = 0; e < tmpLen; e++) {
+                final int j = tmpCols[e];
+                if (j != q) {
+                    myU.add(j, tmpVals[e]);
+                    SparseLU.remove(tmpColRows[j], tmpColLen, j, p);
+                }
+            }
+            myU.close();
+
+            SparseLU.unlink(q, tmpHead, tmpNext, tmpPrev, tmpBucket);
+            tmpRowLen[p] = -1;
+
+            // Eliminate column q from the other rows
+
+            for (int s = 0; s < tmpColLen[q]; s++) {
+
+                final int i = tmpColRows[q][s];
+                if (i == p) {
+                    continue;
+                }
+
+                int[] tmpRowI = tmpRowCols[i];
+                double[] tmpValI = tmpRowVals[i];
+
+                final int tmpIndexQ = SparseLU.find(tmpRowI, tmpRowLen[i], q);
+                final double tmpMultiplier = tmpValI[tmpIndexQ] / tmpPivot;
+                tmpRowLen[i]--;
+                tmpRowI[tmpIndexQ] = tmpRowI[tmpRowLen[i]];
+                tmpValI[tmpIndexQ] = tmpValI[tmpRowLen[i]];
+
+                myL.add(i, tmpMultiplier);
+
+                for (int e = 0; e < tmpRowLen[i]; e++) {
+                    tmpMark[tmpRowI[e]] = e;
+                }
+
+                for (int e = 0; e < tmpLen; e++) {
+                    final int j = tmpCols[e];
+                    if (j != q) {
+                        if (tmpMark[j] >= 0) {
+                            tmpValI[tmpMark[j]] -= tmpMultiplier * tmpVals[e];
+                        } else {
+                            if (tmpRowLen[i] == tmpRowI.length) {
+                                tmpRowCols[i] = tmpRowI = Arrays.copyOf(tmpRowI, 2 * tmpRowI.length);
+                                tmpRowVals[i] = tmpValI = Arrays.copyOf(tmpValI, 2 * tmpValI.length);
+                            }
+                            tmpRowI[tmpRowLen[i]] = j;
+                            tmpValI[tmpRowLen[i]] = -tmpMultiplier * tmpVals[e];
+                            tmpRowLen[i]++;
+                            if (tmpColLen[j] == tmpColRows[j].length) {
+                                tmpColRows[j] = Arrays.copyOf(tmpColRows[j], 2 * tmpColRows[j].length);
+                            }
+                            tmpColRows[j][tmpColLen[j]++] = i;
+                        }
+                    }
+                }
+
+                for (int e = 0; e < tmpRowLen[i]; e++) {
+                    tmpMark[tmpRowI[e]] = -1;
+                }
+            }
+            myL.close();
+
+            tmpColLen[q] = -1;
+
+            for (int e = 0; e < tmpLen; e++) {
+                final int j = tmpCols[e];
+                if (j != q) {
+                    SparseLU.unlink(j, tmpHead, tmpNext, tmpPrev, tmpBucket);
+                    SparseLU.link(j, tmpColLen[j], tmpHead, tmpNext, tmpPrev, tmpBucket);
+                }
+            }
+
+            myRank++;
+        }
+
+        return true;
+    }
+
+    /**
+     * [x] := [B]<sup>-1</sup>[x] (row indexed in, position indexed out)
+     */
+    void ftran(final double[] x) {
+
+        for (int k = 0; k < myDim; k++) {
+            final double tmpVal = x[myPivotRows[k]];
+            if (tmpVal != ZERO) {
+                for (int e = myL.pointers[k]; e < myL.pointers[k + 1]; e++) {
+                    x[myL.indices[e]] -= myL.values[e] * tmpVal;
+                }
+            }
+        }
+
+        final double[] tmpWork = myWork;
+        for (int k = myDim - 1; k >= 0; k--) {
+            double tmpVal = x[myPivotRows[k]];
+            for (int e = myU.pointers[k]; e < myU.pointers[k + 1]; e++) {
+                tmpVal -= myU.values[e] * tmpWork[myU.indices[e]];
+            }
+            tmpWork[myPivotColumns[k]] = tmpVal / myPivotValues[k];
+        }
+        System.arraycopy(tmpWork, 0, x, 0, myDim);
+
+        for (int t = 0; t < myEtas.vectors; t++) {
+            final int tmpPosition = myEtaPositions[t];
+            final double tmpVal = x[tmpPosition] / myEtaPivots[t];
+            x[tmpPosition] = tmpVal;
+            if (tmpVal != ZERO) {
+                for (int e = myEtas.pointers[t]; e < myEtas.pointers[t + 1]; e++) {
+                    x[myEtas.indices[e]] -= myEtas.values[e] * tmpVal;
+                }
+            }
+        }
+    }
+
+    /**
+     * After a failed {@link #factorise(int[][], double[][])}; the basis positions that could not be pivoted.
+     * Same length as, and to be paired with, {@link #getUnpivotedRows()}.
+     */
+    int[] getUnpivotedColumns() {
+        return Arrays.copyOfRange(myPivotColumns, myRank, myDim);
+    }
+
+    /**
+     * After a failed {@link #factorise(int[][], double[][])}; the rows that could not be pivoted.
+     */
+    int[] getUnpivotedRows() {
+        return Arrays.copyOfRange(myPivotRows, myRank, myDim);
+    }
+
+    /**
+     * Product form update: the basis column at position is replaced, and alpha is that (entering) column
+     * already transformed by {@link #ftran(double[])}.
+     */
+    void update(final int position, final double[] alpha) {
+
+        final int tmpCount = myEtas.vectors;
+        if (tmpCount == myEtaPositions.length) {
+            myEtaPositions = Arrays.copyOf(myEtaPositions, 2 * tmpCount);
+            myEtaPivots = Arrays.copyOf(myEtaPivots, 2 * tmpCount);
+        }
+        myEtaPositions[tmpCount] = position;
+        myEtaPivots[tmpCount] = alpha[position];
+
+        for (int i = 0; i < myDim; i++) {
+            if ((i != position) && (alpha[i] != ZERO)) {
+                myEtas.add(i, alpha[i]);
+            }
+        }
+        myEtas.close();
+    }
+
+    /**
+     * Stores the remaining (unpivoted) columns and rows after the pivoted ones.
+     */
+    private void markUnpivoted(final int[] colLen, final int[] rowLen) {
+        int tmpCol = myRank;
+        for (int j = 0; j < myDim; j++) {
+            if (colLen[j] >= 0) {
+                myPivotColumns[tmpCol++] = j;
+            }
+        }
+        int tmpRow = myRank;
+        for (int i = 0; i < myDim; i++) {
+            if (rowLen[i] >= 0) {
+                myPivotRows[tmpRow++] = i;
+            }
+        }
+    }
+
+    private static int find(final int[] indices, final int length, final int index) {
+        for (int e = 0; e < length; e++) {
+            if (indices[e] == index) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    private static void link(final int column, final int count, final int[] head, final int[] next, final int[] prev, final int[] bucket) {
+        bucket[column] = count;
+        prev[column] = -1;
+        next[column] = head[count];
+        if (head[count] >= 0) {
+            prev[head[count]] = column;
+        }
+        head[count] = column;
+    }
+
+    private static void remove(final int[] rows, final int[] colLen, final int column, final int row) {
+        final int tmpIndex = SparseLU.find(rows, colLen[column], row);
+        colLen[column]--;
+        rows[tmpIndex] = rows[colLen[column]];
+    }
+
+    private static void unlink(final int column, final int[] head, final int[] next, final int[] prev, final int[] bucket) {
+        if (prev[column] >= 0) {
+            next[prev[column]] = next[column];
+        } else {
+            head[bucket[column]] = next[column];
+        }
+        if (next[column] >= 0) {
+            prev[next[column]] = prev[column];
+        }
+    }
+
+}
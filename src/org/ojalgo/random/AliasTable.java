@@ -0,0 +1,113 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Walker's alias method, with Vose's construction, for sampling a discrete distribution with finite
+ * support in constant time. Building the table is linear in the size of the support, so it only pays off
+ * when generating many random numbers.
+ *
+ * @author apete
+ */
+final class AliasTable {
+
+    private final int[] myAliases;
+    private final double[] myThresholds;
+
+    /**
+     * @param probabilities The (not necessarily normalised) probabilities of 0, 1, 2...
+     */
+    AliasTable(final double[] probabilities) {
+
+        super();
+
+        final int tmpSize = probabilities.length;
+
+        myAliases = new int[tmpSize];
+        myThresholds = new double[tmpSize];
+
+        double tmpSum = ZERO;
+        for (int i = 0; i < tmpSize; i++) {
+            tmpSum += probabilities[i];
+        }
+
+        final double[] tmpScaled = new double[tmpSize];
+        final int[] tmpSmall = new int[tmpSize];
+        final int[] tmpLarge = new int[tmpSize];
+        int tmpSmallCount = 0;
+        int tmpLargeCount = 0;
+
+        for (int i = 0; i < tmpSize; i++) {
+            tmpScaled[i] = (probabilities[i] * tmpSize) / tmpSum;
+            if (tmpScaled[i] < ONE) {
+                tmpSmall[tmpSmallCount++] = i;
+            } else {
+                tmpLarge[tmpLargeCount++] = i;
+            }
+        }
+
+        while ((tmpSmallCount > 0) && (tmpLargeCount > 0)) {
+
+            final int tmpLess = tmpSmall[--tmpSmallCount];
+            final int tmpMore = tmpLarge[--tmpLargeCount];
+
+            myThresholds[tmpLess] = tmpScaled[tmpLess];
+            myAliases[tmpLess] = tmpMore;
+
+            tmpScaled[tmpMore] = (tmpScaled[tmpMore] + tmpScaled[tmpLess]) - ONE;
+            if (tmpScaled[tmpMore] < ONE) {
+                tmpSmall[tmpSmallCount++] = tmpMore;
+            } else {
+                tmpLarge[tmpLargeCount++] = tmpMore;
+            }
+        }
+
+        // Whatever remains (in either list) should be 1.0, but for rounding errors
+        while (tmpLargeCount > 0) {
+            final int tmpIndex = tmpLarge[--tmpLargeCount];
+            myThresholds[tmpIndex] = ONE;
+            myAliases[tmpIndex] = tmpIndex;
+        }
+        while (tmpSmallCount > 0) {
+            final int tmpIndex = tmpSmall[--tmpSmallCount];
+            myThresholds[tmpIndex] = ONE;
+            myAliases[tmpIndex] = tmpIndex;
+        }
+    }
+
+    int sample(final SplittableRandom random) {
+
+        final double tmpScaled = random.nextDouble() * myThresholds.length;
+        final int tmpIndex = (int) tmpScaled;
+
+        return (tmpScaled - tmpIndex) < myThresholds[tmpIndex] ? tmpIndex : myAliases[tmpIndex];
+    }
+
+    int size() {
+        return myThresholds.length;
+    }
+
+}
@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * The frequency in aCount indepedent trials, each with probability aProbability, has a binomial distribution.
  *
@@ -47,6 +49,28 @@ public class Binomial extends AbstractDiscrete {
         myProbability = aProbability;
     }
 
+    /**
+     * When generating enough numbers to make it worthwhile, an {@linkplain AliasTable} is used.
+     */
+    @Override
+    public void fill(final double[] destination, final int first, final int limit, final SplittableRandom random) {
+
+        final double[] tmpProbabilities = this.tabulate(limit - first);
+
+        if (tmpProbabilities != null) {
+
+            final AliasTable tmpTable = new AliasTable(tmpProbabilities);
+
+            for (int i = first; i < limit; i++) {
+                destination[i] = tmpTable.sample(random);
+            }
+
+        } else {
+
+            super.fill(destination, first, limit, random);
+        }
+    }
+
     public double getExpected() {
         return myCount * myProbability;
     }
@@ -60,6 +84,31 @@ public class Binomial extends AbstractDiscrete {
         return myCount * myProbability * (ONE - myProbability);
     }
 
+    /**
+     * @return The probabilities of 0, 1, 2... myCount, or null if there would be more than maxSize of them.
+     */
+    private double[] tabulate(final int maxSize) {
+
+        if ((myCount >= maxSize) || (myProbability <= ZERO) || (myProbability >= ONE)) {
+            return null;
+        }
+
+        final double tmpFirst = Math.pow(ONE - myProbability, myCount);
+        if (tmpFirst <= ZERO) {
+            return null;
+        }
+
+        final double tmpOdds = myProbability / (ONE - myProbability);
+
+        final double[] retVal = new double[myCount + 1];
+        retVal[0] = tmpFirst;
+        for (int k = 0; k < myCount; k++) {
+            retVal[k + 1] = (retVal[k] * (myCount - k) * tmpOdds) / (k + 1);
+        }
+
+        return retVal;
+    }
+
     @Override
     protected double generate() {
 
@@ -72,4 +121,18 @@ public class Binomial extends AbstractDiscrete {
         return retVal;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+
+        int retVal = 0;
+
+        for (int i = 0; i < myCount; i++) {
+            if (random.nextDouble() < myProbability) {
+                retVal++;
+            }
+        }
+
+        return retVal;
+    }
+
 }
@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * @author apete
  */
@@ -72,4 +74,9 @@ public class Deterministic extends RandomNumber {
         return myValue;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return myValue;
+    }
+
 }
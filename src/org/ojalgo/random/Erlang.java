@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * Distribution of the sum of aCount random variables with an exponential distribution with parameter aLambda.
  *
@@ -68,4 +70,9 @@ public class Erlang extends RandomNumber {
         return tmpVal / myRate;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return RandomUtils.nextGamma(random, myCount) / myRate;
+    }
+
 }
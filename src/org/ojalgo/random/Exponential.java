@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * Distribution of length of life when no aging. Describes the time between events in a Poisson process, i.e.
  * a process in which events occur continuously and independently at a constant average rate. It is the
@@ -84,4 +86,9 @@ public class Exponential extends AbstractContinuous {
         return -Math.log(this.random().nextDouble()) / myRate;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return -Math.log(ONE - random.nextDouble()) / myRate;
+    }
+
 }
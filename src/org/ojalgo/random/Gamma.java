@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 import org.ojalgo.type.TypeUtils;
 
 /**
@@ -97,4 +99,9 @@ public class Gamma extends RandomNumber {
         return (tmpIntegralPart + tmpFractionalPart) / myRate;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return RandomUtils.nextGamma(random, myShape) / myRate;
+    }
+
 }
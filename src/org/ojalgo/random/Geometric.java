@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * The number of required trials until an event with probability aProbability occurs has a geometric
  * distribution.
@@ -71,4 +73,9 @@ public class Geometric extends AbstractDiscrete {
         return retVal;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return ONE + Math.floor(Math.log(ONE - random.nextDouble()) / Math.log1p(-myProbability));
+    }
+
 }
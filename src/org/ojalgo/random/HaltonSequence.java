@@ -0,0 +1,109 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * A scrambled Halton low-discrepancy (quasi-random) sequence. Coordinate d of point n is the radical inverse
+ * of n in the d:th prime base. In high dimensions the plain sequence has strong correlations between
+ * coordinates, so each digit is multiplied by a random (per dimension) factor modulo the base. The points are
+ * then shifted by a random vector, modulo 1. Different seeds give independent randomisations of the
+ * sequence.
+ *
+ * @author apete
+ */
+public final class HaltonSequence {
+
+    private static final double SMALLEST = 0x1.0p-53;
+
+    private static int[] primes(final int count) {
+
+        final int[] retVal = new int[count];
+
+        int tmpFound = 0;
+        for (int tmpCandidate = 2; tmpFound < count; tmpCandidate++) {
+            boolean tmpPrime = true;
+            for (int i = 0; tmpPrime && (i < tmpFound) && ((retVal[i] * retVal[i]) <= tmpCandidate); i++) {
+                tmpPrime = (tmpCandidate % retVal[i]) != 0;
+            }
+            if (tmpPrime) {
+                retVal[tmpFound++] = tmpCandidate;
+            }
+        }
+
+        return retVal;
+    }
+
+    private final int[] myBases;
+    private final int[] myMultipliers;
+    private final double[] myShifts;
+
+    public HaltonSequence(final int dimension, final long seed) {
+
+        super();
+
+        myBases = HaltonSequence.primes(dimension);
+        myMultipliers = new int[dimension];
+        myShifts = new double[dimension];
+
+        final SplittableRandom tmpRandom = new SplittableRandom(seed);
+        for (int d = 0; d < dimension; d++) {
+            myMultipliers[d] = 1 + tmpRandom.nextInt(myBases[d] - 1);
+            myShifts[d] = tmpRandom.nextDouble();
+        }
+    }
+
+    public int dimension() {
+        return myBases.length;
+    }
+
+    /**
+     * @param index Which point, 0, 1, 2...
+     * @param destination Where to write the point's coordinates - all in the open interval (0,1)
+     */
+    public void point(final long index, final double[] destination) {
+
+        for (int d = 0; d < myBases.length; d++) {
+
+            final int tmpBase = myBases[d];
+            final long tmpMultiplier = myMultipliers[d];
+
+            double tmpValue = ZERO;
+            double tmpFactor = ONE / tmpBase;
+            for (long n = index + 1L; n > 0L; n /= tmpBase) {
+                tmpValue += ((tmpMultiplier * (n % tmpBase)) % tmpBase) * tmpFactor;
+                tmpFactor /= tmpBase;
+            }
+
+            tmpValue += myShifts[d];
+            if (tmpValue >= ONE) {
+                tmpValue -= ONE;
+            }
+
+            destination[d] = Math.max(SMALLEST, Math.min(tmpValue, ONE - SMALLEST));
+        }
+    }
+
+}
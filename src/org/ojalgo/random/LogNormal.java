@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 import org.ojalgo.access.Access1D;
 import org.ojalgo.array.Array1D;
 
@@ -121,4 +123,9 @@ public class LogNormal extends AbstractContinuous {
         return Math.exp(myNormal.generate());
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return Math.exp(myNormal.generate(random));
+    }
+
 }
@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * Under general conditions, the sum of a large number of random variables is approximately normally
  * distributed (the central limit theorem).
@@ -80,4 +82,9 @@ public class Normal extends AbstractContinuous {
         return (this.random().nextGaussian() * myScale) + myLocation;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return (RandomUtils.nextGaussian(random) * myScale) + myLocation;
+    }
+
 }
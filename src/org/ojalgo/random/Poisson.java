@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * The Poisson distribution is a discrete probability distribution that expresses the probability of a given
  * number of events occurring in a fixed interval of time and/or space if these events occur with a known
@@ -50,6 +52,36 @@ public class Poisson extends AbstractDiscrete {
         myLambda = aLambda;
     }
 
+    /**
+     * When generating enough numbers to make it worthwhile, an {@linkplain AliasTable} is used. It covers
+     * everything but the extremely unlikely upper tail, and those numbers are generated by rejection.
+     */
+    @Override
+    public void fill(final double[] destination, final int first, final int limit, final SplittableRandom random) {
+
+        final double[] tmpProbabilities = this.tabulate(limit - first);
+
+        if (tmpProbabilities != null) {
+
+            final AliasTable tmpTable = new AliasTable(tmpProbabilities);
+            final int tmpTail = tmpTable.size() - 1;
+
+            for (int i = first; i < limit; i++) {
+                int tmpValue = tmpTable.sample(random);
+                if (tmpValue == tmpTail) {
+                    do {
+                        tmpValue = RandomUtils.nextPoisson(random, myLambda);
+                    } while (tmpValue < tmpTail);
+                }
+                destination[i] = tmpValue;
+            }
+
+        } else {
+
+            super.fill(destination, first, limit, random);
+        }
+    }
+
     public double getExpected() {
         return myLambda;
     }
@@ -63,6 +95,42 @@ public class Poisson extends AbstractDiscrete {
         return myLambda;
     }
 
+    /**
+     * @return The probabilities of 0, 1, 2... and, last, of the remaining upper tail. Null if that would
+     *         require more than maxSize elements.
+     */
+    private double[] tabulate(final int maxSize) {
+
+        final double tmpFirst = Math.exp(-myLambda);
+        if (tmpFirst <= ZERO) {
+            return null;
+        }
+
+        int tmpSize = 0;
+        double tmpCumulative = ZERO;
+        double tmpProbability = tmpFirst;
+        while ((tmpSize <= myLambda) || (tmpProbability > (MACHINE_EPSILON * tmpCumulative))) {
+            if (++tmpSize >= maxSize) {
+                return null;
+            }
+            tmpCumulative += tmpProbability;
+            tmpProbability *= myLambda / tmpSize;
+        }
+
+        final double[] retVal = new double[tmpSize + 1];
+
+        tmpCumulative = ZERO;
+        tmpProbability = tmpFirst;
+        for (int k = 0; k < tmpSize; k++) {
+            retVal[k] = tmpProbability;
+            tmpCumulative += tmpProbability;
+            tmpProbability *= myLambda / (k + 1);
+        }
+        retVal[tmpSize] = Math.max(ZERO, ONE - tmpCumulative);
+
+        return retVal;
+    }
+
     @Override
     protected double generate() {
 
@@ -79,4 +147,9 @@ public class Poisson extends AbstractDiscrete {
         return retVal;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return RandomUtils.nextPoisson(random, myLambda);
+    }
+
 }
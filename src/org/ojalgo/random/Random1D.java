@@ -21,21 +21,95 @@
  */
 package org.ojalgo.random;
 
+import static org.ojalgo.constant.PrimitiveMath.*;
+
 import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.ojalgo.access.Access2D;
 import org.ojalgo.array.Array1D;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.matrix.decomposition.Cholesky;
-import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.type.Alternator;
 
 public class Random1D {
 
+    /**
+     * Generates, or correlates, a block of random vectors at the time - with one matrix multiplication (GEMM)
+     * using buffers that are reused between calls. Not thread safe, each thread should have its own instance,
+     * but they all share the Cholesky factor of the {@link Random1D} that created them.
+     */
+    public final class Generator {
+
+        private final int myCount;
+        private final PrimitiveDenseStore myCorrelated;
+        private final PrimitiveDenseStore myUncorrelated;
+
+        Generator(final int count) {
+
+            super();
+
+            myCount = count;
+
+            myUncorrelated = PrimitiveDenseStore.FACTORY.makeZero(length, count);
+            myCorrelated = myCholeskiedCorrelations != null ? PrimitiveDenseStore.FACTORY.makeZero(length, count) : null;
+        }
+
+        /**
+         * Correlates the vectors in place. Vector r (0 &lt;= r &lt; count) is at values[offset + r * length],
+         * and has the elements in order.
+         *
+         * @param count At most {@link #count()}
+         */
+        public void correlate(final double[] values, final int offset, final int count) {
+            if (myCholeskiedCorrelations != null) {
+                final int tmpLength = count * length;
+                System.arraycopy(values, offset, myUncorrelated.data, 0, tmpLength);
+                myCorrelated.fillByMultiplying(myCholeskiedCorrelations, myUncorrelated);
+                System.arraycopy(myCorrelated.data, 0, values, offset, tmpLength);
+            }
+        }
+
+        /**
+         * The maximum number of vectors per call
+         */
+        public int count() {
+            return myCount;
+        }
+
+        /**
+         * Writes count vectors of correlated standard normal random numbers to the destination, laid out as
+         * with {@link #correlate(double[], int, int)}.
+         *
+         * @param count At most {@link #count()}
+         */
+        public void nextGaussian(final SplittableRandom random, final double[] destination, final int offset, final int count) {
+
+            final int tmpLength = count * length;
+
+            final double[] tmpUncorrelated = myUncorrelated.data;
+            for (int i = 0; i < tmpLength; i++) {
+                tmpUncorrelated[i] = RandomUtils.nextGaussian(random);
+            }
+
+            if (myCholeskiedCorrelations != null) {
+                myCorrelated.fillByMultiplying(myCholeskiedCorrelations, myUncorrelated);
+                System.arraycopy(myCorrelated.data, 0, destination, offset, tmpLength);
+            } else {
+                System.arraycopy(tmpUncorrelated, 0, destination, offset, tmpLength);
+            }
+        }
+
+    }
+
     public final int length;
 
     private final Alternator<Random> myAlternator = RandomNumber.makeRandomAlternator();
-    private final MatrixStore<Double> myCholeskiedCorrelations;
+    /**
+     * Decomposed once, and then shared by all generators
+     */
+    private final PrimitiveDenseStore myCholeskiedCorrelations;
 
     public Random1D(final Access2D<?> aCorrelationsMatrix) {
 
@@ -43,7 +117,7 @@ public class Random1D {
 
         final Cholesky<Double> tmpCholesky = Cholesky.makePrimitive();
         tmpCholesky.decompose(aCorrelationsMatrix);
-        myCholeskiedCorrelations = tmpCholesky.getL();
+        myCholeskiedCorrelations = PrimitiveDenseStore.FACTORY.copy(tmpCholesky.getL());
 
         tmpCholesky.reset();
 
@@ -67,22 +141,37 @@ public class Random1D {
         this(null);
     }
 
+    /**
+     * Correlates {@link #length} uncorrelated (standard normal) random numbers, in place, starting at offset.
+     * Does nothing if the variables are uncorrelated.
+     */
+    public void correlate(final double[] values, final int offset) {
+        if (myCholeskiedCorrelations != null) {
+            // L is lower triangular; going backwards each uncorrelated value is used before it's overwritten
+            final double[] tmpFactor = myCholeskiedCorrelations.data;
+            for (int i = length - 1; i >= 0; i--) {
+                double tmpVal = ZERO;
+                for (int j = 0; j <= i; j++) {
+                    tmpVal += tmpFactor[i + (j * length)] * values[offset + j];
+                }
+                values[offset + i] = tmpVal;
+            }
+        }
+    }
+
     /**
      * An array of correlated random numbers, provided that you gave a correlations matrix to the constructor.
      */
     public Array1D<Double> nextDouble() {
 
-        final PrimitiveDenseStore tmpUncorrelated = PrimitiveDenseStore.FACTORY.makeZero(length, 1);
-
+        final double[] retVal = new double[length];
         for (int i = 0; i < length; i++) {
-            tmpUncorrelated.set(i, 0, this.random().nextDouble());
+            retVal[i] = this.random().nextDouble();
         }
 
-        if (myCholeskiedCorrelations != null) {
-            return ((PrimitiveDenseStore) tmpUncorrelated.multiplyLeft(myCholeskiedCorrelations)).asList();
-        } else {
-            return tmpUncorrelated.asList();
-        }
+        this.correlate(retVal, 0);
+
+        return Array1D.PRIMITIVE.wrap(PrimitiveArray.wrap(retVal));
     }
 
     /**
@@ -90,17 +179,36 @@ public class Random1D {
      */
     public Array1D<Double> nextGaussian() {
 
-        final PrimitiveDenseStore tmpUncorrelated = PrimitiveDenseStore.FACTORY.makeZero(length, 1);
-
+        final double[] retVal = new double[length];
         for (int i = 0; i < length; i++) {
-            tmpUncorrelated.set(i, 0, this.random().nextGaussian());
+            retVal[i] = this.random().nextGaussian();
         }
 
-        if (myCholeskiedCorrelations != null) {
-            return ((PrimitiveDenseStore) tmpUncorrelated.multiplyLeft(myCholeskiedCorrelations)).asList();
-        } else {
-            return tmpUncorrelated.asList();
+        this.correlate(retVal, 0);
+
+        return Array1D.PRIMITIVE.wrap(PrimitiveArray.wrap(retVal));
+    }
+
+    /**
+     * Writes {@link #length} correlated standard normal random numbers to the destination array, starting at
+     * offset. The same as {@link #nextGaussian()}, but draws from the supplied generator and doesn't allocate
+     * anything.
+     */
+    public void nextGaussian(final SplittableRandom random, final double[] destination, final int offset) {
+
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = RandomUtils.nextGaussian(random);
         }
+
+        this.correlate(destination, offset);
+    }
+
+    /**
+     * @param count The (maximum) number of vectors to generate per call
+     * @return A new generator, to be used by one thread only
+     */
+    public Random1D.Generator newGenerator(final int count) {
+        return new Generator(count);
     }
 
     public int size() {
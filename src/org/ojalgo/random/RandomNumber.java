@@ -24,8 +24,13 @@ package org.ojalgo.random;
 import static org.ojalgo.constant.PrimitiveMath.*;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 
+import org.ojalgo.array.BasicArray;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.function.NullaryFunction;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.type.Alternator;
 
 /**
@@ -38,6 +43,23 @@ public abstract class RandomNumber extends Number implements Distribution, Nulla
     private static final Random SEED = new Random();
     private static final long serialVersionUID = -5871398825698010936L;
 
+    /**
+     * The generators used for bulk generation. Not synchronised, and never shared between threads.
+     */
+    private static final ThreadLocal<SplittableRandom> GENERATOR = new ThreadLocal<SplittableRandom>() {
+
+        @Override
+        protected SplittableRandom initialValue() {
+            return new SplittableRandom(SEED.nextLong());
+        }
+
+    };
+
+    /**
+     * The size of the intermediate buffer used when the destination is not backed by a double[].
+     */
+    private static final int BUFFER_SIZE = 1024;
+
     static Alternator<Random> makeRandomAlternator() {
         return new Alternator<Random>(new Random(SEED.nextLong()), new Random(SEED.nextLong()));
     }
@@ -53,6 +75,88 @@ public abstract class RandomNumber extends Number implements Distribution, Nulla
         return this.generate();
     }
 
+    /**
+     * Fills the (BasicArray) destination with random numbers from this distribution.
+     *
+     * @see #fill(double[], int, int, SplittableRandom)
+     */
+    public final void fill(final BasicArray<Double> destination) {
+
+        if (destination instanceof PrimitiveArray) {
+
+            final double[] tmpData = ((PrimitiveArray) destination).data;
+            this.fill(tmpData, 0, tmpData.length, GENERATOR.get());
+
+        } else {
+
+            final long tmpCount = destination.count();
+            final double[] tmpBuffer = new double[(int) Math.min(BUFFER_SIZE, tmpCount)];
+
+            for (long first = 0L; first < tmpCount; first += tmpBuffer.length) {
+                final int tmpLength = (int) Math.min(tmpBuffer.length, tmpCount - first);
+                this.fill(tmpBuffer, 0, tmpLength, GENERATOR.get());
+                for (int i = 0; i < tmpLength; i++) {
+                    destination.set(first + i, tmpBuffer[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the destination array with random numbers from this distribution.
+     *
+     * @see #fill(double[], int, int, SplittableRandom)
+     */
+    public final void fill(final double[] destination) {
+        this.fill(destination, 0, destination.length, GENERATOR.get());
+    }
+
+    /**
+     * Fills a range of the destination array with random numbers from this distribution. This is (much)
+     * faster than repeatedly calling {@link #doubleValue()}; nothing is boxed or synchronised, and some
+     * distributions use algorithms that only pay off when generating many numbers at once. The other fill
+     * methods use a thread-local generator, and end up here.
+     *
+     * @param destination Where to write the random numbers
+     * @param first The first index to write to
+     * @param limit The first index NOT to write to
+     * @param random The random number generator to draw from - must not be used by other threads
+     *        concurrently
+     */
+    public void fill(final double[] destination, final int first, final int limit, final SplittableRandom random) {
+        for (int i = first; i < limit; i++) {
+            destination[i] = this.generate(random);
+        }
+    }
+
+    /**
+     * Fills one column of the (PhysicalStore) destination with random numbers from this distribution.
+     *
+     * @see #fill(double[], int, int, SplittableRandom)
+     */
+    public final void fill(final PhysicalStore<Double> destination, final long column) {
+
+        final long tmpRows = destination.countRows();
+
+        if (destination instanceof PrimitiveDenseStore) {
+
+            final int tmpFirst = (int) (column * tmpRows);
+            this.fill(((PrimitiveDenseStore) destination).data, tmpFirst, tmpFirst + (int) tmpRows, GENERATOR.get());
+
+        } else {
+
+            final double[] tmpBuffer = new double[(int) Math.min(BUFFER_SIZE, tmpRows)];
+
+            for (long first = 0L; first < tmpRows; first += tmpBuffer.length) {
+                final int tmpLength = (int) Math.min(tmpBuffer.length, tmpRows - first);
+                this.fill(tmpBuffer, 0, tmpLength, GENERATOR.get());
+                for (int i = 0; i < tmpLength; i++) {
+                    destination.set(first + i, column, tmpBuffer[i]);
+                }
+            }
+        }
+    }
+
     @Override
     public final float floatValue() {
         return (float) this.generate();
@@ -106,6 +210,15 @@ public abstract class RandomNumber extends Number implements Distribution, Nulla
 
     protected abstract double generate();
 
+    /**
+     * Generate a random number drawing from the supplied generator. Used by the bulk fill methods. Subclasses
+     * should override this; the default implementation calls {@link #generate()} and ignores the supplied
+     * generator.
+     */
+    protected double generate(final SplittableRandom random) {
+        return this.generate();
+    }
+
     protected final Random random() {
         return myAlternator.get();
     }
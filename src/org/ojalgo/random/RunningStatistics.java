@@ -0,0 +1,320 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.ojalgo.function.VoidFunction;
+
+/**
+ * Statistics of a stream of values, updated one value at a time without keeping the values. Mean and
+ * variance are calculated using Welford's algorithm, and any number of quantiles can be estimated using the
+ * (extended) P&sup2; algorithm (Jain &amp; Chlamtac) - a fixed number of markers regardless of how many values
+ * there are. The first {@value #INITIAL} values are kept, and the quantiles are exact up to that point. Then
+ * the markers are initialised from those values, which makes the estimates of extreme quantiles much more
+ * reliable than starting from only a handful of values. The other statistics match those of
+ * {@link SampleSet}.
+ *
+ * @author apete
+ */
+public final class RunningStatistics implements VoidFunction<Double> {
+
+    /**
+     * P&sup2; markers, for any number of quantiles at the same time. There's a marker for each quantile, one
+     * at the minimum, one at the maximum and one in between each pair of those.
+     */
+    private static final class Markers {
+
+        private final double[] myDesired;
+        private final double[] myHeights;
+        private final double[] myIncrements;
+        private final int[] myPositions;
+
+        Markers(final double[] increments) {
+
+            super();
+
+            myIncrements = increments;
+
+            myDesired = new double[increments.length];
+            myHeights = new double[increments.length];
+            myPositions = new int[increments.length];
+        }
+
+        double getValue(final int index) {
+            return myHeights[index];
+        }
+
+        /**
+         * Place the markers at the desired positions among the (sorted) initial values.
+         */
+        void initialise(final double[] sorted, final int count) {
+
+            final int tmpLast = myIncrements.length - 1;
+
+            for (int i = 0; i <= tmpLast; i++) {
+                myDesired[i] = ONE + ((count - 1) * myIncrements[i]);
+                myPositions[i] = (int) Math.round(myDesired[i]);
+            }
+            for (int i = 1; i <= tmpLast; i++) {
+                myPositions[i] = Math.max(myPositions[i], myPositions[i - 1] + 1);
+            }
+            for (int i = tmpLast - 1; i >= 0; i--) {
+                myPositions[i] = Math.min(myPositions[i], myPositions[i + 1] - 1);
+            }
+            for (int i = 0; i <= tmpLast; i++) {
+                myHeights[i] = sorted[myPositions[i] - 1];
+            }
+        }
+
+        void invoke(final double value) {
+
+            final int tmpLast = myIncrements.length - 1;
+
+            int tmpCell;
+            if (value < myHeights[0]) {
+                myHeights[0] = value;
+                tmpCell = 0;
+            } else if (value >= myHeights[tmpLast]) {
+                myHeights[tmpLast] = value;
+                tmpCell = tmpLast - 1;
+            } else {
+                tmpCell = 0;
+                while (value >= myHeights[tmpCell + 1]) {
+                    tmpCell++;
+                }
+            }
+
+            for (int i = tmpCell + 1; i <= tmpLast; i++) {
+                myPositions[i]++;
+            }
+            for (int i = 0; i <= tmpLast; i++) {
+                myDesired[i] += myIncrements[i];
+            }
+
+            for (int i = 1; i < tmpLast; i++) {
+
+                final double tmpDiff = myDesired[i] - myPositions[i];
+
+                if (((tmpDiff >= ONE) && ((myPositions[i + 1] - myPositions[i]) > 1)) || ((tmpDiff <= NEG) && ((myPositions[i - 1] - myPositions[i]) < -1))) {
+
+                    final int tmpSign = tmpDiff > ZERO ? 1 : -1;
+
+                    final double tmpParabolic = this.parabolic(i, tmpSign);
+                    if ((myHeights[i - 1] < tmpParabolic) && (tmpParabolic < myHeights[i + 1])) {
+                        myHeights[i] = tmpParabolic;
+                    } else {
+                        myHeights[i] += (tmpSign * (myHeights[i + tmpSign] - myHeights[i])) / (myPositions[i + tmpSign] - myPositions[i]);
+                    }
+
+                    myPositions[i] += tmpSign;
+                }
+            }
+        }
+
+        private double parabolic(final int i, final int sign) {
+
+            final double tmpBelow = myPositions[i] - myPositions[i - 1];
+            final double tmpAbove = myPositions[i + 1] - myPositions[i];
+
+            return myHeights[i]
+                    + ((sign / (tmpBelow + tmpAbove))
+                            * ((((tmpBelow + sign) * (myHeights[i + 1] - myHeights[i])) / tmpAbove) + (((tmpAbove - sign) * (myHeights[i] - myHeights[i - 1])) / tmpBelow)));
+        }
+
+    }
+
+    /**
+     * The number of values kept, and used to initialise the quantile estimators
+     */
+    private static final int INITIAL = 1024;
+
+    private long myCount = 0L;
+    private double[] myInitial;
+    private double myMaximum = NEGATIVE_INFINITY;
+    private double myMean = ZERO;
+    private final Markers myMarkers;
+    private final int[] myMarkersIndices;
+    private double myMinimum = POSITIVE_INFINITY;
+    private final double[] myProbabilities;
+    private double mySumOfSquares = ZERO;
+
+    /**
+     * @param probabilities The quantiles to estimate (the probabilities, between 0.0 and 1.0)
+     */
+    public RunningStatistics(final double... probabilities) {
+
+        super();
+
+        myProbabilities = probabilities.clone();
+        myMarkersIndices = new int[probabilities.length];
+
+        if (probabilities.length > 0) {
+
+            final TreeSet<Double> tmpTargets = new TreeSet<Double>();
+            tmpTargets.add(ZERO);
+            tmpTargets.add(ONE);
+            for (int q = 0; q < probabilities.length; q++) {
+                if ((probabilities[q] < ZERO) || (probabilities[q] > ONE)) {
+                    throw new IllegalArgumentException();
+                }
+                tmpTargets.add(probabilities[q]);
+            }
+
+            final double[] tmpIncrements = new double[(2 * tmpTargets.size()) - 1];
+            int tmpIndex = 0;
+            for (final Double tmpTarget : tmpTargets) {
+                if (tmpIndex > 0) {
+                    tmpIncrements[tmpIndex - 1] = (tmpIncrements[tmpIndex - 2] + tmpTarget) / TWO;
+                }
+                tmpIncrements[tmpIndex] = tmpTarget;
+                tmpIndex += 2;
+            }
+
+            for (int q = 0; q < probabilities.length; q++) {
+                myMarkersIndices[q] = Arrays.binarySearch(tmpIncrements, probabilities[q]);
+            }
+
+            myMarkers = new Markers(tmpIncrements);
+            myInitial = new double[INITIAL];
+
+        } else {
+
+            myMarkers = null;
+            myInitial = null;
+        }
+    }
+
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * max(value)
+     */
+    public double getMaximum() {
+        return myMaximum;
+    }
+
+    public double getMean() {
+        return myCount > 0L ? myMean : Double.NaN;
+    }
+
+    /**
+     * min(value)
+     */
+    public double getMinimum() {
+        return myMinimum;
+    }
+
+    /**
+     * @param probability One of the probabilities specified when this instance was created
+     * @return The estimated quantile
+     */
+    public double getQuantile(final double probability) {
+        for (int q = 0; q < myProbabilities.length; q++) {
+            if (myProbabilities[q] == probability) {
+                if (myCount >= INITIAL) {
+                    return myMarkers.getValue(myMarkersIndices[q]);
+                } else if (myCount > 0L) {
+                    final double[] tmpSorted = Arrays.copyOf(myInitial, (int) myCount);
+                    Arrays.sort(tmpSorted);
+                    return tmpSorted[(int) Math.round(probability * (myCount - 1L))];
+                } else {
+                    return Double.NaN;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No estimate for that quantile!");
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(this.getVariance());
+    }
+
+    /**
+     * The sum of the squared deviations from the mean
+     *
+     * @see SampleSet#getSumOfSquares()
+     */
+    public double getSumOfSquares() {
+        return mySumOfSquares;
+    }
+
+    /**
+     * The sample variance - sum of squares divided by (count - 1)
+     */
+    public double getVariance() {
+        return myCount > 1L ? mySumOfSquares / (myCount - 1L) : Double.NaN;
+    }
+
+    public void invoke(final double value) {
+
+        myCount++;
+
+        final double tmpDelta = value - myMean;
+        myMean += tmpDelta / myCount;
+        mySumOfSquares += tmpDelta * (value - myMean);
+
+        if (value < myMinimum) {
+            myMinimum = value;
+        }
+        if (value > myMaximum) {
+            myMaximum = value;
+        }
+
+        if (myMarkers != null) {
+            if (myCount < INITIAL) {
+                myInitial[(int) myCount - 1] = value;
+            } else if (myCount == INITIAL) {
+                myInitial[(int) myCount - 1] = value;
+                Arrays.sort(myInitial);
+                myMarkers.initialise(myInitial, INITIAL);
+            } else {
+                myMarkers.invoke(value);
+            }
+        }
+    }
+
+    public void invoke(final Double value) {
+        this.invoke(value.doubleValue());
+    }
+
+    public void reset() {
+
+        myCount = 0L;
+        myMean = ZERO;
+        mySumOfSquares = ZERO;
+        myMinimum = POSITIVE_INFINITY;
+        myMaximum = NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        return "Count: " + this.count() + ", Mean: " + this.getMean() + ", Variance: " + this.getVariance() + ", Standard Deviation: "
+                + this.getStandardDeviation() + ", Minimum: " + this.getMinimum() + ", Maximum: " + this.getMaximum();
+    }
+
+}
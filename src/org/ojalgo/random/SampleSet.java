@@ -35,9 +35,7 @@ public final class SampleSet implements Access1D<Double> {
 
         final PrimitiveArray retVal = PrimitiveArray.make(aSize);
 
-        for (int i = 0; i < aSize; i++) {
-            retVal.data[i] = aRndmNmbr.doubleValue();
-        }
+        aRndmNmbr.fill(retVal.data);
 
         return new SampleSet(retVal);
     }
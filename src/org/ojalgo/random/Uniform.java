@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * Certain waiting times. Rounding errors.
  *
@@ -116,4 +118,9 @@ public class Uniform extends AbstractContinuous {
     protected double generate() {
         return myLower + (myRange * this.random().nextDouble());
     }
+
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return myLower + (myRange * random.nextDouble());
+    }
 }
@@ -23,6 +23,8 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 /**
  * Useful as length of life distribution in reliability theory.
  * 
@@ -65,4 +67,9 @@ public class Weibull extends RandomNumber {
         return Math.pow(-Math.log(this.random().nextDouble()), ONE / myShape) / myRate;
     }
 
+    @Override
+    protected double generate(final SplittableRandom random) {
+        return Math.pow(-Math.log(ONE - random.nextDouble()), ONE / myShape) / myRate;
+    }
+
 }
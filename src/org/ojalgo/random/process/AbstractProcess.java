@@ -26,11 +26,14 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.TreeSet;
 
 import org.ojalgo.array.Array2D;
+import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.random.ContinuousDistribution;
 import org.ojalgo.random.Distribution;
+import org.ojalgo.random.RandomUtils;
 import org.ojalgo.type.keyvalue.ComparableToDouble;
 
 abstract class AbstractProcess<D extends Distribution> implements RandomProcess<D> {
@@ -103,23 +106,73 @@ abstract class AbstractProcess<D extends Distribution> implements RandomProcess<
      * @return An array of sample sets. The array has aNumberOfSteps elements, and each sample set has
      *         aNumberOfRealisations samples.
      */
-    public final RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize) {
+    public RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize) {
+        return this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom());
+    }
+
+    public RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed) {
+        return this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(seed));
+    }
+
+    public void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(), consumer);
+    }
+
+    public void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(seed), consumer);
+    }
+
+    private RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize,
+            final SplittableRandom random) {
+
+        final long tmpCount = (long) numberOfRealisations * (long) numberOfSteps;
+        if (tmpCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many realisations and/or steps to keep in memory!");
+        }
 
-        final List<ComparableToDouble<Double>> tmpInitialState = new ArrayList<ComparableToDouble<Double>>(myObservations);
         final double tmpInitialValue = this.getValue();
 
-        final Array2D<Double> tmpRealisationValues = Array2D.PRIMITIVE.makeZero(numberOfRealisations, numberOfSteps);
+        final double[] tmpResults = new double[(int) tmpCount];
+
+        this.simulate(random, numberOfRealisations, numberOfSteps, stepSize, tmpResults, 0, numberOfRealisations);
+
+        return new RandomProcess.SimulationResults(tmpInitialValue, Array2D.PRIMITIVE.wrap(PrimitiveArray.wrap(tmpResults), numberOfRealisations));
+    }
+
+    private void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final SplittableRandom random,
+            final RandomProcess.SimulationConsumer consumer) {
+
+        consumer.begin(this.getValue(), numberOfRealisations, numberOfSteps);
 
-        for (int r = 0; r < numberOfRealisations; r++) {
+        final double[] tmpBuffer = new double[ProcessSimulator.BLOCK_SIZE * numberOfSteps];
+
+        for (int tmpFirst = 0; tmpFirst < numberOfRealisations; tmpFirst += ProcessSimulator.BLOCK_SIZE) {
+            final int tmpBlockSize = Math.min(ProcessSimulator.BLOCK_SIZE, numberOfRealisations - tmpFirst);
+            this.simulate(random, tmpBlockSize, numberOfSteps, stepSize, tmpBuffer, 0, tmpBlockSize);
+            consumer.accept(tmpFirst, tmpBlockSize, tmpBuffer);
+        }
+    }
+
+    /**
+     * Sequential simulation, for processes where the next value depends on more than the current value. The
+     * process' observations are updated while stepping, and restored after each realisation.
+     */
+    private void simulate(final SplittableRandom random, final int count, final int numberOfSteps, final double stepSize, final double[] destination,
+            final int offset, final int stride) {
+
+        final List<ComparableToDouble<Double>> tmpInitialState = new ArrayList<ComparableToDouble<Double>>(myObservations);
+        final double tmpInitialValue = this.getValue();
+
+        for (int r = 0; r < count; r++) {
             double tmpCurrentValue = tmpInitialValue;
             for (int s = 0; s < numberOfSteps; s++) {
-                tmpCurrentValue = this.step(tmpCurrentValue, stepSize, this.getNormalisedRandomIncrement());
-                tmpRealisationValues.set(r, s, tmpCurrentValue);
+                tmpCurrentValue = this.step(tmpCurrentValue, stepSize, this.getNormalisedRandomIncrement(random));
+                destination[offset + r + (s * stride)] = tmpCurrentValue;
             }
             this.setObservations(tmpInitialState);
         }
-
-        return new RandomProcess.SimulationResults(tmpInitialValue, tmpRealisationValues);
     }
 
     protected abstract double getNormalisedRandomIncrement();
@@ -133,6 +186,14 @@ abstract class AbstractProcess<D extends Distribution> implements RandomProcess<
 
     abstract double getExpected(double aStepSize);
 
+    /**
+     * Draws the increment from the supplied generator rather than from the process' (shared) generator. The
+     * default is a standard normal random number.
+     */
+    double getNormalisedRandomIncrement(final SplittableRandom random) {
+        return RandomUtils.nextGaussian(random);
+    }
+
     abstract double getLowerConfidenceQuantile(double aStepSize, final double aConfidence);
 
     final TreeSet<ComparableToDouble<Double>> getObservations() {
@@ -0,0 +1,121 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+/**
+ * Constructs discretely sampled Brownian motion paths in a coarse-to-fine order - first the end point, then
+ * the mid point, then the quarter points... The first few random numbers then determine most of the path's
+ * variance, which is where low-discrepancy sequences are at their best.
+ *
+ * @author apete
+ */
+public final class BrownianBridge {
+
+    private final int[] myBridgeIndices;
+    private final int[] myLeftIndices;
+    private final double[] myLeftWeights;
+    private final int[] myRightIndices;
+    private final double[] myRightWeights;
+    private final double[] myStandardDeviations;
+
+    /**
+     * @param numberOfSteps The number of (equally sized) steps in each path
+     */
+    public BrownianBridge(final int numberOfSteps) {
+
+        super();
+
+        myBridgeIndices = new int[numberOfSteps];
+        myLeftIndices = new int[numberOfSteps];
+        myRightIndices = new int[numberOfSteps];
+        myLeftWeights = new double[numberOfSteps];
+        myRightWeights = new double[numberOfSteps];
+        myStandardDeviations = new double[numberOfSteps];
+
+        final boolean[] tmpPopulated = new boolean[numberOfSteps];
+
+        myBridgeIndices[0] = numberOfSteps - 1;
+        myStandardDeviations[0] = Math.sqrt(numberOfSteps);
+        tmpPopulated[numberOfSteps - 1] = true;
+
+        int j = 0;
+        for (int i = 1; i < numberOfSteps; i++) {
+
+            while (tmpPopulated[j]) {
+                j++;
+            }
+            int k = j;
+            while (!tmpPopulated[k]) {
+                k++;
+            }
+            // The mid point of the unpopulated range j...k-1, with k populated
+            final int l = j + ((k - 1 - j) / 2);
+            tmpPopulated[l] = true;
+
+            final double tmpSpan = (k + 1) - j;
+            myBridgeIndices[i] = l;
+            myLeftIndices[i] = j;
+            myRightIndices[i] = k;
+            myLeftWeights[i] = (k - l) / tmpSpan;
+            myRightWeights[i] = ((l + 1) - j) / tmpSpan;
+            myStandardDeviations[i] = Math.sqrt((((l + 1) - j) * (k - l)) / tmpSpan);
+
+            j = k + 1;
+            if (j >= numberOfSteps) {
+                j = 0;
+            }
+        }
+    }
+
+    /**
+     * @param normals Independent standard normal random numbers, the i:th at normals[offset + i * stride].
+     *        The first one determines the end point, the second the mid point...
+     * @param offset
+     * @param stride
+     * @param increments Will be filled with the path's increments, normalised to unit variance, in step
+     *        order.
+     */
+    public void increments(final double[] normals, final int offset, final int stride, final double[] increments) {
+
+        final int tmpSize = myBridgeIndices.length;
+
+        // First construct the path (in the increments array)...
+        increments[tmpSize - 1] = myStandardDeviations[0] * normals[offset];
+        for (int i = 1; i < tmpSize; i++) {
+            final int j = myLeftIndices[i];
+            final int k = myRightIndices[i];
+            final int l = myBridgeIndices[i];
+            final double tmpLeft = j == 0 ? 0.0 : myLeftWeights[i] * increments[j - 1];
+            increments[l] = tmpLeft + (myRightWeights[i] * increments[k]) + (myStandardDeviations[i] * normals[offset + (i * stride)]);
+        }
+
+        // ...then take the differences, backwards so that nothing is overwritten before it's used
+        for (int s = tmpSize - 1; s > 0; s--) {
+            increments[s] -= increments[s - 1];
+        }
+    }
+
+    public int size() {
+        return myBridgeIndices.length;
+    }
+
+}
@@ -35,7 +35,7 @@ import org.ojalgo.random.SampleSet;
  * 
  * @author apete
  */
-public final class GeometricBrownianMotion extends AbstractProcess<LogNormal> {
+public final class GeometricBrownianMotion extends MarkovianProcess<LogNormal> {
 
     private static final WienerProcess GENERATOR = new WienerProcess();
 
@@ -151,11 +151,7 @@ public final class GeometricBrownianMotion extends AbstractProcess<LogNormal> {
 
     @Override
     protected double step(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
-
-        final double tmpDetPart = (myLocalDrift - ((myDiffusionFunction * myDiffusionFunction) / TWO)) * stepSize;
-        final double tmpRandPart = myDiffusionFunction * Math.sqrt(stepSize) * normalisedRandomIncrement;
-
-        final double retVal = currentValue * Math.exp(tmpDetPart + tmpRandPart);
+        final double retVal = this.next(currentValue, stepSize, normalisedRandomIncrement);
         this.setValue(retVal);
         return retVal;
     }
@@ -202,4 +198,13 @@ public final class GeometricBrownianMotion extends AbstractProcess<LogNormal> {
         return this.getValue() * this.getValue() * Math.exp(TWO * myLocalDrift * aStepSize) * Math.expm1(this.getDistributionVariance(aStepSize));
     }
 
+    @Override
+    double next(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
+
+        final double tmpDetPart = (myLocalDrift - ((myDiffusionFunction * myDiffusionFunction) / TWO)) * stepSize;
+        final double tmpRandPart = myDiffusionFunction * Math.sqrt(stepSize) * normalisedRandomIncrement;
+
+        return currentValue * Math.exp(tmpDetPart + tmpRandPart);
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.ojalgo.random.Distribution;
+
+/**
+ * A process where the next value only depends on the current value (and the random increment). Realisations
+ * can then be simulated independently of each other, and of the process' observations, and are simulated in
+ * parallel (blocks) by a {@linkplain ProcessSimulator}.
+ *
+ * @author apete
+ */
+abstract class MarkovianProcess<D extends Distribution> extends AbstractProcess<D> {
+
+    protected MarkovianProcess() {
+        super();
+    }
+
+    @Override
+    public final RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize) {
+        return this.getSimulator().simulate(numberOfRealisations, numberOfSteps, stepSize);
+    }
+
+    @Override
+    public final RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed) {
+        return this.getSimulator().simulate(numberOfRealisations, numberOfSteps, stepSize, seed);
+    }
+
+    @Override
+    public final void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.getSimulator().simulate(numberOfRealisations, numberOfSteps, stepSize, consumer);
+    }
+
+    @Override
+    public final void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.getSimulator().simulate(numberOfRealisations, numberOfSteps, stepSize, seed, consumer);
+    }
+
+    private ProcessSimulator getSimulator() {
+
+        final double tmpInitialValue = this.getValue();
+
+        return new ProcessSimulator() {
+
+            @Override
+            protected double getInitialValue() {
+                return tmpInitialValue;
+            }
+
+            @Override
+            protected void simulate(final SplittableRandom random, final int first, final int count, final int numberOfSteps, final double stepSize,
+                    final double[] destination, final int offset, final int stride) {
+
+                final double[] tmpValues = new double[count];
+                Arrays.fill(tmpValues, tmpInitialValue);
+
+                for (int s = 0; s < numberOfSteps; s++) {
+                    final int tmpOffset = offset + (s * stride);
+                    for (int r = 0; r < count; r++) {
+                        tmpValues[r] = MarkovianProcess.this.next(tmpValues[r], stepSize, MarkovianProcess.this.getNormalisedRandomIncrement(random));
+                        destination[tmpOffset + r] = tmpValues[r];
+                    }
+                }
+            }
+
+        };
+    }
+
+    /**
+     * The same as {@link #step(double, double, double)} but without updating the observations.
+     */
+    abstract double next(double currentValue, final double stepSize, final double normalisedRandomIncrement);
+
+}
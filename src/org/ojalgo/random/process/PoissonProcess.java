@@ -23,8 +23,11 @@ package org.ojalgo.random.process;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 import org.ojalgo.random.Exponential;
 import org.ojalgo.random.Poisson;
+import org.ojalgo.random.RandomUtils;
 
 /**
  * A Poisson process is a stochastic process which counts the number of events in a given time interval. The
@@ -35,7 +38,7 @@ import org.ojalgo.random.Poisson;
  * 
  * @author apete
  */
-public final class PoissonProcess extends AbstractProcess<Poisson> {
+public final class PoissonProcess extends MarkovianProcess<Poisson> {
 
     private final double myRate; // lambda, intensity
 
@@ -65,7 +68,7 @@ public final class PoissonProcess extends AbstractProcess<Poisson> {
 
     @Override
     protected double step(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
-        final double retVal = currentValue + ((myRate * stepSize) * normalisedRandomIncrement);
+        final double retVal = this.next(currentValue, stepSize, normalisedRandomIncrement);
         this.setValue(retVal);
         return retVal;
     }
@@ -75,6 +78,11 @@ public final class PoissonProcess extends AbstractProcess<Poisson> {
         return myRate * aStepSize;
     }
 
+    @Override
+    double getNormalisedRandomIncrement(final SplittableRandom random) {
+        return RandomUtils.nextPoisson(random, ONE);
+    }
+
     @Override
     double getLowerConfidenceQuantile(final double aStepSize, final double aConfidence) {
         throw new UnsupportedOperationException();
@@ -95,4 +103,9 @@ public final class PoissonProcess extends AbstractProcess<Poisson> {
         return myRate * aStepSize;
     }
 
+    @Override
+    double next(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
+        return currentValue + ((myRate * stepSize) * normalisedRandomIncrement);
+    }
+
 }
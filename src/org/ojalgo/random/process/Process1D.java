@@ -22,6 +22,7 @@
 package org.ojalgo.random.process;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
@@ -31,10 +32,10 @@ import org.ojalgo.random.ContinuousDistribution;
 import org.ojalgo.random.Random1D;
 import org.ojalgo.random.process.RandomProcess.SimulationResults;
 
-abstract class Process1D<D extends ContinuousDistribution, P extends AbstractProcess<D>> {
+abstract class Process1D<D extends ContinuousDistribution, P extends MarkovianProcess<D>> {
 
     private final Random1D myGenerator;
-    private final AbstractProcess<? extends D>[] myProcesses;
+    private final MarkovianProcess<? extends D>[] myProcesses;
 
     @SuppressWarnings("unused")
     private Process1D() {
@@ -47,7 +48,7 @@ abstract class Process1D<D extends ContinuousDistribution, P extends AbstractPro
         super();
 
         myGenerator = new Random1D(aCorrelationsMatrix);
-        myProcesses = someProcs.toArray(new AbstractProcess[someProcs.size()]);
+        myProcesses = someProcs.toArray(new MarkovianProcess[someProcs.size()]);
     }
 
     @SuppressWarnings("unchecked")
@@ -57,7 +58,7 @@ abstract class Process1D<D extends ContinuousDistribution, P extends AbstractPro
 
         final int tmpSize = someProcs.size();
         myGenerator = new Random1D(tmpSize);
-        myProcesses = someProcs.toArray(new AbstractProcess[tmpSize]);
+        myProcesses = someProcs.toArray(new MarkovianProcess[tmpSize]);
     }
 
     public double getValue(final int index) {
@@ -76,6 +77,14 @@ abstract class Process1D<D extends ContinuousDistribution, P extends AbstractPro
         return retVal;
     }
 
+    /**
+     * A generator of correlated random increments, for blocks of (at most) count realisations. Each thread
+     * needs its own, and it should be reused for all the steps.
+     */
+    public Random1D.Generator newGenerator(final int count) {
+        return myGenerator.newGenerator(count);
+    }
+
     public void setValue(final int index, final double newValue) {
         myProcesses[index].setValue(newValue);
     }
@@ -101,6 +110,50 @@ abstract class Process1D<D extends ContinuousDistribution, P extends AbstractPro
         return retVal;
     }
 
+    /**
+     * Steps a block of realisations of all the (component) processes, without touching their observations.
+     * The value of process p in realisation r is at values[p + r * size()], and is updated in place.
+     *
+     * @param increments Uncorrelated standard normal increments, laid out the same way as the values. They
+     *        are correlated (in place) the same way as with {@link #step(double)}.
+     * @see ProcessSimulator
+     */
+    public void step(final double[] values, final int count, final double stepSize, final double[] increments) {
+
+        final int tmpSize = myProcesses.length;
+
+        for (int r = 0; r < count; r++) {
+            myGenerator.correlate(increments, r * tmpSize);
+        }
+
+        this.next(values, count, stepSize, increments);
+    }
+
+    /**
+     * The same as {@link #step(double[], int, double, double[])}, but all the increments are correlated at
+     * once by the generator.
+     *
+     * @param generator From {@link #newGenerator(int)}, and with room for (at least) count vectors
+     */
+    public void step(final double[] values, final int count, final double stepSize, final double[] increments, final Random1D.Generator generator) {
+
+        generator.correlate(increments, 0, count);
+
+        this.next(values, count, stepSize, increments);
+    }
+
+    /**
+     * The same as {@link #step(double[], int, double, double[])}, but the increments are drawn from the
+     * supplied generator.
+     */
+    public void step(final double[] values, final int count, final double stepSize, final SplittableRandom random) {
+
+        final double[] tmpIncrements = new double[count * myProcesses.length];
+        myGenerator.newGenerator(count).nextGaussian(random, tmpIncrements, 0, count);
+
+        this.next(values, count, stepSize, tmpIncrements);
+    }
+
     protected AbstractProcess<?> getProcess(final int index) {
         return myProcesses[index];
     }
@@ -137,4 +190,16 @@ abstract class Process1D<D extends ContinuousDistribution, P extends AbstractPro
         return myProcesses[index].step(aStepSize);
     }
 
+    private void next(final double[] values, final int count, final double stepSize, final double[] increments) {
+
+        final int tmpSize = myProcesses.length;
+
+        for (int r = 0; r < count; r++) {
+            final int tmpOffset = r * tmpSize;
+            for (int p = 0; p < tmpSize; p++) {
+                values[tmpOffset + p] = myProcesses[p].next(values[tmpOffset + p], stepSize, increments[tmpOffset + p]);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import java.util.SplittableRandom;
+
+import org.ojalgo.array.Array2D;
+import org.ojalgo.array.PrimitiveArray;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Simulates realisations of a random process in parallel. The realisations are split in blocks of
+ * {@value #BLOCK_SIZE}, and each block gets its own {@linkplain SplittableRandom} - split off a root
+ * generator, in block order, before any work is distributed. The results therefore only depend on the seed,
+ * not on the number of threads or how the blocks are scheduled. All results are written to one preallocated
+ * primitive array, and the process being simulated is never modified - each block keeps its own state.
+ * <p>
+ * Alternatively the results can be streamed to a {@linkplain RandomProcess.SimulationConsumer consumer}. Then
+ * the blocks are simulated in waves, a few blocks per thread, and handed over to the consumer in block order
+ * once the wave is done. Memory use is proportional to the number of steps, not to the number of
+ * realisations, and the results are still only dependent on the seed.
+ *
+ * @author apete
+ */
+public abstract class ProcessSimulator {
+
+    /**
+     * The number of realisations simulated together, in lock-step, using the same random number generator.
+     */
+    public static final int BLOCK_SIZE = 64;
+
+    /**
+     * When streaming, the number of blocks per thread simulated before they're handed over to the consumer.
+     */
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    protected ProcessSimulator() {
+        super();
+    }
+
+    public final RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize) {
+        return this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom());
+    }
+
+    /**
+     * Same seed, same results.
+     */
+    public final RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed) {
+        return this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(seed));
+    }
+
+    public final void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(), consumer);
+    }
+
+    /**
+     * Same seed, same results - the same results as when not streaming.
+     */
+    public final void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed,
+            final RandomProcess.SimulationConsumer consumer) {
+        this.simulate(numberOfRealisations, numberOfSteps, stepSize, new SplittableRandom(seed), consumer);
+    }
+
+    private RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize,
+            final SplittableRandom root) {
+
+        final long tmpCount = (long) numberOfRealisations * (long) numberOfSteps;
+        if (tmpCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many realisations and/or steps to keep in memory!");
+        }
+
+        final double[] tmpResults = new double[(int) tmpCount];
+
+        final int tmpBlocks = (numberOfRealisations + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final SplittableRandom[] tmpGenerators = new SplittableRandom[tmpBlocks];
+        for (int b = 0; b < tmpBlocks; b++) {
+            tmpGenerators[b] = root.split();
+        }
+
+        if (tmpBlocks > 0) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    for (int b = first; b < limit; b++) {
+                        final int tmpFirst = b * BLOCK_SIZE;
+                        final int tmpBlockSize = Math.min(BLOCK_SIZE, numberOfRealisations - tmpFirst);
+                        ProcessSimulator.this.simulate(tmpGenerators[b], tmpFirst, tmpBlockSize, numberOfSteps, stepSize, tmpResults, tmpFirst,
+                                numberOfRealisations);
+                    }
+                }
+
+            };
+
+            tmpConquerer.invoke(0, tmpBlocks, 1);
+        }
+
+        this.complete(tmpResults, numberOfRealisations, numberOfSteps);
+
+        return new RandomProcess.SimulationResults(this.getInitialValue(), Array2D.PRIMITIVE.wrap(PrimitiveArray.wrap(tmpResults), numberOfRealisations));
+    }
+
+    private void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final SplittableRandom root,
+            final RandomProcess.SimulationConsumer consumer) {
+
+        if (this.isCompleting()) {
+            throw new IllegalStateException("The results need to be completed, and must be kept in memory!");
+        }
+
+        consumer.begin(this.getInitialValue(), numberOfRealisations, numberOfSteps);
+
+        final int tmpBlocks = (numberOfRealisations + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        final int tmpWave = Math.min(tmpBlocks, BLOCKS_PER_THREAD * Math.max(1, DivideAndConquer.getParallelism()));
+
+        final double[][] tmpBuffers = new double[tmpWave][BLOCK_SIZE * numberOfSteps];
+        final SplittableRandom[] tmpGenerators = new SplittableRandom[tmpWave];
+
+        for (int w = 0; w < tmpBlocks; w += tmpWave) {
+
+            final int tmpWaveFirst = w;
+            final int tmpWaveLimit = Math.min(tmpBlocks, w + tmpWave);
+
+            for (int b = tmpWaveFirst; b < tmpWaveLimit; b++) {
+                tmpGenerators[b - tmpWaveFirst] = root.split();
+            }
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    for (int b = first; b < limit; b++) {
+                        final int tmpFirst = b * BLOCK_SIZE;
+                        final int tmpBlockSize = Math.min(BLOCK_SIZE, numberOfRealisations - tmpFirst);
+                        ProcessSimulator.this.simulate(tmpGenerators[b - tmpWaveFirst], tmpFirst, tmpBlockSize, numberOfSteps, stepSize,
+                                tmpBuffers[b - tmpWaveFirst], 0, tmpBlockSize);
+                    }
+                }
+
+            };
+
+            tmpConquerer.invoke(tmpWaveFirst, tmpWaveLimit, 1);
+
+            for (int b = tmpWaveFirst; b < tmpWaveLimit; b++) {
+                final int tmpFirst = b * BLOCK_SIZE;
+                consumer.accept(tmpFirst, Math.min(BLOCK_SIZE, numberOfRealisations - tmpFirst), tmpBuffers[b - tmpWaveFirst]);
+            }
+        }
+    }
+
+    /**
+     * Called once all blocks are simulated, before the results are returned. Does nothing by default, but
+     * subclasses can use it to adjust the results based on statistics collected from all the blocks.
+     *
+     * @param results Realisation r after step s is at results[r + s * numberOfRealisations]
+     */
+    protected void complete(final double[] results, final int numberOfRealisations, final int numberOfSteps) {
+    }
+
+    /**
+     * @return The value all realisations start from
+     */
+    protected abstract double getInitialValue();
+
+    /**
+     * @return true if {@link #complete(double[], int, int)} is overridden to do something - then the results
+     *         can't be streamed.
+     */
+    protected boolean isCompleting() {
+        return false;
+    }
+
+    /**
+     * Simulate one block of realisations. Will be called concurrently for different blocks, and must not
+     * modify any state shared between the blocks.
+     *
+     * @param random The block's random number generator
+     * @param first The (overall) index of the block's first realisation, a multiple of {@link #BLOCK_SIZE}
+     * @param count The number of realisations in the block
+     * @param numberOfSteps The number of steps to simulate
+     * @param stepSize The size of each step
+     * @param destination The value of realisation r (0 &lt;= r &lt; count) after step s (0 &lt;= s &lt; numberOfSteps)
+     *        should be written to destination[offset + r + s * stride]
+     * @param offset Where in destination this block's first realisation is written, after the first step
+     * @param stride The distance, in destination, between the values of consecutive steps (of the same
+     *        realisation)
+     */
+    protected abstract void simulate(SplittableRandom random, int first, int count, int numberOfSteps, double stepSize, double[] destination, int offset, int stride);
+
+}
@@ -35,6 +35,31 @@ import org.ojalgo.series.primitive.PrimitiveSeries;
  */
 public interface RandomProcess<D extends Distribution> {
 
+    /**
+     * Receives simulated realisations as they are produced, rather than having them all kept in memory.
+     *
+     * @see SimulationStatistics
+     */
+    public static interface SimulationConsumer {
+
+        /**
+         * Called once, before any realisations.
+         */
+        default void begin(final double initialValue, final int numberOfRealisations, final int numberOfSteps) {
+        }
+
+        /**
+         * Called for consecutive batches of realisations, in order, from one thread at the time.
+         *
+         * @param first The (overall) index of the first realisation in the batch
+         * @param count The number of realisations in the batch
+         * @param values Realisation r (0 &lt;= r &lt; count) after step s is at values[r + s * count]. The array
+         *        is reused between calls.
+         */
+        void accept(int first, int count, double[] values);
+
+    }
+
     public static final class SimulationResults {
 
         private final double myInitialValue;
@@ -119,4 +144,25 @@ public interface RandomProcess<D extends Distribution> {
      */
     RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize);
 
+    /**
+     * Same seed, same results - regardless of how the work is split between threads.
+     *
+     * @see #simulate(int, int, double)
+     */
+    RandomProcess.SimulationResults simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed);
+
+    /**
+     * Streaming alternative to {@link #simulate(int, int, double)}, where the memory requirement does not
+     * depend on the number of realisations.
+     */
+    void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final RandomProcess.SimulationConsumer consumer);
+
+    /**
+     * Same seed, same results - regardless of how the work is split between threads.
+     *
+     * @see #simulate(int, int, double, RandomProcess.SimulationConsumer)
+     */
+    void simulate(final int numberOfRealisations, final int numberOfSteps, final double stepSize, final long seed,
+            final RandomProcess.SimulationConsumer consumer);
+
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ojalgo.random.RunningStatistics;
+import org.ojalgo.series.primitive.PrimitiveSeries;
+
+/**
+ * Streaming alternative to {@link RandomProcess.SimulationResults}. Rather than keeping all realisations,
+ * statistics are accumulated for each step (sample set) and for any number of path dependent payoffs. Memory
+ * use is proportional to the number of steps.
+ *
+ * @author apete
+ */
+public final class SimulationStatistics implements RandomProcess.SimulationConsumer {
+
+    /**
+     * A path dependent value, such as the maximum drawdown or the payoff of an Asian option.
+     */
+    @FunctionalInterface
+    public static interface Payoff {
+
+        /**
+         * @param scenario Has length "number of simulation steps" + 1 as it includes the initial value, as
+         *        {@link RandomProcess.SimulationResults#getScenario(int)}. Only valid during the call.
+         */
+        double evaluate(PrimitiveSeries scenario);
+
+    }
+
+    private double myInitialValue = Double.NaN;
+    private int myNumberOfRealisations = 0;
+    private final List<Payoff> myPayoffs = new ArrayList<Payoff>();
+    private final List<RunningStatistics> myPayoffStatistics = new ArrayList<RunningStatistics>();
+    private final double[] myProbabilities;
+    private RunningStatistics[] myStepStatistics = new RunningStatistics[0];
+
+    /**
+     * @param probabilities The quantiles to estimate, for every step and every payoff
+     */
+    public SimulationStatistics(final double... probabilities) {
+
+        super();
+
+        myProbabilities = probabilities.clone();
+    }
+
+    public void accept(final int first, final int count, final double[] values) {
+
+        final int tmpNumberOfSteps = myStepStatistics.length;
+
+        for (int s = 0; s < tmpNumberOfSteps; s++) {
+            final RunningStatistics tmpStatistics = myStepStatistics[s];
+            final int tmpOffset = s * count;
+            for (int r = 0; r < count; r++) {
+                tmpStatistics.invoke(values[tmpOffset + r]);
+            }
+        }
+
+        if (myPayoffs.size() > 0) {
+
+            final int[] tmpRealisation = new int[1];
+            final double tmpInitialValue = myInitialValue;
+
+            final PrimitiveSeries tmpScenario = new PrimitiveSeries() {
+
+                @Override
+                public int size() {
+                    return tmpNumberOfSteps + 1;
+                }
+
+                @Override
+                public double value(final int index) {
+                    if (index == 0) {
+                        return tmpInitialValue;
+                    } else {
+                        return values[tmpRealisation[0] + ((index - 1) * count)];
+                    }
+                }
+
+            };
+
+            for (int r = 0; r < count; r++) {
+                tmpRealisation[0] = r;
+                for (int p = 0; p < myPayoffs.size(); p++) {
+                    myPayoffStatistics.get(p).invoke(myPayoffs.get(p).evaluate(tmpScenario));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The index of the payoff, to use with {@link #getPayoffStatistics(int)}
+     */
+    public int addPayoff(final Payoff payoff) {
+        myPayoffs.add(payoff);
+        myPayoffStatistics.add(new RunningStatistics(myProbabilities));
+        return myPayoffs.size() - 1;
+    }
+
+    public void begin(final double initialValue, final int numberOfRealisations, final int numberOfSteps) {
+
+        myInitialValue = initialValue;
+        myNumberOfRealisations = numberOfRealisations;
+
+        myStepStatistics = new RunningStatistics[numberOfSteps];
+        for (int s = 0; s < numberOfSteps; s++) {
+            myStepStatistics[s] = new RunningStatistics(myProbabilities);
+        }
+
+        for (final RunningStatistics tmpStatistics : myPayoffStatistics) {
+            tmpStatistics.reset();
+        }
+    }
+
+    public int countSampleSets() {
+        return myStepStatistics.length;
+    }
+
+    public int countScenarios() {
+        return myNumberOfRealisations;
+    }
+
+    public double getInitialValue() {
+        return myInitialValue;
+    }
+
+    public RunningStatistics getPayoffStatistics(final int index) {
+        return myPayoffStatistics.get(index);
+    }
+
+    /**
+     * The streaming counterpart to {@link RandomProcess.SimulationResults#getSampleSet(int)}
+     */
+    public RunningStatistics getSampleStatistics(final int index) {
+        return myStepStatistics[index];
+    }
+
+}
@@ -26,7 +26,7 @@ import static org.ojalgo.constant.PrimitiveMath.*;
 import org.ojalgo.random.Normal;
 import org.ojalgo.random.RandomUtils;
 
-public final class WienerProcess extends AbstractProcess<Normal> {
+public final class WienerProcess extends MarkovianProcess<Normal> {
 
     private static final Normal GENERATOR = new Normal();
 
@@ -56,7 +56,7 @@ public final class WienerProcess extends AbstractProcess<Normal> {
 
     @Override
     protected double step(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
-        final double retVal = currentValue + (Math.sqrt(stepSize) * normalisedRandomIncrement);
+        final double retVal = this.next(currentValue, stepSize, normalisedRandomIncrement);
         this.setValue(retVal);
         return retVal;
     }
@@ -86,4 +86,9 @@ public final class WienerProcess extends AbstractProcess<Normal> {
         return aStepSize;
     }
 
+    @Override
+    double next(final double currentValue, final double stepSize, final double normalisedRandomIncrement) {
+        return currentValue + (Math.sqrt(stepSize) * normalisedRandomIncrement);
+    }
+
 }
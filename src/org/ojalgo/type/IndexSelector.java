@@ -177,6 +177,14 @@ public final class IndexSelector {
         myExcludedLength = 0;
     }
 
+    public boolean isExcluded(final int index) {
+        return !mySelector[index];
+    }
+
+    public boolean isIncluded(final int index) {
+        return mySelector[index];
+    }
+
     /**
      * Is the last excluded index still excluded, or has it been included by a later operation?
      */
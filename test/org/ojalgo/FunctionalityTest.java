@@ -28,6 +28,7 @@ import org.ojalgo.machine.MachineTests;
 import org.ojalgo.matrix.MatrixTests;
 import org.ojalgo.matrix.decomposition.MatrixDecompositionTests;
 import org.ojalgo.matrix.store.MatrixStoreTests;
+import org.ojalgo.matrix.store.operation.MatrixStoreOperationTests;
 import org.ojalgo.matrix.task.MatrixTaskTests;
 import org.ojalgo.optimisation.OptimisationTests;
 import org.ojalgo.optimisation.convex.OptimisationConvexTests;
@@ -65,6 +66,7 @@ public abstract class FunctionalityTest extends TestCase {
         suite.addTest(MatrixDecompositionTests.suite());
         suite.addTest(MatrixTaskTests.suite());
         suite.addTest(MatrixStoreTests.suite());
+        suite.addTest(MatrixStoreOperationTests.suite());
         suite.addTest(OptimisationTests.suite());
         suite.addTest(OptimisationConvexTests.suite());
         suite.addTest(OptimisationIntegerTests.suite());
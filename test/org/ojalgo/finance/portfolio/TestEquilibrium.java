@@ -139,6 +139,41 @@ public class TestEquilibrium extends FinancePortfolioTests {
         return covariances.build();
     }
 
+    /**
+     * Two (perfectly correlated) assets with limits [0,1]. The minimum variance portfolio is 100% of the
+     * second asset and the maximum return portfolio 100% of the first; in between the weights change
+     * linearly with the return.
+     */
+    public void testEfficientFrontier() {
+
+        final BasicMatrix tmpCovariances = PrimitiveMatrix.FACTORY.rows(new double[][] { { 0.0036, 0.0018 }, { 0.0018, 0.0009 } });
+        final BasicMatrix tmpReturns = PrimitiveMatrix.FACTORY.columns(new double[] { 0.14, 0.08 });
+
+        final MarkowitzModel tmpMarkowitzModel = new MarkowitzModel(tmpCovariances, tmpReturns);
+        tmpMarkowitzModel.setUpperLimit(0, BigMath.ONE);
+        tmpMarkowitzModel.setUpperLimit(1, BigMath.ONE);
+
+        final List<SimplePortfolio> tmpFrontier = tmpMarkowitzModel.getEfficientFrontier(7);
+        TestUtils.assertEquals(7, tmpFrontier.size());
+
+        for (int p = 0; p < tmpFrontier.size(); p++) {
+
+            final SimplePortfolio tmpPortfolio = tmpFrontier.get(p);
+            final double tmpWeight = p / 6.0;
+
+            TestUtils.assertEquals(tmpWeight, tmpPortfolio.getWeights().get(0).doubleValue(), 0.0001);
+            TestUtils.assertEquals(1.0 - tmpWeight, tmpPortfolio.getWeights().get(1).doubleValue(), 0.0001);
+            TestUtils.assertEquals(0.08 + (0.01 * p), tmpPortfolio.getMeanReturn(), 0.0001);
+
+            final double tmpVolatility = (0.06 * tmpWeight) + (0.03 * (1.0 - tmpWeight));
+            TestUtils.assertEquals(tmpVolatility * tmpVolatility, tmpPortfolio.getReturnVariance(), 0.0001);
+
+            tmpMarkowitzModel.setTargetReturn(BigDecimal.valueOf(tmpPortfolio.getMeanReturn()));
+            TestUtils.assertEquals(tmpWeight, tmpMarkowitzModel.getWeights().get(0).doubleValue(), 0.0001);
+            TestUtils.assertTrue(tmpMarkowitzModel.getOptimisationState().isOptimal());
+        }
+    }
+
     public void testRandomProblemsComparedToEquilibrium() {
 
         final NumberContext tmpWeightsContext = StandardType.PERCENT.newPrecision(6);
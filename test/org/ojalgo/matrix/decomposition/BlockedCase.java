@@ -0,0 +1,144 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Arrays;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.BlockedCholesky;
+import org.ojalgo.matrix.store.operation.BlockedLU;
+import org.ojalgo.matrix.store.operation.BlockedQR;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The blocked (primitive) LU, Cholesky and QR algorithms should produce the same result as the unblocked ones.
+ * The matrices are large enough to be split into several panels.
+ *
+ * @author apete
+ */
+public class BlockedCase extends MatrixDecompositionTests {
+
+    private static final int[][] DIMENSIONS = new int[][] { { 1, 1 }, { 65, 65 }, { 150, 150 }, { 257, 190 }, { 190, 257 } };
+    private static final NumberContext EVALUATION = new NumberContext(7, 9);
+
+    public BlockedCase() {
+        super();
+    }
+
+    public BlockedCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testCholesky() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+            if (tmpDims[0] == tmpDims[1]) {
+
+                final int tmpDim = tmpDims[0];
+
+                final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Uniform());
+                final PrimitiveDenseStore tmpMatrix = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+                tmpMatrix.fillByMultiplying(tmpRandom.transpose(), tmpRandom);
+                for (int ij = 0; ij < tmpDim; ij++) {
+                    tmpMatrix.set(ij, ij, tmpMatrix.doubleValue(ij, ij) + tmpDim);
+                }
+
+                final Cholesky<Double> tmpBlocked = Cholesky.makePrimitive();
+                final Cholesky<Double> tmpRaw = new RawCholesky();
+
+                final int tmpThreshold = BlockedCholesky.THRESHOLD;
+                try {
+                    BlockedCholesky.THRESHOLD = 1;
+                    TestUtils.assertTrue(tmpBlocked.decompose(tmpMatrix));
+                } finally {
+                    BlockedCholesky.THRESHOLD = tmpThreshold;
+                }
+                TestUtils.assertTrue(tmpRaw.decompose(tmpMatrix));
+
+                TestUtils.assertEquals(tmpRaw.getL(), tmpBlocked.getL(), EVALUATION);
+                TestUtils.assertEquals(tmpMatrix, tmpBlocked, EVALUATION);
+
+                tmpMatrix.set(tmpDim - 1, tmpDim - 1, -1.0);
+                try {
+                    BlockedCholesky.THRESHOLD = 1;
+                    TestUtils.assertFalse(tmpBlocked.decompose(tmpMatrix));
+                } finally {
+                    BlockedCholesky.THRESHOLD = tmpThreshold;
+                }
+            }
+        }
+    }
+
+    public void testLU() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpMatrix = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Uniform());
+
+            final LU<Double> tmpBlocked = LU.makePrimitive();
+            final LU<Double> tmpUnblocked = LU.makePrimitive();
+
+            final int tmpThreshold = BlockedLU.THRESHOLD;
+            try {
+                BlockedLU.THRESHOLD = 1;
+                tmpBlocked.decompose(tmpMatrix);
+                BlockedLU.THRESHOLD = Integer.MAX_VALUE;
+                tmpUnblocked.decompose(tmpMatrix);
+            } finally {
+                BlockedLU.THRESHOLD = tmpThreshold;
+            }
+
+            TestUtils.assertTrue(Arrays.equals(tmpUnblocked.getPivotOrder(), tmpBlocked.getPivotOrder()));
+            TestUtils.assertEquals(tmpUnblocked.getL(), tmpBlocked.getL(), EVALUATION);
+            TestUtils.assertEquals(tmpUnblocked.getU(), tmpBlocked.getU(), EVALUATION);
+            TestUtils.assertEquals(tmpMatrix, tmpBlocked, EVALUATION);
+        }
+    }
+
+    public void testQR() {
+
+        for (final int[] tmpDims : DIMENSIONS) {
+
+            final PrimitiveDenseStore tmpMatrix = PrimitiveDenseStore.FACTORY.makeFilled(tmpDims[0], tmpDims[1], new Uniform());
+
+            final QR<Double> tmpBlocked = QR.makePrimitive();
+            final QR<Double> tmpUnblocked = QR.makePrimitive();
+
+            final int tmpThreshold = BlockedQR.THRESHOLD;
+            try {
+                BlockedQR.THRESHOLD = 1;
+                tmpBlocked.decompose(tmpMatrix);
+                BlockedQR.THRESHOLD = Integer.MAX_VALUE;
+                tmpUnblocked.decompose(tmpMatrix);
+            } finally {
+                BlockedQR.THRESHOLD = tmpThreshold;
+            }
+
+            TestUtils.assertEquals(tmpUnblocked.getQ(), tmpBlocked.getQ(), EVALUATION);
+            TestUtils.assertEquals(tmpUnblocked.getR(), tmpBlocked.getR(), EVALUATION);
+            TestUtils.assertEquals(tmpMatrix, tmpBlocked, EVALUATION);
+        }
+    }
+
+}
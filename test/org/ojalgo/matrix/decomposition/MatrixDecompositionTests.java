@@ -159,6 +159,7 @@ public abstract class MatrixDecompositionTests extends FunctionalityTest {
         final TestSuite suite = new TestSuite(MatrixDecompositionTests.class.getPackage().getName());
         //$JUnit-BEGIN$
         suite.addTestSuite(BidiagonalTest.class);
+        suite.addTestSuite(BlockedCase.class);
         suite.addTestSuite(CompareJamaAndPrimitive.class);
         suite.addTestSuite(DecompositionProblems.class);
         suite.addTestSuite(DegenerateLUCase.class);
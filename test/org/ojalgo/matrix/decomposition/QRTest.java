@@ -24,6 +24,7 @@ package org.ojalgo.matrix.decomposition;
 import java.math.BigDecimal;
 
 import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.matrix.BigMatrix;
 import org.ojalgo.matrix.MatrixUtils;
 import org.ojalgo.matrix.P20030422Case;
@@ -34,6 +35,7 @@ import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Uniform;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -219,4 +221,53 @@ public class QRTest extends MatrixDecompositionTests {
         TestUtils.assertEquals(tmpIdentity, tmpRawInv.multiply(tmpA));
     }
 
+    public void testTallSkinny() {
+
+        final NumberContext tmpEvaluation = new NumberContext(7, 9);
+
+        final int tmpParallelism = DivideAndConquer.getParallelism();
+
+        try {
+
+            DivideAndConquer.setParallelism(4);
+
+            final PrimitiveDenseStore tmpA = PrimitiveDenseStore.FACTORY.makeFilled(999, 7, new Uniform());
+            final PrimitiveDenseStore tmpB = PrimitiveDenseStore.FACTORY.makeFilled(999, 2, new Uniform());
+
+            final QR<Double> tmpTallSkinny = QR.makeTallSkinny();
+            final QR<Double> tmpOrdinary = QR.makePrimitive();
+
+            tmpTallSkinny.decompose(tmpA);
+            tmpOrdinary.decompose(tmpA);
+
+            TestUtils.assertEquals(tmpA, tmpTallSkinny, tmpEvaluation);
+            TestUtils.assertEquals(tmpOrdinary.getRank(), tmpTallSkinny.getRank());
+            TestUtils.assertEquals(tmpOrdinary.solve(tmpB), tmpTallSkinny.solve(tmpB), tmpEvaluation);
+
+            final MatrixStore<Double> tmpQ = tmpTallSkinny.getQ();
+            TestUtils.assertEquals(IdentityStore.makePrimitive(7), tmpQ.transpose().multiply(tmpQ), tmpEvaluation);
+
+            // The solution is formed in the preallocated store
+            final DecompositionStore<Double> tmpPreallocated = tmpTallSkinny.preallocate(tmpA, tmpB);
+            final MatrixStore<Double> tmpSolution = tmpTallSkinny.solve(tmpB, tmpPreallocated);
+            TestUtils.assertEquals(tmpOrdinary.solve(tmpB), tmpSolution, tmpEvaluation);
+            TestUtils.assertEquals(tmpSolution, tmpPreallocated.builder().rows(0, 7).build());
+
+            // Full size falls back to a single block
+            tmpTallSkinny.setFullSize(true);
+            tmpOrdinary.setFullSize(true);
+            tmpTallSkinny.decompose(tmpA);
+            tmpOrdinary.decompose(tmpA);
+
+            TestUtils.assertTrue(tmpTallSkinny.isFullSize());
+            TestUtils.assertEquals(999, tmpTallSkinny.getQ().countColumns());
+            TestUtils.assertEquals(tmpOrdinary.getQ(), tmpTallSkinny.getQ(), tmpEvaluation);
+            TestUtils.assertEquals(tmpA, tmpTallSkinny, tmpEvaluation);
+            TestUtils.assertEquals(tmpOrdinary.solve(tmpB), tmpTallSkinny.solve(tmpB), tmpEvaluation);
+
+        } finally {
+            DivideAndConquer.setParallelism(tmpParallelism);
+        }
+    }
+
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.operation.GEMM;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares the blocked/packed {@linkplain GEMM} multiplication with {@linkplain RawStore} for dimensions that
+ * do and do not match the micro-kernel and block sizes.
+ *
+ * @author apete
+ */
+public class GEMMCase extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 10);
+
+    private static double dot(final PrimitiveDenseStore left, final PrimitiveDenseStore right, final int row, final int column) {
+        double retVal = 0.0;
+        for (int k = 0; k < left.countColumns(); k++) {
+            retVal += left.doubleValue(row, k) * right.doubleValue(k, column);
+        }
+        return retVal;
+    }
+
+    public GEMMCase() {
+        super();
+    }
+
+    public GEMMCase(final String arg0) {
+        super(arg0);
+    }
+
+    /**
+     * All of rows, complexity and columns larger than the block sizes, so that every level of blocking is
+     * exercised and there are partial blocks at the edges.
+     */
+    public void testLargerThanBlocks() {
+
+        final int tmpRows = GEMM.MC + 5;
+        final int tmpComplexity = GEMM.KC + 3;
+        final int tmpColumns = GEMM.NC + 6;
+
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpRows, tmpComplexity, new Uniform());
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpComplexity, tmpColumns, new Uniform());
+
+        final int tmpThreshold = GEMM.THRESHOLD;
+        try {
+
+            GEMM.THRESHOLD = 64;
+            TestUtils.assertTrue(GEMM.isApplicable(tmpRows, tmpComplexity, tmpColumns));
+
+            final MatrixStore<Double> tmpProduct = tmpLeft.multiply(tmpRight);
+
+            this.assertGEMM(tmpLeft, tmpRight, tmpProduct);
+
+            // Check against the plain definition for the rows and columns at the block edges, and then some
+            final int[] tmpRowsToCheck = new int[] { 0, GEMM.MC - 1, GEMM.MC, tmpRows - 1, tmpRows / 3 };
+            final int[] tmpColumnsToCheck = new int[] { 0, GEMM.NC - 1, GEMM.NC, tmpColumns - 1, tmpColumns / 3 };
+
+            for (final int i : tmpRowsToCheck) {
+                for (int j = 0; j < tmpColumns; j++) {
+                    TestUtils.assertEquals(GEMMCase.dot(tmpLeft, tmpRight, i, j), tmpProduct.doubleValue(i, j), PRECISION);
+                }
+            }
+            for (final int j : tmpColumnsToCheck) {
+                for (int i = 0; i < tmpRows; i++) {
+                    TestUtils.assertEquals(GEMMCase.dot(tmpLeft, tmpRight, i, j), tmpProduct.doubleValue(i, j), PRECISION);
+                }
+            }
+
+        } finally {
+            GEMM.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    public void testSmallerThanMicroKernel() {
+        for (int m = 1; m < 10; m++) {
+            for (int n = 1; n < 10; n++) {
+                this.doTest(m, (m + n) / 2, n);
+            }
+        }
+    }
+
+    /**
+     * GEMM should be used from the threshold and up, and not below it.
+     */
+    public void testUsedWhenApplicable() {
+
+        final int tmpThreshold = GEMM.THRESHOLD;
+        try {
+
+            GEMM.THRESHOLD = 64;
+
+            TestUtils.assertFalse(GEMM.isApplicable(63, 64, 64));
+            TestUtils.assertFalse(GEMM.isApplicable(64, 63, 64));
+            TestUtils.assertFalse(GEMM.isApplicable(64, 64, 63));
+
+            final int[][] tmpDimensions = new int[][] { { 64, 64, 64 }, { 67, 65, 66 } };
+
+            for (final int[] tmpDim : tmpDimensions) {
+
+                TestUtils.assertTrue(GEMM.isApplicable(tmpDim[0], tmpDim[1], tmpDim[2]));
+
+                final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim[0], tmpDim[1], new Uniform());
+                final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim[1], tmpDim[2], new Uniform());
+
+                this.assertGEMM(tmpLeft, tmpRight, tmpLeft.multiply(tmpRight));
+                this.assertGEMM(tmpLeft, tmpRight, tmpRight.multiplyLeft(tmpLeft));
+
+                final PrimitiveDenseStore tmpFilled = PrimitiveDenseStore.FACTORY.makeZero(tmpDim[0], tmpDim[2]);
+                tmpFilled.fillByMultiplying(tmpLeft, tmpRight);
+                this.assertGEMM(tmpLeft, tmpRight, tmpFilled);
+
+                this.doTest(tmpDim[0], tmpDim[1], tmpDim[2]);
+            }
+
+        } finally {
+            GEMM.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    /**
+     * The product should be exactly (to the last bit) what GEMM calculates - any other multiplication
+     * algorithm accumulates in a different order.
+     */
+    private void assertGEMM(final PrimitiveDenseStore left, final PrimitiveDenseStore right, final MatrixStore<Double> product) {
+
+        final int tmpRows = (int) left.countRows();
+        final int tmpColumns = (int) right.countColumns();
+
+        final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpRows, tmpColumns);
+        GEMM.getPrimitive(tmpRows, tmpColumns).invoke(tmpExpected.data, left, (int) left.countColumns(), right);
+
+        for (int j = 0; j < tmpColumns; j++) {
+            for (int i = 0; i < tmpRows; i++) {
+                TestUtils.assertTrue(tmpExpected.doubleValue(i, j) == product.doubleValue(i, j));
+            }
+        }
+    }
+
+    private void doTest(final int rows, final int complexity, final int columns) {
+
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(rows, complexity, new Uniform());
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(complexity, columns, new Uniform());
+
+        final RawStore tmpExpected = RawStore.FACTORY.copy(tmpLeft).multiply(RawStore.FACTORY.copy(tmpRight));
+
+        TestUtils.assertEquals(tmpExpected, tmpLeft.multiply(tmpRight), PRECISION);
+        TestUtils.assertEquals(tmpExpected, tmpRight.multiplyLeft(tmpLeft), PRECISION);
+
+        final PrimitiveDenseStore tmpProduct = PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, new Uniform());
+        tmpProduct.fillByMultiplying(tmpLeft.builder().transpose().build().builder().transpose().build(), tmpRight);
+        TestUtils.assertEquals(tmpExpected, tmpProduct, PRECISION);
+    }
+
+}
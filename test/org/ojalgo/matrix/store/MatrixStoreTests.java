@@ -34,12 +34,14 @@ public abstract class MatrixStoreTests extends FunctionalityTest {
         final TestSuite suite = new TestSuite(MatrixStoreTests.class.getPackage().getName());
         //$JUnit-BEGIN$
         suite.addTestSuite(ConjugatedCase.class);
+        suite.addTestSuite(GEMMCase.class);
         suite.addTestSuite(IdentityCase.class);
         suite.addTestSuite(MergedColumnsCase.class);
         suite.addTestSuite(MergedRowsCase.class);
         suite.addTestSuite(StoreProblems.class);
         suite.addTestSuite(SelectedColumnsCase.class);
         suite.addTestSuite(SelectedRowsCase.class);
+        suite.addTestSuite(SparseCase.class);
         suite.addTestSuite(SuperimposedMatrixColumnCase.class);
         suite.addTestSuite(SuperimposedMatrixElementCase.class);
         suite.addTestSuite(SuperimposedMatrixRowCase.class);
@@ -0,0 +1,226 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Compares {@linkplain SparseStore} (CSC and CSR) with {@linkplain PrimitiveDenseStore}.
+ *
+ * @author apete
+ */
+public class SparseCase extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 10);
+
+    static PrimitiveDenseStore makeSparseContent(final int rows, final int columns) {
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, new Uniform());
+        retVal.modifyAll(new PrimitiveFunction.Unary() {
+
+            public double invoke(final double arg) {
+                return arg < 0.8 ? 0.0 : arg;
+            }
+        });
+        return retVal;
+    }
+
+    public SparseCase() {
+        super();
+    }
+
+    public SparseCase(final String arg0) {
+        super(arg0);
+    }
+
+    public void testExchangeAndSet() {
+
+        final PrimitiveDenseStore tmpExpected = SparseCase.makeSparseContent(9, 7);
+
+        for (final PhysicalStore.Factory<Double, SparseStore> tmpFactory : this.factories()) {
+
+            final PrimitiveDenseStore tmpDense = tmpExpected.copy();
+            final SparseStore tmpSparse = tmpFactory.copy(tmpDense);
+
+            tmpDense.exchangeRows(1, 7);
+            tmpSparse.exchangeRows(1, 7);
+            tmpDense.exchangeColumns(0, 5);
+            tmpSparse.exchangeColumns(0, 5);
+            TestUtils.assertEquals(tmpDense, tmpSparse, PRECISION);
+
+            for (int ij = 0; ij < 7; ij++) {
+                tmpDense.set(ij, ij, 0.0);
+                tmpSparse.set(ij, ij, 0.0);
+                tmpDense.set(ij + 2, ij, ij + 1.0);
+                tmpSparse.set(ij + 2, ij, ij + 1.0);
+            }
+            TestUtils.assertEquals(tmpDense, tmpSparse, PRECISION);
+
+            int tmpNonzeros = 0;
+            for (int k = 0; k < tmpDense.count(); k++) {
+                if (tmpDense.doubleValue(k) != 0.0) {
+                    tmpNonzeros++;
+                }
+            }
+            TestUtils.assertEquals(tmpNonzeros, tmpSparse.countNonzeros());
+        }
+    }
+
+    public void testMultiply() {
+
+        final PrimitiveDenseStore tmpLeft = SparseCase.makeSparseContent(11, 13);
+        final PrimitiveDenseStore tmpRight = SparseCase.makeSparseContent(13, 5);
+
+        final MatrixStore<Double> tmpExpected = tmpLeft.multiply(tmpRight);
+
+        for (final PhysicalStore.Factory<Double, SparseStore> tmpFactory : this.factories()) {
+
+            final SparseStore tmpSparseLeft = tmpFactory.copy(tmpLeft);
+            final SparseStore tmpSparseRight = tmpFactory.copy(tmpRight);
+
+            TestUtils.assertEquals(tmpExpected, tmpSparseLeft.multiply(tmpRight), PRECISION);
+            TestUtils.assertEquals(tmpExpected, tmpSparseRight.multiplyLeft(tmpLeft), PRECISION);
+            TestUtils.assertEquals(tmpExpected, tmpSparseLeft.multiply(tmpSparseRight), PRECISION);
+
+            TestUtils.assertEquals(tmpExpected, tmpLeft.multiply(tmpSparseRight), PRECISION);
+            TestUtils.assertEquals(tmpExpected, tmpSparseLeft.multiply((MatrixStore<Double>) tmpRight), PRECISION);
+
+            final SparseStore tmpProduct = tmpFactory.makeZero(11, 5);
+            tmpProduct.fillByMultiplying(tmpSparseLeft, tmpSparseRight);
+            TestUtils.assertEquals(tmpExpected, tmpProduct, PRECISION);
+        }
+    }
+
+    /**
+     * Random access set/remove, so that the lazy pointer shifts move both forwards and backwards, interleaved
+     * with reads and operations that need the actual pointers.
+     */
+    public void testRandomAccess() {
+
+        final Uniform tmpUniform = new Uniform();
+
+        for (final PhysicalStore.Factory<Double, SparseStore> tmpFactory : this.factories()) {
+
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(17, 13);
+            final SparseStore tmpSparse = tmpFactory.makeZero(17, 13);
+
+            for (int k = 0; k < 2000; k++) {
+
+                final int i = (int) (tmpUniform.doubleValue() * 17);
+                final int j = (int) (tmpUniform.doubleValue() * 13);
+                final double tmpValue = tmpUniform.doubleValue() < 0.4 ? 0.0 : k;
+
+                tmpDense.set(i, j, tmpValue);
+                tmpSparse.set(i, j, tmpValue);
+
+                TestUtils.assertEquals(tmpDense.doubleValue(i, j), tmpSparse.doubleValue(i, j), PRECISION);
+
+                if ((k % 97) == 0) {
+                    TestUtils.assertEquals(tmpDense, tmpSparse.copy(), PRECISION);
+                    TestUtils.assertEquals(tmpDense.transpose(), tmpSparse.transpose(), PRECISION);
+                }
+            }
+
+            TestUtils.assertEquals(tmpDense, tmpSparse, PRECISION);
+            TestUtils.assertEquals(tmpDense, tmpSparse.toCSC(), PRECISION);
+            TestUtils.assertEquals(tmpDense, tmpSparse.toCSR(), PRECISION);
+
+            int tmpNonzeros = 0;
+            for (int k = 0; k < tmpDense.count(); k++) {
+                if (tmpDense.doubleValue(k) != 0.0) {
+                    tmpNonzeros++;
+                }
+            }
+            TestUtils.assertEquals(tmpNonzeros, tmpSparse.countNonzeros());
+        }
+    }
+
+    public void testTransposeAndVisit() {
+
+        final PrimitiveDenseStore tmpDense = SparseCase.makeSparseContent(8, 6);
+
+        for (final PhysicalStore.Factory<Double, SparseStore> tmpFactory : this.factories()) {
+
+            final SparseStore tmpSparse = tmpFactory.copy(tmpDense);
+
+            TestUtils.assertEquals(tmpDense.transpose(), tmpSparse.transpose(), PRECISION);
+            TestUtils.assertEquals(tmpDense, tmpSparse.toCSC(), PRECISION);
+            TestUtils.assertEquals(tmpDense, tmpSparse.toCSR(), PRECISION);
+
+            final PrimitiveDenseStore tmpVisited = PrimitiveDenseStore.FACTORY.makeZero(8, 6);
+            for (int j = 0; j < 6; j++) {
+                tmpSparse.visitNonzerosInColumn(j, new SparseStore.NonzeroVisitor() {
+
+                    public void visit(final long row, final long column, final double value) {
+                        tmpVisited.set(row, column, value);
+                    }
+                });
+            }
+            TestUtils.assertEquals(tmpDense, tmpVisited, PRECISION);
+        }
+    }
+
+    /**
+     * Triplets in random order, with duplicates (last one counts) and explicit zeros
+     */
+    public void testTriplets() {
+
+        final PrimitiveDenseStore tmpExpected = SparseCase.makeSparseContent(9, 11);
+
+        final SparseStore.Triplets tmpTriplets = SparseStore.makeTriplets(9, 11, 4);
+
+        for (int k = (int) tmpExpected.count() - 1; k >= 0; k--) {
+            final long tmpIndex = (k * 37L) % tmpExpected.count(); // Scrambled, but each index once
+            tmpTriplets.set(tmpIndex, 100.0);
+        }
+        for (int j = 10; j >= 0; j--) {
+            for (int i = 0; i < 9; i++) {
+                tmpTriplets.set(i, j, tmpExpected.doubleValue(i, j));
+            }
+        }
+
+        final SparseStore tmpCSC = tmpTriplets.toCSC();
+        final SparseStore tmpCSR = tmpTriplets.toCSR();
+
+        TestUtils.assertTrue(tmpCSC.isCompressedColumns());
+        TestUtils.assertFalse(tmpCSR.isCompressedColumns());
+        TestUtils.assertEquals(tmpExpected, tmpCSC, PRECISION);
+        TestUtils.assertEquals(tmpExpected, tmpCSR, PRECISION);
+        TestUtils.assertEquals(SparseStore.FACTORY.copy(tmpExpected).countNonzeros(), tmpCSC.countNonzeros());
+        TestUtils.assertEquals(tmpCSC.countNonzeros(), tmpCSR.countNonzeros());
+
+        try {
+            tmpTriplets.set(9, 0, 1.0);
+            TestUtils.fail();
+        } catch (final IndexOutOfBoundsException expected) {
+            // Expected
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private PhysicalStore.Factory<Double, SparseStore>[] factories() {
+        return new PhysicalStore.Factory[] { SparseStore.FACTORY, SparseStore.FACTORY_CSR };
+    }
+
+}
@@ -0,0 +1,121 @@
+/* 
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE. 
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.ojalgo.TestUtils;
+
+/**
+ * Writing, reading back and parsing {@linkplain Calibration} profiles. Does not run the (slow) calibration
+ * itself.
+ *
+ * @author apete
+ */
+public class CalibrationTest extends MatrixStoreOperationTests {
+
+    private static File newFile() throws IOException {
+        final File retVal = File.createTempFile("thresholds_", ".properties");
+        retVal.deleteOnExit();
+        return retVal;
+    }
+
+    public CalibrationTest() {
+        super();
+    }
+
+    public CalibrationTest(final String arg0) {
+        super(arg0);
+    }
+
+    public void testMalformedProfile() throws IOException {
+
+        final File tmpFile = CalibrationTest.newFile();
+
+        try (OutputStream tmpStream = new FileOutputStream(tmpFile)) {
+            tmpStream.write("MultiplyBoth=many\nMultiplyLeft.big=\nGEMM= 96 \nHouseholderLeft=3.5\n".getBytes("ISO-8859-1"));
+        }
+
+        final Properties tmpProfile = Calibration.load(tmpFile);
+
+        // Unparseable values fall back to the defaults, the others are still used
+        TestUtils.assertEquals(64, Calibration.threshold(tmpProfile, MultiplyBoth.class, null, 64));
+        TestUtils.assertEquals(32, Calibration.threshold(tmpProfile, MultiplyLeft.class, Calibration.BIG, 32));
+        TestUtils.assertEquals(96, Calibration.threshold(tmpProfile, GEMM.class, null, 64));
+        TestUtils.assertEquals(128, Calibration.threshold(tmpProfile, HouseholderLeft.class, null, 128));
+
+        // A file that isn't a properties file at all (malformed unicode escape) gives an empty profile
+        try (OutputStream tmpStream = new FileOutputStream(tmpFile)) {
+            tmpStream.write("GEMM=96\nMultiplyBoth=\\uZZZZ\n".getBytes("ISO-8859-1"));
+        }
+
+        final Properties tmpBroken = Calibration.load(tmpFile);
+
+        TestUtils.assertTrue(tmpBroken.isEmpty());
+        TestUtils.assertEquals(64, Calibration.threshold(tmpBroken, GEMM.class, null, 64));
+    }
+
+    public void testMissingProfile() throws IOException {
+
+        final File tmpFile = CalibrationTest.newFile();
+        tmpFile.delete();
+
+        final Properties tmpProfile = Calibration.load(tmpFile);
+
+        TestUtils.assertTrue(tmpProfile.isEmpty());
+        TestUtils.assertEquals(64, Calibration.threshold(tmpProfile, SubstituteBackwards.class, null, 64));
+    }
+
+    public void testSaveAndLoad() throws IOException {
+
+        final Properties tmpProfile = new Properties();
+        tmpProfile.setProperty("MultiplyBoth", "16");
+        tmpProfile.setProperty("MultiplyBoth.big", "8");
+        tmpProfile.setProperty("MultiplyBoth.complex", "4");
+        tmpProfile.setProperty("GEMM", "128");
+        tmpProfile.setProperty("HouseholderLeft", "32");
+        tmpProfile.setProperty("SubstituteBackwards", "256");
+
+        final File tmpFile = CalibrationTest.newFile();
+
+        Calibration.save(tmpFile, tmpProfile);
+
+        final Properties tmpLoaded = Calibration.load(tmpFile);
+
+        TestUtils.assertEquals(tmpProfile, tmpLoaded);
+
+        TestUtils.assertEquals(16, Calibration.threshold(tmpLoaded, MultiplyBoth.class, null, 1));
+        TestUtils.assertEquals(8, Calibration.threshold(tmpLoaded, MultiplyBoth.class, Calibration.BIG, 1));
+        TestUtils.assertEquals(4, Calibration.threshold(tmpLoaded, MultiplyBoth.class, Calibration.COMPLEX, 1));
+        TestUtils.assertEquals(128, Calibration.threshold(tmpLoaded, GEMM.class, null, 1));
+        TestUtils.assertEquals(32, Calibration.threshold(tmpLoaded, HouseholderLeft.class, null, 1));
+        TestUtils.assertEquals(256, Calibration.threshold(tmpLoaded, SubstituteBackwards.class, null, 1));
+
+        // Not in the profile
+        TestUtils.assertEquals(1, Calibration.threshold(tmpLoaded, MultiplyRight.class, null, 1));
+    }
+
+}
@@ -27,6 +27,7 @@ import java.math.BigDecimal;
 
 import org.ojalgo.FunctionalityTest;
 import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.netio.BasicLogger;
 import org.ojalgo.optimisation.Optimisation.Result;
 
@@ -40,6 +41,102 @@ public class ExpressionsBasedModelTest extends FunctionalityTest {
         super(someName);
     }
 
+    public void testDenseQuadraticFactors() {
+
+        final PrimitiveDenseStore tmpCovariances = PrimitiveDenseStore.FACTORY
+                .rows(new double[][] { { 0.040, 0.006, -0.004 }, { 0.006, 0.090, 0.012 }, { -0.004, 0.012, 0.160 } });
+
+        final ExpressionsBasedModel[] tmpModels = new ExpressionsBasedModel[2];
+        for (int m = 0; m < tmpModels.length; m++) {
+
+            final Variable[] tmpVariables = new Variable[] { new Variable("A").lower(ZERO), new Variable("B").lower(ZERO), new Variable("C").lower(ZERO) };
+            tmpVariables[2].weight(TENTH.negate());
+
+            final ExpressionsBasedModel tmpModel = new ExpressionsBasedModel(tmpVariables);
+
+            final Expression tmpVariance = tmpModel.addExpression("Variance");
+            if (m == 0) {
+                tmpVariance.setQuadraticFactors(tmpCovariances);
+            } else {
+                for (int j = 0; j < 3; j++) {
+                    for (int i = 0; i < 3; i++) {
+                        tmpVariance.setQuadraticFactor(i, j, tmpCovariances.doubleValue(i, j));
+                    }
+                }
+            }
+            tmpVariance.weight(HALF);
+
+            final Expression tmpBalance = tmpModel.addExpression("Balance");
+            tmpBalance.setLinearFactorsSimple(tmpModel.getVariables());
+            tmpBalance.level(ONE);
+
+            tmpModels[m] = tmpModel;
+        }
+
+        final Expression tmpDense = tmpModels[0].getExpression("Variance");
+        final Expression tmpSparse = tmpModels[1].getExpression("Variance");
+
+        TestUtils.assertEquals(tmpSparse.getQuadraticFactorKeys().size(), tmpDense.getQuadraticFactorKeys().size());
+        TestUtils.assertEquals(tmpSparse.getAdjustedHessian(), tmpDense.getAdjustedHessian());
+
+        final Result tmpDenseResult = tmpModels[0].minimise();
+        final Result tmpSparseResult = tmpModels[1].minimise();
+
+        TestUtils.assertStateNotLessThanOptimal(tmpDenseResult);
+        TestUtils.assertEquals(tmpSparseResult, tmpDenseResult);
+        TestUtils.assertEquals(tmpSparseResult.getValue(), tmpDenseResult.getValue(), 1E-12);
+
+        // The matrix itself is not modified, the change is stored separately
+        tmpDense.setQuadraticFactor(1, 1, 0.5);
+        TestUtils.assertEquals(0.5, tmpDense.getQuadraticFactor(1, 1).doubleValue(), 0.0);
+        TestUtils.assertEquals(0.090, tmpCovariances.doubleValue(1, 1), 0.0);
+        TestUtils.assertEquals(9, tmpDense.getQuadraticFactorKeys().size());
+
+        tmpDense.setQuadraticFactor(0, 2, ZERO);
+        TestUtils.assertEquals(8, tmpDense.getQuadraticFactorKeys().size());
+        TestUtils.assertFalse(tmpDense.getQuadraticFactorKeys().contains(new Expression.RowColumn(0, 2)));
+    }
+
+    public void testFactorStorage() {
+
+        final Variable[] tmpVariables = new Variable[] { new Variable("A"), new Variable("B"), new Variable("C") };
+        final ExpressionsBasedModel tmpModel = new ExpressionsBasedModel(tmpVariables);
+
+        final Expression tmpExpression = tmpModel.addExpression("Factors");
+
+        final BigDecimal tmpPrecise = new BigDecimal("0.1234567890123456789012345678901234567890");
+        tmpExpression.setLinearFactor(0, tmpPrecise);
+        tmpExpression.setLinearFactor(1, TENTH);
+        tmpExpression.setLinearFactor(2, 2.5);
+        tmpExpression.setQuadraticFactor(0, 2, THIRD);
+        tmpExpression.setQuadraticFactor(2, 0, 0.75);
+
+        TestUtils.assertEquals(0, tmpPrecise.compareTo(tmpExpression.getLinearFactor(0)));
+        TestUtils.assertEquals(0, TENTH.compareTo(tmpExpression.getLinearFactor(1)));
+        TestUtils.assertEquals(2.5, tmpExpression.getAdjustedLinearFactor(2), 0.0);
+        TestUtils.assertEquals(0, THIRD.compareTo(tmpExpression.getQuadraticFactor(0, 2)));
+        TestUtils.assertEquals(0.75, tmpExpression.getAdjustedQuadraticFactor(2, 0), 0.0);
+
+        TestUtils.assertEquals(3, tmpExpression.getLinearFactorKeys().size());
+        TestUtils.assertTrue(tmpExpression.getQuadraticFactorKeys().contains(new Expression.RowColumn(2, 0)));
+        TestUtils.assertFalse(tmpExpression.getQuadraticFactorKeys().contains(new Expression.RowColumn(0, 1)));
+
+        tmpExpression.setLinearFactor(1, ZERO);
+        tmpExpression.setQuadraticFactor(0, 2, 0.0);
+
+        TestUtils.assertEquals(2, tmpExpression.getLinearFactorKeys().size());
+        TestUtils.assertFalse(tmpExpression.getLinearFactorKeys().contains(new Expression.Index(1)));
+        TestUtils.assertEquals(0, ZERO.compareTo(tmpExpression.getLinearFactor(1)));
+        TestUtils.assertEquals(1, tmpExpression.getQuadraticFactorKeys().size());
+
+        tmpExpression.weight(TWO);
+
+        final Expression tmpObjective = tmpModel.getObjectiveExpression();
+        TestUtils.assertEquals(0, tmpPrecise.add(tmpPrecise).compareTo(tmpObjective.getLinearFactor(0)));
+        TestUtils.assertEquals(5.0, tmpObjective.getAdjustedLinearFactor(2), 0.0);
+        TestUtils.assertEquals(1.5, tmpObjective.getAdjustedQuadraticFactor(2, 0), 0.0);
+    }
+
     public void testMPStestprob() {
 
         final Variable tmpXONE = new Variable("XONE").weight(ONE).lower(ZERO).upper(FOUR);
@@ -101,4 +198,90 @@ public class ExpressionsBasedModelTest extends FunctionalityTest {
 
     }
 
+    public void testPresolve() {
+
+        for (int m = 0; m < 2; m++) {
+
+            final Variable tmpX = new Variable("X").lower(ZERO).upper(TEN).weight(NEG);
+            final Variable tmpY = new Variable("Y").lower(ZERO).upper(TEN).weight(ONE).integer(true);
+            final Variable tmpZ = new Variable("Z").lower(ZERO).upper(FIVE).weight(ONE);
+            final Variable tmpW = new Variable("W").level(TWO);
+
+            final ExpressionsBasedModel tmpModel = new ExpressionsBasedModel(new Variable[] { tmpX, tmpY, tmpZ, tmpW });
+
+            // Can't be violated given the bounds of X and Y
+            final Expression tmpRedundant = tmpModel.addExpression("Redundant");
+            tmpRedundant.setLinearFactor(tmpX, ONE);
+            tmpRedundant.setLinearFactor(tmpY, ONE);
+            tmpRedundant.upper(new BigDecimal(30));
+
+            // Implies Y <= 5
+            final Expression tmpTightening = tmpModel.addExpression("Tightening");
+            tmpTightening.setLinearFactor(tmpX, NEG);
+            tmpTightening.setLinearFactor(tmpY, THREE);
+            tmpTightening.upper(SIX);
+
+            final Expression tmpCover = tmpModel.addExpression("Cover");
+            tmpCover.setLinearFactor(tmpX, ONE);
+            tmpCover.setLinearFactor(tmpY, ONE);
+            tmpCover.setLinearFactor(tmpW, ONE);
+            tmpCover.lower(THREE);
+
+            final Result tmpResult = m == 0 ? tmpModel.minimise() : tmpModel.maximise();
+
+            TestUtils.assertTrue(tmpRedundant.isRedundant());
+            // The derived bound is used by the solver, but not written to the variable
+            TestUtils.assertEquals(FIVE, tmpModel.getUpperBound(tmpY));
+            TestUtils.assertEquals(TEN, tmpY.getUpperLimit());
+            // Z is not constrained at all - fixed at the bound the objective prefers
+            TestUtils.assertTrue(tmpModel.getFixedVariables().contains(tmpZ.getIndex()));
+
+            if (m == 0) {
+                // X can be increased without violating any constraint - fixed at its upper bound
+                TestUtils.assertTrue(tmpModel.getFixedVariables().contains(tmpX.getIndex()));
+                TestUtils.assertEquals(0, ZERO.compareTo(tmpZ.getValue()));
+                TestUtils.assertEquals(-10.0, tmpResult.getValue(), 1E-9);
+            } else {
+                TestUtils.assertFalse(tmpModel.getFixedVariables().contains(tmpX.getIndex()));
+                TestUtils.assertEquals(0, FIVE.compareTo(tmpZ.getValue()));
+                TestUtils.assertEquals(7.0, tmpResult.getValue(), 1E-9);
+            }
+
+            TestUtils.assertStateNotLessThanOptimal(tmpResult);
+            TestUtils.assertTrue(tmpModel.validate(tmpResult));
+        }
+    }
+
+    /**
+     * The integer variable bounds derived by one presolve must not remain when a constraint is loosened and
+     * the model solved again.
+     */
+    public void testPresolveAfterChange() {
+
+        final Variable tmpX = new Variable("X").lower(ZERO).weight(TWO).integer(true);
+        final Variable tmpY = new Variable("Y").lower(ZERO).weight(ONE).integer(true);
+
+        final ExpressionsBasedModel tmpModel = new ExpressionsBasedModel(new Variable[] { tmpX, tmpY });
+
+        final Expression tmpConstraint = tmpModel.addExpression("C");
+        tmpConstraint.setLinearFactor(tmpX, ONE);
+        tmpConstraint.setLinearFactor(tmpY, ONE);
+        tmpConstraint.upper(FIVE);
+
+        final Result tmpFirst = tmpModel.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpFirst);
+        TestUtils.assertEquals(10.0, tmpFirst.getValue(), 1E-9);
+        TestUtils.assertEquals(FIVE, tmpModel.getUpperBound(tmpX));
+        TestUtils.assertTrue(tmpX.getUpperLimit() == null);
+        TestUtils.assertTrue(tmpY.getUpperLimit() == null);
+
+        tmpConstraint.upper(TEN);
+
+        final Result tmpSecond = tmpModel.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpSecond);
+        TestUtils.assertEquals(20.0, tmpSecond.getValue(), 1E-9);
+        TestUtils.assertEquals(TEN, tmpModel.getUpperBound(tmpX));
+        TestUtils.assertTrue(tmpModel.validate(tmpSecond));
+    }
+
 }
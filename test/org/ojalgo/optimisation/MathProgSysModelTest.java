@@ -0,0 +1,108 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.zip.GZIPOutputStream;
+
+import org.ojalgo.FunctionalityTest;
+import org.ojalgo.TestUtils;
+import org.ojalgo.type.context.NumberContext;
+
+public class MathProgSysModelTest extends FunctionalityTest {
+
+    private static final String AFIRO = "./test/org/ojalgo/optimisation/linear/afiro.mps";
+
+    public MathProgSysModelTest() {
+        super();
+    }
+
+    public MathProgSysModelTest(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * A gzip compressed file should result in the same model as the plain file.
+     */
+    public void testCompressed() throws IOException {
+
+        final File tmpCompressed = File.createTempFile("afiro", ".mps.gz");
+        tmpCompressed.deleteOnExit();
+
+        try (InputStream tmpInput = new FileInputStream(AFIRO); OutputStream tmpOutput = new GZIPOutputStream(new FileOutputStream(tmpCompressed))) {
+            final byte[] tmpBuffer = new byte[4096];
+            int tmpRead;
+            while ((tmpRead = tmpInput.read(tmpBuffer)) > 0) {
+                tmpOutput.write(tmpBuffer, 0, tmpRead);
+            }
+        }
+
+        final ExpressionsBasedModel tmpPlain = MathProgSysModel.make(new File(AFIRO)).getExpressionsBasedModel();
+        final ExpressionsBasedModel tmpGzip = MathProgSysModel.make(tmpCompressed).getExpressionsBasedModel();
+
+        TestUtils.assertEquals(tmpPlain.countVariables(), tmpGzip.countVariables());
+        TestUtils.assertEquals(tmpPlain.countExpressions(), tmpGzip.countExpressions());
+        TestUtils.assertEquals(tmpPlain.minimise().getValue(), tmpGzip.minimise().getValue(), new NumberContext(7, 6));
+    }
+
+    /**
+     * The coefficients are parsed directly to double, and should be exactly what {@link Double#parseDouble(String)}
+     * gives.
+     */
+    public void testNumbers() throws IOException {
+
+        final String[] tmpNumbers = new String[] { "1", "-2.5", ".25", "-.125", "0.1", "3.", "1.5E+3", "1e-30", "-7.25e2", "123456789012",
+                "9.87654e300", "1.23456e-25", "000012.5000" };
+
+        final File tmpFile = File.createTempFile("numbers", ".mps");
+        tmpFile.deleteOnExit();
+
+        try (PrintWriter tmpWriter = new PrintWriter(tmpFile)) {
+            tmpWriter.println("NAME          NUMBERS");
+            tmpWriter.println("ROWS");
+            tmpWriter.println(" N  COST");
+            tmpWriter.println("COLUMNS");
+            for (int i = 0; i < tmpNumbers.length; i++) {
+                tmpWriter.println(String.format("    X%-7d  COST      %-12s", i, tmpNumbers[i]));
+            }
+            tmpWriter.println("ENDATA");
+        }
+
+        final MathProgSysModel tmpMPS = MathProgSysModel.make(tmpFile);
+        final ExpressionsBasedModel tmpModel = tmpMPS.getExpressionsBasedModel();
+
+        TestUtils.assertEquals("NUMBERS", tmpMPS.getName());
+        TestUtils.assertEquals(tmpNumbers.length, tmpModel.countVariables());
+
+        final Expression tmpCost = tmpModel.getExpression("COST");
+        for (int i = 0; i < tmpNumbers.length; i++) {
+            TestUtils.assertTrue(tmpNumbers[i], Double.parseDouble(tmpNumbers[i]) == tmpCost.getLinearFactor(i).doubleValue());
+        }
+    }
+
+}
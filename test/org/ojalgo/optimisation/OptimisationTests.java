@@ -30,6 +30,7 @@ public abstract class OptimisationTests extends FunctionalityTest {
         final TestSuite suite = new TestSuite(OptimisationTests.class.getPackage().getName());
         //$JUnit-BEGIN$
         suite.addTestSuite(ExpressionsBasedModelTest.class);
+        suite.addTestSuite(MathProgSysModelTest.class);
         //$JUnit-END$
         return suite;
     }
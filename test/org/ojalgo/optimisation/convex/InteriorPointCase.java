@@ -0,0 +1,183 @@
+/* 
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE. 
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * {@linkplain InteriorPointSolver} compared to {@linkplain ActiveSetSolver}
+ *
+ * @author apete
+ */
+public class InteriorPointCase extends OptimisationConvexTests {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 7);
+
+    private static final int SIZE = 60;
+
+    /**
+     * Sum of weights 1.0, each weight [0, upper]
+     */
+    private static ConvexSolver.Builder makePortfolio(final Random random, final double upper) {
+
+        final PrimitiveDenseStore tmpFactors = PrimitiveDenseStore.FACTORY.makeZero(SIZE, 3);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < 3; j++) {
+                tmpFactors.set(i, j, 0.1 * random.nextGaussian());
+            }
+        }
+
+        final PrimitiveDenseStore tmpQ = PrimitiveDenseStore.FACTORY.copy(tmpFactors.multiply(tmpFactors.transpose()));
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(SIZE, 1);
+        for (int i = 0; i < SIZE; i++) {
+            tmpQ.set(i, i, tmpQ.doubleValue(i, i) + 0.01);
+            tmpC.set(i, 0, 0.05 + (0.1 * random.nextDouble()));
+        }
+
+        final PrimitiveDenseStore tmpAE = PrimitiveDenseStore.FACTORY.makeZero(1, SIZE);
+        tmpAE.fillAll(1.0);
+        final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(1, 1);
+        tmpBE.set(0, 0, 1.0);
+        final PrimitiveDenseStore tmpAI = PrimitiveDenseStore.FACTORY.makeZero(2 * SIZE, SIZE);
+        final PrimitiveDenseStore tmpBI = PrimitiveDenseStore.FACTORY.makeZero(2 * SIZE, 1);
+        for (int i = 0; i < SIZE; i++) {
+            tmpAI.set(i, i, 1.0);
+            tmpBI.set(i, 0, upper);
+            tmpAI.set(SIZE + i, i, -1.0);
+        }
+
+        return ConvexSolver.getBuilder(tmpQ, tmpC).equalities(tmpAE, tmpBE).inequalities(tmpAI, tmpBI);
+    }
+
+    /**
+     * min 1/2 [X]'[Q][X] - [C]'[X] with a rank deficient [Q], each variable [0, upper] (random upper) and the
+     * sum of the variables 1.0
+     */
+    private static ConvexSolver.Builder makeBoxBudget(final Random random, final int size) {
+
+        final PrimitiveDenseStore tmpFactors = PrimitiveDenseStore.FACTORY.makeZero(size, 3);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < 3; j++) {
+                tmpFactors.set(i, j, random.nextGaussian());
+            }
+        }
+
+        final PrimitiveDenseStore tmpQ = PrimitiveDenseStore.FACTORY.copy(tmpFactors.multiply(tmpFactors.transpose()));
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(size, 1);
+        for (int i = 0; i < size; i++) {
+            tmpC.set(i, 0, random.nextGaussian());
+        }
+
+        final PrimitiveDenseStore tmpAE = PrimitiveDenseStore.FACTORY.makeZero(1, size);
+        tmpAE.fillAll(1.0);
+        final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(1, 1);
+        tmpBE.set(0, 0, 1.0);
+        final PrimitiveDenseStore tmpAI = PrimitiveDenseStore.FACTORY.makeZero(2 * size, size);
+        final PrimitiveDenseStore tmpBI = PrimitiveDenseStore.FACTORY.makeZero(2 * size, 1);
+        for (int i = 0; i < size; i++) {
+            tmpAI.set(i, i, 1.0);
+            tmpBI.set(i, 0, random.nextDouble());
+            tmpAI.set(size + i, i, -1.0);
+        }
+
+        return ConvexSolver.getBuilder(tmpQ, tmpC).equalities(tmpAE, tmpBE).inequalities(tmpAI, tmpBI);
+    }
+
+    public InteriorPointCase() {
+        super();
+    }
+
+    public InteriorPointCase(final String someName) {
+        super(someName);
+    }
+
+    public void testCompareWithActiveSet() {
+
+        final ConvexSolver.Builder tmpBuilder = InteriorPointCase.makePortfolio(new Random(20150701L), 0.05);
+
+        final Optimisation.Options tmpOptions = new Optimisation.Options();
+
+        tmpOptions.interior_point = Integer.MAX_VALUE;
+        final ConvexSolver tmpActiveSet = tmpBuilder.build(tmpOptions);
+        TestUtils.assertTrue(tmpActiveSet instanceof ActiveSetSolver);
+        final Optimisation.Result tmpExpected = tmpActiveSet.solve();
+
+        tmpOptions.interior_point = 0;
+        final ConvexSolver tmpInteriorPoint = tmpBuilder.build(tmpOptions);
+        TestUtils.assertTrue(tmpInteriorPoint instanceof InteriorPointSolver);
+        final Optimisation.Result tmpActual = tmpInteriorPoint.solve();
+
+        TestUtils.assertStateNotLessThanOptimal(tmpExpected);
+        TestUtils.assertStateNotLessThanOptimal(tmpActual);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual, PRECISION);
+        TestUtils.assertEquals(tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+    }
+
+    /**
+     * Close to the optimum the weights of the normal equations explode, and the factorisation may fail. That
+     * should end the iterations, not fail the solve.
+     */
+    public void testBoxBudget() {
+
+        final Optimisation.Options tmpOptions = new Optimisation.Options();
+
+        for (long tmpSeed = 0L; tmpSeed < 100L; tmpSeed++) {
+
+            final ConvexSolver.Builder tmpBuilder = InteriorPointCase.makeBoxBudget(new Random(tmpSeed), 10);
+
+            tmpOptions.interior_point = Integer.MAX_VALUE;
+            final Optimisation.Result tmpExpected = tmpBuilder.build(tmpOptions).solve();
+
+            tmpOptions.interior_point = 0;
+            final Optimisation.Result tmpActual = tmpBuilder.build(tmpOptions).solve();
+
+            final String tmpMessage = "Seed " + tmpSeed;
+            TestUtils.assertFalse(tmpMessage, tmpActual.getState().isFailure() && tmpExpected.getState().isFeasible());
+            if (tmpExpected.getState().isOptimal()) {
+                TestUtils.assertTrue(tmpMessage, tmpActual.getState().isFeasible());
+                TestUtils.assertEquals(tmpMessage, tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+            }
+        }
+    }
+
+    /**
+     * The upper limits sum to less than 1.0
+     */
+    public void testInfeasible() {
+
+        final ConvexSolver.Builder tmpBuilder = InteriorPointCase.makePortfolio(new Random(20150702L), 0.01);
+
+        final Optimisation.Options tmpOptions = new Optimisation.Options();
+        tmpOptions.interior_point = 0;
+
+        final Optimisation.Result tmpResult = tmpBuilder.build(tmpOptions).solve();
+
+        TestUtils.assertFalse(tmpResult.getState().isFeasible());
+    }
+
+}
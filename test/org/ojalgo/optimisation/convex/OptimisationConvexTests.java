@@ -33,6 +33,8 @@ public abstract class OptimisationConvexTests extends FunctionalityTest {
         suite.addTestSuite(QsdOldNormalCase.class);
         suite.addTestSuite(QsdOldOptimalCase.class);
         suite.addTestSuite(ConvexProblems.class);
+        suite.addTestSuite(WorkingSetCase.class);
+        suite.addTestSuite(InteriorPointCase.class);
         //$JUnit-END$
         return suite;
     }
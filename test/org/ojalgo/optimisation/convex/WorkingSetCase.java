@@ -0,0 +1,198 @@
+/* 
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE. 
+ */
+package org.ojalgo.optimisation.convex;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.RowsStore;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.State;
+import org.ojalgo.optimisation.system.KKTSolver;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * The working set (KKT system) factorisation of {@linkplain ActiveSetSolver} that is updated as constraints
+ * are included/excluded, and seeding the working set from a kick-starter.
+ *
+ * @author apete
+ */
+public class WorkingSetCase extends OptimisationConvexTests {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 9);
+
+    private static final int SIZE = 30;
+
+    private static PrimitiveDenseStore makeQ(final Random random) {
+
+        final PrimitiveDenseStore tmpFactor = PrimitiveDenseStore.FACTORY.makeZero(SIZE, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                tmpFactor.set(i, j, random.nextGaussian());
+            }
+        }
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.copy(tmpFactor.multiply(tmpFactor.transpose()));
+        for (int ij = 0; ij < SIZE; ij++) {
+            retVal.set(ij, ij, retVal.doubleValue(ij, ij) + 0.1);
+        }
+        return retVal;
+    }
+
+    public WorkingSetCase() {
+        super();
+    }
+
+    public WorkingSetCase(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * Tighten the upper limit of a variable that is strictly between its limits at the optimum. The previous
+     * optimum, no longer feasible, is used as kick-starter. Should get the same solution as without it.
+     */
+    public void testInfeasibleKickStarter() {
+
+        final Random tmpRandom = new Random(20150601L);
+
+        final PrimitiveDenseStore tmpQ = WorkingSetCase.makeQ(tmpRandom);
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(SIZE, 1);
+        for (int i = 0; i < SIZE; i++) {
+            tmpC.set(i, 0, 5.0 * SIZE * tmpRandom.nextGaussian());
+        }
+
+        // Sum of weights 1.0, each weight [0, 0.07]
+        final PrimitiveDenseStore tmpAE = PrimitiveDenseStore.FACTORY.makeZero(1, SIZE);
+        tmpAE.fillAll(1.0);
+        final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(1, 1);
+        tmpBE.set(0, 0, 1.0);
+        final PrimitiveDenseStore tmpAI = PrimitiveDenseStore.FACTORY.makeZero(2 * SIZE, SIZE);
+        final PrimitiveDenseStore tmpBI = PrimitiveDenseStore.FACTORY.makeZero(2 * SIZE, 1);
+        for (int i = 0; i < SIZE; i++) {
+            tmpAI.set(i, i, 1.0);
+            tmpBI.set(i, 0, 0.07);
+            tmpAI.set(SIZE + i, i, -1.0);
+        }
+
+        final Optimisation.Result tmpPrevious = ConvexSolver.getBuilder(tmpQ, tmpC).equalities(tmpAE, tmpBE).inequalities(tmpAI, tmpBI).build().solve(null);
+        TestUtils.assertStateNotLessThanOptimal(tmpPrevious);
+
+        int tmpBranch = -1;
+        for (int i = 0; i < SIZE; i++) {
+            final double tmpValue = tmpPrevious.doubleValue(i);
+            if ((tmpValue > 0.001) && (tmpValue < 0.069)) {
+                tmpBranch = i;
+            }
+        }
+        TestUtils.assertTrue(tmpBranch >= 0);
+        tmpBI.set(tmpBranch, 0, tmpPrevious.doubleValue(tmpBranch) / 2.0);
+
+        final Optimisation.Result tmpCold = ConvexSolver.getBuilder(tmpQ, tmpC).equalities(tmpAE, tmpBE).inequalities(tmpAI, tmpBI).build().solve(null);
+        TestUtils.assertStateNotLessThanOptimal(tmpCold);
+
+        final Optimisation.Result tmpKickStarter = new Optimisation.Result(State.INFEASIBLE, tmpPrevious);
+        final Optimisation.Result tmpWarm = ConvexSolver.getBuilder(tmpQ, tmpC).equalities(tmpAE, tmpBE).inequalities(tmpAI, tmpBI).build()
+                .solve(tmpKickStarter);
+        TestUtils.assertStateNotLessThanOptimal(tmpWarm);
+
+        TestUtils.assertEquals(tmpCold, tmpWarm, PRECISION);
+        TestUtils.assertEquals(tmpCold.getValue(), tmpWarm.getValue(), PRECISION);
+    }
+
+    /**
+     * Add and remove rows (constraints), and compare the solutions with those of a freshly factorised KKT
+     * system.
+     */
+    public void testUpdatedFactorisation() {
+
+        final Random tmpRandom = new Random(20150602L);
+
+        final PrimitiveDenseStore tmpQ = WorkingSetCase.makeQ(tmpRandom);
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(SIZE, 1);
+        final PrimitiveDenseStore tmpA = PrimitiveDenseStore.FACTORY.makeZero(SIZE, SIZE);
+        final PrimitiveDenseStore tmpB = PrimitiveDenseStore.FACTORY.makeZero(SIZE, 1);
+        for (int i = 0; i < SIZE; i++) {
+            tmpC.set(i, 0, tmpRandom.nextGaussian());
+            tmpB.set(i, 0, tmpRandom.nextGaussian());
+            for (int j = 0; j < SIZE; j++) {
+                tmpA.set(i, j, tmpRandom.nextGaussian());
+            }
+        }
+
+        final SchurComplementSolver tmpWorkingSet = SchurComplementSolver.make(tmpQ);
+        TestUtils.assertTrue(tmpWorkingSet != null);
+
+        for (int i = 0; i < (SIZE / 2); i++) {
+            TestUtils.assertTrue(tmpWorkingSet.add(i, tmpA, i));
+        }
+        this.compare(tmpWorkingSet, tmpQ, tmpC, tmpA, tmpB);
+
+        // A linear combination of rows already there
+        final PrimitiveDenseStore tmpDependent = PrimitiveDenseStore.FACTORY.makeZero(1, SIZE);
+        for (int j = 0; j < SIZE; j++) {
+            tmpDependent.set(0, j, tmpA.doubleValue(1, j) - (2.0 * tmpA.doubleValue(5, j)));
+        }
+        TestUtils.assertEquals(false, tmpWorkingSet.add(SIZE, tmpDependent, 0));
+
+        tmpWorkingSet.remove(3);
+        tmpWorkingSet.remove(0);
+        tmpWorkingSet.remove(SIZE / 2 - 1);
+        this.compare(tmpWorkingSet, tmpQ, tmpC, tmpA, tmpB);
+
+        for (int i = SIZE / 2; i < SIZE; i++) {
+            TestUtils.assertTrue(tmpWorkingSet.add(i, tmpA, i));
+        }
+        tmpWorkingSet.remove(SIZE / 2 + 4);
+        tmpWorkingSet.remove(7);
+        this.compare(tmpWorkingSet, tmpQ, tmpC, tmpA, tmpB);
+    }
+
+    private void compare(final SchurComplementSolver workingSet, final MatrixStore<Double> Q, final MatrixStore<Double> C, final MatrixStore<Double> A,
+            final MatrixStore<Double> B) {
+
+        final int tmpCount = workingSet.count();
+        final int[] tmpRows = new int[tmpCount];
+        final double[] tmpB = new double[tmpCount];
+        for (int k = 0; k < tmpCount; k++) {
+            tmpRows[k] = workingSet.getKey(k);
+            tmpB[k] = B.doubleValue(tmpRows[k]);
+        }
+        final double[] tmpC = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            tmpC[i] = C.doubleValue(i);
+        }
+
+        final double[] tmpX = new double[SIZE];
+        final double[] tmpL = new double[tmpCount];
+        workingSet.solve(tmpC, tmpB, tmpX, tmpL);
+
+        final KKTSolver.Input tmpInput = new KKTSolver.Input(Q, C, new RowsStore<Double>(A, tmpRows), PrimitiveDenseStore.FACTORY.columns(tmpB));
+        final KKTSolver.Output tmpExpected = new KKTSolver().solve(tmpInput);
+        TestUtils.assertTrue(tmpExpected.isSolvable());
+
+        TestUtils.assertEquals(tmpExpected.getX(), PrimitiveDenseStore.FACTORY.columns(tmpX), PRECISION);
+        TestUtils.assertEquals(tmpExpected.getL(), PrimitiveDenseStore.FACTORY.columns(tmpL), PRECISION);
+    }
+
+}
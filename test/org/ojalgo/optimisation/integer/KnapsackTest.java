@@ -30,6 +30,7 @@ import org.ojalgo.TestUtils;
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.optimisation.Expression;
 import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation.Result;
 import org.ojalgo.optimisation.Variable;
 import org.ojalgo.type.context.NumberContext;
 
@@ -81,6 +82,55 @@ public class KnapsackTest extends OptimisationIntegerTests {
 
     ExpressionsBasedModel model;
 
+    /**
+     * Cover cuts separated from the root node relaxation should make it tighter, but must not cut off the
+     * integer optimum.
+     */
+    public void testCoverCuts() {
+
+        model = new KnapsackProblemBuilder(39d).addItem(24, 12).addItem(13, 7).addItem(23, 11).addItem(15, 8).addItem(16, 9).addItem(11, 6)
+                .addItem(29, 14).addItem(9, 5).addItem(25, 13).addItem(19, 10).build();
+
+        final NodeKey tmpRoot = new NodeKey(model);
+        final LinearRelaxation tmpRelaxation = LinearRelaxation.make(model);
+        final Result tmpRootResult = tmpRelaxation.solve(tmpRoot, null, model.options);
+
+        final LinearRelaxation tmpStrengthened = tmpRelaxation.separate(model, tmpRootResult, model.options.integer);
+        TestUtils.assertTrue(tmpStrengthened != null);
+        TestUtils.assertTrue(tmpStrengthened.countCuts() > 0);
+
+        final Result tmpCutResult = tmpStrengthened.solve(tmpRoot, tmpRootResult, model.options);
+        TestUtils.assertTrue(tmpCutResult.getState().isOptimal());
+
+        final Expression tmpObjective = model.getObjectiveExpression();
+        final double tmpRootBound = tmpObjective.evaluate(tmpRootResult).doubleValue();
+        final double tmpCutBound = tmpObjective.evaluate(tmpCutResult).doubleValue();
+        TestUtils.assertTrue(tmpCutBound <= (tmpRootBound + model.options.integer.epsilon()));
+
+        final Result tmpOptimum = model.maximise();
+        TestUtils.assertStateNotLessThanOptimal(tmpOptimum);
+        TestUtils.assertTrue(tmpStrengthened.validate(tmpRoot, tmpOptimum, model.options.slack));
+        TestUtils.assertTrue(tmpObjective.evaluate(tmpOptimum).doubleValue() <= (tmpCutBound + model.options.integer.epsilon()));
+    }
+
+    /**
+     * The rounding/diving heuristics find an integer solution (items 1 and 2, value 9) before the root node is
+     * evaluated. The root node, without a parent objective function value, must not be pruned against it.
+     */
+    public void testHeuristicIncumbentNotOptimal() {
+
+        model = new KnapsackProblemBuilder(30d).addItem(5, 7).addItem(8, 21).addItem(1, 3).addItem(2, 25).build();
+
+        final Result tmpResult = model.maximise();
+
+        TestUtils.assertStateNotLessThanOptimal(tmpResult);
+        TestUtils.assertEquals(13.0, tmpResult.getValue(), new NumberContext(7, 6));
+        this.assertOne(model.getVariables().get(0));
+        this.assertOne(model.getVariables().get(1));
+        this.assertZero(model.getVariables().get(2));
+        this.assertZero(model.getVariables().get(3));
+    }
+
     public void testVaryingMaxWeight0() {
         model = new KnapsackProblemBuilder(3d).addItem(20, 2).addItem(30, 4).build();
         //        model.options.debug(IntegerSolver.class);
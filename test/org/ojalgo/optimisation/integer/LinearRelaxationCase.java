@@ -0,0 +1,184 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.io.File;
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.MathProgSysModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Branch&amp;bound nodes solved on the shared, compiled, {@linkplain LinearRelaxation} should give the same
+ * results as solving a (relaxed) copy of the model with the node's integer variable bounds.
+ *
+ * @author apete
+ */
+public class LinearRelaxationCase extends OptimisationIntegerTests {
+
+    private static final NumberContext PRECISION = new NumberContext(7, 6);
+
+    /**
+     * Every kind of variable substitution the relaxation does: integer variables with nonzero lower bounds
+     * (shifted, and with a bound row), continuous variables with both limits (bound row), with only a lower
+     * limit, with only an upper limit (x = u - y) and without limits (split in two). Equality, lower and upper
+     * limited constraints.
+     */
+    static ExpressionsBasedModel makeMixedModel(final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final Variable[] tmpVariables = new Variable[] { new Variable("I0").lower(2).upper(9).integer(true),
+                new Variable("I1").lower(-3).upper(4).integer(true), new Variable("I2").lower(0).upper(6).integer(true),
+                new Variable("B3").lower(1.5).upper(7.5), new Variable("L4").lower(-1), new Variable("U5").upper(5), new Variable("F6") };
+
+        for (final Variable tmpVariable : tmpVariables) {
+            tmpVariable.weight(Math.round((tmpRandom.nextDouble() * 10.0) - 3.0));
+        }
+        // Bounded objective contributions for the half-bounded and free variables
+        tmpVariables[4].weight(-1 - tmpRandom.nextInt(3));
+        tmpVariables[5].weight(1 + tmpRandom.nextInt(3));
+
+        final ExpressionsBasedModel retVal = new ExpressionsBasedModel(tmpVariables);
+
+        final Expression tmpBox = retVal.addExpression("Box");
+        tmpBox.setLinearFactor(5, 1);
+        tmpBox.setLinearFactor(6, 1);
+        tmpBox.lower(-4);
+        tmpBox.setLinearFactor(4, 1);
+        tmpBox.upper(12);
+
+        final Expression tmpFree = retVal.addExpression("Free");
+        tmpFree.setLinearFactor(6, 1);
+        tmpFree.setLinearFactor(0, -1);
+        tmpFree.lower(-15).upper(15);
+
+        final Expression tmpBalance = retVal.addExpression("Balance");
+        tmpBalance.setLinearFactor(3, 1);
+        tmpBalance.setLinearFactor(4, -1);
+        tmpBalance.setLinearFactor(1, 1);
+        tmpBalance.level(1 + tmpRandom.nextInt(4));
+
+        for (int i = 0; i < 3; i++) {
+            final Expression tmpExpression = retVal.addExpression("C" + i);
+            for (int j = 0; j < tmpVariables.length; j++) {
+                if (tmpRandom.nextDouble() < 0.6) {
+                    tmpExpression.setLinearFactor(j, 1 + Math.round(tmpRandom.nextDouble() * 5.0));
+                }
+            }
+            if ((i % 2) == 0) {
+                tmpExpression.upper(20 + tmpRandom.nextInt(20));
+            } else {
+                tmpExpression.lower(-10 + tmpRandom.nextInt(10));
+            }
+        }
+
+        retVal.setMaximisation();
+
+        return retVal;
+    }
+
+    public LinearRelaxationCase() {
+        super();
+    }
+
+    public LinearRelaxationCase(final String someName) {
+        super(someName);
+    }
+
+    public void testMixedVariables() {
+        for (long tmpSeed = 0L; tmpSeed < 50L; tmpSeed++) {
+            this.compareNodes("Seed " + tmpSeed, LinearRelaxationCase.makeMixedModel(tmpSeed), tmpSeed);
+        }
+    }
+
+    public void testVpm2() {
+        final ExpressionsBasedModel tmpModel = MathProgSysModel.make(new File(MipLibCase.PATH + "vpm2.mps")).getExpressionsBasedModel();
+        tmpModel.setMinimisation();
+        this.compareNodes("vpm2", tmpModel, 1L);
+    }
+
+    /**
+     * Dives down the tree, branching on a random fractional integer variable and taking a random branch,
+     * comparing both ways of solving each node. The relaxation is warm started from the parent's solution.
+     */
+    private void compareNodes(final String message, final ExpressionsBasedModel model, final long seed) {
+
+        final LinearRelaxation tmpRelaxation = LinearRelaxation.make(model);
+        TestUtils.assertTrue(message, tmpRelaxation != null);
+
+        final int[] tmpIntegerIndices = tmpRelaxation.getIntegerIndices();
+        final Random tmpRandom = new Random(seed);
+
+        NodeKey tmpNode = new NodeKey(model);
+        Optimisation.Result tmpParent = null;
+
+        for (int d = 0; d < 12; d++) {
+
+            final Optimisation.Result tmpActual = tmpRelaxation.solve(tmpNode, tmpParent, model.options);
+
+            final ExpressionsBasedModel tmpNodeModel = model.relax(false);
+            for (int i = 0; i < tmpIntegerIndices.length; i++) {
+                tmpNodeModel.getVariable(tmpIntegerIndices[i]).lower(tmpNode.getLowerBound(i)).upper(tmpNode.getUpperBound(i));
+            }
+            final Optimisation.Result tmpExpected = tmpNodeModel.solve(tmpNodeModel.getVariableValues());
+
+            final String tmpMessage = message + ", " + tmpNode;
+            TestUtils.assertEquals(tmpMessage, tmpExpected.getState().isFeasible(), tmpActual.getState().isFeasible());
+            if (!tmpExpected.getState().isFeasible()) {
+                return;
+            }
+
+            final double tmpExpectedValue = model.getObjectiveExpression().evaluate(tmpExpected).doubleValue();
+            final double tmpActualValue = model.getObjectiveExpression().evaluate(tmpActual).doubleValue();
+            TestUtils.assertEquals(tmpMessage, tmpExpectedValue, tmpActualValue, PRECISION);
+            TestUtils.assertTrue(tmpMessage, tmpRelaxation.validate(tmpNode, tmpActual, PRECISION));
+            TestUtils.assertTrue(tmpMessage, tmpNodeModel.validate(tmpActual, PRECISION));
+
+            int tmpBranch = -1;
+            int tmpCount = 0;
+            for (int i = 0; i < tmpIntegerIndices.length; i++) {
+                final double tmpValue = tmpActual.doubleValue(tmpIntegerIndices[i]);
+                if (PRECISION.isDifferent(Math.rint(tmpValue), tmpValue) && (tmpRandom.nextInt(++tmpCount) == 0)) {
+                    tmpBranch = i;
+                }
+            }
+            if (tmpBranch < 0) {
+                return;
+            }
+
+            final double tmpValue = tmpActual.doubleValue(tmpIntegerIndices[tmpBranch]);
+            if (tmpRandom.nextBoolean()) {
+                tmpNode = tmpNode.createLowerBranch(tmpBranch, tmpValue, tmpActualValue);
+            } else {
+                tmpNode = tmpNode.createUpperBranch(tmpBranch, tmpValue, tmpActualValue);
+            }
+            tmpParent = tmpActual;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Optimisation.Result;
+
+/**
+ * The parallel branch&amp;bound of {@linkplain NewIntegerSolver} - reproducible when
+ * {@linkplain Optimisation.Options#mip_deterministic}, and in agreement with {@linkplain OldIntegerSolver}.
+ *
+ * @author apete
+ */
+public class NewIntegerSolverCase extends OptimisationIntegerTests {
+
+    private static final int WORKERS = 4;
+
+    static ExpressionsBasedModel makeKnapsack(final long seed, final int items, final double maxWeight) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final KnapsackTest.KnapsackProblemBuilder tmpBuilder = new KnapsackTest.KnapsackProblemBuilder(maxWeight);
+        for (int i = 0; i < items; i++) {
+            tmpBuilder.addItem(10 + tmpRandom.nextInt(90), 10 + tmpRandom.nextInt(90));
+        }
+
+        return tmpBuilder.build();
+    }
+
+    public NewIntegerSolverCase() {
+        super();
+    }
+
+    public NewIntegerSolverCase(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * With a fixed number of workers the deterministic search evaluates the same nodes, and ends with the same
+     * solution, every time.
+     */
+    public void testDeterministic() {
+
+        final ExpressionsBasedModel tmpModel = NewIntegerSolverCase.makeKnapsack(1L, 20, 400.0);
+        tmpModel.options.mip_parallelism = WORKERS;
+        tmpModel.options.mip_deterministic = true;
+
+        final NewIntegerSolver tmpFirstSolver = new NewIntegerSolver(tmpModel, tmpModel.options);
+        final Result tmpFirst = tmpFirstSolver.solve(null);
+        TestUtils.assertStateNotLessThanOptimal(tmpFirst);
+
+        for (int r = 1; r < 5; r++) {
+
+            final NewIntegerSolver tmpSolver = new NewIntegerSolver(tmpModel, tmpModel.options);
+            final Result tmpResult = tmpSolver.solve(null);
+
+            final String tmpMessage = "Run " + r;
+            TestUtils.assertEquals(tmpMessage, tmpFirst.getState(), tmpResult.getState());
+            TestUtils.assertEquals(tmpMessage, tmpFirstSolver.countExploredNodes(), tmpSolver.countExploredNodes());
+            TestUtils.assertEquals(tmpMessage, tmpFirst.getValue(), tmpResult.getValue(), 0.0);
+            for (int i = 0; i < tmpModel.countVariables(); i++) {
+                TestUtils.assertEquals(tmpMessage, tmpFirst.doubleValue(i), tmpResult.doubleValue(i), 0.0);
+            }
+        }
+    }
+
+    public void testKnapsack() {
+        for (long tmpSeed = 0L; tmpSeed < 10L; tmpSeed++) {
+            this.compareWithOld("Seed " + tmpSeed, NewIntegerSolverCase.makeKnapsack(tmpSeed, 20, 400.0));
+        }
+    }
+
+    public void testMixedVariables() {
+        for (long tmpSeed = 0L; tmpSeed < 50L; tmpSeed++) {
+            this.compareWithOld("Seed " + tmpSeed, LinearRelaxationCase.makeMixedModel(tmpSeed));
+        }
+    }
+
+    public void testP20100412() {
+        final ExpressionsBasedModel tmpModel = OptimisationIntegerData.buildModelForP20100412();
+        tmpModel.setMaximisation();
+        this.compareWithOld("P20100412", tmpModel);
+    }
+
+    public void testP20130225() {
+        final ExpressionsBasedModel tmpModel = P20130225.makeModel();
+        tmpModel.setMinimisation();
+        this.compareWithOld("P20130225", tmpModel);
+    }
+
+    public void testP20150127() {
+        final ExpressionsBasedModel tmpModel = P20150127a.getModel();
+        tmpModel.setMinimisation();
+        this.compareWithOld("P20150127", tmpModel);
+    }
+
+    /**
+     * With a memory budget of only a few nodes some of the open nodes are spilled to file, and later brought back.
+     * That shouldn't change the result.
+     */
+    public void testSpill() {
+        for (final boolean tmpDeterministic : new boolean[] { true, false }) {
+
+            final ExpressionsBasedModel tmpModel = NewIntegerSolverCase.makeKnapsack(1L, 20, 400.0);
+            tmpModel.options.mip_parallelism = WORKERS;
+            tmpModel.options.mip_deterministic = tmpDeterministic;
+
+            final Result tmpExpected = new NewIntegerSolver(tmpModel, tmpModel.options).solve(null);
+
+            tmpModel.options.mip_memory = 2000L;
+            final Result tmpActual = new NewIntegerSolver(tmpModel, tmpModel.options).solve(null);
+
+            final String tmpMessage = "Deterministic " + tmpDeterministic;
+            TestUtils.assertStateNotLessThanOptimal(tmpActual);
+            TestUtils.assertTrue(tmpMessage, tmpModel.validate(tmpActual));
+            TestUtils.assertEquals(tmpMessage, tmpExpected.getValue(), tmpActual.getValue(), tmpModel.options.mip_gap * Math.abs(tmpExpected.getValue()));
+        }
+    }
+
+    /**
+     * Both solvers should reach the same optimal objective function value (within the MIP gap), but not
+     * necessarily the same solution.
+     */
+    private void compareWithOld(final String message, final ExpressionsBasedModel model) {
+
+        final Result tmpExpected = new OldIntegerSolver(model, model.options).solve(null);
+
+        model.options.mip_parallelism = WORKERS;
+        final Result tmpActual = new NewIntegerSolver(model, model.options).solve(null);
+
+        TestUtils.assertEquals(message, tmpExpected.getState().isFeasible(), tmpActual.getState().isFeasible());
+        if (tmpExpected.getState().isFeasible()) {
+
+            TestUtils.assertStateNotLessThanOptimal(tmpActual);
+            TestUtils.assertTrue(message, model.validate(tmpActual));
+
+            final double tmpExpectedValue = model.getObjectiveExpression().evaluate(tmpExpected).doubleValue();
+            final double tmpActualValue = model.getObjectiveExpression().evaluate(tmpActual).doubleValue();
+            TestUtils.assertEquals(message, tmpExpectedValue, tmpActualValue, model.options.mip_gap * Math.max(1.0, Math.abs(tmpExpectedValue)));
+        }
+    }
+
+}
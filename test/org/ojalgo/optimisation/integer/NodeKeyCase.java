@@ -0,0 +1,148 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.integer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+
+/**
+ * {@linkplain NodeKey} nodes written to, and read back from, a {@linkplain ByteBuffer} or a
+ * {@linkplain NodeSpill} file should be the same nodes.
+ *
+ * @author apete
+ */
+public class NodeKeyCase extends OptimisationIntegerTests {
+
+    /**
+     * The root node followed by a (random) chain of branches, each created from the previous node.
+     */
+    private static List<NodeKey> makeNodes(final ExpressionsBasedModel model, final long seed, final int count) {
+
+        final Random tmpRandom = new Random(seed);
+        final int tmpLength = model.getIntegerVariables().size();
+
+        final List<NodeKey> retVal = new ArrayList<>(count);
+
+        NodeKey tmpNode = new NodeKey(model);
+        retVal.add(tmpNode);
+
+        while (retVal.size() < count) {
+
+            final int tmpIndex = tmpRandom.nextInt(tmpLength);
+            final int tmpLower = tmpNode.lower(tmpIndex);
+            final int tmpUpper = tmpNode.upper(tmpIndex);
+
+            if (tmpLower < tmpUpper) {
+                final double tmpValue = tmpLower + (tmpRandom.nextDouble() * (tmpUpper - tmpLower));
+                final double tmpObjective = tmpRandom.nextDouble() * 100.0;
+                if (tmpRandom.nextBoolean()) {
+                    tmpNode = tmpNode.createLowerBranch(tmpIndex, tmpValue, tmpObjective);
+                } else {
+                    tmpNode = tmpNode.createUpperBranch(tmpIndex, tmpValue, tmpObjective);
+                }
+                retVal.add(tmpNode);
+            } else {
+                // Nothing left to branch on - start over from the root
+                tmpNode = retVal.get(0);
+            }
+        }
+
+        return retVal;
+    }
+
+    public NodeKeyCase() {
+        super();
+    }
+
+    public NodeKeyCase(final String someName) {
+        super(someName);
+    }
+
+    public void testEncodeDecode() {
+
+        final ExpressionsBasedModel tmpModel = LinearRelaxationCase.makeMixedModel(0L);
+        final List<NodeKey> tmpNodes = NodeKeyCase.makeNodes(tmpModel, 1L, 50);
+        final NodeKey tmpRoot = tmpNodes.get(0);
+
+        for (final NodeKey tmpNode : tmpNodes) {
+
+            final ByteBuffer tmpBuffer = ByteBuffer.allocate(tmpNode.encodedSize());
+            TestUtils.assertEquals(tmpNode.toString(), tmpNode.encodedSize(), tmpNode.encode(tmpBuffer));
+            TestUtils.assertEquals(tmpNode.toString(), tmpNode.encodedSize(), tmpBuffer.position());
+
+            tmpBuffer.flip();
+            this.assertSame(tmpModel, tmpNode, tmpRoot.decode(tmpBuffer));
+            TestUtils.assertEquals(tmpNode.toString(), 0, tmpBuffer.remaining());
+        }
+    }
+
+    /**
+     * The spill file is a stack - the nodes come back in reverse order.
+     */
+    public void testSpill() {
+
+        final ExpressionsBasedModel tmpModel = LinearRelaxationCase.makeMixedModel(0L);
+        final List<NodeKey> tmpNodes = NodeKeyCase.makeNodes(tmpModel, 2L, 200);
+
+        final NodeSpill tmpSpill = new NodeSpill();
+        try {
+
+            for (final NodeKey tmpNode : tmpNodes) {
+                TestUtils.assertTrue(tmpNode.toString(), tmpSpill.push(tmpNode));
+            }
+            TestUtils.assertEquals(tmpNodes.size(), tmpSpill.count());
+
+            for (int n = tmpNodes.size() - 1; n >= 0; n--) {
+                this.assertSame(tmpModel, tmpNodes.get(n), tmpSpill.pop());
+            }
+            TestUtils.assertTrue(tmpSpill.isEmpty());
+            TestUtils.assertTrue(tmpSpill.pop() == null);
+
+        } finally {
+            tmpSpill.close();
+        }
+    }
+
+    private void assertSame(final ExpressionsBasedModel model, final NodeKey expected, final NodeKey actual) {
+
+        final String tmpMessage = expected.toString();
+
+        TestUtils.assertEquals(tmpMessage, expected, actual);
+        TestUtils.assertTrue(tmpMessage, expected.sequence == actual.sequence);
+        TestUtils.assertTrue(tmpMessage, expected.parent == actual.parent);
+        TestUtils.assertEquals(tmpMessage, expected.index, actual.index);
+        // The root node's displacement and objective are NaN
+        TestUtils.assertTrue(tmpMessage, Double.compare(expected.displacement, actual.displacement) == 0);
+        TestUtils.assertTrue(tmpMessage, Double.compare(expected.objective, actual.objective) == 0);
+
+        for (int i = 0; i < model.getIntegerVariables().size(); i++) {
+            TestUtils.assertEquals(tmpMessage, expected.lower(i), actual.lower(i));
+            TestUtils.assertEquals(tmpMessage, expected.upper(i), actual.upper(i));
+        }
+    }
+
+}
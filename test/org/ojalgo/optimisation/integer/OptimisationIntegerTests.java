@@ -31,8 +31,11 @@ public abstract class OptimisationIntegerTests extends FunctionalityTest {
         //$JUnit-BEGIN$
         suite.addTestSuite(DesignCase.class);
         suite.addTestSuite(KnapsackTest.class);
+        suite.addTestSuite(LinearRelaxationCase.class);
         //suite.addTestSuite(LpsolveSemiContCase.class);
         suite.addTestSuite(MarketShareCase.class);
+        suite.addTestSuite(NewIntegerSolverCase.class);
+        suite.addTestSuite(NodeKeyCase.class);
         //suite.addTestSuite(MipCase.class);
         suite.addTestSuite(RelaxedLpCase.class);
         suite.addTestSuite(IntegerProblems.class);
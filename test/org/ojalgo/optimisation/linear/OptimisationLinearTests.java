@@ -35,6 +35,7 @@ public abstract class OptimisationLinearTests extends FunctionalityTest {
         suite.addTestSuite(LinearDesignTestCases.class);
         suite.addTestSuite(NetlibCase.class);
         suite.addTestSuite(LinearProblems.class);
+        suite.addTestSuite(RevisedSimplexCase.class);
         //$JUnit-END$
         return suite;
     }
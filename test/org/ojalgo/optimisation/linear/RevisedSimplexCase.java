@@ -0,0 +1,351 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.optimisation.linear;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.PrimitiveArray;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.optimisation.Expression;
+import org.ojalgo.optimisation.ExpressionsBasedModel;
+import org.ojalgo.optimisation.MathProgSysModel;
+import org.ojalgo.optimisation.Optimisation;
+import org.ojalgo.optimisation.Variable;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Solves the same problems with {@linkplain RevisedSimplexSolver} (by setting
+ * {@linkplain Optimisation.Options#sparse} to 0, or by re-solving a modified model) and
+ * {@linkplain SimplexTableauSolver}.
+ *
+ * @author apete
+ */
+public class RevisedSimplexCase extends OptimisationLinearTests {
+
+    private static final String PATH = "./test/org/ojalgo/optimisation/linear/";
+    private static final NumberContext PRECISION = new NumberContext(7, 6);
+
+    /**
+     * [A][x] &lt;= [b] and [x] &lt;= [u] in standard form, with slack variables. Rows with negative right hand
+     * sides are negated.
+     */
+    private static LinearSolver buildBounded(final MatrixStore<Double> A, final MatrixStore<Double> b, final MatrixStore<Double> u,
+            final MatrixStore<Double> c, final long sparse, final boolean warmStart) {
+
+        final int tmpCountConstraints = (int) A.countRows();
+        final int tmpCountVariables = (int) A.countColumns();
+
+        final PrimitiveDenseStore tmpAE = PrimitiveDenseStore.FACTORY.makeZero(tmpCountConstraints + tmpCountVariables,
+                tmpCountVariables + tmpCountConstraints + tmpCountVariables);
+        final PrimitiveDenseStore tmpBE = PrimitiveDenseStore.FACTORY.makeZero(tmpCountConstraints + tmpCountVariables, 1);
+
+        for (int i = 0; i < tmpCountConstraints; i++) {
+            final double tmpSign = b.doubleValue(i) < 0.0 ? -1.0 : 1.0;
+            for (int j = 0; j < tmpCountVariables; j++) {
+                tmpAE.set(i, j, tmpSign * A.doubleValue(i, j));
+            }
+            tmpAE.set(i, tmpCountVariables + i, tmpSign);
+            tmpBE.set(i, 0, tmpSign * b.doubleValue(i));
+        }
+        for (int j = 0; j < tmpCountVariables; j++) {
+            tmpAE.set(tmpCountConstraints + j, j, 1.0);
+            tmpAE.set(tmpCountConstraints + j, tmpCountVariables + tmpCountConstraints + j, 1.0);
+            tmpBE.set(tmpCountConstraints + j, 0, u.doubleValue(j));
+        }
+
+        final LinearSolver.Builder tmpBuilder = LinearSolver.getBuilder(c).equalities(tmpAE, tmpBE);
+        if (warmStart) {
+            tmpBuilder.warmStart();
+        }
+
+        final Optimisation.Options tmpOptions = new Optimisation.Options();
+        tmpOptions.sparse = sparse;
+
+        return tmpBuilder.build(tmpOptions);
+    }
+
+    private static ExpressionsBasedModel makeRandomModel(final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final int tmpCountVariables = 2 + tmpRandom.nextInt(5);
+        final int tmpCountExpressions = 1 + tmpRandom.nextInt(5);
+
+        final ExpressionsBasedModel retVal = new ExpressionsBasedModel();
+        for (int j = 0; j < tmpCountVariables; j++) {
+            final Variable tmpVariable = new Variable("X" + j).weight(Math.round((tmpRandom.nextDouble() * 10.0) - 2.0));
+            if (tmpRandom.nextDouble() < 0.8) {
+                tmpVariable.lower(tmpRandom.nextDouble() < 0.3 ? -2 : 0);
+            }
+            retVal.addVariable(tmpVariable.upper(1 + tmpRandom.nextInt(10)));
+        }
+
+        for (int i = 0; i < tmpCountExpressions; i++) {
+            final Expression tmpExpression = retVal.addExpression("C" + i);
+            for (int j = 0; j < tmpCountVariables; j++) {
+                if (tmpRandom.nextDouble() < 0.7) {
+                    tmpExpression.setLinearFactor(j, Math.round((tmpRandom.nextDouble() * 10.0) - 3.0));
+                }
+            }
+            final double tmpType = tmpRandom.nextDouble();
+            if (tmpType < 0.6) {
+                tmpExpression.upper(5 + tmpRandom.nextInt(20));
+            } else if (tmpType < 0.85) {
+                tmpExpression.lower(-5 + tmpRandom.nextInt(5)).upper(10 + tmpRandom.nextInt(10));
+            } else {
+                tmpExpression.lower(tmpRandom.nextInt(3));
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Tightens the upper limit of one variable and one expression, as the same random numbers dictate. The new
+     * limits are derived from the original model - the presolver may have changed the variable bounds of a
+     * model that was solved.
+     */
+    private static void tightenRandomModel(final ExpressionsBasedModel model, final long seed) {
+
+        final ExpressionsBasedModel tmpOriginal = RevisedSimplexCase.makeRandomModel(seed);
+        final Random tmpRandom = new Random(~seed);
+
+        final int tmpIndex = tmpRandom.nextInt(tmpOriginal.countVariables());
+        final Variable tmpVariable = tmpOriginal.getVariable(tmpIndex);
+        final double tmpUpper = tmpVariable.getUpperLimit().doubleValue();
+        final double tmpLower = tmpVariable.isLowerLimitSet() ? tmpVariable.getLowerLimit().doubleValue() : -5.0;
+        model.getVariable(tmpIndex).upper(BigDecimal.valueOf(Math.round((tmpLower + (tmpRandom.nextDouble() * (tmpUpper - tmpLower))) * 100.0)).movePointLeft(2));
+
+        final String tmpName = "C" + tmpRandom.nextInt(tmpOriginal.countExpressions());
+        final Expression tmpExpression = tmpOriginal.getExpression(tmpName);
+        final double tmpLimit = tmpExpression.isUpperLimitSet() ? tmpExpression.getUpperLimit().doubleValue() : 20.0;
+        model.getExpression(tmpName).upper(BigDecimal.valueOf(Math.round(tmpLimit * tmpRandom.nextDouble() * 100.0)).movePointLeft(2));
+    }
+
+    public RevisedSimplexCase() {
+        super();
+    }
+
+    public RevisedSimplexCase(final String someName) {
+        super(someName);
+    }
+
+    public void testNetlib() {
+        for (final String tmpName : new String[] { "adlittle", "afiro", "blend", "boeing2", "kb2", "sc50b", "share2b" }) {
+
+            final ExpressionsBasedModel tmpTableau = MathProgSysModel.make(new File(PATH + tmpName + ".mps")).getExpressionsBasedModel();
+            final ExpressionsBasedModel tmpRevised = MathProgSysModel.make(new File(PATH + tmpName + ".mps")).getExpressionsBasedModel();
+            tmpTableau.options.sparse = Long.MAX_VALUE;
+            tmpRevised.options.sparse = 0L;
+
+            final Optimisation.Result tmpExpected = tmpTableau.minimise();
+            final Optimisation.Result tmpActual = tmpRevised.minimise();
+
+            TestUtils.assertTrue(tmpName, tmpActual.getState().isOptimal());
+            TestUtils.assertEquals(tmpName, tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+            TestUtils.assertTrue(tmpName, tmpRevised.validate(PRECISION));
+        }
+    }
+
+    public void testRandomSparse() {
+
+        final int tmpRows = 60;
+        final int tmpColumns = 150;
+
+        final SparseStore tmpAE = SparseStore.FACTORY_CSR.makeZero(tmpRows, tmpColumns);
+        final Uniform tmpUniform = new Uniform();
+        for (int i = 0; i < tmpRows; i++) {
+            tmpAE.set(i, (i * tmpColumns) / tmpRows, 1.0 + tmpUniform.doubleValue());
+            for (int k = 0; k < 4; k++) {
+                tmpAE.set(i, Uniform.randomInteger(tmpColumns), tmpUniform.doubleValue());
+            }
+        }
+
+        final PrimitiveDenseStore tmpX = PrimitiveDenseStore.FACTORY.makeFilled(tmpColumns, 1, tmpUniform);
+        final MatrixStore<Double> tmpBE = tmpAE.multiply(tmpX);
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeFilled(tmpColumns, 1, new Uniform(0.1, 1.0));
+
+        final Optimisation.Options tmpTableauOptions = new Optimisation.Options();
+        tmpTableauOptions.sparse = Long.MAX_VALUE;
+        final LinearSolver tmpTableau = LinearSolver.getBuilder(tmpC).equalities(tmpAE, tmpBE).build(tmpTableauOptions);
+
+        final Optimisation.Options tmpRevisedOptions = new Optimisation.Options();
+        tmpRevisedOptions.sparse = 0L;
+        final LinearSolver tmpRevised = LinearSolver.getBuilder(tmpC).equalities(tmpAE, tmpBE).build(tmpRevisedOptions);
+
+        TestUtils.assertTrue(tmpTableau instanceof SimplexTableauSolver);
+        TestUtils.assertTrue(tmpRevised instanceof RevisedSimplexSolver);
+
+        final Optimisation.Result tmpExpected = tmpTableau.solve();
+        final Optimisation.Result tmpActual = tmpRevised.solve();
+
+        TestUtils.assertTrue(tmpActual.getState().isOptimal());
+        TestUtils.assertEquals(tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+        TestUtils.assertEquals(tmpBE, tmpAE.multiply(PrimitiveDenseStore.FACTORY.columns(tmpActual)), PRECISION);
+    }
+
+    /**
+     * Random small models are solved, then one variable bound and one constraint are tightened, and the models
+     * re-solved (warm started). That has to give the same result as solving the tightened models from scratch,
+     * with either solver.
+     */
+    public void testRandomWarmStart() {
+        for (long tmpSeed = 0L; tmpSeed < 400L; tmpSeed++) {
+
+            final ExpressionsBasedModel tmpWarm = RevisedSimplexCase.makeRandomModel(tmpSeed);
+            tmpWarm.maximise();
+            RevisedSimplexCase.tightenRandomModel(tmpWarm, tmpSeed);
+            final Optimisation.Result tmpActual = tmpWarm.maximise();
+
+            for (final long tmpSparse : new long[] { Long.MAX_VALUE, 0L }) {
+
+                final ExpressionsBasedModel tmpCold = RevisedSimplexCase.makeRandomModel(tmpSeed);
+                RevisedSimplexCase.tightenRandomModel(tmpCold, tmpSeed);
+                tmpCold.options.sparse = tmpSparse;
+                final Optimisation.Result tmpExpected = tmpCold.maximise();
+
+                final String tmpMessage = "Seed " + tmpSeed + ", sparse " + tmpSparse;
+                TestUtils.assertEquals(tmpMessage, tmpExpected.getState().isOptimal(), tmpActual.getState().isOptimal());
+                if (tmpExpected.getState().isOptimal()) {
+                    TestUtils.assertEquals(tmpMessage, tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+                    TestUtils.assertTrue(tmpMessage, tmpWarm.validate(PRECISION));
+                }
+            }
+        }
+    }
+
+    /**
+     * The same thing directly with the solvers, without the presolver: [A][x] + [s] = [b] with upper bounds
+     * on [x]. The warm started solver only gets the previous [x], and mostly continues with the dual simplex.
+     */
+    public void testRandomWarmStartSolver() {
+        for (long tmpSeed = 0L; tmpSeed < 400L; tmpSeed++) {
+
+            final Random tmpRandom = new Random(tmpSeed);
+
+            final int tmpCountVariables = 2 + tmpRandom.nextInt(7);
+            final int tmpCountConstraints = 1 + tmpRandom.nextInt(6);
+
+            final PrimitiveDenseStore tmpA = PrimitiveDenseStore.FACTORY.makeZero(tmpCountConstraints, tmpCountVariables);
+            final PrimitiveDenseStore tmpB = PrimitiveDenseStore.FACTORY.makeZero(tmpCountConstraints, 1);
+            final PrimitiveDenseStore tmpU = PrimitiveDenseStore.FACTORY.makeZero(tmpCountVariables, 1);
+            final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeZero(tmpCountVariables + tmpCountConstraints + tmpCountVariables, 1);
+            for (int i = 0; i < tmpCountConstraints; i++) {
+                for (int j = 0; j < tmpCountVariables; j++) {
+                    if (tmpRandom.nextDouble() < 0.7) {
+                        tmpA.set(i, j, Math.round((tmpRandom.nextDouble() * 10.0) - 3.0));
+                    }
+                }
+                tmpB.set(i, 0, tmpRandom.nextInt(25) - 3);
+            }
+            for (int j = 0; j < tmpCountVariables; j++) {
+                tmpU.set(j, 0, 1 + tmpRandom.nextInt(10));
+                tmpC.set(j, 0, -Math.round((tmpRandom.nextDouble() * 10.0) - 2.0));
+            }
+
+            final Optimisation.Result tmpFirst = RevisedSimplexCase.buildBounded(tmpA, tmpB, tmpU, tmpC, Long.MAX_VALUE, false).solve();
+            if (!tmpFirst.getState().isOptimal()) {
+                continue;
+            }
+
+            final int tmpVariable = tmpRandom.nextInt(tmpCountVariables);
+            tmpU.set(tmpVariable, 0, Math.round(tmpFirst.doubleValue(tmpVariable) * tmpRandom.nextDouble() * 100.0) / 100.0);
+            final int tmpConstraint = tmpRandom.nextInt(tmpCountConstraints);
+            tmpB.set(tmpConstraint, 0, Math.round((tmpB.doubleValue(tmpConstraint) - 1.0 - (tmpRandom.nextInt(20) * tmpRandom.nextDouble())) * 100.0) / 100.0);
+
+            final PrimitiveArray tmpKickStart = PrimitiveArray.make(tmpCountVariables);
+            for (int j = 0; j < tmpCountVariables; j++) {
+                tmpKickStart.set(j, tmpFirst.doubleValue(j));
+            }
+
+            final LinearSolver tmpWarm = RevisedSimplexCase.buildBounded(tmpA, tmpB, tmpU, tmpC, Long.MAX_VALUE, true);
+            TestUtils.assertTrue(tmpWarm instanceof RevisedSimplexSolver);
+            final Optimisation.Result tmpActual = tmpWarm.solve(new Optimisation.Result(Optimisation.State.INFEASIBLE, tmpKickStart));
+
+            final Optimisation.Result tmpExpected = RevisedSimplexCase.buildBounded(tmpA, tmpB, tmpU, tmpC, Long.MAX_VALUE, false).solve();
+
+            final String tmpMessage = "Seed " + tmpSeed;
+            TestUtils.assertEquals(tmpMessage, tmpExpected.getState().isOptimal(), tmpActual.getState().isOptimal());
+            if (tmpExpected.getState().isOptimal()) {
+                TestUtils.assertEquals(tmpMessage, tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+                double tmpViolation = 0.0;
+                for (int j = 0; j < tmpCountVariables; j++) {
+                    tmpViolation = Math.max(tmpViolation, Math.max(tmpActual.doubleValue(j) - tmpU.doubleValue(j), -tmpActual.doubleValue(j)));
+                }
+                for (int i = 0; i < tmpCountConstraints; i++) {
+                    double tmpActivity = 0.0;
+                    for (int j = 0; j < tmpCountVariables; j++) {
+                        tmpActivity += tmpA.doubleValue(i, j) * tmpActual.doubleValue(j);
+                    }
+                    tmpViolation = Math.max(tmpViolation, tmpActivity - tmpB.doubleValue(i));
+                }
+                TestUtils.assertEquals(tmpMessage, 0.0, tmpViolation, PRECISION);
+            }
+        }
+    }
+
+    /**
+     * Solve, tighten the bound on the (largest) variable and re-solve. The second solve is warm started from
+     * the first solution, and should match solving the modified model from scratch.
+     */
+    public void testWarmStart() {
+        for (final String tmpName : new String[] { "adlittle", "afiro", "blend", "kb2", "sc50b", "share2b" }) {
+
+            final ExpressionsBasedModel tmpWarm = MathProgSysModel.make(new File(PATH + tmpName + ".mps")).getExpressionsBasedModel();
+            final ExpressionsBasedModel tmpCold = MathProgSysModel.make(new File(PATH + tmpName + ".mps")).getExpressionsBasedModel();
+            tmpWarm.options.sparse = Long.MAX_VALUE;
+            tmpCold.options.sparse = Long.MAX_VALUE;
+
+            TestUtils.assertTrue(tmpName, tmpWarm.minimise().getState().isOptimal());
+
+            int tmpIndex = 0;
+            for (int i = 1; i < tmpWarm.countVariables(); i++) {
+                if (Math.abs(tmpWarm.getVariable(i).getValue().doubleValue()) > Math.abs(tmpWarm.getVariable(tmpIndex).getValue().doubleValue())) {
+                    tmpIndex = i;
+                }
+            }
+            final BigDecimal tmpValue = tmpWarm.getVariable(tmpIndex).getValue();
+            final BigDecimal tmpBound = tmpValue.multiply(new BigDecimal("0.9"));
+            if (tmpValue.signum() > 0) {
+                tmpWarm.getVariable(tmpIndex).upper(tmpBound);
+                tmpCold.getVariable(tmpIndex).upper(tmpBound);
+            } else {
+                tmpWarm.getVariable(tmpIndex).lower(tmpBound);
+                tmpCold.getVariable(tmpIndex).lower(tmpBound);
+            }
+
+            final Optimisation.Result tmpExpected = tmpCold.minimise();
+            final Optimisation.Result tmpActual = tmpWarm.minimise();
+
+            TestUtils.assertTrue(tmpName, tmpActual.getState().isOptimal());
+            TestUtils.assertEquals(tmpName, tmpExpected.getValue(), tmpActual.getValue(), PRECISION);
+            TestUtils.assertTrue(tmpName, tmpWarm.validate(PRECISION));
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.SplittableRandom;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+
+/**
+ * @author apete
+ */
+public class Random1DTest extends RandomTests {
+
+    private static PrimitiveDenseStore makeCorrelations(final int size) {
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(size, size);
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                retVal.set(i, j, Math.pow(HALF, Math.abs(i - j)));
+            }
+        }
+
+        return retVal;
+    }
+
+    public Random1DTest() {
+        super();
+    }
+
+    public Random1DTest(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * Correlating a block of vectors at once should be the same as correlating them one at the time.
+     */
+    public void testCorrelate() {
+
+        final int tmpSize = 37;
+        final int tmpCount = 64;
+
+        final Random1D tmpRandom = new Random1D(Random1DTest.makeCorrelations(tmpSize));
+        final Random1D.Generator tmpGenerator = tmpRandom.newGenerator(tmpCount);
+
+        final SplittableRandom tmpSource = new SplittableRandom(1L);
+        final double[] tmpBlock = new double[tmpSize * tmpCount];
+        for (int i = 0; i < tmpBlock.length; i++) {
+            tmpBlock[i] = RandomUtils.nextGaussian(tmpSource);
+        }
+        final double[] tmpOneByOne = tmpBlock.clone();
+
+        tmpGenerator.correlate(tmpBlock, 0, tmpCount - 3);
+        for (int r = 0; r < (tmpCount - 3); r++) {
+            tmpRandom.correlate(tmpOneByOne, r * tmpSize);
+        }
+
+        for (int i = 0; i < tmpBlock.length; i++) {
+            TestUtils.assertEquals(tmpOneByOne[i], tmpBlock[i], 1E-12);
+        }
+    }
+
+    /**
+     * The generated vectors should have the specified correlations.
+     */
+    public void testGenerator() {
+
+        final int tmpSize = 5;
+        final int tmpCount = 64;
+        final int tmpBlocks = 500;
+
+        final PrimitiveDenseStore tmpCorrelations = Random1DTest.makeCorrelations(tmpSize);
+        final Random1D.Generator tmpGenerator = new Random1D(tmpCorrelations).newGenerator(tmpCount);
+
+        final SplittableRandom tmpSource = new SplittableRandom(2L);
+        final double[] tmpBlock = new double[tmpSize * tmpCount];
+        final double[][] tmpSums = new double[tmpSize][tmpSize];
+
+        for (int b = 0; b < tmpBlocks; b++) {
+            tmpGenerator.nextGaussian(tmpSource, tmpBlock, 0, tmpCount);
+            for (int r = 0; r < tmpCount; r++) {
+                for (int i = 0; i < tmpSize; i++) {
+                    for (int j = 0; j < tmpSize; j++) {
+                        tmpSums[i][j] += tmpBlock[i + (r * tmpSize)] * tmpBlock[j + (r * tmpSize)];
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < tmpSize; i++) {
+            for (int j = 0; j < tmpSize; j++) {
+                TestUtils.assertEquals(tmpCorrelations.doubleValue(i, j), tmpSums[i][j] / (tmpBlocks * tmpCount), 0.03);
+            }
+        }
+    }
+
+}
@@ -23,10 +23,13 @@ package org.ojalgo.random;
 
 import static org.ojalgo.constant.PrimitiveMath.*;
 
+import java.util.SplittableRandom;
+
 import org.ojalgo.TestUtils;
 import org.ojalgo.array.ArrayUtils;
 import org.ojalgo.array.PrimitiveArray;
 import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.series.CalendarDateSeries;
 import org.ojalgo.type.TypeUtils;
 import org.ojalgo.type.context.NumberContext;
@@ -208,6 +211,47 @@ public class RandomNumberTest extends RandomTests {
         this.testDist2(new Dist2Erlang(), new double[] { 1, .01 }, new double[] { 5, 10 }, new double[] { 5, 100 }, 2500000, .05);
     }
 
+    /**
+     * The discrete distributions use alias tables, or closed form inverses, when filling - should still have
+     * the right mean and variance.
+     */
+    public void testFill() {
+
+        final RandomNumber[] tmpDistributions = new RandomNumber[] { new Poisson(0.5), new Poisson(30.0), new Poisson(900.0), new Binomial(40, 0.3),
+                new Binomial(5, 0.9), new Geometric(0.25), new Normal(-2.0, 3.0), new Gamma(0.5, 2.0), new Gamma(9.0, 0.5) };
+
+        final int tmpSamples = 100000;
+        final double[] tmpValues = new double[tmpSamples];
+
+        for (final RandomNumber tmpDistribution : tmpDistributions) {
+
+            tmpDistribution.fill(tmpValues);
+            final SampleSet tmpSampleSet = SampleSet.wrap(ArrayUtils.wrapAccess1D(tmpValues));
+
+            final double tmpStandardError = Math.sqrt(tmpDistribution.getVariance() / tmpSamples);
+            TestUtils.assertEquals(tmpDistribution.toString(), tmpDistribution.getExpected(), tmpSampleSet.getMean(), 4.0 * tmpStandardError);
+            TestUtils.assertEquals(tmpDistribution.toString(), ONE, tmpSampleSet.getVariance() / tmpDistribution.getVariance(), 0.05);
+        }
+
+        final SplittableRandom tmpRandom1 = new SplittableRandom(1L);
+        final SplittableRandom tmpRandom2 = new SplittableRandom(1L);
+        final double[] tmpValues1 = new double[100];
+        final double[] tmpValues2 = new double[100];
+        new Poisson(3.0).fill(tmpValues1, 0, 100, tmpRandom1);
+        new Poisson(3.0).fill(tmpValues2, 0, 100, tmpRandom2);
+        for (int i = 0; i < 100; i++) {
+            TestUtils.assertEquals(tmpValues1[i], tmpValues2[i]);
+        }
+
+        final PrimitiveDenseStore tmpStore = PrimitiveDenseStore.FACTORY.makeZero(10, 3);
+        new Uniform(ONE, ONE).fill(tmpStore, 1L);
+        for (int i = 0; i < 10; i++) {
+            TestUtils.assertEquals(ZERO, tmpStore.doubleValue(i, 0));
+            TestUtils.assertTrue(tmpStore.doubleValue(i, 1) >= ONE);
+            TestUtils.assertEquals(ZERO, tmpStore.doubleValue(i, 2));
+        }
+    }
+
     public void testGamma() {
         // TODO 15% error seems a little high
         this.testDist2(new Dist2Gamma(), new double[] { .01, .01 }, new double[] { 10, 10 }, new double[] { 100, 100 }, 200000, .15);
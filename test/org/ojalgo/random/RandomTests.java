@@ -39,7 +39,9 @@ public abstract class RandomTests extends FunctionalityTest {
         final TestSuite suite = new TestSuite(RandomTests.class.getPackage().getName());
         //$JUnit-BEGIN$
         suite.addTestSuite(QuantileTest.class);
+        suite.addTestSuite(Random1DTest.class);
         suite.addTestSuite(RandomNumberTest.class);
+        suite.addTestSuite(RunningStatisticsTest.class);
         //$JUnit-END$
         return suite;
     }
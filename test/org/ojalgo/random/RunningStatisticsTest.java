@@ -0,0 +1,95 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.TestUtils;
+
+/**
+ * @author apete
+ */
+public class RunningStatisticsTest extends RandomTests {
+
+    public RunningStatisticsTest() {
+        super();
+    }
+
+    public RunningStatisticsTest(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * With fewer than 5 values the quantiles are exact.
+     */
+    public void testFewValues() {
+
+        final RunningStatistics tmpStatistics = new RunningStatistics(ZERO, HALF, ONE);
+
+        tmpStatistics.invoke(THREE);
+        tmpStatistics.invoke(ONE);
+        tmpStatistics.invoke(TWO);
+
+        TestUtils.assertEquals(ONE, tmpStatistics.getQuantile(ZERO));
+        TestUtils.assertEquals(TWO, tmpStatistics.getQuantile(HALF));
+        TestUtils.assertEquals(THREE, tmpStatistics.getQuantile(ONE));
+        TestUtils.assertEquals(TWO, tmpStatistics.getMean());
+        TestUtils.assertEquals(ONE, tmpStatistics.getVariance());
+
+        tmpStatistics.reset();
+        TestUtils.assertEquals(0L, tmpStatistics.count());
+        TestUtils.assertTrue(Double.isNaN(tmpStatistics.getQuantile(HALF)));
+    }
+
+    /**
+     * Should match {@link SampleSet}, and the quantile estimates should be close to the empirical quantiles.
+     */
+    public void testNormal() {
+
+        final Normal tmpDistribution = new Normal(TEN, TWO);
+        final double[] tmpProbabilities = new double[] { 0.01, 0.05, HALF, 0.95, 0.99 };
+
+        final SampleSet tmpSamples = SampleSet.make(tmpDistribution, 100000);
+
+        final RunningStatistics tmpStatistics = new RunningStatistics(tmpProbabilities);
+        for (int i = 0; i < tmpSamples.size(); i++) {
+            tmpStatistics.invoke(tmpSamples.doubleValue(i));
+        }
+
+        TestUtils.assertEquals(tmpSamples.size(), tmpStatistics.count());
+        TestUtils.assertEquals(tmpSamples.getMean(), tmpStatistics.getMean(), 1E-10);
+        TestUtils.assertEquals(tmpSamples.getVariance(), tmpStatistics.getVariance(), 1E-8);
+        TestUtils.assertEquals(tmpSamples.getMinimum(), tmpStatistics.getMinimum(), ZERO);
+        TestUtils.assertEquals(tmpSamples.getMaximum(), tmpStatistics.getMaximum(), ZERO);
+
+        final double[] tmpSorted = tmpSamples.getValues();
+        Arrays.sort(tmpSorted);
+
+        for (final double tmpProbability : tmpProbabilities) {
+            final double tmpEmpirical = tmpSorted[(int) (tmpProbability * (tmpSorted.length - 1))];
+            TestUtils.assertEquals(tmpEmpirical, tmpStatistics.getQuantile(tmpProbability), 0.1);
+        }
+    }
+
+}
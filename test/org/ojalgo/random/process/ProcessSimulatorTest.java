@@ -0,0 +1,282 @@
+/*
+ * Copyright 1997-2015 Optimatika (www.optimatika.se)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.random.process;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.finance.portfolio.SimpleAsset;
+import org.ojalgo.finance.portfolio.simulator.PortfolioSimulator;
+import org.ojalgo.finance.portfolio.simulator.PortfolioSimulator.Sampling;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.HaltonSequence;
+import org.ojalgo.random.RandomUtils;
+import org.ojalgo.random.RunningStatistics;
+import org.ojalgo.random.SampleSet;
+import org.ojalgo.random.process.RandomProcess.SimulationResults;
+import org.ojalgo.series.primitive.PrimitiveSeries;
+import org.ojalgo.type.keyvalue.ComparableToDouble;
+
+/**
+ * @author apete
+ */
+public class ProcessSimulatorTest extends RandomProcessTests {
+
+    public ProcessSimulatorTest() {
+        super();
+    }
+
+    public ProcessSimulatorTest(final String someName) {
+        super(someName);
+    }
+
+    /**
+     * Bridge constructed increments from independent standard normals should themselves be independent
+     * standard normals.
+     */
+    public void testBrownianBridge() {
+
+        final int tmpSteps = 7;
+        final int tmpCount = 50000;
+
+        final BrownianBridge tmpBridge = new BrownianBridge(tmpSteps);
+        final HaltonSequence tmpSequence = new HaltonSequence(tmpSteps, 1L);
+
+        final double[] tmpNormals = new double[tmpSteps];
+        final double[] tmpIncrements = new double[tmpSteps];
+        final double[][] tmpSecondMoments = new double[tmpSteps][tmpSteps];
+
+        for (int i = 0; i < tmpCount; i++) {
+            tmpSequence.point(i, tmpNormals);
+            for (int d = 0; d < tmpSteps; d++) {
+                tmpNormals[d] = RandomUtils.probit(tmpNormals[d]);
+            }
+            tmpBridge.increments(tmpNormals, 0, 1, tmpIncrements);
+            for (int j = 0; j < tmpSteps; j++) {
+                for (int k = 0; k < tmpSteps; k++) {
+                    tmpSecondMoments[j][k] += tmpIncrements[j] * tmpIncrements[k];
+                }
+            }
+        }
+
+        for (int j = 0; j < tmpSteps; j++) {
+            for (int k = 0; k < tmpSteps; k++) {
+                TestUtils.assertEquals(j == k ? ONE : ZERO, tmpSecondMoments[j][k] / tmpCount, 0.02);
+            }
+        }
+    }
+
+    /**
+     * The simulated sample sets should match the process' distribution, and simulating must not change the
+     * process.
+     */
+    public void testGeometricBrownianMotion() {
+
+        final GeometricBrownianMotion tmpProcess = GeometricBrownianMotion.make(1.1, 0.04);
+        final double tmpValue = tmpProcess.getValue();
+
+        final SimulationResults tmpResults = tmpProcess.simulate(20000, 10, 0.1);
+
+        TestUtils.assertEquals(tmpValue, tmpProcess.getValue());
+        TestUtils.assertEquals(tmpValue, tmpResults.getInitialValue());
+        TestUtils.assertEquals(20000, tmpResults.countScenarios());
+        TestUtils.assertEquals(10, tmpResults.countSampleSets());
+
+        final SampleSet tmpLastStep = tmpResults.getSampleSet(9);
+        final double tmpStandardError = tmpProcess.getStandardDeviation(ONE) / Math.sqrt(tmpLastStep.size());
+        TestUtils.assertEquals(tmpProcess.getExpected(ONE), tmpLastStep.getMean(), FIVE * tmpStandardError);
+        TestUtils.assertEquals(tmpProcess.getStandardDeviation(ONE), tmpLastStep.getStandardDeviation(), 0.01);
+    }
+
+    /**
+     * A Gaussian process is not Markovian, and is simulated sequentially, but seeding should work the same.
+     */
+    public void testNonMarkovian() {
+
+        final GaussianProcess tmpProcess = new GaussianProcess(new GaussianField.Covariance<Double>() {
+
+            public void calibrate(final Collection<ComparableToDouble<Double>> observations, final GaussianField.Mean<Double> mean) {
+            }
+
+            public double invoke(final Double anArg1, final Double anArg2) {
+                return Math.exp(-Math.abs(anArg1 - anArg2));
+            }
+
+        });
+        tmpProcess.addObservation(ZERO, ONE);
+
+        final SimulationResults tmpResults1 = tmpProcess.simulate(10, 5, ONE, 7L);
+        final SimulationResults tmpResults2 = tmpProcess.simulate(10, 5, ONE, 7L);
+
+        TestUtils.assertEquals(1, tmpProcess.getObservations().size());
+        for (int s = 0; s < 5; s++) {
+            TestUtils.assertEquals(tmpResults1.getSampleSet(s).getMean(), tmpResults2.getSampleSet(s).getMean());
+        }
+    }
+
+    /**
+     * Same seed, same results - regardless of the number of threads.
+     */
+    public void testReproducible() {
+
+        final WienerProcess tmpProcess = new WienerProcess();
+
+        final int tmpParallelism = DivideAndConquer.getParallelism();
+
+        final SimulationResults tmpResults1 = tmpProcess.simulate(1000, 20, ONE, 123L);
+        DivideAndConquer.setParallelism(1);
+        final SimulationResults tmpResults2;
+        try {
+            tmpResults2 = tmpProcess.simulate(1000, 20, ONE, 123L);
+        } finally {
+            DivideAndConquer.setParallelism(tmpParallelism);
+        }
+        final SimulationResults tmpResults3 = tmpProcess.simulate(1000, 20, ONE, 321L);
+
+        TestUtils.assertEquals(ZERO, tmpProcess.getValue());
+
+        for (int r = 0; r < 1000; r += 99) {
+            for (int s = 0; s < 20; s++) {
+                TestUtils.assertEquals(tmpResults1.getScenario(r).value(s), tmpResults2.getScenario(r).value(s), ZERO);
+            }
+        }
+        TestUtils.assertTrue(tmpResults1.getSampleSet(19).getMean() != tmpResults3.getSampleSet(19).getMean());
+    }
+
+    public void testPortfolio() {
+
+        final List<GeometricBrownianMotion> tmpProcesses = new ArrayList<GeometricBrownianMotion>();
+        tmpProcesses.add(new SimpleAsset(0.05, 0.1, HALF).forecast());
+        tmpProcesses.add(new SimpleAsset(0.10, 0.2, HALF).forecast());
+
+        final PortfolioSimulator tmpSimulator = new PortfolioSimulator(PrimitiveDenseStore.FACTORY.makeEye(2, 2), tmpProcesses);
+
+        final SimulationResults tmpResults = tmpSimulator.simulate(20000, 12, ONE / TWELVE);
+        final SimulationResults tmpRebalanced = tmpSimulator.simulate(20000, 12, ONE / TWELVE, 1);
+
+        final double tmpInitialValue = tmpProcesses.get(0).getValue() + tmpProcesses.get(1).getValue();
+        TestUtils.assertEquals(tmpInitialValue, tmpResults.getInitialValue());
+
+        final double tmpExpected = tmpProcesses.get(0).getExpected(ONE) + tmpProcesses.get(1).getExpected(ONE);
+        TestUtils.assertEquals(tmpExpected, tmpResults.getSampleSet(11).getMean(), 0.005);
+        TestUtils.assertEquals(tmpExpected, tmpRebalanced.getSampleSet(11).getMean(), 0.005);
+    }
+
+    /**
+     * All sampling alternatives should give the correct expected value, and with the control variate (and no
+     * rebalancing) it is exact.
+     */
+    public void testPortfolioSampling() {
+
+        final List<GeometricBrownianMotion> tmpProcesses = new ArrayList<GeometricBrownianMotion>();
+        tmpProcesses.add(new SimpleAsset(0.05, 0.1, HALF).forecast());
+        tmpProcesses.add(new SimpleAsset(0.10, 0.2, HALF).forecast());
+
+        final double tmpExpected = tmpProcesses.get(0).getExpected(ONE) + tmpProcesses.get(1).getExpected(ONE);
+
+        final PortfolioSimulator tmpSimulator = new PortfolioSimulator(PrimitiveDenseStore.FACTORY.makeEye(2, 2), tmpProcesses).seed(42L);
+
+        for (final Sampling tmpSampling : Sampling.values()) {
+
+            tmpSimulator.sampling(tmpSampling);
+
+            tmpSimulator.controlVariate(false);
+            final SimulationResults tmpResults = tmpSimulator.simulate(4000, 12, ONE / TWELVE);
+            TestUtils.assertEquals(tmpSampling.name(), tmpExpected, tmpResults.getSampleSet(11).getMean(), 0.01);
+
+            final SimulationResults tmpRepeated = tmpSimulator.simulate(4000, 12, ONE / TWELVE);
+            TestUtils.assertEquals(tmpSampling.name(), tmpResults.getSampleSet(11).getMean(), tmpRepeated.getSampleSet(11).getMean(), ZERO);
+
+            tmpSimulator.controlVariate(true);
+            final SimulationResults tmpControlled = tmpSimulator.simulate(4000, 12, ONE / TWELVE);
+            TestUtils.assertEquals(tmpSampling.name(), tmpExpected, tmpControlled.getSampleSet(11).getMean(), 1E-10);
+
+            final SimulationResults tmpRebalanced = tmpSimulator.simulate(4000, 12, ONE / TWELVE, 1);
+            TestUtils.assertEquals(tmpSampling.name(), tmpExpected, tmpRebalanced.getSampleSet(11).getMean(), 0.01);
+        }
+    }
+
+    /**
+     * Streaming should produce the same realisations as when all results are kept - the statistics should
+     * match those calculated afterwards.
+     */
+    public void testStreaming() {
+
+        final GeometricBrownianMotion tmpProcess = GeometricBrownianMotion.make(1.1, 0.04);
+
+        final SimulationResults tmpResults = tmpProcess.simulate(5000, 10, 0.1, 99L);
+
+        final SimulationStatistics tmpStatistics = new SimulationStatistics(0.05, HALF);
+        final int tmpMaximum = tmpStatistics.addPayoff(new SimulationStatistics.Payoff() {
+
+            public double evaluate(final PrimitiveSeries scenario) {
+                double retVal = scenario.value(0);
+                for (int i = 1; i < scenario.size(); i++) {
+                    retVal = Math.max(retVal, scenario.value(i));
+                }
+                return retVal;
+            }
+
+        });
+        tmpProcess.simulate(5000, 10, 0.1, 99L, tmpStatistics);
+
+        TestUtils.assertEquals(tmpResults.countScenarios(), tmpStatistics.countScenarios());
+        TestUtils.assertEquals(tmpResults.countSampleSets(), tmpStatistics.countSampleSets());
+        TestUtils.assertEquals(tmpResults.getInitialValue(), tmpStatistics.getInitialValue());
+
+        for (int s = 0; s < 10; s++) {
+            final SampleSet tmpSampleSet = tmpResults.getSampleSet(s);
+            final RunningStatistics tmpSampleStatistics = tmpStatistics.getSampleStatistics(s);
+            TestUtils.assertEquals(tmpSampleSet.getMean(), tmpSampleStatistics.getMean(), 1E-12);
+            TestUtils.assertEquals(tmpSampleSet.getVariance(), tmpSampleStatistics.getVariance(), 1E-12);
+            TestUtils.assertEquals(tmpSampleSet.getMinimum(), tmpSampleStatistics.getMinimum(), ZERO);
+            TestUtils.assertEquals(tmpSampleSet.getMaximum(), tmpSampleStatistics.getMaximum(), ZERO);
+            TestUtils.assertEquals(tmpSampleSet.getMedian(), tmpSampleStatistics.getQuantile(HALF), 0.01);
+        }
+
+        double tmpExpectedMaximum = ZERO;
+        for (int r = 0; r < 5000; r++) {
+            final PrimitiveSeries tmpScenario = tmpResults.getScenario(r);
+            double tmpPathMaximum = tmpScenario.value(0);
+            for (int i = 1; i < tmpScenario.size(); i++) {
+                tmpPathMaximum = Math.max(tmpPathMaximum, tmpScenario.value(i));
+            }
+            tmpExpectedMaximum += tmpPathMaximum;
+        }
+        TestUtils.assertEquals(tmpExpectedMaximum / 5000, tmpStatistics.getPayoffStatistics(tmpMaximum).getMean(), 1E-12);
+
+        final PortfolioSimulator tmpSimulator = new PortfolioSimulator(null, Collections.singletonList(tmpProcess)).controlVariate(true);
+        try {
+            tmpSimulator.simulate(100, 10, 0.1, new SimulationStatistics());
+            TestUtils.fail("The control variate can't be streamed!");
+        } catch (final IllegalStateException exception) {
+            // Expected
+        }
+    }
+
+}
@@ -41,6 +41,7 @@ public abstract class RandomProcessTests extends FunctionalityTest {
         suite.addTestSuite(GaussianProcessTest.class);
         suite.addTestSuite(GeometricBrownianMotionTest.class);
         suite.addTestSuite(MultidimensionalSimulatorTest.class);
+        suite.addTestSuite(ProcessSimulatorTest.class);
         //$JUnit-END$
         return suite;
     }